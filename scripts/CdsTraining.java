@@ -0,0 +1,166 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Training run of the {@code fast-start} profile. Extracts the Boot jar into {@code <output-dir>}
+ * (an application jar plus {@code lib/}, the layout AppCDS needs), serves synthetic users from an
+ * in-process stub of the upstream API, starts the AOT-processed application against it with
+ * {@code -XX:ArchiveClassesAtExit}, waits until the startup warm-up has made it ready, sends a few
+ * requests over HTTP and stops it gracefully so that the JVM writes {@code application.jsa}.
+ * <p>
+ * Usage: {@code java scripts/CdsTraining.java <boot-jar> <output-dir>}. Start the application
+ * from {@code <output-dir>} with the same relative jar path, as the archive records the class path.
+ */
+public class CdsTraining {
+
+    static final String ARCHIVE = "application.jsa";
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+    private static final String[] FIRST_NAMES = {"Emily", "Michael", "Sophia", "James", "Emma", "Olivia", "Liam"};
+    private static final String[] LAST_NAMES = {"Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller"};
+    private static final String[] CITIES = {"Phoenix", "Houston", "Seattle", "Denver", "Columbus"};
+    private static final String[] DEPARTMENTS = {"Engineering", "Support", "Marketing", "Legal", "Training"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: java scripts/CdsTraining.java <boot-jar> <output-dir>");
+            System.exit(2);
+        }
+        Path bootJar = Path.of(args[0]).toAbsolutePath();
+        Path output = Path.of(args[1]).toAbsolutePath();
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        deleteRecursively(output);
+        run(new ProcessBuilder(java, "-Djarmode=tools", "-jar", bootJar.toString(), "extract",
+                "--destination", output.toString()), Duration.ofMinutes(1));
+
+        HttpServer upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        byte[] users = users(100).getBytes(StandardCharsets.UTF_8);
+        upstream.createContext("/users", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, users.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(users);
+            }
+        });
+        upstream.start();
+
+        int port = freePort();
+        Process app = new ProcessBuilder(java, "-Xmx512m", "-XX:ArchiveClassesAtExit=" + ARCHIVE,
+                "-Xlog:cds=error", "-Dspring.aot.enabled=true", "-jar", bootJar.getFileName().toString(),
+                "--server.port=" + port,
+                "--external.api.dummyjson.url=http://127.0.0.1:" + upstream.getAddress().getPort(),
+                "--users.warmup.iterations=100")
+                .directory(output.toFile())
+                .inheritIO()
+                .start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + port;
+            awaitReady(client, base, app);
+            for (String path : List.of("/api/users", "/api/users?page=2&size=5&name=em",
+                    "/api/users?department=Engineering&minAge=30&explain=true", "/api/users/facets?facet=city",
+                    "/api/users/suggest?prefix=so", "/actuator/health", "/actuator/prometheus")) {
+                get(client, base + path, "application/json");
+            }
+            get(client, base + "/api/users", "application/cbor");
+            get(client, base + "/api/users", "application/x-jackson-smile");
+        } finally {
+            app.destroy();
+            if (!app.waitFor(1, TimeUnit.MINUTES)) {
+                app.destroyForcibly();
+            }
+            upstream.stop(0);
+        }
+
+        Path archive = output.resolve(ARCHIVE);
+        if (!Files.isRegularFile(archive)) {
+            throw new IllegalStateException("The training run did not write " + archive);
+        }
+        System.out.printf("Wrote %s (%d KB)%n", archive, Files.size(archive) / 1024);
+    }
+
+    private static void awaitReady(HttpClient client, String base, Process app) throws Exception {
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!app.isAlive()) {
+                throw new IllegalStateException("The application exited with " + app.exitValue());
+            }
+            try {
+                if (get(client, base + "/actuator/health/readiness", "application/json") == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("The application was not ready within " + READY_TIMEOUT);
+    }
+
+    private static int get(HttpClient client, String url, String accept) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).header("Accept", accept).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String users(int count) {
+        StringBuilder json = new StringBuilder("{\"users\":[");
+        for (int i = 1; i <= count; i++) {
+            String first = FIRST_NAMES[i % FIRST_NAMES.length];
+            String last = LAST_NAMES[i % LAST_NAMES.length];
+            json.append(i == 1 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"id\":%d,\"firstName\":\"%s\",\"lastName\":\"%s\",\"age\":%d,\"email\":\"%s.%s%d@example.com\","
+                            + "\"bloodGroup\":\"O+\",\"height\":%d,\"weight\":%.1f,\"eyeColor\":\"Green\","
+                            + "\"hair\":{\"color\":\"Brown\",\"type\":\"Wavy\"},"
+                            + "\"address\":{\"city\":\"%s\",\"state\":\"Texas\",\"stateCode\":\"TX\","
+                            + "\"coordinates\":{\"lat\":%.4f,\"lng\":%.4f},\"country\":\"United States\"},"
+                            + "\"company\":{\"department\":\"%s\",\"name\":\"Company %d\",\"title\":\"Engineer\"}}",
+                    i, first, last, 20 + i % 45, first.toLowerCase(Locale.ROOT), last.toLowerCase(Locale.ROOT), i,
+                    150 + i % 50, 50 + i % 40 + 0.5, CITIES[i % CITIES.length], 25 + i % 20 + 0.25,
+                    -120 + i % 40 + 0.5, DEPARTMENTS[i % DEPARTMENTS.length], i % 10));
+        }
+        return json.append("],\"total\":").append(count).append(",\"skip\":0,\"limit\":").append(count)
+                .append('}').toString();
+    }
+
+    private static void run(ProcessBuilder command, Duration timeout) throws Exception {
+        Process process = command.inheritIO().start();
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS) || process.exitValue() != 0) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Failed: " + String.join(" ", command.command()));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares startup time with and without the {@code fast-start} profile's optimizations. Each
+ * variant starts the application with {@code spring.context.exit=onRefresh}, which stops it as
+ * soon as the context, including the web server, is up; the wall-clock time of the whole process
+ * is measured. Variants are run in turn {@code runs} times (default 5) after one untimed round,
+ * and the median and minimum are printed.
+ * <p>
+ * Usage, after {@code mvn package -Pfast-start}: {@code java scripts/StartupTime.java [runs]}
+ */
+public class StartupTime {
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path target = Path.of("target").toAbsolutePath();
+        Path fastStart = target.resolve("fast-start");
+        Path bootJar;
+        try (var jars = Files.list(target)) {
+            bootJar = jars.filter(path -> path.getFileName().toString().endsWith(".jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Run mvn package -Pfast-start first"));
+        }
+        String jar = bootJar.getFileName().toString();
+        if (!Files.isRegularFile(fastStart.resolve("application.jsa"))) {
+            throw new IllegalStateException("Run mvn package -Pfast-start first");
+        }
+
+        List<Variant> variants = List.of(
+                new Variant("Boot jar", target, List.of("-jar", jar)),
+                new Variant("Extracted", fastStart, List.of("-jar", jar)),
+                new Variant("Extracted + AOT", fastStart, List.of("-Dspring.aot.enabled=true", "-jar", jar)),
+                new Variant("Extracted + AOT + CDS", fastStart, List.of("-XX:SharedArchiveFile=application.jsa",
+                        "-Dspring.aot.enabled=true", "-jar", jar)));
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        long[][] millis = new long[variants.size()][runs];
+        for (int run = -1; run < runs; run++) {
+            for (int i = 0; i < variants.size(); i++) {
+                long elapsed = start(java, variants.get(i));
+                if (run >= 0) {
+                    millis[i][run] = elapsed;
+                }
+            }
+        }
+
+        System.out.printf("%nStartup until the context is refreshed, %d runs each%n", runs);
+        System.out.printf("| %-22s | %10s | %10s |%n", "Variant", "Median ms", "Min ms");
+        for (int i = 0; i < variants.size(); i++) {
+            Arrays.sort(millis[i]);
+            System.out.printf("| %-22s | %10d | %10d |%n", variants.get(i).name(), millis[i][runs / 2], millis[i][0]);
+        }
+    }
+
+    private static long start(String java, Variant variant) throws Exception {
+        List<String> command = new ArrayList<>(List.of(java, "-Xmx512m", "-Dspring.context.exit=onRefresh"));
+        command.addAll(variant.options());
+        command.addAll(List.of("--server.port=0", "--users.warmup.enabled=false", "--logging.level.root=WARN"));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(variant.directory().toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        if (!process.waitFor(2, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            throw new IllegalStateException(variant.name() + " did not start within 2 minutes");
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException(variant.name() + " exited with " + process.exitValue());
+        }
+        return elapsed;
+    }
+
+    private record Variant(String name, Path directory, List<String> options) {
+    }
+}
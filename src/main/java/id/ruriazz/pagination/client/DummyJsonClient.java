@@ -1,57 +1,69 @@
 package id.ruriazz.pagination.client;
 
 import id.ruriazz.pagination.dto.DummyJsonResponse;
+import id.ruriazz.pagination.exception.LogThrottle;
+import id.ruriazz.pagination.exception.UpstreamException;
+import id.ruriazz.pagination.metrics.PipelineStage;
+import id.ruriazz.pagination.metrics.UpstreamOutcome;
+import id.ruriazz.pagination.metrics.UserMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 
+import java.time.Duration;
+
 @Slf4j
 @Component
 public class DummyJsonClient {
 
     private final RestTemplate restTemplate;
     private final String baseUrl;
+    private final UserMetrics userMetrics;
+    private final LogThrottle logThrottle = new LogThrottle(Duration.ofSeconds(10));
 
-    public DummyJsonClient(@Value("${external.api.dummyjson.url:https://dummyjson.com}") String baseUrl) {
+    public DummyJsonClient(@Value("${external.api.dummyjson.url:https://dummyjson.com}") String baseUrl,
+            UserMetrics userMetrics) {
         this.restTemplate = new RestTemplate();
+        this.restTemplate.getInterceptors().add(new UpstreamFetchInterceptor());
         this.baseUrl = baseUrl;
+        this.userMetrics = userMetrics;
     }
 
-    @Cacheable(value = "users", unless = "#result == null")
     public DummyJsonResponse fetchAllUsers() {
         String url = baseUrl + "/users?limit=100";
 
+        DummyJsonResponse response;
         try {
             log.info("Fetching users from external API: {}", url);
-            DummyJsonResponse response = restTemplate.getForObject(url, DummyJsonResponse.class);
-
-            if (response == null || response.getUsers() == null) {
-                log.error("Received null response from external API");
-                throw new RuntimeException("Invalid response from external API");
-            }
-
-            log.info("Successfully fetched {} users from external API", response.getUsers().size());
-            return response;
-
+            response = userMetrics.time(PipelineStage.FETCH,
+                    () -> restTemplate.getForObject(url, DummyJsonResponse.class));
         } catch (ResourceAccessException e) {
-            log.error("Network error while calling external API: {}", e.getMessage());
-            throw new RuntimeException("External API is unreachable", e);
+            throw failure(UpstreamOutcome.NETWORK_ERROR, "External API is unreachable", e);
         } catch (RestClientException e) {
-            log.error("Error calling external API: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch data from external API", e);
-        } catch (RuntimeException e) {
-            if ("Invalid response from external API".equals(e.getMessage())) {
-                throw e;
-            }
-            log.error("Unexpected error while calling external API: {}", e.getMessage());
-            throw new RuntimeException("Unexpected error occurred", e);
+            throw failure(UpstreamOutcome.HTTP_ERROR, "Failed to fetch data from external API", e);
         } catch (Exception e) {
-            log.error("Unexpected error while calling external API: {}", e.getMessage());
-            throw new RuntimeException("Unexpected error occurred", e);
+            throw failure(UpstreamOutcome.UNEXPECTED_ERROR, "Unexpected error occurred", e);
+        }
+
+        if (response == null || response.getUsers() == null) {
+            throw failure(UpstreamOutcome.INVALID_RESPONSE, "Invalid response from external API", null);
+        }
+
+        log.info("Successfully fetched {} users from external API", response.getUsers().size());
+        userMetrics.recordUpstream(UpstreamOutcome.SUCCESS);
+        return response;
+    }
+
+    private UpstreamException failure(UpstreamOutcome outcome, String message, Exception cause) {
+        userMetrics.recordUpstream(outcome);
+        long suppressed = logThrottle.acquire(outcome);
+        if (suppressed >= 0) {
+            log.error("External API call failed ({}): {}{}", outcome, cause == null ? message : cause.getMessage(),
+                    LogThrottle.suppressed(suppressed));
         }
+        return new UpstreamException(outcome, message, cause);
     }
 }
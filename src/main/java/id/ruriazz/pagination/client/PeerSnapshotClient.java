@@ -0,0 +1,69 @@
+package id.ruriazz.pagination.client;
+
+import id.ruriazz.pagination.dto.SnapshotPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Pulls the compressed users snapshot from the {@code /internal/snapshot} endpoint of the
+ * configured peer nodes, trying them in order.
+ */
+@Slf4j
+@Component
+public class PeerSnapshotClient {
+
+    private final RestTemplate restTemplate;
+    private final List<String> peerUrls;
+
+    public PeerSnapshotClient(@Value("${users.peers.urls:}") List<String> peerUrls,
+            @Value("${users.peers.timeout:2s}") Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.peerUrls = peerUrls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .toList();
+    }
+
+    public boolean hasPeers() {
+        return !peerUrls.isEmpty();
+    }
+
+    /**
+     * Returns the snapshot of the first peer that serves one of at least {@code minVersion}.
+     */
+    public Optional<SnapshotPayload> fetchSnapshot(long minVersion) {
+        for (String peer : peerUrls) {
+            String url = peer + "/internal/snapshot?minVersion=" + minVersion;
+            try {
+                ResponseEntity<byte[]> response = restTemplate.getForEntity(url, byte[].class);
+                String version = response.getHeaders().getFirst(SnapshotPayload.VERSION_HEADER);
+                if (response.getBody() == null || version == null) {
+                    log.warn("Peer {} returned an incomplete users snapshot", peer);
+                    continue;
+                }
+                log.info("Fetched users snapshot version {} from peer {} ({} bytes)",
+                        version, peer, response.getBody().length);
+                return Optional.of(new SnapshotPayload(Long.parseLong(version), response.getBody()));
+            } catch (HttpClientErrorException.NotFound e) {
+                log.debug("Peer {} has no users snapshot of at least version {}", peer, minVersion);
+            } catch (RestClientException | NumberFormatException e) {
+                log.warn("Failed to fetch users snapshot from peer {}: {}", peer, e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -1,17 +1,100 @@
 package id.ruriazz.pagination.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Every cache is bounded by the estimated bytes of its entries (see {@link CacheWeights}) rather
+ * than by an entry count: {@code users.cache.budget} is split between the caches by their
+ * {@code users.cache.*-share}, so {@code spring.cache.caffeine.spec} must not set a size or weight
+ * bound of its own. Statistics are always recorded, whether or not the spec asks for them. Only the
+ * caches declared here exist.
+ */
+@Slf4j
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("users");
+    public CacheManager cacheManager(
+            @Value("${spring.cache.caffeine.spec:expireAfterWrite=10m}") String spec,
+            @Value("${users.cache.budget:64MB}") DataSize budget,
+            @Value("${users.cache.users-share:0.75}") double usersShare,
+            @Value("${users.cache.facets-share:0.25}") double facetsShare,
+            UserMetrics userMetrics) {
+        if (usersShare < 0 || facetsShare < 0 || usersShare + facetsShare > 1) {
+            throw new IllegalArgumentException("users.cache shares must not be negative and must not add up to more than 1");
+        }
+        Set<String> specKeys = specKeys(spec);
+        long usersBytes = (long) (budget.toBytes() * usersShare);
+        long facetsBytes = (long) (budget.toBytes() * facetsShare);
+
+        // The snapshot is the only entry of its cache, so a size eviction means it is heavier
+        // than the whole limit and every request will load it again.
+        Caffeine<Object, Object> usersBuilder = Caffeine.from(spec)
+                .maximumWeight(usersBytes)
+                .weigher((key, value) -> CacheWeights.of(value))
+                .evictionListener((key, value, cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        log.warn("Users snapshot of {} bytes exceeds the users cache limit and is not retained",
+                                CacheWeights.of(value));
+                    }
+                });
+        if (!specKeys.contains("recordStats")) {
+            usersBuilder.recordStats();
+        }
+        Cache<Object, Object> users = usersBuilder.build();
+        Cache<Object, Object> facets = Caffeine.newBuilder()
+                .maximumWeight(facetsBytes)
+                .weigher((key, value) -> CacheWeights.of(value))
+                .recordStats()
+                .build();
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache("users", users);
+        cacheManager.registerCustomCache("facets", facets);
+        cacheManager.setCacheNames(List.of());
+        userMetrics.registerCache("users", () -> maximumWeight(users), () -> weightedSize(users));
+        userMetrics.registerCache("facets", () -> maximumWeight(facets), () -> weightedSize(facets));
+        return cacheManager;
+    }
+
+    /**
+     * Returns the option names of the spec, rejecting the size bounds that {@code users.cache.budget} replaces.
+     */
+    private static Set<String> specKeys(String spec) {
+        Set<String> keys = new HashSet<>();
+        for (String option : spec.split(",")) {
+            String key = option.split("=", 2)[0].trim();
+            if (key.equals("maximumSize") || key.equals("maximumWeight")) {
+                throw new IllegalArgumentException("spring.cache.caffeine.spec must not set " + key
+                        + "; the caches are bounded by users.cache.budget");
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static long maximumWeight(Cache<?, ?> cache) {
+        return cache.policy().eviction().map(Policy.Eviction::getMaximum).orElse(0L);
+    }
+
+    private static long weightedSize(Cache<?, ?> cache) {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package id.ruriazz.pagination.config;
+
+import id.ruriazz.pagination.dto.FacetResponse;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+
+import java.util.Map;
+
+/**
+ * Estimated retained bytes of cache values, used as Caffeine weights. A snapshot weighs what its
+ * store takes in the off-heap layout, which is close to both the heap and the off-heap footprint;
+ * its derived indexes and the older versions belong to the snapshot history and are reported by the
+ * {@code users.snapshot.history.weight} gauge instead. Facet counts weigh their map entries, strings
+ * and boxed counts.
+ */
+final class CacheWeights {
+
+    static final int ENTRY_BYTES = 64;
+    private static final int MAP_ENTRY_BYTES = 48;
+    private static final int STRING_BYTES = 40;
+    private static final int LONG_BYTES = 16;
+
+    private CacheWeights() {
+    }
+
+    static int of(Object value) {
+        long bytes = ENTRY_BYTES;
+        if (value instanceof UserSnapshot snapshot) {
+            bytes += snapshot.store().encodedLength();
+        } else if (value instanceof FacetResponse response && response.getFacets() != null) {
+            for (Map.Entry<String, Map<String, Long>> facet : response.getFacets().entrySet()) {
+                bytes += MAP_ENTRY_BYTES + STRING_BYTES + facet.getKey().length();
+                for (String name : facet.getValue().keySet()) {
+                    bytes += MAP_ENTRY_BYTES + STRING_BYTES + name.length() + LONG_BYTES;
+                }
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+}
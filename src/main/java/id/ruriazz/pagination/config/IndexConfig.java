@@ -0,0 +1,42 @@
+package id.ruriazz.pagination.config;
+
+import id.ruriazz.pagination.index.FilterIndex;
+import id.ruriazz.pagination.index.NameGramIndex;
+import id.ruriazz.pagination.index.NameTrie;
+import id.ruriazz.pagination.index.SnapshotStatistics;
+import id.ruriazz.pagination.index.SpatialIndex;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The indexes built for every served snapshot.
+ */
+@Configuration
+public class IndexConfig {
+
+    @Bean
+    public DerivedIndexFactory<FilterIndex> filterIndexFactory() {
+        return FilterIndex.FACTORY;
+    }
+
+    @Bean
+    public DerivedIndexFactory<SpatialIndex> spatialIndexFactory() {
+        return SpatialIndex.FACTORY;
+    }
+
+    @Bean
+    public DerivedIndexFactory<NameTrie> nameTrieFactory() {
+        return NameTrie.FACTORY;
+    }
+
+    @Bean
+    public DerivedIndexFactory<NameGramIndex> nameGramIndexFactory() {
+        return NameGramIndex.FACTORY;
+    }
+
+    @Bean
+    public DerivedIndexFactory<SnapshotStatistics> snapshotStatisticsFactory() {
+        return SnapshotStatistics.FACTORY;
+    }
+}
@@ -0,0 +1,45 @@
+package id.ruriazz.pagination.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import id.ruriazz.pagination.metrics.TimedCborHttpMessageConverter;
+import id.ruriazz.pagination.metrics.TimedJacksonHttpMessageConverter;
+import id.ruriazz.pagination.metrics.TimedSmileHttpMessageConverter;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+            ObjectMapper objectMapper, UserMetrics userMetrics) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, userMetrics);
+    }
+
+    /**
+     * Served for {@code Accept: application/cbor}, with the same Jackson settings as JSON. Replacing
+     * the default CBOR converter keeps it behind JSON, so wildcard {@code Accept} headers still get JSON.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder, UserMetrics userMetrics) {
+        return new TimedCborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build(), userMetrics);
+    }
+
+    /**
+     * Served for {@code Accept: application/x-jackson-smile}, likewise.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder, UserMetrics userMetrics) {
+        return new TimedSmileHttpMessageConverter(objectMapperBuilder.factory(new SmileFactory()).build(),
+                userMetrics);
+    }
+}
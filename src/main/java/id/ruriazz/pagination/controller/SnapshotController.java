@@ -0,0 +1,34 @@
+package id.ruriazz.pagination.controller;
+
+import id.ruriazz.pagination.dto.SnapshotPayload;
+import id.ruriazz.pagination.snapshot.SnapshotExporter;
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Internal endpoint used by peer nodes to replicate the users snapshot. Not routed by nginx.
+ */
+@Hidden
+@RestController
+@RequestMapping("/internal/snapshot")
+@RequiredArgsConstructor
+public class SnapshotController {
+
+    private final SnapshotExporter snapshotExporter;
+
+    @GetMapping("")
+    public ResponseEntity<byte[]> getSnapshot(@RequestParam(defaultValue = "0") long minVersion) {
+        return snapshotExporter.export(minVersion)
+                .map(payload -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(SnapshotPayload.CONTENT_TYPE))
+                        .header(SnapshotPayload.VERSION_HEADER, Long.toString(payload.getVersion()))
+                        .body(payload.getData()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
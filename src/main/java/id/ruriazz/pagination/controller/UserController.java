@@ -1,7 +1,11 @@
 package id.ruriazz.pagination.controller;
 
+import id.ruriazz.pagination.dto.FacetResponse;
 import id.ruriazz.pagination.dto.PaginationResponse;
+import id.ruriazz.pagination.dto.SuggestResponse;
+import id.ruriazz.pagination.dto.UserFilter;
 import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.service.UserChangeFeed;
 import id.ruriazz.pagination.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,11 +13,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
-@Slf4j
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -21,12 +28,14 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserChangeFeed userChangeFeed;
 
     @GetMapping("")
-    @Operation(summary = "Get paginated users", description = "Retrieve users with pagination and optional name filtering")
+    @Operation(summary = "Get paginated users", description = "Retrieve users with pagination, optional name filtering and attribute or range filters")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved users"),
             @ApiResponse(responseCode = "400", description = "Invalid pagination parameters"),
+            @ApiResponse(responseCode = "410", description = "Requested snapshot version is no longer available"),
             @ApiResponse(responseCode = "500", description = "External API unreachable or internal server error")
     })
     public ResponseEntity<PaginationResponse<User>> getUsers(
@@ -34,14 +43,50 @@ public class UserController {
 
             @Parameter(description = "Number of items per page", example = "10") @RequestParam(defaultValue = "10") int size,
 
-            @Parameter(description = "Filter users by name (first name or last name)", example = "John") @RequestParam(required = false) String name) {
-        log.info("GET /api/users - page: {}, size: {}, name: {}", page, size, name);
+            @Parameter(description = "Filter users by name (first name or last name)", example = "John") @RequestParam(required = false) String name,
+
+            @Parameter(description = "Snapshot version to read, taken from the snapshotVersion of an earlier page") @RequestParam(required = false) Long asOf,
+
+            @Parameter(description = "Include the query plan chosen for the filters in the response") @RequestParam(defaultValue = "false") boolean explain,
+
+            @ParameterObject UserFilter filter) {
+        return ResponseEntity.ok(userService.getUsers(page, size, name, filter, asOf, explain));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Count users per facet value", description = "Count the users matching the filters per value of each requested facet, computed from the snapshot's bitmap indexes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully counted users"),
+            @ApiResponse(responseCode = "400", description = "Missing or unknown facet, or invalid filter"),
+            @ApiResponse(responseCode = "410", description = "Requested snapshot version is no longer available")
+    })
+    public ResponseEntity<FacetResponse> getFacets(
+            @Parameter(description = "Facet to count: an attribute such as department, city or bloodGroup, or age, height or weight for 5-unit buckets", example = "department") @RequestParam List<String> facet,
+
+            @Parameter(description = "Filter users by name (first name or last name)", example = "John") @RequestParam(required = false) String name,
 
-        PaginationResponse<User> response = userService.getUsers(page, size, name);
+            @Parameter(description = "Snapshot version to read, taken from the snapshotVersion of an earlier response") @RequestParam(required = false) Long asOf,
+
+            @ParameterObject UserFilter filter) {
+        return ResponseEntity.ok(userService.getFacets(facet, name, filter, asOf));
+    }
 
-        log.info("Returning {} users for page {} of {}",
-                response.getData().size(), response.getPage(), response.getTotalPages());
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest users by name prefix", description = "Return the ids and names of the users with a first or last name starting with the prefix, for autocomplete")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved suggestions"),
+            @ApiResponse(responseCode = "400", description = "Missing prefix or invalid limit")
+    })
+    public ResponseEntity<SuggestResponse> suggest(
+            @Parameter(description = "Start of a first or last name, or of the full name", example = "jo") @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions (1-20)", example = "10") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.suggest(prefix, limit));
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream users changes", description = "Server-sent event stream with a users-changed event per new snapshot version, carrying the ids of the users added, updated and removed since the previous version")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    public SseEmitter streamChanges() {
+        return userChangeFeed.subscribe();
     }
 }
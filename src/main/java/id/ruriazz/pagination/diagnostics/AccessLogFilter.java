@@ -0,0 +1,99 @@
+package id.ruriazz.pagination.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one structured event per request to the {@code access} logger, whose appender in
+ * {@code logback-spring.xml} is asynchronous. Failed requests (an exception or a status of 400 or
+ * more) and requests taking at least {@code users.access-log.slow-threshold} are always logged;
+ * the others are sampled at {@code users.access-log.sample-rate}. Actuator requests are not logged.
+ */
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    static final String LOGGER = "access";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER);
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(@Value("${users.access-log.sample-rate:0.01}") double sampleRate,
+            @Value("${users.access-log.slow-threshold:500ms}") Duration slowThreshold) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("users.access-log.sample-rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!log.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            int status = completed ? response.getStatus() : HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            String reason = reason(status, nanos);
+            if (reason != null) {
+                log(request, status, nanos, reason);
+            }
+        }
+    }
+
+    /**
+     * Why the request is logged, or {@code null} if it is not.
+     */
+    private String reason(int status, long nanos) {
+        if (status >= 400) {
+            return "error";
+        }
+        if (nanos >= slowThresholdNanos) {
+            return "slow";
+        }
+        if (sampleRate > 0 && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            return "sampled";
+        }
+        return null;
+    }
+
+    private void log(HttpServletRequest request, int status, long nanos, String reason) {
+        LoggingEventBuilder event = log.atInfo()
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("uri", request.getRequestURI());
+        if (request.getQueryString() != null) {
+            event = event.addKeyValue("query", request.getQueryString());
+        }
+        event.addKeyValue("status", status)
+                .addKeyValue("durationMs", Math.round(nanos / 1_000.0) / 1_000.0)
+                .addKeyValue("reason", reason)
+                .log();
+    }
+}
@@ -0,0 +1,25 @@
+package id.ruriazz.pagination.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("id.ruriazz.pagination.IndexRebuild")
+@Label("Index Rebuild")
+@Category({"Pagination", "Snapshot"})
+@Description("Building a structure derived from a users snapshot")
+@StackTrace(false)
+public class IndexRebuildEvent extends Event {
+
+    @Label("Index")
+    public String index;
+
+    @Label("Users")
+    public int users;
+
+    @Label("Entries")
+    public int entries;
+}
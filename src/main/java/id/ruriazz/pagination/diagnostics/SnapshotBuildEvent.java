@@ -0,0 +1,22 @@
+package id.ruriazz.pagination.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("id.ruriazz.pagination.SnapshotBuild")
+@Label("Snapshot Build")
+@Category({"Pagination", "Snapshot"})
+@Description("Loading a new users snapshot into the cache")
+@StackTrace(false)
+public class SnapshotBuildEvent extends Event {
+
+    @Label("Source")
+    public String source;
+
+    @Label("User Count")
+    public int userCount;
+}
@@ -0,0 +1,27 @@
+package id.ruriazz.pagination.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("id.ruriazz.pagination.UpstreamFetch")
+@Label("Upstream Fetch")
+@Category({"Pagination", "Upstream"})
+@Description("HTTP call to the external users API, from request until the body is consumed")
+@StackTrace(false)
+public class UpstreamFetchEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,229 @@
+package id.ruriazz.pagination.diagnostics;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import id.ruriazz.pagination.snapshot.OffHeapUserStore;
+import id.ruriazz.pagination.snapshot.SharedSnapshotFile;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshotIndexer;
+import id.ruriazz.pagination.snapshot.UserSnapshotLoader;
+import id.ruriazz.pagination.snapshot.UserSnapshotProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reports and manages the users snapshot and the caches: {@code GET /actuator/userscache} returns
+ * the served snapshot's metadata, each cache's statistics and limits and the state of the last
+ * reload; {@code POST /actuator/userscache} starts a reload from upstream;
+ * {@code POST /actuator/userscache/{cache}} changes {@code expireAfterWrite} or
+ * {@code maximumWeight}, the cache's byte limit, through the Caffeine policy;
+ * {@code DELETE /actuator/userscache/{cache}} evicts every entry. Reloads run on one background
+ * thread and requests are served from the cached snapshot until the new one replaces it. A shared-snapshot reader serves what the writer
+ * publishes, so it refuses reloads.
+ */
+@Slf4j
+@Component
+@WebEndpoint(id = "userscache")
+public class UsersCacheEndpoint implements DisposableBean {
+
+    private final CacheManager cacheManager;
+    private final UserSnapshotLoader userSnapshotLoader;
+    private final UserSnapshotProvider userSnapshotProvider;
+    private final UserSnapshotIndexer userSnapshotIndexer;
+    private final SharedSnapshotFile sharedSnapshotFile;
+    private final ExecutorService executor;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private volatile Instant reloadStartedAt;
+    private volatile Map<String, Object> lastReload;
+
+    @Autowired
+    public UsersCacheEndpoint(CacheManager cacheManager, UserSnapshotLoader userSnapshotLoader,
+            UserSnapshotProvider userSnapshotProvider, UserSnapshotIndexer userSnapshotIndexer,
+            SharedSnapshotFile sharedSnapshotFile) {
+        this(cacheManager, userSnapshotLoader, userSnapshotProvider, userSnapshotIndexer, sharedSnapshotFile,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "users-reload");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    UsersCacheEndpoint(CacheManager cacheManager, UserSnapshotLoader userSnapshotLoader,
+            UserSnapshotProvider userSnapshotProvider, UserSnapshotIndexer userSnapshotIndexer,
+            SharedSnapshotFile sharedSnapshotFile, ExecutorService executor) {
+        this.cacheManager = cacheManager;
+        this.userSnapshotLoader = userSnapshotLoader;
+        this.userSnapshotProvider = userSnapshotProvider;
+        this.userSnapshotIndexer = userSnapshotIndexer;
+        this.sharedSnapshotFile = sharedSnapshotFile;
+        this.executor = executor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("snapshot", snapshot(userSnapshotProvider.latestSnapshot()));
+        Map<String, Object> caches = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            caches.put(name, cache(nativeCache(name)));
+        }
+        status.put("caches", caches);
+        status.put("reload", reload());
+        return status;
+    }
+
+    /**
+     * Starts a reload from upstream unless one is already running; answers {@code 202} with the
+     * reload state either way, or {@code 409} on a shared-snapshot reader.
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> startReload() {
+        if (sharedSnapshotFile.isReader()) {
+            Map<String, Object> refused = new LinkedHashMap<>();
+            refused.put("state", "refused");
+            refused.put("reason", "This instance serves the shared snapshot; reload the writer instead");
+            return new WebEndpointResponse<>(refused, 409);
+        }
+        if (reloading.compareAndSet(false, true)) {
+            reloadStartedAt = Instant.now();
+            executor.execute(this::runReload);
+        }
+        return new WebEndpointResponse<>(reload(), 202);
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> configure(@Selector String cache,
+            @Nullable Duration expireAfterWrite, @Nullable DataSize maximumWeight) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cache);
+        if (nativeCache == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Policy<Object, Object> policy = nativeCache.policy();
+        if ((expireAfterWrite == null && maximumWeight == null)
+                || (expireAfterWrite != null && (expireAfterWrite.isNegative() || policy.expireAfterWrite().isEmpty()))
+                || (maximumWeight != null && (maximumWeight.isNegative() || policy.eviction().isEmpty()))) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        if (expireAfterWrite != null) {
+            policy.expireAfterWrite().get().setExpiresAfter(expireAfterWrite);
+        }
+        if (maximumWeight != null) {
+            policy.eviction().get().setMaximum(maximumWeight.toBytes());
+        }
+        log.info("Set {} cache expireAfterWrite to {} and maximumWeight to {}", cache,
+                expireAfterWrite == null ? "unchanged" : expireAfterWrite,
+                maximumWeight == null ? "unchanged" : maximumWeight);
+        return new WebEndpointResponse<>(cache(nativeCache));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> evict(@Selector String cache) {
+        Cache target = cacheManager.getCache(cache);
+        if (target == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        target.clear();
+        log.info("Evicted the {} cache", cache);
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void runReload() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", reloadStartedAt);
+        result.put("state", "failed");
+        try {
+            UserSnapshot snapshot = userSnapshotIndexer.index(userSnapshotLoader.reload());
+            result.put("state", "completed");
+            result.put("version", snapshot.version());
+        } catch (RuntimeException e) {
+            log.warn("Users snapshot reload failed: {}", e.getMessage());
+            result.put("error", String.valueOf(e.getMessage()));
+        } finally {
+            result.put("completedAt", Instant.now());
+            lastReload = result;
+            reloading.set(false);
+        }
+    }
+
+    private Map<String, Object> reload() {
+        Map<String, Object> reload = new LinkedHashMap<>();
+        if (reloading.get()) {
+            reload.put("state", "running");
+            reload.put("startedAt", reloadStartedAt);
+        } else {
+            reload.put("state", "idle");
+        }
+        reload.put("last", lastReload);
+        return reload;
+    }
+
+    private Map<String, Object> snapshot(@Nullable UserSnapshot snapshot) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        if (snapshot == null) {
+            metadata.put("state", "NONE");
+            return metadata;
+        }
+        Instant fetchedAt = Instant.ofEpochMilli(snapshot.version());
+        metadata.put("version", snapshot.version());
+        metadata.put("fetchedAt", fetchedAt);
+        metadata.put("age", Duration.between(fetchedAt, Instant.now()));
+        metadata.put("users", snapshot.store().size());
+        metadata.put("bytes", snapshot.store().encodedLength());
+        metadata.put("store", snapshot.store() instanceof OffHeapUserStore ? "off-heap" : "heap");
+        metadata.put("retainedVersions", Arrays.stream(userSnapshotIndexer.retainedVersions()).boxed().toList());
+        return metadata;
+    }
+
+    private static Map<String, Object> cache(com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        Policy<Object, Object> policy = cache.policy();
+        CacheStats stats = cache.stats();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("entries", cache.estimatedSize());
+        policy.eviction().ifPresent(eviction -> {
+            status.put("weightBytes", eviction.weightedSize().orElse(0));
+            status.put("maximumBytes", eviction.getMaximum());
+        });
+        policy.expireAfterWrite().ifPresent(expiration ->
+                status.put("expireAfterWrite", expiration.getExpiresAfter()));
+        status.put("hits", stats.hitCount());
+        status.put("misses", stats.missCount());
+        status.put("hitRate", stats.hitRate());
+        status.put("evictions", stats.evictionCount());
+        return status;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        return cache == null ? null : (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+    }
+}
@@ -0,0 +1,29 @@
+package id.ruriazz.pagination.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("id.ruriazz.pagination.UsersRequest")
+@Label("Users Request")
+@Category({"Pagination", "Request"})
+@Description("Handling of a paginated users query in the service layer")
+@StackTrace(false)
+public class UsersRequestEvent extends Event {
+
+    @Label("Filter")
+    public String filter;
+
+    @Label("Page")
+    public int page;
+
+    @Label("Size")
+    public int size;
+
+    @Label("Result Count")
+    @Description("Users matching the filter, across all pages")
+    public long resultCount;
+}
@@ -0,0 +1,16 @@
+package id.ruriazz.pagination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetResponse {
+    private long snapshotVersion;
+    private long totalItems;
+    private Map<String, Map<String, Long>> facets;
+}
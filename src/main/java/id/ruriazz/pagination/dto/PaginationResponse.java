@@ -1,5 +1,6 @@
 package id.ruriazz.pagination.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -14,6 +15,13 @@ public class PaginationResponse<T> {
     private long totalItems;
     private int totalPages;
     private List<T> data;
+    private long snapshotVersion;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private QueryPlan plan;
+
+    public PaginationResponse(int page, int size, long totalItems, int totalPages, List<T> data, long snapshotVersion) {
+        this(page, size, totalItems, totalPages, data, snapshotVersion, null);
+    }
 
     public PaginationResponse(int page, int size, long totalItems, List<T> data) {
         this.page = page;
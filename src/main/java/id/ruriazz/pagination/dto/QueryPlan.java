@@ -0,0 +1,37 @@
+package id.ruriazz.pagination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a users query was evaluated: the chosen access path, the order of the returned rows, the
+ * estimates behind the choice and the estimated cost of every path considered.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryPlan {
+    private String accessPath;
+    private String order;
+    private double estimatedCost;
+    private long estimatedRows;
+    private long actualRows;
+    private List<Step> steps;
+    private Map<String, Double> alternatives;
+
+    /**
+     * One criterion, read from an {@code index} or checked per row ({@code verify}), in evaluation order.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Step {
+        private String criterion;
+        private String method;
+        private double selectivity;
+    }
+}
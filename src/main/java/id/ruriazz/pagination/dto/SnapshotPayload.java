@@ -0,0 +1,16 @@
+package id.ruriazz.pagination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotPayload {
+    public static final String VERSION_HEADER = "Snapshot-Version";
+    public static final String CONTENT_TYPE = "application/gzip";
+
+    private long version;
+    private byte[] data;
+}
@@ -0,0 +1,15 @@
+package id.ruriazz.pagination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestResponse {
+    private long snapshotVersion;
+    private List<UserSuggestion> suggestions;
+}
@@ -0,0 +1,202 @@
+package id.ruriazz.pagination.dto;
+
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserMeasure;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Attribute and range filters of the users endpoint, bound from query parameters. Attribute
+ * values match exactly but ignore case; range bounds are inclusive.
+ */
+@Data
+@NoArgsConstructor
+public class UserFilter {
+
+    @Parameter(description = "Blood group", example = "O-")
+    private String bloodGroup;
+
+    @Parameter(description = "Eye color", example = "Green")
+    private String eyeColor;
+
+    @Parameter(description = "Hair color", example = "Brown")
+    private String hairColor;
+
+    @Parameter(description = "City of the home address", example = "Phoenix")
+    private String city;
+
+    @Parameter(description = "State of the home address", example = "Arizona")
+    private String state;
+
+    @Parameter(description = "Country of the home address", example = "United States")
+    private String country;
+
+    @Parameter(description = "Company department", example = "Engineering")
+    private String department;
+
+    @Parameter(description = "Job title", example = "Sales Manager")
+    private String title;
+
+    @Parameter(description = "Minimum age", example = "25")
+    private Integer minAge;
+
+    @Parameter(description = "Maximum age", example = "40")
+    private Integer maxAge;
+
+    @Parameter(description = "Minimum height in cm")
+    private Integer minHeight;
+
+    @Parameter(description = "Maximum height in cm")
+    private Integer maxHeight;
+
+    @Parameter(description = "Minimum weight in kg")
+    private Double minWeight;
+
+    @Parameter(description = "Maximum weight in kg")
+    private Double maxWeight;
+
+    @Parameter(description = "Southern edge of a bounding box on the address coordinates", example = "30")
+    private Double minLat;
+
+    @Parameter(description = "Northern edge of a bounding box", example = "45")
+    private Double maxLat;
+
+    @Parameter(description = "Western edge of a bounding box; greater than maxLng to cross the antimeridian", example = "-125")
+    private Double minLng;
+
+    @Parameter(description = "Eastern edge of a bounding box", example = "-100")
+    private Double maxLng;
+
+    @Parameter(description = "Latitude of the point for radiusKm and nearest", example = "40.7128")
+    private Double lat;
+
+    @Parameter(description = "Longitude of the point for radiusKm and nearest", example = "-74.006")
+    private Double lng;
+
+    @Parameter(description = "Keep users whose address lies within this many km of lat/lng", example = "50")
+    private Double radiusKm;
+
+    @Parameter(description = "Keep only this many users nearest to lat/lng, ordered by distance", example = "10")
+    private Integer nearest;
+
+    @Parameter(description = "Typo-tolerant name search; users are ordered by how closely their name words match", example = "jhon")
+    private String search;
+
+    /**
+     * Returns the non-blank attribute filters.
+     */
+    public Map<UserAttribute, String> attributes() {
+        Map<UserAttribute, String> attributes = new EnumMap<>(UserAttribute.class);
+        put(attributes, UserAttribute.BLOOD_GROUP, bloodGroup);
+        put(attributes, UserAttribute.EYE_COLOR, eyeColor);
+        put(attributes, UserAttribute.HAIR_COLOR, hairColor);
+        put(attributes, UserAttribute.CITY, city);
+        put(attributes, UserAttribute.STATE, state);
+        put(attributes, UserAttribute.COUNTRY, country);
+        put(attributes, UserAttribute.DEPARTMENT, department);
+        put(attributes, UserAttribute.TITLE, title);
+        return attributes;
+    }
+
+    public Double min(UserMeasure measure) {
+        return switch (measure) {
+            case AGE -> minAge == null ? null : minAge.doubleValue();
+            case HEIGHT -> minHeight == null ? null : minHeight.doubleValue();
+            case WEIGHT -> minWeight;
+        };
+    }
+
+    public Double max(UserMeasure measure) {
+        return switch (measure) {
+            case AGE -> maxAge == null ? null : maxAge.doubleValue();
+            case HEIGHT -> maxHeight == null ? null : maxHeight.doubleValue();
+            case WEIGHT -> maxWeight;
+        };
+    }
+
+    public boolean hasRange(UserMeasure measure) {
+        return min(measure) != null || max(measure) != null;
+    }
+
+    public boolean hasBoundingBox() {
+        return minLat != null || maxLat != null || minLng != null || maxLng != null;
+    }
+
+    /**
+     * Whether any filter other than {@link #getNearest() nearest} or {@link #getSearch() search} is set.
+     */
+    public boolean hasCriteria() {
+        return hasAttributeCriteria() || hasBoundingBox() || radiusKm != null;
+    }
+
+    /**
+     * Whether {@link #getNearest() nearest} or {@link #getSearch() search} orders the users
+     * instead of the snapshot order.
+     */
+    public boolean ordersRows() {
+        return nearest != null || search != null;
+    }
+
+    /**
+     * Whether any attribute or range filter is set.
+     */
+    public boolean hasAttributeCriteria() {
+        if (!attributes().isEmpty()) {
+            return true;
+        }
+        for (UserMeasure measure : UserMeasure.values()) {
+            if (hasRange(measure)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an independent copy with the attribute values case-folded and trimmed and the search
+     * case-folded, for use as part of a cache or coalescing key: filters that select the same rows
+     * get equal keys, and the key does not change when the caller later modifies this filter.
+     */
+    public UserFilter normalized() {
+        UserFilter copy = new UserFilter();
+        copy.bloodGroup = fold(bloodGroup);
+        copy.eyeColor = fold(eyeColor);
+        copy.hairColor = fold(hairColor);
+        copy.city = fold(city);
+        copy.state = fold(state);
+        copy.country = fold(country);
+        copy.department = fold(department);
+        copy.title = fold(title);
+        copy.minAge = minAge;
+        copy.maxAge = maxAge;
+        copy.minHeight = minHeight;
+        copy.maxHeight = maxHeight;
+        copy.minWeight = minWeight;
+        copy.maxWeight = maxWeight;
+        copy.minLat = minLat;
+        copy.maxLat = maxLat;
+        copy.minLng = minLng;
+        copy.maxLng = maxLng;
+        copy.lat = lat;
+        copy.lng = lng;
+        copy.radiusKm = radiusKm;
+        copy.nearest = nearest;
+        copy.search = search == null ? null : search.toLowerCase(Locale.ROOT);
+        return copy;
+    }
+
+    private static String fold(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void put(Map<UserAttribute, String> attributes, UserAttribute attribute, String value) {
+        if (value != null && !value.isBlank()) {
+            attributes.put(attribute, value.trim());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package id.ruriazz.pagination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestion {
+    private long id;
+    private String firstName;
+    private String lastName;
+}
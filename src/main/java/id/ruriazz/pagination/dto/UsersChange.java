@@ -0,0 +1,20 @@
+package id.ruriazz.pagination.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload of a {@code users-changed} event on {@code /api/users/changes}: the ids of the users
+ * added, updated and removed between two snapshot versions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsersChange {
+    private long previousVersion;
+    private long version;
+    private long[] added;
+    private long[] updated;
+    private long[] removed;
+}
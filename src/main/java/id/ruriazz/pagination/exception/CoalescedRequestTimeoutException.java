@@ -0,0 +1,10 @@
+package id.ruriazz.pagination.exception;
+
+import java.time.Duration;
+
+public class CoalescedRequestTimeoutException extends RuntimeException {
+
+    public CoalescedRequestTimeoutException(Duration timeout) {
+        super("An identical request did not complete within " + timeout.toMillis() + " ms", null, false, false);
+    }
+}
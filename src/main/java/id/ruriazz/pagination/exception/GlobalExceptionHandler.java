@@ -10,15 +10,30 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
+
+/**
+ * Maps exceptions to error responses by type. Expected failures are thrown without stack traces
+ * and logged on one line, and every log line is throttled per exception type to one every
+ * {@link #LOG_INTERVAL}, so that a broken client does not turn into a logging storm. Upstream
+ * failures are logged by the client that saw them.
+ */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
-            IllegalArgumentException ex, WebRequest request) {
+    static final Duration LOG_INTERVAL = Duration.ofSeconds(10);
 
-        log.warn("HANDLING IllegalArgumentException: {}", ex.getMessage());
+    private final LogThrottle logThrottle = new LogThrottle(LOG_INTERVAL);
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestException(
+            InvalidRequestException ex, WebRequest request) {
+
+        long suppressed = logThrottle.acquire(ex.getClass());
+        if (suppressed >= 0) {
+            log.warn("Invalid request parameter: {}{}", ex.getMessage(), LogThrottle.suppressed(suppressed));
+        }
 
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
@@ -33,7 +48,11 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatch(
             MethodArgumentTypeMismatchException ex, WebRequest request) {
 
-        log.warn("Type mismatch for parameter {}: {}", ex.getName(), ex.getValue());
+        long suppressed = logThrottle.acquire(ex.getClass());
+        if (suppressed >= 0) {
+            log.warn("Type mismatch for parameter {}: {}{}", ex.getName(), ex.getValue(),
+                    LogThrottle.suppressed(suppressed));
+        }
 
         String message = String.format("Invalid value '%s' for parameter '%s'. Expected type: %s",
                 ex.getValue(), ex.getName(), ex.getRequiredType().getSimpleName());
@@ -51,7 +70,10 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleMissingServletRequestParameter(
             MissingServletRequestParameterException ex, WebRequest request) {
 
-        log.warn("Missing required parameter: {}", ex.getParameterName());
+        long suppressed = logThrottle.acquire(ex.getClass());
+        if (suppressed >= 0) {
+            log.warn("Missing required parameter: {}{}", ex.getParameterName(), LogThrottle.suppressed(suppressed));
+        }
 
         String message = String.format("Required parameter '%s' is missing", ex.getParameterName());
 
@@ -64,20 +86,49 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
-    @ExceptionHandler(value = { RuntimeException.class })
-    public ResponseEntity<ErrorResponse> handleRuntimeException(
-            RuntimeException ex, WebRequest request) {
+    @ExceptionHandler(SnapshotVersionNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleSnapshotVersionNotFound(
+            SnapshotVersionNotFoundException ex, WebRequest request) {
 
-        if (ex instanceof IllegalArgumentException) {
-            return handleIllegalArgumentException((IllegalArgumentException) ex, request);
+        long suppressed = logThrottle.acquire(ex.getClass());
+        if (suppressed >= 0) {
+            log.warn("Requested snapshot is not retained: {}{}", ex.getMessage(), LogThrottle.suppressed(suppressed));
         }
 
-        log.error("HANDLING RuntimeException: {}", ex.getMessage(), ex);
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.GONE.value(),
+                "Snapshot version unavailable",
+                ex.getMessage() + ". Restart pagination without asOf.",
+                request.getDescription(false).replace("uri=", ""));
+
+        return ResponseEntity.status(HttpStatus.GONE).body(errorResponse);
+    }
+
+    @ExceptionHandler(CoalescedRequestTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleCoalescedRequestTimeout(
+            CoalescedRequestTimeoutException ex, WebRequest request) {
 
-        if (ex.getMessage() != null &&
-                (ex.getMessage().contains("External API is unreachable") ||
-                        ex.getMessage().contains("Failed to fetch data from external API"))) {
+        long suppressed = logThrottle.acquire(ex.getClass());
+        if (suppressed >= 0) {
+            log.warn("Gave up waiting for an identical request: {}{}", ex.getMessage(),
+                    LogThrottle.suppressed(suppressed));
+        }
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Request timed out",
+                ex.getMessage() + ". Please try again later.",
+                request.getDescription(false).replace("uri=", ""));
 
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    @ExceptionHandler(UpstreamException.class)
+    public ResponseEntity<ErrorResponse> handleUpstreamException(
+            UpstreamException ex, WebRequest request) {
+
+        // Already logged, throttled, where the call failed.
+        if (ex.isUnavailable()) {
             ErrorResponse errorResponse = new ErrorResponse(
                     HttpStatus.SERVICE_UNAVAILABLE.value(),
                     "External service unavailable",
@@ -87,21 +138,22 @@ public class GlobalExceptionHandler {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
         }
 
-        ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                "Internal server error",
-                "An unexpected error occurred. Please try again later.",
-                request.getDescription(false).replace("uri=", ""));
-
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        return internalServerError(request);
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex, WebRequest request) {
 
-        log.error("Unexpected exception occurred: {}", ex.getMessage(), ex);
+        long suppressed = logThrottle.acquire(ex.getClass());
+        if (suppressed >= 0) {
+            log.error("Unexpected exception occurred: {}{}", ex.getMessage(), LogThrottle.suppressed(suppressed), ex);
+        }
+
+        return internalServerError(request);
+    }
 
+    private static ResponseEntity<ErrorResponse> internalServerError(WebRequest request) {
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
                 "Internal server error",
@@ -110,4 +162,4 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
-}
\ No newline at end of file
+}
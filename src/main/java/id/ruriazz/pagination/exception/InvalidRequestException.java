@@ -0,0 +1,12 @@
+package id.ruriazz.pagination.exception;
+
+/**
+ * A request parameter the client has to correct. Expected at high rates when a client is broken,
+ * so no stack trace is captured: the message says everything the response and the log need.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,58 @@
+package id.ruriazz.pagination.exception;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets one log line per key through every {@code interval} and counts the others, so that an error
+ * repeated at a high rate costs a counter increment instead of a log write. Every key is
+ * remembered, so keys must come from a small fixed set such as exception types.
+ */
+public final class LogThrottle {
+
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+    private final ConcurrentHashMap<Object, Window> windows = new ConcurrentHashMap<>();
+
+    public LogThrottle(Duration interval) {
+        this(interval, System::nanoTime);
+    }
+
+    LogThrottle(Duration interval, LongSupplier nanoTime) {
+        this.intervalNanos = interval.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns the number of occurrences of {@code key} suppressed since the last one let through
+     * if this one may be logged, otherwise {@code -1}.
+     */
+    public long acquire(Object key) {
+        long now = nanoTime.getAsLong();
+        Window window = windows.computeIfAbsent(key, k -> new Window(now));
+        long next = window.next.get();
+        if (now - next >= 0 && window.next.compareAndSet(next, now + intervalNanos)) {
+            return window.suppressed.getAndSet(0);
+        }
+        window.suppressed.incrementAndGet();
+        return -1;
+    }
+
+    /**
+     * Log message suffix reporting {@code count} suppressed occurrences, empty when there were none.
+     */
+    public static String suppressed(long count) {
+        return count == 0 ? "" : " (" + count + " similar suppressed)";
+    }
+
+    private static final class Window {
+        private final AtomicLong next;
+        private final AtomicLong suppressed = new AtomicLong();
+
+        Window(long now) {
+            this.next = new AtomicLong(now);
+        }
+    }
+}
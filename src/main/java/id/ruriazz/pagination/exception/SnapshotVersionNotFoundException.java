@@ -0,0 +1,8 @@
+package id.ruriazz.pagination.exception;
+
+public class SnapshotVersionNotFoundException extends RuntimeException {
+
+    public SnapshotVersionNotFoundException(long version) {
+        super("Snapshot version " + version + " is no longer available", null, false, false);
+    }
+}
@@ -0,0 +1,29 @@
+package id.ruriazz.pagination.exception;
+
+import id.ruriazz.pagination.metrics.UpstreamOutcome;
+
+/**
+ * A failed call to the external users API, classified by its {@link UpstreamOutcome}. Thrown for
+ * every request while the upstream is down, so no stack trace is captured; the cause keeps its own.
+ */
+public class UpstreamException extends RuntimeException {
+
+    private final UpstreamOutcome outcome;
+
+    public UpstreamException(UpstreamOutcome outcome, String message, Throwable cause) {
+        super(message, cause, false, false);
+        this.outcome = outcome;
+    }
+
+    public UpstreamOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Whether the upstream could not be reached or answered with an error, as opposed to answering
+     * something this service could not use.
+     */
+    public boolean isUnavailable() {
+        return outcome == UpstreamOutcome.NETWORK_ERROR || outcome == UpstreamOutcome.HTTP_ERROR;
+    }
+}
@@ -0,0 +1,209 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.snapshot.DerivedIndex;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserMeasure;
+import id.ruriazz.pagination.snapshot.UserStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Row bitmaps of one snapshot for attribute and range filters: one {@link RowBitmap} per
+ * case-folded {@link UserAttribute} value and one per fixed-width bucket of each
+ * {@link UserMeasure}. Results are row positions in snapshot order, so the index is rebuilt
+ * whenever rows change.
+ */
+public final class FilterIndex implements DerivedIndex {
+
+    public static final DerivedIndexFactory<FilterIndex> FACTORY =
+            DerivedIndexFactory.of(FilterIndex.class, FilterIndex::build);
+
+    static final double BUCKET_WIDTH = 5;
+
+    private static final UserAttribute[] ATTRIBUTES = UserAttribute.values();
+    private static final UserMeasure[] MEASURES = UserMeasure.values();
+
+    private final int size;
+    private final Map<String, RowBitmap>[] values;
+    private final Map<String, RowBitmap>[] labelled;
+    private final NavigableMap<Integer, RowBitmap>[] buckets;
+
+    private FilterIndex(int size, Map<String, RowBitmap>[] values, Map<String, RowBitmap>[] labelled,
+            NavigableMap<Integer, RowBitmap>[] buckets) {
+        this.size = size;
+        this.values = values;
+        this.labelled = labelled;
+        this.buckets = buckets;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static FilterIndex build(UserStore store) {
+        int size = store.size();
+        Map<String, RowBitmap.Builder>[] valueRows = new Map[ATTRIBUTES.length];
+        Map<String, String>[] labels = new Map[ATTRIBUTES.length];
+        Map<Integer, RowBitmap.Builder>[] bucketRows = new Map[MEASURES.length];
+        for (UserAttribute attribute : ATTRIBUTES) {
+            valueRows[attribute.ordinal()] = new HashMap<>();
+            labels[attribute.ordinal()] = new HashMap<>();
+        }
+        for (UserMeasure measure : MEASURES) {
+            bucketRows[measure.ordinal()] = new HashMap<>();
+        }
+
+        for (int row = 0; row < size; row++) {
+            for (UserAttribute attribute : ATTRIBUTES) {
+                String value = store.attribute(attribute, row);
+                if (value != null) {
+                    String folded = fold(value);
+                    valueRows[attribute.ordinal()].computeIfAbsent(folded, key -> new RowBitmap.Builder(size)).add(row);
+                    labels[attribute.ordinal()].putIfAbsent(folded, value);
+                }
+            }
+            for (UserMeasure measure : MEASURES) {
+                double value = store.measure(measure, row);
+                if (!Double.isNaN(value)) {
+                    bucketRows[measure.ordinal()].computeIfAbsent(bucket(value),
+                            key -> new RowBitmap.Builder(size)).add(row);
+                }
+            }
+        }
+
+        Map<String, RowBitmap>[] values = new Map[ATTRIBUTES.length];
+        Map<String, RowBitmap>[] labelled = new Map[ATTRIBUTES.length];
+        for (UserAttribute attribute : ATTRIBUTES) {
+            Map<String, RowBitmap> bitmaps = new HashMap<>();
+            Map<String, RowBitmap> byLabel = new HashMap<>();
+            valueRows[attribute.ordinal()].forEach((value, rows) -> {
+                RowBitmap bitmap = rows.build();
+                bitmaps.put(value, bitmap);
+                byLabel.put(labels[attribute.ordinal()].get(value), bitmap);
+            });
+            values[attribute.ordinal()] = bitmaps;
+            labelled[attribute.ordinal()] = byLabel;
+        }
+        NavigableMap<Integer, RowBitmap>[] buckets = new NavigableMap[MEASURES.length];
+        for (UserMeasure measure : MEASURES) {
+            NavigableMap<Integer, RowBitmap> bitmaps = new TreeMap<>();
+            bucketRows[measure.ordinal()].forEach((bucket, rows) -> bitmaps.put(bucket, rows.build()));
+            buckets[measure.ordinal()] = bitmaps;
+        }
+        return new FilterIndex(size, values, labelled, buckets);
+    }
+
+    /**
+     * Returns the rows whose attribute equals {@code value}, ignoring case.
+     */
+    public RowBitmap rows(UserAttribute attribute, String value) {
+        RowBitmap rows = values[attribute.ordinal()].get(fold(value));
+        return rows != null ? rows : RowBitmap.empty(size);
+    }
+
+    /**
+     * Returns the rows whose measure lies within {@code [min, max]}; a {@code null} bound is open.
+     * Buckets inside the range are taken whole, the two edge buckets are checked against
+     * {@code store}, which must be the snapshot this index was built for.
+     */
+    public RowBitmap range(UserMeasure measure, Double min, Double max, UserStore store) {
+        double low = min == null ? Double.NEGATIVE_INFINITY : min;
+        double high = max == null ? Double.POSITIVE_INFINITY : max;
+        if (low > high) {
+            return RowBitmap.empty(size);
+        }
+
+        List<RowBitmap> parts = new ArrayList<>();
+        for (Map.Entry<Integer, RowBitmap> entry
+                : buckets[measure.ordinal()].subMap(bucket(low), true, bucket(high), true).entrySet()) {
+            double from = entry.getKey() * BUCKET_WIDTH;
+            if (from >= low && from + BUCKET_WIDTH <= high) {
+                parts.add(entry.getValue());
+            } else {
+                parts.add(entry.getValue().filter(row -> {
+                    double value = store.measure(measure, row);
+                    return value >= low && value <= high;
+                }));
+            }
+        }
+        return RowBitmap.union(size, parts);
+    }
+
+    /**
+     * Returns the rows of {@code candidates} whose measure lies within {@code [min, max]}. Sparse
+     * candidates are checked against {@code store} directly instead of combining the buckets.
+     */
+    public RowBitmap range(UserMeasure measure, Double min, Double max, UserStore store, RowBitmap candidates) {
+        if (!candidates.isSparse()) {
+            return candidates.and(range(measure, min, max, store));
+        }
+        double low = min == null ? Double.NEGATIVE_INFINITY : min;
+        double high = max == null ? Double.POSITIVE_INFINITY : max;
+        return candidates.filter(row -> {
+            double value = store.measure(measure, row);
+            return value >= low && value <= high;
+        });
+    }
+
+    /**
+     * Returns the rows of every value of {@code attribute}, keyed by the first spelling seen of the
+     * value. The returned map is shared and must not be modified.
+     */
+    public Map<String, RowBitmap> facet(UserAttribute attribute) {
+        return labelled[attribute.ordinal()];
+    }
+
+    /**
+     * Returns the rows of every non-empty bucket of {@code measure} in ascending order, keyed by the
+     * half-open range {@code "from-to"} it covers.
+     */
+    public Map<String, RowBitmap> facet(UserMeasure measure) {
+        Map<String, RowBitmap> facet = new LinkedHashMap<>();
+        buckets[measure.ordinal()].forEach((bucket, rows) -> {
+            long from = (long) (bucket * BUCKET_WIDTH);
+            facet.put(from + "-" + (long) (from + BUCKET_WIDTH), rows);
+        });
+        return facet;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int entries() {
+        int entries = 0;
+        for (Map<String, RowBitmap> attributeValues : values) {
+            entries += attributeValues.size();
+        }
+        for (Map<Integer, RowBitmap> measureBuckets : buckets) {
+            entries += measureBuckets.size();
+        }
+        return entries;
+    }
+
+    @Override
+    public long bytes() {
+        long bytes = IndexBytes.OBJECT;
+        for (int i = 0; i < values.length; i++) {
+            bytes += IndexBytes.of(values[i], true) + IndexBytes.of(labelled[i], false);
+        }
+        for (Map<Integer, RowBitmap> measureBuckets : buckets) {
+            bytes += IndexBytes.of(measureBuckets, true);
+        }
+        return bytes;
+    }
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static int bucket(double value) {
+        return (int) Math.floor(value / BUCKET_WIDTH);
+    }
+}
@@ -0,0 +1,47 @@
+package id.ruriazz.pagination.index;
+
+import java.util.Map;
+
+/**
+ * Rough heap footprint of the pieces the derived indexes are made of, for
+ * {@link id.ruriazz.pagination.snapshot.DerivedIndex#bytes()}.
+ */
+final class IndexBytes {
+
+    static final int OBJECT = 16;
+    static final int REFERENCE = 8;
+    static final int MAP_ENTRY = 48;
+    static final int BOXED = 16;
+    private static final int ARRAY = 16;
+    private static final int STRING = 40;
+
+    private IndexBytes() {
+    }
+
+    static long array(int length, int elementBytes) {
+        return ARRAY + (long) length * elementBytes;
+    }
+
+    static long of(int[] values) {
+        return array(values.length, Integer.BYTES);
+    }
+
+    static long of(String value) {
+        return value == null ? 0 : STRING + value.length();
+    }
+
+    /**
+     * Weighs a map of bitmaps keyed by strings or boxed numbers; {@code countBitmaps} is false for
+     * maps whose bitmaps are already counted through another map.
+     */
+    static long of(Map<?, RowBitmap> bitmaps, boolean countBitmaps) {
+        long bytes = OBJECT;
+        for (Map.Entry<?, RowBitmap> entry : bitmaps.entrySet()) {
+            bytes += MAP_ENTRY + (entry.getKey() instanceof String key ? of(key) : BOXED);
+            if (countBitmaps) {
+                bytes += entry.getValue().bytes();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,433 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.snapshot.DerivedIndex;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import id.ruriazz.pagination.snapshot.UserStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Bigram index over the distinct words of the lower-cased names of one snapshot, for
+ * typo-tolerant search. Each word is padded as {@code ^word$}, every distinct bigram maps to
+ * the sorted ids of the words containing it, and every word to the sorted rows using it.
+ * <p>
+ * A query word may differ from a name word by {@link #maxEdits(int)} insertions, deletions,
+ * substitutions or adjacent transpositions. One such edit changes at most three padded
+ * bigrams, so only words sharing enough bigrams with the query word are scored by edit
+ * distance. Names repeat the same words, so this work depends on the vocabulary rather than on
+ * the number of users; rows are only visited through the words that matched, and the best of
+ * them are kept in a fixed-size heap.
+ */
+public final class NameGramIndex implements DerivedIndex {
+
+    public static final DerivedIndexFactory<NameGramIndex> FACTORY =
+            DerivedIndexFactory.of(NameGramIndex.class, NameGramIndex::build);
+
+    private static final int GRAMS_PER_EDIT = 3;
+    private static final int DISTANCE_BITS = 8;
+    private static final int[] NO_ROWS = new int[0];
+
+    private final String[][] words;
+    private final String[] vocabulary;
+    private final int[][] wordRows;
+    private final Map<Integer, int[]> postings;
+    private final int grams;
+
+    private NameGramIndex(String[][] words, String[] vocabulary, int[][] wordRows, Map<Integer, int[]> postings,
+            int grams) {
+        this.words = words;
+        this.vocabulary = vocabulary;
+        this.wordRows = wordRows;
+        this.postings = postings;
+        this.grams = grams;
+    }
+
+    public static NameGramIndex build(UserStore store) {
+        String[][] words = new String[store.size()][];
+        Map<String, Integer> wordIds = new HashMap<>();
+        List<String> vocabulary = new ArrayList<>();
+        List<int[]> rowsByWord = new ArrayList<>();
+        int[] rowCounts = new int[16];
+        for (int row = 0; row < store.size(); row++) {
+            words[row] = split(NameTrie.fold(store.firstName(row), store.lastName(row)));
+            for (int i = 0; i < words[row].length; i++) {
+                String word = words[row][i];
+                Integer id = wordIds.get(word);
+                if (id == null) {
+                    id = vocabulary.size();
+                    wordIds.put(word, id);
+                    vocabulary.add(word);
+                    rowsByWord.add(new int[4]);
+                    if (id == rowCounts.length) {
+                        rowCounts = Arrays.copyOf(rowCounts, id * 2);
+                    }
+                }
+                words[row][i] = vocabulary.get(id);
+                int count = rowCounts[id];
+                if (count > 0 && rowsByWord.get(id)[count - 1] == row) {
+                    continue;
+                }
+                if (count == rowsByWord.get(id).length) {
+                    rowsByWord.set(id, Arrays.copyOf(rowsByWord.get(id), count * 2));
+                }
+                rowsByWord.get(id)[count] = row;
+                rowCounts[id] = count + 1;
+            }
+        }
+
+        int[][] wordRows = new int[vocabulary.size()][];
+        Map<Integer, int[]> builders = new HashMap<>();
+        Map<Integer, Integer> counts = new HashMap<>();
+        int grams = 0;
+        for (int id = 0; id < vocabulary.size(); id++) {
+            wordRows[id] = Arrays.copyOf(rowsByWord.get(id), rowCounts[id]);
+            for (int gram : distinctGrams(vocabulary.get(id))) {
+                int count = counts.merge(gram, 1, Integer::sum);
+                int[] ids = builders.get(gram);
+                if (ids == null || ids.length < count) {
+                    ids = Arrays.copyOf(ids == null ? NO_ROWS : ids, Math.max(4, count * 2));
+                    builders.put(gram, ids);
+                }
+                ids[count - 1] = id;
+                grams++;
+            }
+        }
+        Map<Integer, int[]> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((gram, ids) -> postings.put(gram, Arrays.copyOf(ids, counts.get(gram))));
+        return new NameGramIndex(words, vocabulary.toArray(String[]::new), wordRows, postings, grams);
+    }
+
+    /**
+     * Edits tolerated for a query word of {@code length} characters: none up to 2, one up to 5,
+     * two beyond.
+     */
+    static int maxEdits(int length) {
+        return length < 3 ? 0 : length < 6 ? 1 : 2;
+    }
+
+    /**
+     * Ranks the rows accepted by {@code accept} whose name has, for every word of
+     * {@code foldedQuery}, a word within {@link #maxEdits(int)} edits of it. Rows are ordered by
+     * total edits, then name, then row, and only the first {@code limit} are returned.
+     */
+    public SearchResult search(String foldedQuery, int limit, IntPredicate accept) {
+        String[] queryWords = split(foldedQuery);
+        if (queryWords.length == 0) {
+            return new SearchResult(NO_ROWS, 0);
+        }
+
+        int[] counts = new int[vocabulary.length];
+        long[] scored = null;
+        for (String queryWord : queryWords) {
+            long[] rows = matchingRows(queryWord, counts);
+            scored = scored == null ? rows : intersect(scored, rows);
+        }
+
+        TopRows top = new TopRows(Math.min(limit, scored.length));
+        int matches = 0;
+        for (long entry : scored) {
+            int row = (int) (entry >>> DISTANCE_BITS);
+            if (accept.test(row)) {
+                matches++;
+                top.offer(row, (int) (entry & ((1 << DISTANCE_BITS) - 1)));
+            }
+        }
+        return new SearchResult(top.sorted(), matches);
+    }
+
+    /**
+     * Rows with a word within the tolerance of {@code queryWord}, ascending, each packed with the
+     * edits to its closest such word in the low {@link #DISTANCE_BITS} bits.
+     */
+    private long[] matchingRows(String queryWord, int[] counts) {
+        int bound = maxEdits(queryWord.length());
+        EditDistance distance = new EditDistance(queryWord.length() + bound + 1);
+        long[] rows = new long[16];
+        int count = 0;
+        for (int id : candidateWords(queryWord, counts)) {
+            int edits = distance.compute(queryWord, vocabulary[id], bound);
+            if (edits > bound) {
+                continue;
+            }
+            for (int row : wordRows[id]) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = (long) row << DISTANCE_BITS | edits;
+            }
+        }
+        Arrays.sort(rows, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || rows[i] >>> DISTANCE_BITS != rows[distinct - 1] >>> DISTANCE_BITS) {
+                rows[distinct++] = rows[i];
+            }
+        }
+        return Arrays.copyOf(rows, distinct);
+    }
+
+    /**
+     * Ids of the words sharing at least {@code |grams| - 3 * maxEdits} distinct bigrams with
+     * {@code queryWord}, counted over the posting lists.
+     */
+    private int[] candidateWords(String queryWord, int[] counts) {
+        int[] queryGrams = distinctGrams(queryWord);
+        int threshold = Math.max(1, queryGrams.length - GRAMS_PER_EDIT * maxEdits(queryWord.length()));
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (int gram : queryGrams) {
+            for (int id : postings.getOrDefault(gram, NO_ROWS)) {
+                if (counts[id]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+        int[] result = new int[touchedCount];
+        int count = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            if (counts[id] >= threshold) {
+                result[count++] = id;
+            }
+            counts[id] = 0;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Rows present in both, with their edits added up.
+     */
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            long leftRow = left[i] >>> DISTANCE_BITS;
+            long rightRow = right[j] >>> DISTANCE_BITS;
+            if (leftRow < rightRow) {
+                i++;
+            } else if (leftRow > rightRow) {
+                j++;
+            } else {
+                result[count++] = left[i++] + (right[j++] & ((1 << DISTANCE_BITS) - 1));
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static String[] split(String folded) {
+        int count = 0;
+        for (int i = 0; i < folded.length(); i++) {
+            if (folded.charAt(i) != ' ' && (i == 0 || folded.charAt(i - 1) == ' ')) {
+                count++;
+            }
+        }
+        String[] words = new String[count];
+        int word = 0;
+        for (int i = 0; i < folded.length(); i++) {
+            if (folded.charAt(i) != ' ' && (i == 0 || folded.charAt(i - 1) == ' ')) {
+                int end = folded.indexOf(' ', i);
+                words[word++] = folded.substring(i, end < 0 ? folded.length() : end);
+            }
+        }
+        return words;
+    }
+
+    private static int[] distinctGrams(String word) {
+        int[] grams = new int[word.length() + 1];
+        char previous = '^';
+        for (int i = 0; i <= word.length(); i++) {
+            char next = i < word.length() ? word.charAt(i) : '$';
+            grams[i] = previous << 16 | next;
+            previous = next;
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Number of (word, bigram) postings.
+     */
+    @Override
+    public int entries() {
+        return grams;
+    }
+
+    @Override
+    public long bytes() {
+        long bytes = IndexBytes.OBJECT + IndexBytes.array(words.length, IndexBytes.REFERENCE);
+        for (String[] rowWords : words) {
+            bytes += IndexBytes.array(rowWords.length, IndexBytes.REFERENCE);
+        }
+        bytes += IndexBytes.array(vocabulary.length, IndexBytes.REFERENCE);
+        for (String word : vocabulary) {
+            bytes += IndexBytes.of(word);
+        }
+        bytes += IndexBytes.array(wordRows.length, IndexBytes.REFERENCE);
+        for (int[] rows : wordRows) {
+            bytes += IndexBytes.of(rows);
+        }
+        for (int[] ids : postings.values()) {
+            bytes += IndexBytes.MAP_ENTRY + IndexBytes.BOXED + IndexBytes.of(ids);
+        }
+        return bytes;
+    }
+
+    /**
+     * Ranked rows of a search, best first, and the number of rows that matched in total.
+     */
+    public record SearchResult(int[] rows, int matches) {
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions) over three
+     * reused rows, giving up once every cell of a row exceeds the bound.
+     */
+    private static final class EditDistance {
+        private int[] previous2;
+        private int[] previous;
+        private int[] current;
+
+        EditDistance(int capacity) {
+            previous2 = new int[capacity];
+            previous = new int[capacity];
+            current = new int[capacity];
+        }
+
+        /**
+         * Returns the distance if it is at most {@code bound}, otherwise {@code bound + 1}.
+         */
+        int compute(String source, String target, int bound) {
+            if (Math.abs(source.length() - target.length()) > bound) {
+                return bound + 1;
+            }
+            if (target.length() + 1 > current.length) {
+                previous2 = new int[target.length() + 1];
+                previous = new int[target.length() + 1];
+                current = new int[target.length() + 1];
+            }
+            for (int j = 0; j <= target.length(); j++) {
+                previous[j] = j;
+            }
+            for (int i = 1; i <= source.length(); i++) {
+                current[0] = i;
+                int rowMin = i;
+                for (int j = 1; j <= target.length(); j++) {
+                    int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                    int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                    if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2)
+                            && source.charAt(i - 2) == target.charAt(j - 1)) {
+                        value = Math.min(value, previous2[j - 2] + 1);
+                    }
+                    current[j] = value;
+                    rowMin = Math.min(rowMin, value);
+                }
+                if (rowMin > bound) {
+                    return bound + 1;
+                }
+                int[] recycled = previous2;
+                previous2 = previous;
+                previous = current;
+                current = recycled;
+            }
+            return Math.min(previous[target.length()], bound + 1);
+        }
+    }
+
+    /**
+     * Fixed-size max-heap of the best rows seen so far; the root is the worst of them and is
+     * replaced when a better row arrives.
+     */
+    private final class TopRows {
+        private final int[] rows;
+        private final int[] scores;
+        private int size;
+
+        TopRows(int capacity) {
+            rows = new int[capacity];
+            scores = new int[capacity];
+        }
+
+        void offer(int row, int score) {
+            if (size < rows.length) {
+                rows[size] = row;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && compare(row, score, rows[0], scores[0]) < 0) {
+                rows[0] = row;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int[] sorted() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compare(rows[a], scores[a], rows[b], scores[b]));
+            int[] result = new int[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = rows[order[i]];
+            }
+            return result;
+        }
+
+        private int compare(int row, int score, int otherRow, int otherScore) {
+            if (score != otherScore) {
+                return Integer.compare(score, otherScore);
+            }
+            int byName = Arrays.compare(words[row], words[otherRow]);
+            return byName != 0 ? byName : Integer.compare(row, otherRow);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compare(rows[index], scores[index], rows[parent], scores[parent]) <= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (compare(rows[child], scores[child], rows[worst], scores[worst]) > 0) {
+                        worst = child;
+                    }
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int row = rows[i];
+            rows[i] = rows[j];
+            rows[j] = row;
+            int score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+    }
+}
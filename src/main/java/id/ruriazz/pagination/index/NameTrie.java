@@ -0,0 +1,299 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.snapshot.DerivedIndex;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import id.ruriazz.pagination.snapshot.UserStore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Radix-compressed trie over the lower-cased "first last" names of one snapshot, serving
+ * prefix suggestions. Every word of a name starts a key running to the end of the name, so
+ * {@code jo} finds both "John Doe" and "Emily Johnson" and {@code john d} finds "John Doe".
+ * <p>
+ * Nodes live in parallel int arrays with the children of a node stored next to each other,
+ * ordered by their first character, and edge labels in one shared char array. Every node
+ * keeps the first {@link #MAX_SUGGESTIONS} users below it, by name and then row, so a lookup
+ * walks the prefix once and copies a precomputed list.
+ */
+public final class NameTrie implements DerivedIndex {
+
+    public static final DerivedIndexFactory<NameTrie> FACTORY = DerivedIndexFactory.of(NameTrie.class, NameTrie::build);
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelEnd;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] tops;
+    private final int[] rowsByRank;
+    private final int keys;
+
+    private NameTrie(Builder builder) {
+        this.labels = builder.labels.toString().toCharArray();
+        this.labelStart = Arrays.copyOf(builder.labelStart, builder.nodes);
+        this.labelEnd = Arrays.copyOf(builder.labelEnd, builder.nodes);
+        this.firstChild = Arrays.copyOf(builder.firstChild, builder.nodes);
+        this.childCount = Arrays.copyOf(builder.childCount, builder.nodes);
+        this.topStart = Arrays.copyOf(builder.topStart, builder.nodes);
+        this.topCount = Arrays.copyOf(builder.topCount, builder.nodes);
+        this.tops = Arrays.copyOf(builder.tops, builder.topSize);
+        this.rowsByRank = builder.rowsByRank;
+        this.keys = builder.keyCount;
+    }
+
+    public static NameTrie build(UserStore store) {
+        return new NameTrie(new Builder(store));
+    }
+
+    static String fold(String firstName, String lastName) {
+        return ((firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName))
+                .toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Returns up to {@code limit} rows of users with a name word starting with {@code foldedPrefix},
+     * ordered by name. {@code limit} is capped at {@link #MAX_SUGGESTIONS}.
+     */
+    public int[] lookup(String foldedPrefix, int limit) {
+        int node = 0;
+        int matched = 0;
+        while (true) {
+            for (int i = labelStart[node]; i < labelEnd[node] && matched < foldedPrefix.length(); i++, matched++) {
+                if (labels[i] != foldedPrefix.charAt(matched)) {
+                    return new int[0];
+                }
+            }
+            if (matched == foldedPrefix.length()) {
+                int[] rows = new int[Math.min(Math.min(limit, MAX_SUGGESTIONS), topCount[node])];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = rowsByRank[tops[topStart[node] + i]];
+                }
+                return rows;
+            }
+            node = child(node, foldedPrefix.charAt(matched));
+            if (node < 0) {
+                return new int[0];
+            }
+        }
+    }
+
+    private int child(int node, char next) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char first = labels[labelStart[middle]];
+            if (first < next) {
+                low = middle + 1;
+            } else if (first > next) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of indexed keys, one per word of every name.
+     */
+    @Override
+    public int entries() {
+        return keys;
+    }
+
+    @Override
+    public long bytes() {
+        return IndexBytes.OBJECT + IndexBytes.array(labels.length, Character.BYTES) + IndexBytes.of(labelStart)
+                + IndexBytes.of(labelEnd) + IndexBytes.of(firstChild) + IndexBytes.of(childCount)
+                + IndexBytes.of(topStart) + IndexBytes.of(topCount) + IndexBytes.of(tops) + IndexBytes.of(rowsByRank);
+    }
+
+    private static final class Builder {
+        private final String[] keys;
+        private final int[][] keyNames;
+        private final int[] rankStart;
+        private final int[] rankEnd;
+        private final int[] rowsByRank;
+        private final int keyCount;
+        private final StringBuilder labels = new StringBuilder();
+        private int[] labelStart = new int[16];
+        private int[] labelEnd = new int[16];
+        private int[] firstChild = new int[16];
+        private int[] childCount = new int[16];
+        private int[] topStart = new int[16];
+        private int[] topCount = new int[16];
+        private int[] tops = new int[64];
+        private int topSize;
+        private int nodes;
+
+        /**
+         * Sorts the distinct names and the distinct word-start suffixes only, since names repeat;
+         * the rows of one name get consecutive ranks.
+         */
+        Builder(UserStore store) {
+            int size = store.size();
+            String[] names = new String[size];
+            Map<String, Integer> rowsPerName = new HashMap<>();
+            int words = 0;
+            for (int row = 0; row < size; row++) {
+                names[row] = fold(store.firstName(row), store.lastName(row));
+                rowsPerName.merge(names[row], 1, Integer::sum);
+                words += wordCount(names[row]);
+            }
+            keyCount = words;
+
+            String[] distinctNames = rowsPerName.keySet().toArray(String[]::new);
+            Arrays.sort(distinctNames);
+            Map<String, Integer> nameIds = new HashMap<>(distinctNames.length * 2);
+            rankStart = new int[distinctNames.length];
+            rankEnd = new int[distinctNames.length];
+            for (int id = 0, rank = 0; id < distinctNames.length; id++) {
+                nameIds.put(distinctNames[id], id);
+                rankStart[id] = rank;
+                rank += rowsPerName.get(distinctNames[id]);
+                rankEnd[id] = rank;
+            }
+            rowsByRank = new int[size];
+            int[] next = rankStart.clone();
+            for (int row = 0; row < size; row++) {
+                rowsByRank[next[nameIds.get(names[row])]++] = row;
+            }
+
+            Map<String, int[]> namesPerKey = new HashMap<>();
+            for (int id = 0; id < distinctNames.length; id++) {
+                String name = distinctNames[id];
+                for (int i = 0; i < name.length(); i++) {
+                    if (name.charAt(i) != ' ' && (i == 0 || name.charAt(i - 1) == ' ')) {
+                        int[] ids = namesPerKey.get(name.substring(i));
+                        if (ids == null) {
+                            namesPerKey.put(name.substring(i), new int[]{1, id});
+                        } else if (ids[ids[0]] != id) {
+                            if (ids[0] + 1 == ids.length) {
+                                ids = Arrays.copyOf(ids, ids.length * 2);
+                                namesPerKey.put(name.substring(i), ids);
+                            }
+                            ids[++ids[0]] = id;
+                        }
+                    }
+                }
+            }
+            keys = namesPerKey.keySet().toArray(String[]::new);
+            Arrays.sort(keys);
+            keyNames = new int[keys.length][];
+            for (int i = 0; i < keys.length; i++) {
+                int[] ids = namesPerKey.get(keys[i]);
+                keyNames[i] = Arrays.copyOfRange(ids, 1, ids[0] + 1);
+            }
+
+            nodes = 1;
+            buildNode(0, 0, keys.length, 0);
+        }
+
+        private static int wordCount(String name) {
+            int count = 0;
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) != ' ' && (i == 0 || name.charAt(i - 1) == ' ')) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Fills {@code node} for the sorted keys {@code [from, to)}, which share their first
+         * {@code depth} characters, and reserves one child per distinct following character.
+         */
+        private void buildNode(int node, int from, int to, int depth) {
+            int end = from == to || node == 0 ? depth : commonPrefixEnd(keys[from], keys[to - 1], depth);
+            labelStart[node] = labels.length();
+            if (from < to) {
+                labels.append(keys[from], depth, end);
+            }
+            labelEnd[node] = labels.length();
+
+            int terminalEnd = from < to && keys[from].length() == end ? from + 1 : from;
+            int groups = 0;
+            for (int i = terminalEnd; i < to; i++) {
+                if (i == terminalEnd || keys[i].charAt(end) != keys[i - 1].charAt(end)) {
+                    groups++;
+                }
+            }
+            int child = nodes;
+            firstChild[node] = child;
+            childCount[node] = groups;
+            nodes += groups;
+            ensureNodeCapacity(nodes);
+
+            int groupFrom = terminalEnd;
+            for (int i = terminalEnd + 1; i <= to; i++) {
+                if (i == to || keys[i].charAt(end) != keys[groupFrom].charAt(end)) {
+                    buildNode(child++, groupFrom, i, end);
+                    groupFrom = i;
+                }
+            }
+            collectTops(node, terminalEnd > from ? keyNames[from] : new int[0]);
+        }
+
+        /**
+         * Merges the ranks of the names whose key ends at {@code node}, which are consecutive
+         * ranges in name order, with the precomputed tops of its children, keeping the lowest
+         * {@link #MAX_SUGGESTIONS} distinct ranks.
+         */
+        private void collectTops(int node, int[] terminalNames) {
+            int[] ranks = new int[MAX_SUGGESTIONS * (childCount[node] + 1)];
+            int count = 0;
+            for (int i = 0; i < terminalNames.length && count < MAX_SUGGESTIONS; i++) {
+                for (int rank = rankStart[terminalNames[i]]; rank < rankEnd[terminalNames[i]]
+                        && count < MAX_SUGGESTIONS; rank++) {
+                    ranks[count++] = rank;
+                }
+            }
+            for (int c = firstChild[node]; c < firstChild[node] + childCount[node]; c++) {
+                System.arraycopy(tops, topStart[c], ranks, count, topCount[c]);
+                count += topCount[c];
+            }
+            Arrays.sort(ranks, 0, count);
+
+            if (tops.length < topSize + MAX_SUGGESTIONS) {
+                tops = Arrays.copyOf(tops, Math.max(tops.length * 2, topSize + MAX_SUGGESTIONS));
+            }
+            topStart[node] = topSize;
+            for (int i = 0; i < count && topSize - topStart[node] < MAX_SUGGESTIONS; i++) {
+                if (i == 0 || ranks[i] != ranks[i - 1]) {
+                    tops[topSize++] = ranks[i];
+                }
+            }
+            topCount[node] = topSize - topStart[node];
+        }
+
+        private static int commonPrefixEnd(String first, String last, int depth) {
+            int end = depth;
+            int max = Math.min(first.length(), last.length());
+            while (end < max && first.charAt(end) == last.charAt(end)) {
+                end++;
+            }
+            return end;
+        }
+
+        private void ensureNodeCapacity(int capacity) {
+            if (capacity > labelStart.length) {
+                int length = Math.max(capacity, labelStart.length * 2);
+                labelStart = Arrays.copyOf(labelStart, length);
+                labelEnd = Arrays.copyOf(labelEnd, length);
+                firstChild = Arrays.copyOf(firstChild, length);
+                childCount = Arrays.copyOf(childCount, length);
+                topStart = Arrays.copyOf(topStart, length);
+                topCount = Arrays.copyOf(topCount, length);
+            }
+        }
+    }
+}
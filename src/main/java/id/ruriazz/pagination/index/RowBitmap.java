@@ -0,0 +1,241 @@
+package id.ruriazz.pagination.index;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable set of row positions of one snapshot. Sparse sets are kept as sorted rows and dense
+ * ones as one bit per row, whichever is smaller, so that rare values cost a few bytes and frequent
+ * values at most {@code size / 8} bytes. Intersections pick the cheapest strategy for the two
+ * representations: a merge, a probe of the sparse rows, or a word-wise AND.
+ */
+public final class RowBitmap {
+
+    private final int universe;
+    private final int[] rows;
+    private final long[] words;
+    private final int cardinality;
+
+    private RowBitmap(int universe, int[] rows, long[] words, int cardinality) {
+        this.universe = universe;
+        this.rows = rows;
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    public static RowBitmap empty(int universe) {
+        return new RowBitmap(universe, new int[0], null, 0);
+    }
+
+    /**
+     * Builds the bitmap of the first {@code count} of the ascending {@code rows}.
+     */
+    public static RowBitmap ofSorted(int universe, int[] rows, int count) {
+        if (isSparse(count, universe)) {
+            return new RowBitmap(universe, Arrays.copyOf(rows, count), null, count);
+        }
+        long[] words = new long[wordCount(universe)];
+        for (int i = 0; i < count; i++) {
+            words[rows[i] >>> 6] |= 1L << rows[i];
+        }
+        return new RowBitmap(universe, null, words, count);
+    }
+
+    /**
+     * Returns the rows contained in any of the bitmaps.
+     */
+    public static RowBitmap union(int universe, List<RowBitmap> bitmaps) {
+        long[] words = new long[wordCount(universe)];
+        for (RowBitmap bitmap : bitmaps) {
+            bitmap.requireUniverse(universe);
+            if (bitmap.rows != null) {
+                for (int row : bitmap.rows) {
+                    words[row >>> 6] |= 1L << row;
+                }
+            } else {
+                for (int i = 0; i < words.length; i++) {
+                    words[i] |= bitmap.words[i];
+                }
+            }
+        }
+        return ofWords(universe, words);
+    }
+
+    private static RowBitmap ofWords(int universe, long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        RowBitmap dense = new RowBitmap(universe, null, words, cardinality);
+        return isSparse(cardinality, universe) ? new RowBitmap(universe, dense.toArray(), null, cardinality) : dense;
+    }
+
+    /**
+     * Sorted rows take {@code 32} bits per row, the bitmap one bit per row of the snapshot.
+     */
+    private static boolean isSparse(int cardinality, int universe) {
+        return (long) cardinality * Integer.SIZE < universe;
+    }
+
+    private static int wordCount(int universe) {
+        return (universe + 63) >>> 6;
+    }
+
+    public RowBitmap and(RowBitmap other) {
+        requireUniverse(other.universe);
+        if (rows != null && other.rows != null) {
+            return intersect(rows, other.rows);
+        }
+        if (rows != null) {
+            return filter(other::contains);
+        }
+        if (other.rows != null) {
+            return other.filter(this::contains);
+        }
+        long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return ofWords(universe, result);
+    }
+
+    /**
+     * Returns the cardinality of {@code and(other)} without building the intersection.
+     */
+    public int andCardinality(RowBitmap other) {
+        requireUniverse(other.universe);
+        if (rows != null && other.rows != null) {
+            return intersect(rows, other.rows, null);
+        }
+        RowBitmap sparse = rows != null ? this : other;
+        RowBitmap probed = rows != null ? other : this;
+        if (sparse.rows != null) {
+            int count = 0;
+            for (int row : sparse.rows) {
+                if (probed.contains(row)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the rows of this bitmap matching {@code predicate}.
+     */
+    public RowBitmap filter(IntPredicate predicate) {
+        int[] matching = new int[cardinality];
+        int count = 0;
+        for (int row : toArray()) {
+            if (predicate.test(row)) {
+                matching[count++] = row;
+            }
+        }
+        return ofSorted(universe, matching, count);
+    }
+
+    private RowBitmap intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        return ofSorted(universe, result, intersect(left, right, result));
+    }
+
+    /**
+     * Merges two ascending row arrays, writing the common rows to {@code result} unless it is
+     * {@code null}, and returns their number.
+     */
+    private static int intersect(int[] left, int[] right, int[] result) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                if (result != null) {
+                    result[count] = left[i];
+                }
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    public boolean contains(int row) {
+        if (row < 0 || row >= universe) {
+            return false;
+        }
+        return rows != null ? Arrays.binarySearch(rows, row) >= 0 : (words[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Estimated heap bytes of the bitmap.
+     */
+    public long bytes() {
+        return IndexBytes.OBJECT + (rows != null ? IndexBytes.of(rows) : IndexBytes.array(words.length, Long.BYTES));
+    }
+
+    /**
+     * Returns the rows in ascending order.
+     */
+    public int[] toArray() {
+        if (rows != null) {
+            return rows.clone();
+        }
+        int[] result = new int[cardinality];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                result[count++] = (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return result;
+    }
+
+    boolean isSparse() {
+        return rows != null;
+    }
+
+    private void requireUniverse(int otherUniverse) {
+        if (otherUniverse != universe) {
+            throw new IllegalArgumentException("Row bitmaps of snapshots of different sizes cannot be combined");
+        }
+    }
+
+    /**
+     * Collects ascending rows before choosing the representation.
+     */
+    static final class Builder {
+        private final int universe;
+        private int[] rows = new int[4];
+        private int count;
+
+        Builder(int universe) {
+            this.universe = universe;
+        }
+
+        void add(int row) {
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, count * 2);
+            }
+            rows[count++] = row;
+        }
+
+        RowBitmap build() {
+            return ofSorted(universe, rows, count);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.snapshot.DerivedIndex;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserMeasure;
+import id.ruriazz.pagination.snapshot.UserStore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Selectivity statistics of one snapshot for query planning: the number of users per
+ * case-folded value of every {@link UserAttribute}, an equi-width histogram of every
+ * {@link UserMeasure} and of each coordinate axis, and an evenly spaced sample of names to
+ * estimate substring matches. Selectivities are fractions of all users.
+ */
+public final class SnapshotStatistics implements DerivedIndex {
+
+    public static final DerivedIndexFactory<SnapshotStatistics> FACTORY =
+            DerivedIndexFactory.of(SnapshotStatistics.class, SnapshotStatistics::build);
+
+    static final int MEASURE_BUCKETS = 32;
+    static final int NAME_SAMPLE_SIZE = 256;
+
+    private static final UserAttribute[] ATTRIBUTES = UserAttribute.values();
+    private static final UserMeasure[] MEASURES = UserMeasure.values();
+    private static final double DEGREES_PER_BUCKET = 5;
+
+    private final int rows;
+    private final Map<String, Integer>[] valueCounts;
+    private final Histogram[] measures;
+    private final Histogram latitudes;
+    private final Histogram longitudes;
+    private final String[] nameSample;
+
+    private SnapshotStatistics(int rows, Map<String, Integer>[] valueCounts, Histogram[] measures,
+            Histogram latitudes, Histogram longitudes, String[] nameSample) {
+        this.rows = rows;
+        this.valueCounts = valueCounts;
+        this.measures = measures;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.nameSample = nameSample;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SnapshotStatistics build(UserStore store) {
+        int size = store.size();
+        Map<String, Integer>[] valueCounts = new Map[ATTRIBUTES.length];
+        for (UserAttribute attribute : ATTRIBUTES) {
+            valueCounts[attribute.ordinal()] = new HashMap<>();
+        }
+        double[] min = new double[MEASURES.length];
+        double[] max = new double[MEASURES.length];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        for (int row = 0; row < size; row++) {
+            for (UserAttribute attribute : ATTRIBUTES) {
+                String value = store.attribute(attribute, row);
+                if (value != null) {
+                    valueCounts[attribute.ordinal()].merge(value.toLowerCase(Locale.ROOT), 1, Integer::sum);
+                }
+            }
+            for (UserMeasure measure : MEASURES) {
+                double value = store.measure(measure, row);
+                if (!Double.isNaN(value)) {
+                    min[measure.ordinal()] = Math.min(min[measure.ordinal()], value);
+                    max[measure.ordinal()] = Math.max(max[measure.ordinal()], value);
+                }
+            }
+        }
+
+        Histogram[] measures = new Histogram[MEASURES.length];
+        for (UserMeasure measure : MEASURES) {
+            measures[measure.ordinal()] = new Histogram(min[measure.ordinal()], max[measure.ordinal()],
+                    MEASURE_BUCKETS);
+        }
+        Histogram latitudes = new Histogram(-90, 90, (int) (180 / DEGREES_PER_BUCKET));
+        Histogram longitudes = new Histogram(-180, 180, (int) (360 / DEGREES_PER_BUCKET));
+        for (int row = 0; row < size; row++) {
+            for (UserMeasure measure : MEASURES) {
+                measures[measure.ordinal()].add(store.measure(measure, row));
+            }
+            latitudes.add(store.latitude(row));
+            longitudes.add(store.longitude(row));
+        }
+
+        String[] nameSample = new String[Math.min(size, NAME_SAMPLE_SIZE)];
+        for (int i = 0; i < nameSample.length; i++) {
+            int row = (int) ((long) i * size / nameSample.length);
+            nameSample[i] = (store.firstName(row) + " " + store.lastName(row)).toLowerCase(Locale.ROOT);
+        }
+        return new SnapshotStatistics(size, valueCounts, measures, latitudes, longitudes, nameSample);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int distinctValues(UserAttribute attribute) {
+        return valueCounts[attribute.ordinal()].size();
+    }
+
+    /**
+     * Fraction of users whose attribute equals {@code value}, ignoring case.
+     */
+    public double selectivity(UserAttribute attribute, String value) {
+        return fraction(valueCounts[attribute.ordinal()].getOrDefault(value.toLowerCase(Locale.ROOT), 0));
+    }
+
+    /**
+     * Estimated fraction of users whose measure lies within {@code [min, max]}, either bound optional.
+     */
+    public double rangeSelectivity(UserMeasure measure, Double min, Double max) {
+        return fraction(measures[measure.ordinal()].count(min == null ? Double.NEGATIVE_INFINITY : min,
+                max == null ? Double.POSITIVE_INFINITY : max));
+    }
+
+    /**
+     * Estimated fraction of users inside the bounding box, assuming latitude and longitude are
+     * independent. A box with {@code minLongitude > maxLongitude} crosses the antimeridian.
+     */
+    public double boxSelectivity(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        double located = longitudes.total();
+        if (located == 0) {
+            return 0;
+        }
+        double inLongitude = minLongitude <= maxLongitude ? longitudes.count(minLongitude, maxLongitude)
+                : longitudes.count(minLongitude, 180) + longitudes.count(-180, maxLongitude);
+        return fraction(latitudes.count(minLatitude, maxLatitude)) * Math.min(1, inLongitude / located);
+    }
+
+    /**
+     * Estimated fraction of users within {@code radiusKm} of the point: the box around the circle,
+     * scaled by the share of the box the circle covers.
+     */
+    public double radiusSelectivity(double latitude, double longitude, double radiusKm) {
+        double degrees = Math.toDegrees(radiusKm / SpatialIndex.EARTH_RADIUS_KM);
+        double minLatitude = latitude - degrees;
+        double maxLatitude = latitude + degrees;
+        double sinDelta = Math.sin(Math.toRadians(degrees)) / Math.cos(Math.toRadians(latitude));
+        if (minLatitude <= -90 || maxLatitude >= 90 || degrees >= 90 || sinDelta >= 1) {
+            return boxSelectivity(Math.max(-90, minLatitude), -180, Math.min(90, maxLatitude), 180);
+        }
+        double delta = Math.toDegrees(Math.asin(sinDelta));
+        double minLongitude = longitude - delta < -180 ? longitude - delta + 360 : longitude - delta;
+        double maxLongitude = longitude + delta > 180 ? longitude + delta - 360 : longitude + delta;
+        return Math.PI / 4 * boxSelectivity(minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+
+    /**
+     * Estimated fraction of users whose lower-cased "first last" name contains {@code foldedFilter},
+     * from the name sample. A filter matching no sampled name is taken to match half a sample.
+     */
+    public double nameSelectivity(String foldedFilter) {
+        if (nameSample.length == 0) {
+            return 0;
+        }
+        int matches = 0;
+        for (String name : nameSample) {
+            if (name.contains(foldedFilter)) {
+                matches++;
+            }
+        }
+        return Math.max(matches, 0.5) / nameSample.length;
+    }
+
+    private double fraction(double count) {
+        return rows == 0 ? 0 : Math.min(1, count / rows);
+    }
+
+    /**
+     * Number of distinct attribute values counted.
+     */
+    @Override
+    public int entries() {
+        int entries = 0;
+        for (Map<String, Integer> counts : valueCounts) {
+            entries += counts.size();
+        }
+        return entries;
+    }
+
+    @Override
+    public long bytes() {
+        long bytes = IndexBytes.OBJECT;
+        for (Map<String, Integer> counts : valueCounts) {
+            bytes += IndexBytes.OBJECT;
+            for (String value : counts.keySet()) {
+                bytes += IndexBytes.MAP_ENTRY + IndexBytes.of(value) + IndexBytes.BOXED;
+            }
+        }
+        for (Histogram histogram : measures) {
+            bytes += histogram.bytes();
+        }
+        bytes += latitudes.bytes() + longitudes.bytes() + IndexBytes.array(nameSample.length, IndexBytes.REFERENCE);
+        for (String name : nameSample) {
+            bytes += IndexBytes.of(name);
+        }
+        return bytes;
+    }
+
+    /**
+     * Equi-width histogram over {@code [min, max]}; values outside or {@code NaN} are not counted.
+     * Partially covered buckets contribute in proportion to the overlap, assuming values spread
+     * evenly within a bucket.
+     */
+    private static final class Histogram {
+        private final double min;
+        private final double max;
+        private final int[] counts;
+        private int total;
+
+        Histogram(double min, double max, int buckets) {
+            this.min = min;
+            this.max = max;
+            this.counts = new int[max > min ? buckets : 1];
+        }
+
+        void add(double value) {
+            if (!(value >= min && value <= max)) {
+                return;
+            }
+            counts[bucket(value)]++;
+            total++;
+        }
+
+        int total() {
+            return total;
+        }
+
+        long bytes() {
+            return IndexBytes.OBJECT + IndexBytes.of(counts);
+        }
+
+        double count(double from, double to) {
+            if (from > to || to < min || from > max) {
+                return 0;
+            }
+            if (!(max > min)) {
+                return total;
+            }
+            double width = (max - min) / counts.length;
+            double count = 0;
+            for (int bucket = bucket(Math.max(from, min)); bucket <= bucket(Math.min(to, max)); bucket++) {
+                double low = min + bucket * width;
+                count += counts[bucket] * overlap(from, to, low, low + width);
+            }
+            return count;
+        }
+
+        private int bucket(double value) {
+            return Math.min(counts.length - 1, (int) ((value - min) / (max - min) * counts.length));
+        }
+
+        /**
+         * Covered share of the bucket {@code [low, high]}, at least one unit of it so that a
+         * single value such as {@code age = 30} is not estimated to match nobody.
+         */
+        private static double overlap(double from, double to, double low, double high) {
+            if (from > high || to < low) {
+                return 0;
+            }
+            double width = high - low;
+            return Math.max((Math.min(to, high) - Math.max(from, low)) / width, Math.min(1, 1 / width));
+        }
+    }
+}
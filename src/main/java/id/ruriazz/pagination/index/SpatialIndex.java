@@ -0,0 +1,279 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.snapshot.DerivedIndex;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import id.ruriazz.pagination.snapshot.UserStore;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Two-dimensional k-d tree over the address coordinates of one snapshot. Points are kept in
+ * primitive latitude, longitude and row arrays, in tree order: the median of each range splits
+ * it, alternating between latitude and longitude. Users without coordinates are not indexed.
+ */
+public final class SpatialIndex implements DerivedIndex {
+
+    public static final DerivedIndexFactory<SpatialIndex> FACTORY =
+            DerivedIndexFactory.of(SpatialIndex.class, SpatialIndex::build);
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+    private static final int LEAF_SIZE = 8;
+
+    private final int size;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] rows;
+
+    private SpatialIndex(int size, double[] latitudes, double[] longitudes, int[] rows) {
+        this.size = size;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.rows = rows;
+    }
+
+    public static SpatialIndex build(UserStore store) {
+        int count = 0;
+        double[] latitudes = new double[store.size()];
+        double[] longitudes = new double[store.size()];
+        int[] rows = new int[store.size()];
+        for (int row = 0; row < store.size(); row++) {
+            double latitude = store.latitude(row);
+            double longitude = store.longitude(row);
+            if (!Double.isNaN(latitude) && !Double.isNaN(longitude)) {
+                latitudes[count] = latitude;
+                longitudes[count] = longitude;
+                rows[count++] = row;
+            }
+        }
+        SpatialIndex index = new SpatialIndex(store.size(), Arrays.copyOf(latitudes, count),
+                Arrays.copyOf(longitudes, count), Arrays.copyOf(rows, count));
+        index.split(0, count, 0);
+        return index;
+    }
+
+    /**
+     * Great-circle distance in kilometres (haversine).
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Returns the rows inside the bounding box. A box with {@code minLongitude > maxLongitude}
+     * crosses the antimeridian.
+     */
+    public RowBitmap within(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        Collector collector = new Collector(null);
+        collect(minLatitude, minLongitude, maxLatitude, maxLongitude, collector);
+        return collector.toBitmap(size);
+    }
+
+    /**
+     * Returns the rows within {@code radiusKm} of the given point.
+     */
+    public RowBitmap withinRadius(double latitude, double longitude, double radiusKm) {
+        Collector collector = new Collector(
+                i -> distanceKm(latitude, longitude, latitudes[i], longitudes[i]) <= radiusKm);
+        collectRadius(latitude, longitude, radiusKm, collector);
+        return collector.toBitmap(size);
+    }
+
+    /**
+     * Returns up to {@code count} rows accepted by {@code accept}, nearest first. The search radius
+     * starts where {@code count} users are expected for a uniform spread and doubles until it holds
+     * enough accepted rows, so that no row outside it can be nearer than those returned.
+     */
+    public int[] nearest(double latitude, double longitude, int count, IntPredicate accept) {
+        double radiusKm = Math.min(MAX_DISTANCE_KM,
+                EARTH_RADIUS_KM * Math.sqrt(4.0 * count / Math.max(1, rows.length)));
+        while (true) {
+            double radius = radiusKm;
+            Collector collector = new Collector(i -> accept.test(rows[i])
+                    && distanceKm(latitude, longitude, latitudes[i], longitudes[i]) <= radius);
+            collectRadius(latitude, longitude, radius, collector);
+            if (collector.count >= count || radius >= MAX_DISTANCE_KM) {
+                return collector.nearest(latitude, longitude, count);
+            }
+            radiusKm = Math.min(MAX_DISTANCE_KM, radius * 2);
+        }
+    }
+
+    /**
+     * Visits the bounding boxes of the circle, split at the antimeridian and widened to every
+     * longitude when the circle contains a pole.
+     */
+    private void collectRadius(double latitude, double longitude, double radiusKm, Collector collector) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double minLatitude = latitude - Math.toDegrees(angle);
+        double maxLatitude = latitude + Math.toDegrees(angle);
+        double sinDelta = Math.sin(angle) / Math.cos(Math.toRadians(latitude));
+        if (minLatitude <= -90 || maxLatitude >= 90 || angle >= Math.PI / 2 || sinDelta >= 1) {
+            collect(Math.max(-90, minLatitude), -180, Math.min(90, maxLatitude), 180, collector);
+            return;
+        }
+        double delta = Math.toDegrees(Math.asin(sinDelta));
+        double minLongitude = longitude - delta;
+        double maxLongitude = longitude + delta;
+        collect(minLatitude, wrap(minLongitude), maxLatitude, wrap(maxLongitude), collector);
+    }
+
+    private void collect(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+            Collector collector) {
+        if (minLongitude <= maxLongitude) {
+            search(0, rows.length, 0, minLatitude, minLongitude, maxLatitude, maxLongitude, collector);
+        } else {
+            search(0, rows.length, 0, minLatitude, minLongitude, maxLatitude, 180, collector);
+            search(0, rows.length, 0, minLatitude, -180, maxLatitude, maxLongitude, collector);
+        }
+    }
+
+    private static double wrap(double longitude) {
+        return longitude < -180 ? longitude + 360 : longitude > 180 ? longitude - 360 : longitude;
+    }
+
+    private void search(int from, int to, int depth, double minLatitude, double minLongitude, double maxLatitude,
+            double maxLongitude, Collector collector) {
+        if (to - from <= LEAF_SIZE) {
+            for (int i = from; i < to; i++) {
+                if (latitudes[i] >= minLatitude && latitudes[i] <= maxLatitude
+                        && longitudes[i] >= minLongitude && longitudes[i] <= maxLongitude) {
+                    collector.offer(i);
+                }
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        double[] axis = depth % 2 == 0 ? latitudes : longitudes;
+        double min = depth % 2 == 0 ? minLatitude : minLongitude;
+        double max = depth % 2 == 0 ? maxLatitude : maxLongitude;
+        if (latitudes[middle] >= minLatitude && latitudes[middle] <= maxLatitude
+                && longitudes[middle] >= minLongitude && longitudes[middle] <= maxLongitude) {
+            collector.offer(middle);
+        }
+        if (min <= axis[middle]) {
+            search(from, middle, depth + 1, minLatitude, minLongitude, maxLatitude, maxLongitude, collector);
+        }
+        if (max >= axis[middle]) {
+            search(middle + 1, to, depth + 1, minLatitude, minLongitude, maxLatitude, maxLongitude, collector);
+        }
+    }
+
+    /**
+     * Arranges {@code [from, to)} so that the median on the axis of {@code depth} sits in the
+     * middle with smaller or equal values before it, then recurses into both halves.
+     */
+    private void split(int from, int to, int depth) {
+        if (to - from <= LEAF_SIZE) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        double[] axis = depth % 2 == 0 ? latitudes : longitudes;
+        int low = from;
+        int high = to - 1;
+        while (low < high) {
+            double pivot = axis[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (axis[i] < pivot) {
+                    i++;
+                }
+                while (axis[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (middle <= j) {
+                high = j;
+            } else if (middle >= i) {
+                low = i;
+            } else {
+                break;
+            }
+        }
+        split(from, middle, depth + 1);
+        split(middle + 1, to, depth + 1);
+    }
+
+    private void swap(int i, int j) {
+        double latitude = latitudes[i];
+        latitudes[i] = latitudes[j];
+        latitudes[j] = latitude;
+        double longitude = longitudes[i];
+        longitudes[i] = longitudes[j];
+        longitudes[j] = longitude;
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+    }
+
+    @Override
+    public int entries() {
+        return rows.length;
+    }
+
+    @Override
+    public long bytes() {
+        return IndexBytes.OBJECT + 2 * IndexBytes.array(latitudes.length, Double.BYTES) + IndexBytes.of(rows);
+    }
+
+    /**
+     * Collects the tree positions found by a search that pass {@code accept}.
+     */
+    private final class Collector {
+        private final IntPredicate accept;
+        private int[] found = new int[16];
+        private int count;
+
+        Collector(IntPredicate accept) {
+            this.accept = accept;
+        }
+
+        void offer(int position) {
+            if (accept != null && !accept.test(position)) {
+                return;
+            }
+            if (count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = position;
+        }
+
+        RowBitmap toBitmap(int universe) {
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = rows[found[i]];
+            }
+            Arrays.sort(result);
+            return RowBitmap.ofSorted(universe, result, count);
+        }
+
+        int[] nearest(double latitude, double longitude, int limit) {
+            double[] distances = new double[count];
+            for (int i = 0; i < count; i++) {
+                distances[i] = distanceKm(latitude, longitude, latitudes[found[i]], longitudes[found[i]]);
+            }
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> distances[a] != distances[b] ? Double.compare(distances[a], distances[b])
+                    : Integer.compare(rows[found[a]], rows[found[b]]));
+            int[] result = new int[Math.min(limit, count)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = rows[found[order[i]]];
+            }
+            return result;
+        }
+    }
+}
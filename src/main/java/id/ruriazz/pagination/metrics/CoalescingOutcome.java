@@ -0,0 +1,17 @@
+package id.ruriazz.pagination.metrics;
+
+public enum CoalescingOutcome {
+    COMPUTED("computed"),
+    SHARED("shared"),
+    TIMED_OUT("timed_out");
+
+    private final String tag;
+
+    CoalescingOutcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
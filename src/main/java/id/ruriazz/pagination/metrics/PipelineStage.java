@@ -0,0 +1,20 @@
+package id.ruriazz.pagination.metrics;
+
+public enum PipelineStage {
+    CACHE("cache"),
+    FETCH("fetch"),
+    FILTER("filter"),
+    PAGINATE("paginate"),
+    AGGREGATE("aggregate"),
+    SERIALIZE("serialize");
+
+    private final String tag;
+
+    PipelineStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,53 @@
+package id.ruriazz.pagination.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opts a request into Server-Timing collection, either globally through
+ * {@code users.server-timing.enabled} or per request with {@code X-Server-Timing: true}.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_HEADER = "X-Server-Timing";
+
+    private final boolean enabled;
+
+    public ServerTimingFilter(@Value("${users.server-timing.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled && !isRequested(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ServerTimings.bind();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ServerTimings.unbind();
+        }
+    }
+
+    private boolean isRequested(HttpServletRequest request) {
+        String value = request.getHeader(REQUEST_HEADER);
+        return value != null && (value.equalsIgnoreCase("true") || value.equals("1"));
+    }
+}
@@ -0,0 +1,82 @@
+package id.ruriazz.pagination.metrics;
+
+/**
+ * Per-request stage durations reported through the {@code Server-Timing} response header.
+ * Bound to the request thread by {@link ServerTimingFilter}; one instance and a fixed
+ * {@code long[]} per opted-in request, nothing at all for the others.
+ */
+public final class ServerTimings {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final PipelineStage[] STAGES = PipelineStage.values();
+    private static final ThreadLocal<ServerTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private final long[] stageNanos = new long[STAGES.length];
+    private int recordedStages;
+
+    ServerTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public static ServerTimings current() {
+        return CURRENT.get();
+    }
+
+    static ServerTimings bind() {
+        ServerTimings timings = new ServerTimings(System.nanoTime());
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    public void add(PipelineStage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+        recordedStages |= 1 << stage.ordinal();
+    }
+
+    public long getNanos(PipelineStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    public String toHeaderValue() {
+        StringBuilder header = new StringBuilder(128);
+        for (PipelineStage stage : STAGES) {
+            if ((recordedStages & (1 << stage.ordinal())) != 0) {
+                appendMetric(header, stage.getTag(), stageNanos[stage.ordinal()]);
+            }
+        }
+        appendMetric(header, "total", System.nanoTime() - startNanos);
+        return header.toString();
+    }
+
+    /**
+     * The serialize stage and the final total, sent as a trailer once the body has been written.
+     */
+    public String toTrailerValue() {
+        StringBuilder trailer = new StringBuilder(64);
+        appendMetric(trailer, PipelineStage.SERIALIZE.getTag(), stageNanos[PipelineStage.SERIALIZE.ordinal()]);
+        appendMetric(trailer, "total", System.nanoTime() - startNanos);
+        return trailer.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        header.append(name).append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            header.append('0');
+        }
+        if (fraction < 10) {
+            header.append('0');
+        }
+        header.append(fraction);
+    }
+}
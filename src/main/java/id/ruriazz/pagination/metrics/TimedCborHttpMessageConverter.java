@@ -0,0 +1,29 @@
+package id.ruriazz.pagination.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * {@code application/cbor} converter that records the serialize stage for paginated responses,
+ * like {@link TimedJacksonHttpMessageConverter}.
+ */
+public class TimedCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    private final UserMetrics userMetrics;
+
+    public TimedCborHttpMessageConverter(ObjectMapper objectMapper, UserMetrics userMetrics) {
+        super(objectMapper);
+        this.userMetrics = userMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        TimedWrites.write(object, outputMessage, userMetrics, message -> super.writeInternal(object, type, message));
+    }
+}
@@ -0,0 +1,29 @@
+package id.ruriazz.pagination.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter that records the serialize stage for paginated responses and, when the request
+ * opted into Server-Timing, reports it in a trailer.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final UserMetrics userMetrics;
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, UserMetrics userMetrics) {
+        super(objectMapper);
+        this.userMetrics = userMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        TimedWrites.write(object, outputMessage, userMetrics, message -> super.writeInternal(object, type, message));
+    }
+}
@@ -0,0 +1,69 @@
+package id.ruriazz.pagination.metrics;
+
+import id.ruriazz.pagination.dto.PaginationResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.server.ServletServerHttpResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serialization shared by the timed Jackson converters: records the serialize stage for
+ * paginated responses. When the request opted into Server-Timing, the header carries the stages
+ * measured before the body is written, and serialization, which is only known once the body has
+ * been streamed, follows as a {@code Server-Timing} trailer on chunked servlet responses. The body
+ * is never buffered.
+ */
+final class TimedWrites {
+
+    private TimedWrites() {
+    }
+
+    static void write(Object object, HttpOutputMessage outputMessage, UserMetrics userMetrics, Write write)
+            throws IOException {
+        ServerTimings timings = ServerTimings.current();
+        if (timings != null) {
+            HttpHeaders headers = outputMessage.getHeaders();
+            headers.add(ServerTimings.HEADER, timings.toHeaderValue());
+            if (outputMessage instanceof ServletServerHttpResponse response
+                    && addTrailer(response.getServletResponse(), timings)) {
+                headers.add(HttpHeaders.TRAILER, ServerTimings.HEADER);
+            }
+        }
+
+        if (!(object instanceof PaginationResponse)) {
+            write.to(outputMessage);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            write.to(outputMessage);
+        } finally {
+            userMetrics.record(PipelineStage.SERIALIZE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Registers the serialize trailer, returning {@code false} where the response cannot carry
+     * trailers, such as HTTP/1.0.
+     */
+    private static boolean addTrailer(HttpServletResponse response, ServerTimings timings) {
+        try {
+            response.setTrailerFields(() -> Map.of(ServerTimings.HEADER, timings.toTrailerValue()));
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The converter's own serialization of the object into a message.
+     */
+    @FunctionalInterface
+    interface Write {
+        void to(HttpOutputMessage outputMessage) throws IOException;
+    }
+}
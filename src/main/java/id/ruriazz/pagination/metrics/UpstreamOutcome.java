@@ -0,0 +1,19 @@
+package id.ruriazz.pagination.metrics;
+
+public enum UpstreamOutcome {
+    SUCCESS("success"),
+    NETWORK_ERROR("network_error"),
+    HTTP_ERROR("http_error"),
+    INVALID_RESPONSE("invalid_response"),
+    UNEXPECTED_ERROR("unexpected_error");
+
+    private final String tag;
+
+    UpstreamOutcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,205 @@
+package id.ruriazz.pagination.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the users request pipeline: one timer per {@link PipelineStage},
+ * upstream call and request coalescing outcome counters and gauges describing
+ * the cached snapshot, the change feed, the startup warm-up and the weight of each cache.
+ * Work run through {@link #withoutRecording(Supplier)}, such as the startup warm-up, is not
+ * recorded in the stage timers or coalescing counters.
+ */
+@Component
+public class UserMetrics {
+
+    private static final ThreadLocal<Boolean> SUPPRESSED = ThreadLocal.withInitial(() -> false);
+
+    private final Map<PipelineStage, Timer> stageTimers = new EnumMap<>(PipelineStage.class);
+    private final Map<UpstreamOutcome, Counter> upstreamCounters = new EnumMap<>(UpstreamOutcome.class);
+    private final Map<CoalescingOutcome, Counter> coalescingCounters = new EnumMap<>(CoalescingOutcome.class);
+    private final Counter insertedUsers;
+    private final Counter updatedUsers;
+    private final Counter removedUsers;
+    private final AtomicInteger snapshotSize = new AtomicInteger();
+    private final AtomicInteger changeSubscribers = new AtomicInteger();
+    private volatile long snapshotLoadedAtMillis;
+    private volatile long warmupNanos = -1;
+
+    private final MeterRegistry registry;
+
+    public UserMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (PipelineStage stage : PipelineStage.values()) {
+            stageTimers.put(stage, Timer.builder("users.pipeline.stage")
+                    .description("Time spent in each stage of the users request pipeline")
+                    .tag("stage", stage.getTag())
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry));
+        }
+        for (UpstreamOutcome outcome : UpstreamOutcome.values()) {
+            upstreamCounters.put(outcome, Counter.builder("users.upstream.requests")
+                    .description("Calls to the external users API by outcome")
+                    .tag("outcome", outcome.getTag())
+                    .register(registry));
+        }
+        for (CoalescingOutcome outcome : CoalescingOutcome.values()) {
+            coalescingCounters.put(outcome, Counter.builder("users.requests.coalesced")
+                    .description("Users queries computed, served from an identical in-flight query or timed out waiting for it")
+                    .tag("outcome", outcome.getTag())
+                    .register(registry));
+        }
+        insertedUsers = changeCounter(registry, "inserted");
+        updatedUsers = changeCounter(registry, "updated");
+        removedUsers = changeCounter(registry, "removed");
+        Gauge.builder("users.snapshot.size", snapshotSize, AtomicInteger::get)
+                .description("Number of users in the most recently loaded snapshot")
+                .register(registry);
+        Gauge.builder("users.changes.subscribers", changeSubscribers, AtomicInteger::get)
+                .description("Open streams on the users change feed")
+                .register(registry);
+        TimeGauge.builder("users.warmup.duration", this, TimeUnit.NANOSECONDS, UserMetrics::warmupNanos)
+                .description("Time the startup warm-up took until the instance reported ready")
+                .register(registry);
+        TimeGauge.builder("users.snapshot.age", this, TimeUnit.MILLISECONDS, UserMetrics::snapshotAgeMillis)
+                .description("Time since the most recently loaded snapshot was fetched")
+                .register(registry);
+    }
+
+    private static Counter changeCounter(MeterRegistry registry, String type) {
+        return Counter.builder("users.snapshot.changes")
+                .description("Users changed between consecutive snapshot versions")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    public <T> T time(PipelineStage stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs the action without recording its stages and coalescing outcomes, so that synthetic
+     * work does not show up as traffic.
+     */
+    public <T> T withoutRecording(Supplier<T> action) {
+        boolean suppressed = SUPPRESSED.get();
+        SUPPRESSED.set(true);
+        try {
+            return action.get();
+        } finally {
+            SUPPRESSED.set(suppressed);
+        }
+    }
+
+    /**
+     * Whether the calling thread's work is being recorded, that is, it is not inside
+     * {@link #withoutRecording(Supplier)}.
+     */
+    public boolean isRecording() {
+        return !SUPPRESSED.get();
+    }
+
+    public void record(PipelineStage stage, long nanos) {
+        if (isRecording()) {
+            stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        }
+        ServerTimings timings = ServerTimings.current();
+        if (timings != null) {
+            timings.add(stage, nanos);
+        }
+    }
+
+    public void recordUpstream(UpstreamOutcome outcome) {
+        upstreamCounters.get(outcome).increment();
+    }
+
+    public void recordCoalescing(CoalescingOutcome outcome) {
+        if (isRecording()) {
+            coalescingCounters.get(outcome).increment();
+        }
+    }
+
+    public void recordSnapshotLoaded(int size) {
+        snapshotSize.set(size);
+        snapshotLoadedAtMillis = System.currentTimeMillis();
+    }
+
+    public void recordSnapshotChanges(int inserted, int updated, int removed) {
+        insertedUsers.increment(inserted);
+        updatedUsers.increment(updated);
+        removedUsers.increment(removed);
+    }
+
+    public void recordChangeSubscribers(int subscribers) {
+        changeSubscribers.set(subscribers);
+    }
+
+    /**
+     * Registers the estimated bytes held by a cache and the most it may hold.
+     */
+    public void registerCache(String cache, LongSupplier maximumBytes, LongSupplier weightedBytes) {
+        Gauge.builder("users.cache.weight", weightedBytes, LongSupplier::getAsLong)
+                .description("Estimated bytes held by the cache")
+                .tag("cache", cache)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("users.cache.budget", maximumBytes, LongSupplier::getAsLong)
+                .description("Share of the cache memory budget given to the cache")
+                .tag("cache", cache)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Registers the bytes retained by the indexed snapshot history, which is not bounded by the cache budget.
+     */
+    public void registerSnapshotHistory(LongSupplier retainedBytes) {
+        Gauge.builder("users.snapshot.history.weight", retainedBytes, LongSupplier::getAsLong)
+                .description("Estimated bytes of the derived indexes and older stores kept by the snapshot history")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Registers the age of the shared snapshot a reader maps, where a negative age means none is mapped.
+     */
+    public void registerSharedSnapshotAge(LongSupplier ageMillis) {
+        TimeGauge.builder("users.shared-snapshot.age", ageMillis, TimeUnit.MILLISECONDS, supplier -> {
+                    long age = supplier.getAsLong();
+                    return age < 0 ? Double.NaN : age;
+                })
+                .description("Time since the shared snapshot mapped by this reader was fetched")
+                .register(registry);
+    }
+
+    public void recordWarmup(long nanos) {
+        warmupNanos = nanos;
+    }
+
+    private double warmupNanos() {
+        long nanos = warmupNanos;
+        return nanos < 0 ? Double.NaN : nanos;
+    }
+
+    private double snapshotAgeMillis() {
+        long loadedAt = snapshotLoadedAtMillis;
+        return loadedAt == 0 ? Double.NaN : System.currentTimeMillis() - loadedAt;
+    }
+}
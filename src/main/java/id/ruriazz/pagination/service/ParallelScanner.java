@@ -0,0 +1,139 @@
+package id.ruriazz.pagination.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntPredicate;
+
+/**
+ * Evaluates a row predicate over a whole snapshot. Snapshots of at least
+ * {@code users.scan.parallel-threshold} rows are split into chunks of {@link #CHUNK_ROWS}
+ * consecutive rows, checked on a dedicated {@link ForkJoinPool} of {@code users.scan.parallelism}
+ * threads (0 for one per core), each producing a compact array of its matching positions; the
+ * arrays are then merged in row order. Smaller snapshots are scanned on the calling thread, where
+ * forking would cost more than it saves.
+ */
+@Component
+public class ParallelScanner implements DisposableBean {
+
+    static final int CHUNK_ROWS = 8192;
+
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    public ParallelScanner(@Value("${users.scan.parallel-threshold:50000}") int threshold,
+            @Value("${users.scan.parallelism:0}") int parallelism) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("users.scan.parallel-threshold must be at least 1");
+        }
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("users.scan.parallelism must not be negative");
+        }
+        this.threshold = threshold;
+        this.pool = new ForkJoinPool(parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism,
+                pool -> {
+                    var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("users-scan-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }, null, false);
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns the first {@code limit} rows below {@code size} accepted by {@code predicate}, in row
+     * order, along with the number of all accepted rows. The predicate must be safe to call from
+     * several threads.
+     */
+    public Scan scan(int size, IntPredicate predicate, int limit) {
+        if (size < threshold || pool.getParallelism() == 1) {
+            return scanSequentially(size, predicate, limit);
+        }
+        int[][] chunks = new int[(size + CHUNK_ROWS - 1) / CHUNK_ROWS][];
+        pool.invoke(new ChunkScan(chunks, 0, chunks.length, size, predicate));
+
+        int total = 0;
+        for (int[] chunk : chunks) {
+            total += chunk.length;
+        }
+        int[] rows = new int[Math.min(total, limit)];
+        int filled = 0;
+        for (int i = 0; i < chunks.length && filled < rows.length; i++) {
+            int length = Math.min(chunks[i].length, rows.length - filled);
+            System.arraycopy(chunks[i], 0, rows, filled, length);
+            filled += length;
+        }
+        return new Scan(rows, total);
+    }
+
+    private static Scan scanSequentially(int size, IntPredicate predicate, int limit) {
+        int[] rows = new int[Math.min(size, limit)];
+        int total = 0;
+        for (int row = 0; row < size; row++) {
+            if (predicate.test(row)) {
+                if (total < rows.length) {
+                    rows[total] = row;
+                }
+                total++;
+            }
+        }
+        return new Scan(total < rows.length ? Arrays.copyOf(rows, total) : rows, total);
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Accepted rows, at most the requested limit, and the number of all accepted rows.
+     */
+    public record Scan(int[] rows, int total) {
+    }
+
+    /**
+     * Scans the chunks {@code [from, to)}, halving the range until one chunk is left.
+     */
+    private static final class ChunkScan extends RecursiveAction {
+        private final int[][] chunks;
+        private final int from;
+        private final int to;
+        private final int size;
+        private final IntPredicate predicate;
+
+        ChunkScan(int[][] chunks, int from, int to, int size, IntPredicate predicate) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.size = size;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkScan(chunks, from, middle, size, predicate),
+                        new ChunkScan(chunks, middle, to, size, predicate));
+                return;
+            }
+            int start = from * CHUNK_ROWS;
+            int end = Math.min(size, start + CHUNK_ROWS);
+            int[] rows = new int[end - start];
+            int count = 0;
+            for (int row = start; row < end; row++) {
+                if (predicate.test(row)) {
+                    rows[count++] = row;
+                }
+            }
+            chunks[from] = Arrays.copyOf(rows, count);
+        }
+    }
+}
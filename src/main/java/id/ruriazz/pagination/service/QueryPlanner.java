@@ -0,0 +1,366 @@
+package id.ruriazz.pagination.service;
+
+import id.ruriazz.pagination.dto.QueryPlan;
+import id.ruriazz.pagination.dto.UserFilter;
+import id.ruriazz.pagination.index.FilterIndex;
+import id.ruriazz.pagination.index.NameGramIndex;
+import id.ruriazz.pagination.index.RowBitmap;
+import id.ruriazz.pagination.index.SnapshotStatistics;
+import id.ruriazz.pagination.index.SpatialIndex;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserMeasure;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import id.ruriazz.pagination.snapshot.UserStore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Chooses how the criteria of a users query are evaluated against one snapshot, from the
+ * selectivities in its {@link SnapshotStatistics} and a cost per row for every way of checking a
+ * criterion. Criteria are assumed independent.
+ * <p>
+ * A {@link AccessPath#FULL_SCAN} verifies every row, checking the criteria in the order that
+ * rejects rows soonest for the least work. An {@link AccessPath#INDEX_INTERSECTION} reads and
+ * intersects the bitmaps of the most selective indexed criteria and verifies the remaining ones on
+ * the rows left; every number of bitmaps is costed. With {@code nearest}, a
+ * {@link AccessPath#NEAREST_WALK} instead walks outwards through the {@link SpatialIndex},
+ * verifying each user until enough have matched.
+ */
+final class QueryPlanner {
+
+    /**
+     * Ways of producing the matching rows.
+     */
+    enum AccessPath {
+        ALL_ROWS, FULL_SCAN, INDEX_INTERSECTION, NEAREST_WALK
+    }
+
+    static final double SCAN_ROW_COST = 0.1;
+    static final double BITMAP_ROW_COST = 0.05;
+    static final double RANGE_ROW_COST = 0.2;
+    static final double SPATIAL_ROW_COST = 0.5;
+    static final double ATTRIBUTE_COST = 1;
+    static final double MEASURE_COST = 1;
+    static final double BOX_COST = 1;
+    static final double RADIUS_COST = 3;
+    static final double NAME_COST = 4;
+    static final double WALK_ROW_COST = 2;
+
+    /**
+     * Selectivities assumed when the snapshot has no statistics.
+     */
+    static final double DEFAULT_EQUALITY_SELECTIVITY = 0.1;
+    static final double DEFAULT_RANGE_SELECTIVITY = 0.3;
+    static final double DEFAULT_NAME_SELECTIVITY = 0.05;
+
+    private QueryPlanner() {
+    }
+
+    static Plan plan(UserSnapshot userSnapshot, String nameFilter, UserFilter filter) {
+        UserStore store = userSnapshot.store();
+        int rows = store.size();
+        List<Criterion> criteria = criteria(userSnapshot, nameFilter, filter);
+        Map<AccessPath, Double> alternatives = new EnumMap<>(AccessPath.class);
+        if (criteria.isEmpty() && filter.getNearest() == null) {
+            alternatives.put(AccessPath.ALL_ROWS, 0.0);
+            return new Plan(AccessPath.ALL_ROWS, List.of(), List.of(), rows, 0, alternatives);
+        }
+
+        double estimatedRows = rows;
+        for (Criterion criterion : criteria) {
+            estimatedRows *= criterion.selectivity();
+        }
+
+        List<Criterion> byRank = new ArrayList<>(criteria);
+        byRank.sort(Comparator.comparingDouble(Criterion::rank));
+        double scanCost = rows * (SCAN_ROW_COST + checkCost(byRank));
+        Plan best = new Plan(AccessPath.FULL_SCAN, List.of(), byRank, estimatedRows, scanCost, alternatives);
+        alternatives.put(AccessPath.FULL_SCAN, scanCost);
+
+        List<Criterion> indexed = new ArrayList<>(criteria.stream().filter(Criterion::indexed).toList());
+        indexed.sort(Comparator.comparingDouble(Criterion::selectivity).thenComparingDouble(Criterion::indexCost));
+        double bitmapCost = 0;
+        double survivors = rows;
+        for (int k = 1; k <= indexed.size(); k++) {
+            Criterion criterion = indexed.get(k - 1);
+            bitmapCost += criterion.indexCost();
+            survivors *= criterion.selectivity();
+            List<Criterion> verified = new ArrayList<>(byRank);
+            verified.removeAll(indexed.subList(0, k));
+            double cost = bitmapCost + survivors * checkCost(verified);
+            if (cost < alternatives.getOrDefault(AccessPath.INDEX_INTERSECTION, Double.POSITIVE_INFINITY)) {
+                alternatives.put(AccessPath.INDEX_INTERSECTION, cost);
+                if (cost < best.cost()) {
+                    best = new Plan(AccessPath.INDEX_INTERSECTION, List.copyOf(indexed.subList(0, k)), verified,
+                            estimatedRows, cost, alternatives);
+                }
+            }
+        }
+
+        if (filter.getNearest() != null) {
+            double visited = Math.min(rows, (double) filter.getNearest() * rows / Math.max(estimatedRows, 1));
+            alternatives.replaceAll((path, cost) -> cost + visited * WALK_ROW_COST);
+            double selectFirst = best.cost() + visited * WALK_ROW_COST;
+            double walk = visited * (WALK_ROW_COST + checkCost(byRank));
+            alternatives.put(AccessPath.NEAREST_WALK, walk);
+            best = walk < selectFirst
+                    ? new Plan(AccessPath.NEAREST_WALK, List.of(), byRank, estimatedRows, walk, alternatives)
+                    : best.withCost(selectFirst);
+        }
+        return best;
+    }
+
+    /**
+     * Plans and evaluates the query; see {@link #execute}.
+     */
+    static Selection select(UserSnapshot userSnapshot, String nameFilter, UserFilter filter, int ranked,
+            ParallelScanner scanner) {
+        return execute(plan(userSnapshot, nameFilter, filter), userSnapshot, filter, ranked, scanner);
+    }
+
+    /**
+     * Evaluates {@code plan} and orders its rows by distance with {@code nearest}, or keeps the
+     * {@code ranked} best matches with {@code search}. In snapshot order, a full scan keeps only the
+     * first {@code ranked} rows and counts the rest.
+     */
+    static Selection execute(Plan plan, UserSnapshot userSnapshot, UserFilter filter, int ranked,
+            ParallelScanner scanner) {
+        UserStore store = userSnapshot.store();
+        IntPredicate verify = verifier(plan.verified());
+        if (plan.path() == AccessPath.NEAREST_WALK) {
+            int[] nearest = spatialIndex(userSnapshot).nearest(filter.getLat(), filter.getLng(),
+                    filter.getNearest(), verify);
+            return new Selection(plan, nearest, nearest.length);
+        }
+        if (plan.path() == AccessPath.FULL_SCAN && !filter.ordersRows()) {
+            ParallelScanner.Scan scan = scanner.scan(store.size(), verify, ranked);
+            return new Selection(plan, scan.rows(), scan.total());
+        }
+
+        RowBitmap matching = switch (plan.path()) {
+            case ALL_ROWS, NEAREST_WALK -> null;
+            case FULL_SCAN -> {
+                ParallelScanner.Scan scan = scanner.scan(store.size(), verify, Integer.MAX_VALUE);
+                yield RowBitmap.ofSorted(store.size(), scan.rows(), scan.total());
+            }
+            case INDEX_INTERSECTION -> {
+                RowBitmap bitmap = null;
+                for (Criterion criterion : plan.indexed()) {
+                    bitmap = criterion.index().apply(bitmap);
+                }
+                yield plan.verified().isEmpty() ? bitmap : bitmap.filter(verify);
+            }
+        };
+        if (!filter.ordersRows()) {
+            int[] rows = matching == null ? null : matching.toArray();
+            return new Selection(plan, rows, rows == null ? store.size() : rows.length);
+        }
+
+        IntPredicate accept = matching == null ? row -> true : matching::contains;
+        if (filter.getNearest() != null) {
+            int[] nearest = spatialIndex(userSnapshot).nearest(filter.getLat(), filter.getLng(),
+                    filter.getNearest(), accept);
+            return new Selection(plan, nearest, nearest.length);
+        }
+        NameGramIndex existing = userSnapshot.indexes().get(NameGramIndex.class);
+        NameGramIndex index = existing != null ? existing : NameGramIndex.build(store);
+        NameGramIndex.SearchResult result = index.search(filter.getSearch().toLowerCase(Locale.ROOT), ranked, accept);
+        return new Selection(plan, result.rows(), result.matches());
+    }
+
+    /**
+     * Describes {@code plan} for the {@code explain} parameter of the users endpoint.
+     */
+    static QueryPlan explain(Selection selection, UserFilter filter) {
+        Plan plan = selection.plan();
+        List<QueryPlan.Step> steps = new ArrayList<>();
+        for (Criterion criterion : plan.indexed()) {
+            steps.add(new QueryPlan.Step(criterion.description(), "index", criterion.selectivity()));
+        }
+        for (Criterion criterion : plan.verified()) {
+            steps.add(new QueryPlan.Step(criterion.description(), "verify", criterion.selectivity()));
+        }
+        Map<String, Double> alternatives = new LinkedHashMap<>();
+        plan.alternatives().forEach((path, cost) -> alternatives.put(path.name(), round(cost)));
+        String order = filter.getNearest() != null ? "nearest" : filter.getSearch() != null ? "search" : "snapshot";
+        return new QueryPlan(plan.path().name(), order, round(plan.cost()), Math.round(plan.estimatedRows()),
+                selection.total(), steps, alternatives);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Expected cost per row of checking {@code criteria} in order, each only on the rows that
+     * passed the ones before.
+     */
+    private static double checkCost(List<Criterion> criteria) {
+        double cost = 0;
+        double passing = 1;
+        for (Criterion criterion : criteria) {
+            cost += passing * criterion.verifyCost();
+            passing *= criterion.selectivity();
+        }
+        return cost;
+    }
+
+    private static IntPredicate verifier(List<Criterion> criteria) {
+        IntPredicate[] checks = criteria.stream().map(Criterion::verifier).toArray(IntPredicate[]::new);
+        return row -> {
+            for (IntPredicate check : checks) {
+                if (!check.test(row)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static SpatialIndex spatialIndex(UserSnapshot userSnapshot) {
+        SpatialIndex index = userSnapshot.indexes().get(SpatialIndex.class);
+        return index != null ? index : SpatialIndex.build(userSnapshot.store());
+    }
+
+    private static List<Criterion> criteria(UserSnapshot userSnapshot, String nameFilter, UserFilter filter) {
+        UserStore store = userSnapshot.store();
+        int rows = store.size();
+        SnapshotStatistics statistics = userSnapshot.indexes().get(SnapshotStatistics.class);
+        FilterIndex filterIndex = userSnapshot.indexes().get(FilterIndex.class);
+        SpatialIndex spatialIndex = userSnapshot.indexes().get(SpatialIndex.class);
+        List<Criterion> criteria = new ArrayList<>();
+
+        for (Map.Entry<UserAttribute, String> entry : filter.attributes().entrySet()) {
+            UserAttribute attribute = entry.getKey();
+            String value = entry.getValue();
+            double selectivity = statistics == null ? DEFAULT_EQUALITY_SELECTIVITY
+                    : statistics.selectivity(attribute, value);
+            criteria.add(new Criterion(attribute.getParameter() + " = " + value, selectivity, ATTRIBUTE_COST,
+                    BITMAP_ROW_COST * selectivity * rows,
+                    filterIndex == null ? null : candidates -> and(candidates, filterIndex.rows(attribute, value)),
+                    row -> value.equalsIgnoreCase(store.attribute(attribute, row))));
+        }
+
+        for (UserMeasure measure : UserMeasure.values()) {
+            if (!filter.hasRange(measure)) {
+                continue;
+            }
+            Double min = filter.min(measure);
+            Double max = filter.max(measure);
+            double low = min == null ? Double.NEGATIVE_INFINITY : min;
+            double high = max == null ? Double.POSITIVE_INFINITY : max;
+            double selectivity = statistics == null ? DEFAULT_RANGE_SELECTIVITY
+                    : statistics.rangeSelectivity(measure, min, max);
+            criteria.add(new Criterion(measure.getParameter() + " in [" + (min == null ? "" : min) + ", "
+                    + (max == null ? "" : max) + "]", selectivity, MEASURE_COST, RANGE_ROW_COST * selectivity * rows,
+                    filterIndex == null ? null : candidates -> candidates == null
+                            ? filterIndex.range(measure, min, max, store)
+                            : filterIndex.range(measure, min, max, store, candidates),
+                    row -> {
+                        double value = store.measure(measure, row);
+                        return value >= low && value <= high;
+                    }));
+        }
+
+        if (filter.hasBoundingBox()) {
+            double minLat = filter.getMinLat();
+            double maxLat = filter.getMaxLat();
+            double minLng = filter.getMinLng();
+            double maxLng = filter.getMaxLng();
+            double selectivity = statistics == null ? DEFAULT_RANGE_SELECTIVITY
+                    : statistics.boxSelectivity(minLat, minLng, maxLat, maxLng);
+            criteria.add(new Criterion("within [" + minLat + ", " + minLng + ", " + maxLat + ", " + maxLng + "]",
+                    selectivity, BOX_COST, SPATIAL_ROW_COST * selectivity * rows + log2(rows),
+                    spatialIndex == null ? null
+                            : candidates -> and(candidates, spatialIndex.within(minLat, minLng, maxLat, maxLng)),
+                    row -> {
+                        double latitude = store.latitude(row);
+                        double longitude = store.longitude(row);
+                        boolean inLongitude = minLng <= maxLng ? longitude >= minLng && longitude <= maxLng
+                                : longitude >= minLng || longitude <= maxLng;
+                        return latitude >= minLat && latitude <= maxLat && inLongitude;
+                    }));
+        }
+
+        if (filter.getRadiusKm() != null) {
+            double lat = filter.getLat();
+            double lng = filter.getLng();
+            double radiusKm = filter.getRadiusKm();
+            double selectivity = statistics == null ? DEFAULT_RANGE_SELECTIVITY
+                    : statistics.radiusSelectivity(lat, lng, radiusKm);
+            criteria.add(new Criterion("within " + radiusKm + " km of [" + lat + ", " + lng + "]", selectivity,
+                    RADIUS_COST, SPATIAL_ROW_COST * selectivity * rows + log2(rows),
+                    spatialIndex == null ? null
+                            : candidates -> and(candidates, spatialIndex.withinRadius(lat, lng, radiusKm)),
+                    row -> {
+                        double latitude = store.latitude(row);
+                        return !Double.isNaN(latitude)
+                                && SpatialIndex.distanceKm(lat, lng, latitude, store.longitude(row)) <= radiusKm;
+                    }));
+        }
+
+        if (nameFilter != null && !nameFilter.trim().isEmpty()) {
+            String folded = nameFilter.toLowerCase(Locale.ROOT).trim();
+            double selectivity = statistics == null ? DEFAULT_NAME_SELECTIVITY : statistics.nameSelectivity(folded);
+            criteria.add(new Criterion("name contains '" + folded + "'", selectivity, NAME_COST, Double.NaN, null,
+                    store.nameContains(folded)));
+        }
+        return criteria;
+    }
+
+    private static RowBitmap and(RowBitmap candidates, RowBitmap bitmap) {
+        return candidates == null ? bitmap : candidates.and(bitmap);
+    }
+
+    private static double log2(int rows) {
+        return Math.log(Math.max(rows, 2)) / Math.log(2);
+    }
+
+    /**
+     * One criterion of a query: its estimated selectivity, the cost of checking it on one row, and,
+     * if an index can answer it, the cost of reading its rows and a function narrowing the
+     * candidates so far ({@code null} for all rows) to the rows matching it.
+     */
+    record Criterion(String description, double selectivity, double verifyCost, double indexCost,
+            UnaryOperator<RowBitmap> index, IntPredicate verifier) {
+
+        boolean indexed() {
+            return index != null;
+        }
+
+        /**
+         * Position in the cheapest order for checking criteria one after another: low cost and
+         * high rejection first.
+         */
+        double rank() {
+            return selectivity >= 1 ? Double.POSITIVE_INFINITY : verifyCost / (1 - selectivity);
+        }
+    }
+
+    /**
+     * The chosen access path with the criteria read from indexes, in order, the criteria verified
+     * per row, in order, and the estimates and alternative costs behind the choice.
+     */
+    record Plan(AccessPath path, List<Criterion> indexed, List<Criterion> verified, double estimatedRows,
+            double cost, Map<AccessPath, Double> alternatives) {
+
+        Plan withCost(double newCost) {
+            return new Plan(path, indexed, verified, estimatedRows, newCost, alternatives);
+        }
+    }
+
+    /**
+     * Rows selected by {@code plan}, {@code null} for every row, and the number of matches, which
+     * exceeds the number of rows when only the first or best ranked matches were kept.
+     */
+    record Selection(Plan plan, int[] rows, int total) {
+    }
+}
@@ -0,0 +1,85 @@
+package id.ruriazz.pagination.service;
+
+import id.ruriazz.pagination.exception.CoalescedRequestTimeoutException;
+import id.ruriazz.pagination.metrics.CoalescingOutcome;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical queries: the first caller for a key computes the result
+ * while later callers with an equal key wait for it, for at most {@code users.coalescing.timeout},
+ * and share it, including a failure. The key is forgotten as soon as the computation ends, so
+ * results are never served beyond the requests that overlapped with it.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final UserMetrics userMetrics;
+    private final Duration timeout;
+
+    public RequestCoalescer(UserMetrics userMetrics, @Value("${users.coalescing.timeout:5s}") Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("users.coalescing.timeout must be positive");
+        }
+        this.userMetrics = userMetrics;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the result of {@code computation}, or of the identical computation already running
+     * for {@code key}, whose {@code equals} and {@code hashCode} must cover everything the result
+     * depends on.
+     *
+     * @throws CoalescedRequestTimeoutException if the running computation does not end in time
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> computation) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running == null) {
+            userMetrics.recordCoalescing(CoalescingOutcome.COMPUTED);
+            try {
+                T result = computation.get();
+                mine.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+
+        try {
+            T result = (T) running.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            userMetrics.recordCoalescing(CoalescingOutcome.SHARED);
+            return result;
+        } catch (TimeoutException e) {
+            userMetrics.recordCoalescing(CoalescingOutcome.TIMED_OUT);
+            throw new CoalescedRequestTimeoutException(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CoalescedRequestTimeoutException(timeout);
+        } catch (ExecutionException e) {
+            userMetrics.recordCoalescing(CoalescingOutcome.SHARED);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,269 @@
+package id.ruriazz.pagination.service;
+
+import id.ruriazz.pagination.dto.UserFilter;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshotProvider;
+import id.ruriazz.pagination.snapshot.UserStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Warms the service up once the application has started: loads the users snapshot with all its
+ * derived indexes, then runs a mix of queries built from the loaded users through the filter,
+ * paginate and serialize paths {@code users.warmup.iterations} times so that they are
+ * JIT-compiled and Jackson's serializers exist before real traffic arrives. Responses are written
+ * as JSON through the registered HTTP message converters, the same ones requests use, and none of
+ * it is recorded in the request metrics. It runs on its own thread and reports
+ * {@code OUT_OF_SERVICE} as the {@code startupWarmup} health contributor of the
+ * {@code readiness} group until done.
+ * <p>
+ * While the snapshot cannot be loaded the load is retried every {@code users.warmup.retry-interval}.
+ * After {@code users.warmup.timeout} the warm-up is skipped and the instance reports ready anyway,
+ * since requests load the snapshot themselves and an upstream outage should not keep every
+ * instance out of rotation.
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements HealthIndicator {
+
+    private final UserSnapshotProvider userSnapshotProvider;
+    private final UserService userService;
+    private final List<HttpMessageConverter<?>> converters;
+    private final UserMetrics userMetrics;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration timeout;
+    private final Duration retryInterval;
+
+    private volatile Health health = Health.outOfService().withDetail("state", "pending").build();
+
+    public StartupWarmup(UserSnapshotProvider userSnapshotProvider, UserService userService,
+            HttpMessageConverters httpMessageConverters, UserMetrics userMetrics,
+            @Value("${users.warmup.enabled:true}") boolean enabled,
+            @Value("${users.warmup.iterations:500}") int iterations,
+            @Value("${users.warmup.timeout:2m}") Duration timeout,
+            @Value("${users.warmup.retry-interval:5s}") Duration retryInterval) {
+        if (iterations < 0) {
+            throw new IllegalArgumentException("users.warmup.iterations must not be negative");
+        }
+        if (retryInterval.isNegative() || retryInterval.isZero()) {
+            throw new IllegalArgumentException("users.warmup.retry-interval must be positive");
+        }
+        this.userSnapshotProvider = userSnapshotProvider;
+        this.userService = userService;
+        this.converters = httpMessageConverters.getConverters();
+        this.userMetrics = userMetrics;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.timeout = timeout;
+        this.retryInterval = retryInterval;
+        if (!enabled) {
+            health = Health.up().withDetail("state", "disabled").build();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "users-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    /**
+     * Runs the warm-up on the calling thread.
+     */
+    void run() {
+        long start = System.nanoTime();
+        health = Health.outOfService().withDetail("state", "warming up").build();
+        UserSnapshot snapshot = load(start);
+        if (snapshot == null) {
+            return;
+        }
+
+        List<Supplier<Object>> queries = queries(snapshot.store());
+        long serializedBytes = 0;
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (Supplier<Object> query : queries) {
+                    serializedBytes += userMetrics.withoutRecording(() -> serialize(query.get()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Users warm-up queries failed, serving without them: {}", e.getMessage());
+        }
+
+        long nanos = System.nanoTime() - start;
+        userMetrics.recordWarmup(nanos);
+        health = Health.up()
+                .withDetail("state", "completed")
+                .withDetail("snapshotVersion", snapshot.version())
+                .withDetail("queries", (long) iterations * queries.size())
+                .withDetail("duration", Duration.ofNanos(nanos).toString())
+                .build();
+        log.info("Warmed up on users snapshot version {} in {} ms ({} queries, {} bytes serialized)",
+                snapshot.version(), nanos / 1_000_000, (long) iterations * queries.size(), serializedBytes);
+    }
+
+    private UserSnapshot load(long start) {
+        long deadline = start + timeout.toNanos();
+        while (true) {
+            try {
+                return userSnapshotProvider.currentSnapshot();
+            } catch (RuntimeException e) {
+                if (System.nanoTime() + retryInterval.toNanos() - deadline > 0) {
+                    long nanos = System.nanoTime() - start;
+                    userMetrics.recordWarmup(nanos);
+                    health = Health.up()
+                            .withDetail("state", "skipped")
+                            .withDetail("error", String.valueOf(e.getMessage()))
+                            .build();
+                    log.warn("Skipping users warm-up, the snapshot could not be loaded within {}: {}",
+                            timeout, e.getMessage());
+                    return null;
+                }
+                log.warn("Users warm-up could not load the snapshot, retrying in {}: {}", retryInterval,
+                        e.getMessage());
+                try {
+                    Thread.sleep(retryInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the response as JSON with the first converter that can, as a request would, and
+     * returns the number of bytes written.
+     */
+    @SuppressWarnings("unchecked")
+    private long serialize(Object response) {
+        if (response == null) {
+            return 0;
+        }
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter.canWrite(response.getClass(), MediaType.APPLICATION_JSON)) {
+                CountingOutputMessage message = new CountingOutputMessage();
+                try {
+                    ((HttpMessageConverter<Object>) converter).write(response, MediaType.APPLICATION_JSON, message);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return message.bytes;
+            }
+        }
+        throw new IllegalStateException("No converter writes " + response.getClass().getSimpleName() + " as JSON");
+    }
+
+    /**
+     * One query of each kind the API serves, with values taken from the first user so that
+     * filters match and the index paths are taken.
+     */
+    private List<Supplier<Object>> queries(UserStore store) {
+        List<Supplier<Object>> queries = new ArrayList<>();
+        queries.add(() -> userService.getUsers(1, 10, null));
+        queries.add(() -> userService.getUsers(2, 100, null));
+        if (store.size() == 0) {
+            return queries;
+        }
+
+        String firstName = store.firstName(0);
+        String prefix = firstName.substring(0, Math.min(2, firstName.length()));
+        queries.add(() -> userService.getUsers(1, 10, prefix));
+        queries.add(() -> userService.suggest(prefix.isEmpty() ? "a" : prefix, 10));
+
+        UserFilter attributes = new UserFilter();
+        attributes.setDepartment(store.attribute(UserAttribute.DEPARTMENT, 0));
+        attributes.setMinAge(20);
+        attributes.setMaxAge(60);
+        queries.add(() -> userService.getUsers(1, 10, null, attributes, null, true));
+        queries.add(() -> userService.getFacets(List.of("department", "age"), null, attributes, null));
+
+        UserFilter city = new UserFilter();
+        city.setCity(store.attribute(UserAttribute.CITY, 0));
+        queries.add(() -> userService.getUsers(1, 10, prefix, city, null));
+
+        if (!firstName.isEmpty()) {
+            UserFilter search = new UserFilter();
+            search.setSearch(firstName);
+            queries.add(() -> userService.getUsers(1, 10, null, search, null));
+        }
+
+        double latitude = store.latitude(0);
+        double longitude = store.longitude(0);
+        if (!Double.isNaN(latitude) && !Double.isNaN(longitude)) {
+            UserFilter nearest = new UserFilter();
+            nearest.setLat(latitude);
+            nearest.setLng(longitude);
+            nearest.setNearest(10);
+            queries.add(() -> userService.getUsers(1, 10, null, nearest, null));
+
+            UserFilter radius = new UserFilter();
+            radius.setLat(latitude);
+            radius.setLng(longitude);
+            radius.setRadiusKm(500.0);
+            queries.add(() -> userService.getUsers(1, 10, null, radius, null));
+        }
+        return queries;
+    }
+
+    /**
+     * Discards the written body, counting its bytes.
+     */
+    private static final class CountingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private long bytes;
+
+        private final OutputStream body = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes += len;
+            }
+        };
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package id.ruriazz.pagination.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ruriazz.pagination.dto.UsersChange;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import id.ruriazz.pagination.snapshot.SnapshotDiff;
+import id.ruriazz.pagination.snapshot.UserSnapshotProvider;
+import id.ruriazz.pagination.snapshot.UsersChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes every new snapshot version to the subscribers of {@code /api/users/changes} as a
+ * {@code users-changed} server-sent event carrying the added, updated and removed ids. Subscribers
+ * are asynchronous requests, so an idle one holds a connection but no thread. The event is
+ * serialized once and queued for every subscriber; each queue is drained by one of
+ * {@code users.changes.senders} sender threads at a time, and a subscriber is dropped once more
+ * than {@code users.changes.max-pending} messages wait for it. A write blocks its sender, so a send
+ * that takes longer than {@code users.changes.write-timeout} drops the subscriber, interrupts the
+ * sender and adds a replacement sender until the stuck write returns; clients that stop reading
+ * therefore cannot starve the others of senders. Since the users cache only refreshes on
+ * access, the feed thread also reads the current snapshot every {@code users.changes.check-interval}
+ * while anyone is subscribed, and queues a comment that keeps proxies from closing idle streams and
+ * drops disconnected subscribers. The same thread enforces the write deadline.
+ */
+@Slf4j
+@Component
+public class UserChangeFeed implements DisposableBean {
+
+    static final String EVENT_NAME = "users-changed";
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final UserSnapshotProvider userSnapshotProvider;
+    private final ObjectMapper objectMapper;
+    private final UserMetrics userMetrics;
+    private final Duration timeout;
+    private final int maxPending;
+    private final long writeTimeoutNanos;
+    private final ScheduledExecutorService executor;
+    private final ThreadPoolExecutor senders;
+
+    public UserChangeFeed(UserSnapshotProvider userSnapshotProvider, ObjectMapper objectMapper,
+            UserMetrics userMetrics, @Value("${users.changes.timeout:30m}") Duration timeout,
+            @Value("${users.changes.check-interval:30s}") Duration checkInterval,
+            @Value("${users.changes.write-timeout:10s}") Duration writeTimeout,
+            @Value("${users.changes.senders:4}") int senders,
+            @Value("${users.changes.max-pending:16}") int maxPending) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("users.changes.timeout must be positive");
+        }
+        if (checkInterval.isNegative() || checkInterval.isZero()) {
+            throw new IllegalArgumentException("users.changes.check-interval must be positive");
+        }
+        if (writeTimeout.isNegative() || writeTimeout.isZero()) {
+            throw new IllegalArgumentException("users.changes.write-timeout must be positive");
+        }
+        if (senders < 1 || maxPending < 1) {
+            throw new IllegalArgumentException("users.changes.senders and users.changes.max-pending must be positive");
+        }
+        this.userSnapshotProvider = userSnapshotProvider;
+        this.objectMapper = objectMapper;
+        this.userMetrics = userMetrics;
+        this.timeout = timeout;
+        this.maxPending = maxPending;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "users-changes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senders, senders, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "users-changes-send-" + senderCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.scheduleWithFixedDelay(this::check, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        long sweepMillis = Math.max(writeTimeout.toMillis() / 2, 1);
+        executor.scheduleWithFixedDelay(this::expireStalledWrites, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream that receives every snapshot version served from now on. It ends after
+     * {@code users.changes.timeout}, after which {@code EventSource} clients reconnect by themselves.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        emitter.onCompletion(() -> unsubscribe(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(emitter));
+        subscribers.put(emitter, new Subscriber(emitter));
+        userMetrics.recordChangeSubscribers(subscribers.size());
+        return emitter;
+    }
+
+    @EventListener
+    public void onUsersChanged(UsersChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        SnapshotDiff diff = event.diff();
+        UsersChange change = new UsersChange(event.previousVersion(), event.version(), diff.insertedIds(),
+                diff.updatedIds(), diff.removedIds());
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Set<DataWithMediaType> message = SseEmitter.event()
+                .id(Long.toString(event.version()))
+                .name(EVENT_NAME)
+                .data(data)
+                .build();
+        broadcast(message);
+    }
+
+    int subscribers() {
+        return subscribers.size();
+    }
+
+    /**
+     * Reads the current snapshot, which refreshes an expired cache and so announces a new
+     * version, then sends a keep-alive comment.
+     */
+    void check() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            userSnapshotProvider.currentSnapshot();
+        } catch (RuntimeException e) {
+            log.warn("Could not check the users snapshot for changes: {}", e.getMessage());
+        }
+        broadcast(SseEmitter.event().comment("keep-alive").build());
+    }
+
+    /**
+     * Drops the subscribers whose current write has been blocked for longer than the write timeout.
+     */
+    void expireStalledWrites() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.expire(now);
+        }
+    }
+
+    private void broadcast(Set<DataWithMediaType> message) {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.offer(message);
+        }
+    }
+
+    /**
+     * Grows or shrinks the sender pool by one, so that a sender stuck in a write is replaced.
+     */
+    private synchronized void resizeSenders(int delta) {
+        int size = senders.getCorePoolSize() + delta;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private void unsubscribe(SseEmitter emitter) {
+        if (subscribers.remove(emitter) != null) {
+            userMetrics.recordChangeSubscribers(subscribers.size());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        senders.shutdownNow();
+        for (SseEmitter emitter : subscribers.keySet()) {
+            emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * The messages waiting for one subscriber. At most one sender drains them at a time, so
+     * messages arrive in order; the sender and the start of its current write are tracked for
+     * the write deadline.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> pending = new ArrayBlockingQueue<>(maxPending);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean dropped;
+        private Thread sender;
+        private long sendStartedNanos;
+        private boolean stalled;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> message) {
+            if (!pending.offer(message)) {
+                log.info("Dropping a change feed subscriber with {} messages pending", maxPending);
+                dropped = true;
+                unsubscribe(emitter);
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            try {
+                Set<DataWithMediaType> message;
+                while (!dropped && (message = pending.poll()) != null) {
+                    try {
+                        startSend();
+                        emitter.send(message);
+                    } catch (IOException | IllegalStateException e) {
+                        pending.clear();
+                        unsubscribe(emitter);
+                        return;
+                    } finally {
+                        endSend();
+                    }
+                }
+                if (dropped) {
+                    pending.clear();
+                    emitter.complete();
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        synchronized void expire(long now) {
+            if (sender != null && !stalled && now - sendStartedNanos > writeTimeoutNanos) {
+                log.info("Dropping a change feed subscriber whose write has been blocked for over {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                stalled = true;
+                dropped = true;
+                unsubscribe(emitter);
+                resizeSenders(1);
+                sender.interrupt();
+            }
+        }
+
+        private synchronized void startSend() {
+            sender = Thread.currentThread();
+            sendStartedNanos = System.nanoTime();
+        }
+
+        private synchronized void endSend() {
+            sender = null;
+            if (stalled) {
+                stalled = false;
+                Thread.interrupted();
+                resizeSenders(-1);
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+    }
+}
@@ -1,66 +1,338 @@
 package id.ruriazz.pagination.service;
 
-import id.ruriazz.pagination.client.DummyJsonClient;
-import id.ruriazz.pagination.dto.DummyJsonResponse;
+import id.ruriazz.pagination.diagnostics.UsersRequestEvent;
+import id.ruriazz.pagination.dto.FacetResponse;
 import id.ruriazz.pagination.dto.PaginationResponse;
+import id.ruriazz.pagination.dto.SuggestResponse;
+import id.ruriazz.pagination.dto.UserFilter;
+import id.ruriazz.pagination.dto.UserSuggestion;
+import id.ruriazz.pagination.exception.InvalidRequestException;
+import id.ruriazz.pagination.index.FilterIndex;
+import id.ruriazz.pagination.index.NameTrie;
+import id.ruriazz.pagination.index.RowBitmap;
+import id.ruriazz.pagination.metrics.PipelineStage;
+import id.ruriazz.pagination.metrics.UserMetrics;
 import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserMeasure;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshotProvider;
+import id.ruriazz.pagination.snapshot.UserStore;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
 
-@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
-    private final DummyJsonClient dummyJsonClient;
+    static final String FACET_CACHE = "facets";
+    static final int MAX_NEAREST = 1000;
+    static final int MAX_SEARCH_LENGTH = 100;
+
+    private static final Map<String, UserAttribute> FACET_ATTRIBUTES = new LinkedHashMap<>();
+    private static final Map<String, UserMeasure> FACET_MEASURES = new LinkedHashMap<>();
+
+    static {
+        for (UserAttribute attribute : UserAttribute.values()) {
+            FACET_ATTRIBUTES.put(attribute.getParameter(), attribute);
+        }
+        for (UserMeasure measure : UserMeasure.values()) {
+            FACET_MEASURES.put(measure.getParameter(), measure);
+        }
+    }
+
+    private final UserSnapshotProvider userSnapshotProvider;
+    private final UserMetrics userMetrics;
+    private final CacheManager cacheManager;
+    private final ParallelScanner parallelScanner;
+    private final RequestCoalescer requestCoalescer;
 
     public PaginationResponse<User> getUsers(int page, int size, String nameFilter) {
+        return getUsers(page, size, nameFilter, null);
+    }
+
+    /**
+     * Pages through the snapshot of version {@code asOf}, or through the current snapshot when it is
+     * {@code null}, so that a client can keep reading one consistent version across pages.
+     */
+    public PaginationResponse<User> getUsers(int page, int size, String nameFilter, Long asOf) {
+        return getUsers(page, size, nameFilter, new UserFilter(), asOf);
+    }
+
+    /**
+     * Like {@link #getUsers(int, int, String, Long)}, additionally keeping only the users matching every
+     * criterion of {@code filter}.
+     */
+    public PaginationResponse<User> getUsers(int page, int size, String nameFilter, UserFilter filter, Long asOf) {
+        return getUsers(page, size, nameFilter, filter, asOf, false);
+    }
+
+    /**
+     * Like {@link #getUsers(int, int, String, UserFilter, Long)}, describing the plan the
+     * {@link QueryPlanner} chose for the filters in the response when {@code explain} is set.
+     */
+    public PaginationResponse<User> getUsers(int page, int size, String nameFilter, UserFilter filter, Long asOf,
+            boolean explain) {
         validatePaginationParameters(page, size);
+        validateFilter(filter);
+        UsersRequestEvent event = new UsersRequestEvent();
+        event.begin();
 
-        DummyJsonResponse apiResponse = dummyJsonClient.fetchAllUsers();
-        List<User> allUsers = apiResponse.getUsers();
+        UserSnapshot userSnapshot = userMetrics.time(PipelineStage.CACHE, () -> resolveSnapshot(asOf));
 
-        List<User> filteredUsers = applyNameFilter(allUsers, nameFilter);
+        UsersQuery query = new UsersQuery(userSnapshot.version(), page, size, normalizeName(nameFilter),
+                filter.normalized(), explain);
+        PaginationResponse<User> response = requestCoalescer.execute(query, () -> computeUsers(userSnapshot, query));
 
-        return applyPagination(filteredUsers, page, size);
+        event.filter = nameFilter;
+        event.page = page;
+        event.size = size;
+        event.resultCount = response.getTotalItems();
+        event.commit();
+        return response;
+    }
+
+    /**
+     * Runs once per set of identical in-flight queries; see {@link RequestCoalescer}.
+     */
+    private PaginationResponse<User> computeUsers(UserSnapshot userSnapshot, UsersQuery query) {
+        UserFilter filter = query.filter();
+        int ranked = (int) Math.min((long) query.page() * query.size(), Integer.MAX_VALUE);
+        QueryPlanner.Selection selection = userMetrics.time(PipelineStage.FILTER,
+                () -> selectRows(userSnapshot, query.nameFilter(), filter, ranked));
+
+        PaginationResponse<User> response = userMetrics.time(PipelineStage.PAGINATE,
+                () -> applyPagination(userSnapshot, selection, query.page(), query.size()));
+        if (query.explain()) {
+            response.setPlan(QueryPlanner.explain(selection, filter));
+        }
+        return response;
+    }
+
+    /**
+     * Name filters match case-insensitively and ignore surrounding blanks, so queries differing only
+     * in those are the same query; a blank filter is no filter.
+     */
+    private static String normalizeName(String nameFilter) {
+        return nameFilter == null || nameFilter.trim().isEmpty() ? null : nameFilter.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Counts the users matching the filters per value of each requested facet: an attribute name
+     * such as {@code department}, or a measure such as {@code age} counted per bucket. Counts are
+     * intersections of the selected rows with the per-value bitmaps of the {@link FilterIndex} and
+     * are cached per snapshot version and query, except for work that is not being recorded, which
+     * would otherwise skew the cache statistics.
+     */
+    public FacetResponse getFacets(List<String> facets, String nameFilter, UserFilter filter, Long asOf) {
+        validateFacets(facets);
+        validateFilter(filter);
+
+        UserSnapshot userSnapshot = userMetrics.time(PipelineStage.CACHE, () -> resolveSnapshot(asOf));
+        FacetKey key = new FacetKey(userSnapshot.version(), List.copyOf(facets), normalizeName(nameFilter),
+                filter.normalized());
+        Cache cache = userMetrics.isRecording() ? cacheManager.getCache(FACET_CACHE) : null;
+        return cache == null ? countFacets(userSnapshot, key) : cache.get(key, () -> countFacets(userSnapshot, key));
+    }
+
+    /**
+     * Returns the ids and names of up to {@code limit} users with a name word starting with
+     * {@code prefix}, ordered by name, from the snapshot's {@link NameTrie}.
+     */
+    public SuggestResponse suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new InvalidRequestException("Prefix is required");
+        }
+        if (limit <= 0 || limit > NameTrie.MAX_SUGGESTIONS) {
+            throw new InvalidRequestException("Limit must be between 1 and " + NameTrie.MAX_SUGGESTIONS);
+        }
+
+        UserSnapshot userSnapshot = userMetrics.time(PipelineStage.CACHE, userSnapshotProvider::currentSnapshot);
+        return userMetrics.time(PipelineStage.FILTER, () -> {
+            NameTrie existing = userSnapshot.indexes().get(NameTrie.class);
+            NameTrie trie = existing != null ? existing : NameTrie.build(userSnapshot.store());
+            UserStore snapshot = userSnapshot.store();
+            List<UserSuggestion> suggestions = new ArrayList<>();
+            for (int row : trie.lookup(prefix.toLowerCase(Locale.ROOT).stripLeading(), limit)) {
+                suggestions.add(new UserSuggestion(snapshot.getId(row), snapshot.firstName(row), snapshot.lastName(row)));
+            }
+            return new SuggestResponse(userSnapshot.version(), suggestions);
+        });
+    }
+
+    private UserSnapshot resolveSnapshot(Long asOf) {
+        return asOf == null ? userSnapshotProvider.currentSnapshot() : userSnapshotProvider.snapshotAt(asOf);
+    }
+
+    private void validateFacets(List<String> facets) {
+        if (facets == null || facets.isEmpty()) {
+            throw new InvalidRequestException("At least one facet is required");
+        }
+        for (String facet : facets) {
+            if (!FACET_ATTRIBUTES.containsKey(facet) && !FACET_MEASURES.containsKey(facet)) {
+                throw new InvalidRequestException("Unknown facet '" + facet + "'. Supported facets: "
+                        + String.join(", ", FACET_ATTRIBUTES.keySet()) + ", "
+                        + String.join(", ", FACET_MEASURES.keySet()));
+            }
+        }
+    }
+
+    private FacetResponse countFacets(UserSnapshot userSnapshot, FacetKey key) {
+        UserStore snapshot = userSnapshot.store();
+        int[] rows = userMetrics.time(PipelineStage.FILTER,
+                () -> selectRows(userSnapshot, key.nameFilter(), key.filter(), Integer.MAX_VALUE)).rows();
+
+        return userMetrics.time(PipelineStage.AGGREGATE, () -> {
+            FilterIndex existing = userSnapshot.indexes().get(FilterIndex.class);
+            FilterIndex index = existing != null ? existing : FilterIndex.build(snapshot);
+            int[] ascending = rows == null || !key.filter().ordersRows() ? rows : sorted(rows);
+            RowBitmap selected = ascending == null ? null
+                    : RowBitmap.ofSorted(snapshot.size(), ascending, ascending.length);
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            for (String facet : key.facets()) {
+                UserAttribute attribute = FACET_ATTRIBUTES.get(facet);
+                facets.put(facet, attribute != null
+                        ? sortByCount(countValues(index.facet(attribute), selected))
+                        : countValues(index.facet(FACET_MEASURES.get(facet)), selected));
+            }
+            return new FacetResponse(userSnapshot.version(), rows == null ? snapshot.size() : rows.length, facets);
+        });
+    }
+
+    private static int[] sorted(int[] rows) {
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static Map<String, Long> countValues(Map<String, RowBitmap> facet, RowBitmap selected) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        facet.forEach((value, rows) -> {
+            long count = selected == null ? rows.cardinality() : rows.andCardinality(selected);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    private static Map<String, Long> sortByCount(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
     }
 
     private void validatePaginationParameters(int page, int size) {
         if (page <= 0) {
-            throw new IllegalArgumentException("Page must be greater than 0");
+            throw new InvalidRequestException("Page must be greater than 0");
         }
         if (size <= 0) {
-            throw new IllegalArgumentException("Size must be greater than 0");
+            throw new InvalidRequestException("Size must be greater than 0");
         }
         if (size > 100) {
-            throw new IllegalArgumentException("Size cannot exceed 100");
+            throw new InvalidRequestException("Size cannot exceed 100");
+        }
+    }
+
+    private void validateFilter(UserFilter filter) {
+        for (UserMeasure measure : UserMeasure.values()) {
+            Double min = filter.min(measure);
+            Double max = filter.max(measure);
+            if (min != null && max != null && min > max) {
+                String name = Character.toUpperCase(measure.getParameter().charAt(0))
+                        + measure.getParameter().substring(1);
+                throw new InvalidRequestException("min" + name + " cannot exceed max" + name);
+            }
+        }
+        validateGeoFilter(filter);
+        if (filter.getSearch() != null) {
+            if (filter.getSearch().isBlank()) {
+                throw new InvalidRequestException("search must not be blank");
+            }
+            if (filter.getSearch().length() > MAX_SEARCH_LENGTH) {
+                throw new InvalidRequestException("search cannot exceed " + MAX_SEARCH_LENGTH + " characters");
+            }
+            if (filter.getNearest() != null) {
+                throw new InvalidRequestException("search cannot be combined with nearest");
+            }
         }
     }
 
-    private List<User> applyNameFilter(List<User> users, String nameFilter) {
-        if (nameFilter == null || nameFilter.trim().isEmpty()) {
-            return users;
+    private void validateGeoFilter(UserFilter filter) {
+        if (filter.hasBoundingBox()) {
+            if (filter.getMinLat() == null || filter.getMaxLat() == null
+                    || filter.getMinLng() == null || filter.getMaxLng() == null) {
+                throw new InvalidRequestException("minLat, maxLat, minLng and maxLng must be given together");
+            }
+            requireLatitude("minLat", filter.getMinLat());
+            requireLatitude("maxLat", filter.getMaxLat());
+            requireLongitude("minLng", filter.getMinLng());
+            requireLongitude("maxLng", filter.getMaxLng());
+            if (filter.getMinLat() > filter.getMaxLat()) {
+                throw new InvalidRequestException("minLat cannot exceed maxLat");
+            }
         }
 
-        String lowerCaseFilter = nameFilter.toLowerCase().trim();
-        log.info("Applying name filter: {}", lowerCaseFilter);
+        boolean hasPoint = filter.getLat() != null || filter.getLng() != null;
+        boolean needsPoint = filter.getRadiusKm() != null || filter.getNearest() != null;
+        if (needsPoint && (filter.getLat() == null || filter.getLng() == null)) {
+            throw new InvalidRequestException("lat and lng are required with radiusKm or nearest");
+        }
+        if (hasPoint && !needsPoint) {
+            throw new InvalidRequestException("radiusKm or nearest is required with lat and lng");
+        }
+        if (hasPoint) {
+            requireLatitude("lat", filter.getLat());
+            requireLongitude("lng", filter.getLng());
+        }
+        if (filter.getRadiusKm() != null && !(filter.getRadiusKm() > 0)) {
+            throw new InvalidRequestException("radiusKm must be greater than 0");
+        }
+        if (filter.getNearest() != null && (filter.getNearest() <= 0 || filter.getNearest() > MAX_NEAREST)) {
+            throw new InvalidRequestException("nearest must be between 1 and " + MAX_NEAREST);
+        }
+    }
 
-        return users.stream()
-                .filter(user -> {
-                    String fullName = (user.getFirstName() + " " + user.getLastName()).toLowerCase();
-                    return fullName.contains(lowerCaseFilter) ||
-                            user.getFirstName().toLowerCase().contains(lowerCaseFilter) ||
-                            user.getLastName().toLowerCase().contains(lowerCaseFilter);
-                })
-                .collect(Collectors.toList());
+    private static void requireLatitude(String name, double value) {
+        if (!(value >= -90 && value <= 90)) {
+            throw new InvalidRequestException(name + " must be between -90 and 90");
+        }
     }
 
-    private PaginationResponse<User> applyPagination(List<User> users, int page, int size) {
-        int totalItems = users.size();
+    private static void requireLongitude(String name, double value) {
+        if (!(value >= -180 && value <= 180)) {
+            throw new InvalidRequestException(name + " must be between -180 and 180");
+        }
+    }
+
+    /**
+     * Selects at least the first {@code ranked} rows matching the name and attribute filters in
+     * snapshot order, with {@code null} rows when every row matches. With {@code nearest}, selects the nearest of those rows ordered
+     * by distance instead; with {@code search}, the first {@code ranked} matches ordered by
+     * relevance, along with the number of matches.
+     */
+    private QueryPlanner.Selection selectRows(UserSnapshot userSnapshot, String nameFilter, UserFilter filter,
+            int ranked) {
+        return QueryPlanner.select(userSnapshot, nameFilter, filter, ranked, parallelScanner);
+    }
+
+    private PaginationResponse<User> applyPagination(UserSnapshot userSnapshot, QueryPlanner.Selection selection,
+            int page, int size) {
+        UserStore snapshot = userSnapshot.store();
+        int[] matchingRows = selection.rows();
+        int totalItems = selection.total();
         int totalPages = (int) Math.ceil((double) totalItems / size);
 
         int startIndex = (page - 1) * size;
@@ -70,12 +342,20 @@ public class UserService {
         if (startIndex >= totalItems) {
             paginatedUsers = List.of();
         } else {
-            paginatedUsers = users.subList(startIndex, endIndex);
+            paginatedUsers = new ArrayList<>(endIndex - startIndex);
+            for (int i = startIndex; i < endIndex; i++) {
+                paginatedUsers.add(snapshot.materialize(matchingRows == null ? i : matchingRows[i]));
+            }
         }
 
-        log.info("Returning page {} of {} with {} items (total: {})",
-                page, totalPages, paginatedUsers.size(), totalItems);
+        return new PaginationResponse<>(page, size, totalItems, totalPages, paginatedUsers,
+                userSnapshot.version());
+    }
+
+    private record UsersQuery(long version, int page, int size, String nameFilter, UserFilter filter,
+            boolean explain) {
+    }
 
-        return new PaginationResponse<>(page, size, totalItems, totalPages, paginatedUsers);
+    private record FacetKey(long version, List<String> facets, String nameFilter, UserFilter filter) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.model.User;
+
+/**
+ * Shared column layout of the snapshot stores and the {@link User} materialization on top
+ * of it. Subclasses only decide where the columns live.
+ */
+abstract class ColumnarUserStore implements UserStore {
+
+    static final int INT_NULL = Integer.MIN_VALUE;
+    static final long LONG_NULL = Long.MIN_VALUE;
+
+    static final int HAS_HAIR = 1;
+    static final int HAS_ADDRESS = 1 << 1;
+    static final int HAS_ADDRESS_COORDINATES = 1 << 2;
+    static final int HAS_COMPANY = 1 << 3;
+    static final int HAS_COMPANY_ADDRESS = 1 << 4;
+    static final int HAS_COMPANY_ADDRESS_COORDINATES = 1 << 5;
+
+    static final int FIRST_NAME = 0;
+    static final int LAST_NAME = 1;
+    static final int EMAIL = 2;
+    static final int PHONE = 3;
+    static final int BIRTH_DATE = 4;
+    static final int IMAGE = 5;
+    static final int ADDRESS = 6;
+    static final int POSTAL_CODE = 7;
+    static final int COMPANY_ADDRESS = 8;
+    static final int COMPANY_POSTAL_CODE = 9;
+    static final int TEXT_SLOTS = 10;
+
+    static final int BLOOD_GROUP = 0;
+    static final int EYE_COLOR = 1;
+    static final int HAIR_COLOR = 2;
+    static final int HAIR_TYPE = 3;
+    static final int CITY = 4;
+    static final int STATE = 5;
+    static final int STATE_CODE = 6;
+    static final int COUNTRY = 7;
+    static final int DEPARTMENT = 8;
+    static final int COMPANY_NAME = 9;
+    static final int TITLE = 10;
+    static final int COMPANY_CITY = 11;
+    static final int COMPANY_STATE = 12;
+    static final int COMPANY_STATE_CODE = 13;
+    static final int COMPANY_COUNTRY = 14;
+    static final int CODED_COLUMNS = 15;
+
+    static final int COORDINATES_PER_ROW = 4;
+
+    abstract int age(int row);
+
+    abstract int height(int row);
+
+    abstract double weight(int row);
+
+    abstract double coordinate(int index);
+
+    abstract int flags(int row);
+
+    abstract String decode(int column, int row);
+
+    abstract String text(int index);
+
+    @Override
+    public String attribute(UserAttribute attribute, int row) {
+        return decode(attribute.column(), row);
+    }
+
+    @Override
+    public double measure(UserMeasure measure, int row) {
+        return switch (measure) {
+            case AGE -> measure(age(row));
+            case HEIGHT -> measure(height(row));
+            case WEIGHT -> weight(row);
+        };
+    }
+
+    @Override
+    public User materialize(int row) {
+        int rowFlags = flags(row);
+        int textBase = row * TEXT_SLOTS;
+        long id = getId(row);
+        int age = age(row);
+        int height = height(row);
+        double weight = weight(row);
+
+        User user = new User();
+        user.setId(id == LONG_NULL ? null : id);
+        user.setFirstName(text(textBase + FIRST_NAME));
+        user.setLastName(text(textBase + LAST_NAME));
+        user.setEmail(text(textBase + EMAIL));
+        user.setPhone(text(textBase + PHONE));
+        user.setBirthDate(text(textBase + BIRTH_DATE));
+        user.setImage(text(textBase + IMAGE));
+        user.setAge(age == INT_NULL ? null : age);
+        user.setHeight(height == INT_NULL ? null : height);
+        user.setWeight(Double.isNaN(weight) ? null : weight);
+        user.setBloodGroup(decode(BLOOD_GROUP, row));
+        user.setEyeColor(decode(EYE_COLOR, row));
+
+        if ((rowFlags & HAS_HAIR) != 0) {
+            user.setHair(new User.Hair(decode(HAIR_COLOR, row), decode(HAIR_TYPE, row)));
+        }
+        if ((rowFlags & HAS_ADDRESS) != 0) {
+            user.setAddress(materializeAddress(row, textBase + ADDRESS, CITY, 0,
+                    (rowFlags & HAS_ADDRESS_COORDINATES) != 0));
+        }
+        if ((rowFlags & HAS_COMPANY) != 0) {
+            User.Address companyAddress = (rowFlags & HAS_COMPANY_ADDRESS) == 0 ? null
+                    : materializeAddress(row, textBase + COMPANY_ADDRESS, COMPANY_CITY, 2,
+                            (rowFlags & HAS_COMPANY_ADDRESS_COORDINATES) != 0);
+            user.setCompany(new User.Company(decode(DEPARTMENT, row), decode(COMPANY_NAME, row),
+                    decode(TITLE, row), companyAddress));
+        }
+        return user;
+    }
+
+    @Override
+    public String firstName(int row) {
+        return text(row * TEXT_SLOTS + FIRST_NAME);
+    }
+
+    @Override
+    public String lastName(int row) {
+        return text(row * TEXT_SLOTS + LAST_NAME);
+    }
+
+    private User.Address materializeAddress(int row, int textIndex, int firstColumn, int coordinateSlot,
+            boolean hasCoordinates) {
+        User.Address.Coordinates point = null;
+        if (hasCoordinates) {
+            int base = row * COORDINATES_PER_ROW + coordinateSlot;
+            point = new User.Address.Coordinates(nullable(coordinate(base)), nullable(coordinate(base + 1)));
+        }
+        return new User.Address(text(textIndex), decode(firstColumn, row), decode(firstColumn + 1, row),
+                decode(firstColumn + 2, row), text(textIndex + 1), point, decode(firstColumn + 3, row));
+    }
+
+    @Override
+    public double latitude(int row) {
+        return coordinate(row * COORDINATES_PER_ROW);
+    }
+
+    @Override
+    public double longitude(int row) {
+        return coordinate(row * COORDINATES_PER_ROW + 1);
+    }
+
+    private static double measure(int value) {
+        return value == INT_NULL ? Double.NaN : value;
+    }
+
+    private static Double nullable(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
@@ -0,0 +1,265 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.model.User;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntPredicate;
+
+/**
+ * Column-oriented, immutable copy of the users dataset. Repetitive strings are stored as
+ * {@link StringDictionary} codes, unique strings are packed into a {@link StringHeap},
+ * numbers are kept as primitives and nested objects are flattened behind presence flags.
+ * {@link User} instances are only materialized for the rows that are returned.
+ */
+public final class CompactUserSnapshot extends ColumnarUserStore {
+
+    private final int size;
+    private final long[] ids;
+    private final long[] hashes;
+    private final int[] ages;
+    private final int[] heights;
+    private final double[] weights;
+    private final double[] coordinates;
+    private final byte[] flags;
+    private final int[][] codes;
+    private final StringDictionary dictionary;
+    private final StringHeap text;
+    private final String[] foldedNames;
+
+    private CompactUserSnapshot(int size, long[] ids, long[] hashes, int[] ages, int[] heights, double[] weights,
+            double[] coordinates, byte[] flags, int[][] codes, StringDictionary dictionary, StringHeap text,
+            String[] foldedNames) {
+        this.size = size;
+        this.ids = ids;
+        this.hashes = hashes;
+        this.ages = ages;
+        this.heights = heights;
+        this.weights = weights;
+        this.coordinates = coordinates;
+        this.flags = flags;
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.text = text;
+        this.foldedNames = foldedNames;
+    }
+
+    public static CompactUserSnapshot from(List<User> users) {
+        int size = users.size();
+        long[] ids = new long[size];
+        long[] hashes = new long[size];
+        int[] ages = new int[size];
+        int[] heights = new int[size];
+        double[] weights = new double[size];
+        double[] coordinates = new double[size * COORDINATES_PER_ROW];
+        byte[] flags = new byte[size];
+        int[][] codes = new int[CODED_COLUMNS][size];
+        String[] foldedNames = new String[size];
+        StringDictionary.Builder dictionary = new StringDictionary.Builder();
+        StringHeap.Builder text = new StringHeap.Builder(size * TEXT_SLOTS);
+
+        for (int row = 0; row < size; row++) {
+            User user = users.get(row);
+            int rowFlags = 0;
+            ids[row] = user.getId() == null ? LONG_NULL : user.getId();
+            hashes[row] = contentHash(user);
+            ages[row] = user.getAge() == null ? INT_NULL : user.getAge();
+            heights[row] = user.getHeight() == null ? INT_NULL : user.getHeight();
+            weights[row] = user.getWeight() == null ? Double.NaN : user.getWeight();
+            foldedNames[row] = foldName(user.getFirstName(), user.getLastName());
+
+            text.add(user.getFirstName());
+            text.add(user.getLastName());
+            text.add(user.getEmail());
+            text.add(user.getPhone());
+            text.add(user.getBirthDate());
+            text.add(user.getImage());
+
+            codes[BLOOD_GROUP][row] = dictionary.encode(user.getBloodGroup());
+            codes[EYE_COLOR][row] = dictionary.encode(user.getEyeColor());
+
+            User.Hair hair = user.getHair();
+            if (hair != null) {
+                rowFlags |= HAS_HAIR;
+            }
+            codes[HAIR_COLOR][row] = dictionary.encode(hair == null ? null : hair.getColor());
+            codes[HAIR_TYPE][row] = dictionary.encode(hair == null ? null : hair.getType());
+
+            User.Address address = user.getAddress();
+            if (address != null) {
+                rowFlags |= HAS_ADDRESS;
+                if (address.getCoordinates() != null) {
+                    rowFlags |= HAS_ADDRESS_COORDINATES;
+                }
+            }
+            encodeAddress(address, row, 0, CITY, text, dictionary, codes, coordinates);
+
+            User.Company company = user.getCompany();
+            User.Address companyAddress = company == null ? null : company.getAddress();
+            if (company != null) {
+                rowFlags |= HAS_COMPANY;
+                if (companyAddress != null) {
+                    rowFlags |= HAS_COMPANY_ADDRESS;
+                    if (companyAddress.getCoordinates() != null) {
+                        rowFlags |= HAS_COMPANY_ADDRESS_COORDINATES;
+                    }
+                }
+            }
+            codes[DEPARTMENT][row] = dictionary.encode(company == null ? null : company.getDepartment());
+            codes[COMPANY_NAME][row] = dictionary.encode(company == null ? null : company.getName());
+            codes[TITLE][row] = dictionary.encode(company == null ? null : company.getTitle());
+            encodeAddress(companyAddress, row, 2, COMPANY_CITY, text, dictionary, codes, coordinates);
+
+            flags[row] = (byte) rowFlags;
+        }
+
+        return new CompactUserSnapshot(size, ids, hashes, ages, heights, weights, coordinates, flags, codes,
+                dictionary.build(), text.build(), foldedNames);
+    }
+
+    private static void encodeAddress(User.Address address, int row, int coordinateSlot, int firstColumn,
+            StringHeap.Builder text, StringDictionary.Builder dictionary, int[][] codes, double[] coordinates) {
+        text.add(address == null ? null : address.getAddress());
+        text.add(address == null ? null : address.getPostalCode());
+        codes[firstColumn][row] = dictionary.encode(address == null ? null : address.getCity());
+        codes[firstColumn + 1][row] = dictionary.encode(address == null ? null : address.getState());
+        codes[firstColumn + 2][row] = dictionary.encode(address == null ? null : address.getStateCode());
+        codes[firstColumn + 3][row] = dictionary.encode(address == null ? null : address.getCountry());
+
+        User.Address.Coordinates point = address == null ? null : address.getCoordinates();
+        int base = row * COORDINATES_PER_ROW + coordinateSlot;
+        coordinates[base] = point == null || point.getLat() == null ? Double.NaN : point.getLat();
+        coordinates[base + 1] = point == null || point.getLng() == null ? Double.NaN : point.getLng();
+    }
+
+    /**
+     * FNV-1a over the string form of the user, which covers every field including nested objects.
+     */
+    static long contentHash(User user) {
+        String content = user.toString();
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            hash ^= content.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static String foldName(String firstName, String lastName) {
+        return (firstName + " " + lastName).toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    @Override
+    public long contentHash(int row) {
+        return hashes[row];
+    }
+
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    @Override
+    public IntPredicate nameContains(String foldedFilter) {
+        return row -> foldedNames[row].contains(foldedFilter);
+    }
+
+    @Override
+    public int encodedLength() {
+        return OffHeapUserStore.encodedLength(this);
+    }
+
+    @Override
+    public void encodeTo(ByteBuffer target) {
+        OffHeapUserStore.encode(this, target);
+    }
+
+    @Override
+    int age(int row) {
+        return ages[row];
+    }
+
+    @Override
+    int height(int row) {
+        return heights[row];
+    }
+
+    @Override
+    double weight(int row) {
+        return weights[row];
+    }
+
+    @Override
+    double coordinate(int index) {
+        return coordinates[index];
+    }
+
+    @Override
+    int flags(int row) {
+        return flags[row];
+    }
+
+    @Override
+    String decode(int column, int row) {
+        return dictionary.get(codes[column][row]);
+    }
+
+    @Override
+    String text(int index) {
+        return text.get(index);
+    }
+
+    long[] ids() {
+        return ids;
+    }
+
+    long[] hashes() {
+        return hashes;
+    }
+
+    int[] ages() {
+        return ages;
+    }
+
+    int[] heights() {
+        return heights;
+    }
+
+    double[] weights() {
+        return weights;
+    }
+
+    double[] coordinates() {
+        return coordinates;
+    }
+
+    byte[] flags() {
+        return flags;
+    }
+
+    int[][] codes() {
+        return codes;
+    }
+
+    StringDictionary dictionary() {
+        return dictionary;
+    }
+
+    StringHeap text() {
+        return text;
+    }
+
+    String[] foldedNames() {
+        return foldedNames;
+    }
+}
@@ -0,0 +1,15 @@
+package id.ruriazz.pagination.snapshot;
+
+/**
+ * Immutable structure derived from a snapshot, such as a filter or lookup index. It is built for
+ * each new version and carried forward unchanged while the users and their row positions stay the same.
+ */
+public interface DerivedIndex {
+
+    int entries();
+
+    /**
+     * Estimated heap bytes of the index, reported with the retained snapshot history.
+     */
+    long bytes();
+}
@@ -0,0 +1,32 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.util.function.Function;
+
+/**
+ * Builds a {@link DerivedIndex} from scratch. Factories are discovered as Spring beans.
+ */
+public final class DerivedIndexFactory<T extends DerivedIndex> {
+
+    private final Class<T> type;
+    private final Function<UserStore, T> builder;
+
+    private DerivedIndexFactory(Class<T> type, Function<UserStore, T> builder) {
+        this.type = type;
+        this.builder = builder;
+    }
+
+    public static <T extends DerivedIndex> DerivedIndexFactory<T> of(Class<T> type, Function<UserStore, T> builder) {
+        return new DerivedIndexFactory<>(type, builder);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Builds the index, or returns {@code null} if it cannot be built for this store.
+     */
+    public T build(UserStore store) {
+        return builder.apply(store);
+    }
+}
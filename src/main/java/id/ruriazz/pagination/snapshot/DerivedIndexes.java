@@ -0,0 +1,28 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.util.Map;
+
+/**
+ * The derived indexes of one snapshot, keyed by index type.
+ */
+public final class DerivedIndexes {
+
+    public static final DerivedIndexes EMPTY = new DerivedIndexes(Map.of());
+
+    private final Map<Class<? extends DerivedIndex>, DerivedIndex> indexes;
+
+    DerivedIndexes(Map<Class<? extends DerivedIndex>, DerivedIndex> indexes) {
+        this.indexes = Map.copyOf(indexes);
+    }
+
+    /**
+     * Returns the index of the given type, or {@code null} if it is not available for this snapshot.
+     */
+    public <T extends DerivedIndex> T get(Class<T> type) {
+        return type.cast(indexes.get(type));
+    }
+
+    Map<Class<? extends DerivedIndex>, DerivedIndex> asMap() {
+        return indexes;
+    }
+}
@@ -0,0 +1,60 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from user id to row position, without boxing.
+ */
+final class LongIntMap {
+
+    private static final int ABSENT = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    private LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(values, ABSENT);
+    }
+
+    /**
+     * Maps every id of the store to its row; for duplicate ids the last row wins.
+     */
+    static LongIntMap rowsById(UserStore store) {
+        LongIntMap map = new LongIntMap(store.size());
+        for (int row = 0; row < store.size(); row++) {
+            map.put(store.getId(row), row);
+        }
+        return map;
+    }
+
+    void put(long key, int value) {
+        int slot = slot(key);
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * Returns the value for {@code key}, or {@code -1} when absent.
+     */
+    int get(long key) {
+        return values[slot(key)];
+    }
+
+    private int slot(long key) {
+        int slot = (int) mix(key) & mask;
+        while (values[slot] != ABSENT && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,334 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link UserStore} whose columns live in a single {@link ByteBuffer}, normally a direct
+ * buffer outside the Java heap. The buffer starts with a fixed header holding the offset of
+ * every column, so it can also be backed by a file or sent over the wire as-is. Only the
+ * small dictionary is decoded onto the heap; everything else is read in place.
+ */
+public final class OffHeapUserStore extends ColumnarUserStore {
+
+    static final int MAGIC = 0x55535253;
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_BYTES = 128;
+
+    private static final int H_MAGIC = 0;
+    private static final int H_FORMAT = 4;
+    private static final int H_ROWS = 8;
+    private static final int H_DICTIONARY_SIZE = 12;
+    private static final int H_IDS = 16;
+    private static final int H_AGES = 20;
+    private static final int H_HEIGHTS = 24;
+    private static final int H_WEIGHTS = 28;
+    private static final int H_COORDINATES = 32;
+    private static final int H_CODES = 36;
+    private static final int H_FLAGS = 40;
+    private static final int H_DICTIONARY_OFFSETS = 44;
+    private static final int H_DICTIONARY_DATA = 48;
+    private static final int H_TEXT_OFFSETS = 52;
+    private static final int H_TEXT_NULLS = 56;
+    private static final int H_TEXT_DATA = 60;
+    private static final int H_NAME_OFFSETS = 64;
+    private static final int H_NAME_DATA = 68;
+    private static final int H_LENGTH = 72;
+    private static final int H_HASHES = 76;
+    private static final int HEADER_FIELDS = H_HASHES / 4 + 1;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int ids;
+    private final int hashes;
+    private final int ages;
+    private final int heights;
+    private final int weights;
+    private final int coordinates;
+    private final int codes;
+    private final int flags;
+    private final int textOffsets;
+    private final int textNulls;
+    private final int textData;
+    private final int nameOffsets;
+    private final int nameData;
+    private final String[] dictionary;
+
+    private OffHeapUserStore(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.getInt(H_ROWS);
+        this.ids = buffer.getInt(H_IDS);
+        this.hashes = buffer.getInt(H_HASHES);
+        this.ages = buffer.getInt(H_AGES);
+        this.heights = buffer.getInt(H_HEIGHTS);
+        this.weights = buffer.getInt(H_WEIGHTS);
+        this.coordinates = buffer.getInt(H_COORDINATES);
+        this.codes = buffer.getInt(H_CODES);
+        this.flags = buffer.getInt(H_FLAGS);
+        this.textOffsets = buffer.getInt(H_TEXT_OFFSETS);
+        this.textNulls = buffer.getInt(H_TEXT_NULLS);
+        this.textData = buffer.getInt(H_TEXT_DATA);
+        this.nameOffsets = buffer.getInt(H_NAME_OFFSETS);
+        this.nameData = buffer.getInt(H_NAME_DATA);
+
+        int dictionaryOffsets = buffer.getInt(H_DICTIONARY_OFFSETS);
+        int dictionaryData = buffer.getInt(H_DICTIONARY_DATA);
+        this.dictionary = new String[buffer.getInt(H_DICTIONARY_SIZE)];
+        for (int code = 0; code < dictionary.length; code++) {
+            int start = buffer.getInt(dictionaryOffsets + code * 4);
+            int end = buffer.getInt(dictionaryOffsets + (code + 1) * 4);
+            dictionary[code] = readString(dictionaryData + start, end - start);
+        }
+    }
+
+    public static OffHeapUserStore copyOf(CompactUserSnapshot snapshot) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encodedLength(snapshot));
+        encode(snapshot, buffer);
+        return new OffHeapUserStore(buffer);
+    }
+
+    /**
+     * Wraps a buffer previously filled by {@link #encode}. The buffer is read with absolute
+     * accessors only and must not be modified afterwards.
+     */
+    public static OffHeapUserStore wrap(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(H_MAGIC) != MAGIC) {
+            throw new IllegalArgumentException("Buffer does not contain a users snapshot");
+        }
+        if (buffer.getInt(H_FORMAT) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported users snapshot format " + buffer.getInt(H_FORMAT));
+        }
+        if (buffer.capacity() < buffer.getInt(H_LENGTH)) {
+            throw new IllegalArgumentException("Truncated users snapshot");
+        }
+        return new OffHeapUserStore(buffer);
+    }
+
+    public static int encodedLength(CompactUserSnapshot snapshot) {
+        return layout(snapshot)[H_LENGTH / 4];
+    }
+
+    public static void encode(CompactUserSnapshot snapshot, ByteBuffer target) {
+        int[] layout = layout(snapshot);
+        int rows = snapshot.size();
+        for (int field = 0; field < layout.length; field++) {
+            target.putInt(field * 4, layout[field]);
+        }
+
+        for (int row = 0; row < rows; row++) {
+            target.putLong(layout[H_IDS / 4] + row * 8, snapshot.ids()[row]);
+            target.putLong(layout[H_HASHES / 4] + row * 8, snapshot.hashes()[row]);
+            target.putInt(layout[H_AGES / 4] + row * 4, snapshot.ages()[row]);
+            target.putInt(layout[H_HEIGHTS / 4] + row * 4, snapshot.heights()[row]);
+            target.putDouble(layout[H_WEIGHTS / 4] + row * 8, snapshot.weights()[row]);
+            target.put(layout[H_FLAGS / 4] + row, snapshot.flags()[row]);
+        }
+        double[] coordinateColumn = snapshot.coordinates();
+        for (int i = 0; i < coordinateColumn.length; i++) {
+            target.putDouble(layout[H_COORDINATES / 4] + i * 8, coordinateColumn[i]);
+        }
+        int[][] codeColumns = snapshot.codes();
+        for (int column = 0; column < CODED_COLUMNS; column++) {
+            for (int row = 0; row < rows; row++) {
+                target.putInt(layout[H_CODES / 4] + (column * rows + row) * 4, codeColumns[column][row]);
+            }
+        }
+
+        String[] values = snapshot.dictionary().values();
+        putStrings(target, layout[H_DICTIONARY_OFFSETS / 4], layout[H_DICTIONARY_DATA / 4], values);
+        putStrings(target, layout[H_NAME_OFFSETS / 4], layout[H_NAME_DATA / 4], snapshot.foldedNames());
+
+        StringHeap text = snapshot.text();
+        int[] offsets = text.offsets();
+        for (int i = 0; i < offsets.length; i++) {
+            target.putInt(layout[H_TEXT_OFFSETS / 4] + i * 4, offsets[i]);
+        }
+        long word = 0;
+        for (int i = 0; i < text.size(); i++) {
+            if (text.isNull(i)) {
+                word |= 1L << (i & 63);
+            }
+            if ((i & 63) == 63 || i == text.size() - 1) {
+                target.putLong(layout[H_TEXT_NULLS / 4] + (i >>> 6) * 8, word);
+                word = 0;
+            }
+        }
+        target.put(layout[H_TEXT_DATA / 4], text.bytes());
+    }
+
+    private static int[] layout(CompactUserSnapshot snapshot) {
+        int rows = snapshot.size();
+        int textValues = snapshot.text().size();
+        int[] layout = new int[HEADER_FIELDS];
+        layout[H_MAGIC / 4] = MAGIC;
+        layout[H_FORMAT / 4] = FORMAT_VERSION;
+        layout[H_ROWS / 4] = rows;
+        layout[H_DICTIONARY_SIZE / 4] = snapshot.dictionary().size();
+
+        int position = HEADER_BYTES;
+        layout[H_IDS / 4] = position;
+        position = align(position + rows * 8);
+        layout[H_HASHES / 4] = position;
+        position = align(position + rows * 8);
+        layout[H_WEIGHTS / 4] = position;
+        position = align(position + rows * 8);
+        layout[H_COORDINATES / 4] = position;
+        position = align(position + rows * COORDINATES_PER_ROW * 8);
+        layout[H_TEXT_NULLS / 4] = position;
+        position = align(position + ((textValues + 63) >>> 6) * 8);
+        layout[H_AGES / 4] = position;
+        position = align(position + rows * 4);
+        layout[H_HEIGHTS / 4] = position;
+        position = align(position + rows * 4);
+        layout[H_CODES / 4] = position;
+        position = align(position + CODED_COLUMNS * rows * 4);
+        layout[H_TEXT_OFFSETS / 4] = position;
+        position = align(position + (textValues + 1) * 4);
+        layout[H_DICTIONARY_OFFSETS / 4] = position;
+        position = align(position + (snapshot.dictionary().size() + 1) * 4);
+        layout[H_NAME_OFFSETS / 4] = position;
+        position = align(position + (rows + 1) * 4);
+        layout[H_FLAGS / 4] = position;
+        position = align(position + rows);
+        layout[H_TEXT_DATA / 4] = position;
+        position = align(position + snapshot.text().byteSize());
+        layout[H_DICTIONARY_DATA / 4] = position;
+        position = align(position + utf8Length(snapshot.dictionary().values()));
+        layout[H_NAME_DATA / 4] = position;
+        position = align(position + utf8Length(snapshot.foldedNames()));
+        layout[H_LENGTH / 4] = position;
+        return layout;
+    }
+
+    private static int align(int position) {
+        return (position + 7) & ~7;
+    }
+
+    private static int utf8Length(String[] values) {
+        int length = 0;
+        for (String value : values) {
+            length += value.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return length;
+    }
+
+    private static void putStrings(ByteBuffer target, int offsetsPosition, int dataPosition, String[] values) {
+        int offset = 0;
+        target.putInt(offsetsPosition, 0);
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = values[i].getBytes(StandardCharsets.UTF_8);
+            target.put(dataPosition + offset, bytes);
+            offset += bytes.length;
+            target.putInt(offsetsPosition + (i + 1) * 4, offset);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getId(int row) {
+        return buffer.getLong(ids + row * 8);
+    }
+
+    @Override
+    public long contentHash(int row) {
+        return buffer.getLong(hashes + row * 8);
+    }
+
+    public int byteSize() {
+        return buffer.getInt(H_LENGTH);
+    }
+
+    /**
+     * Returns a read-only view of the encoded snapshot, positioned at zero and limited to its length.
+     */
+    public ByteBuffer encoded() {
+        return buffer.asReadOnlyBuffer().position(0).limit(byteSize());
+    }
+
+    @Override
+    public int encodedLength() {
+        return byteSize();
+    }
+
+    @Override
+    public void encodeTo(ByteBuffer target) {
+        target.put(0, buffer, 0, byteSize());
+    }
+
+    @Override
+    public IntPredicate nameContains(String foldedFilter) {
+        byte[] pattern = foldedFilter.getBytes(StandardCharsets.UTF_8);
+        return row -> {
+            int start = nameData + buffer.getInt(nameOffsets + row * 4);
+            int end = nameData + buffer.getInt(nameOffsets + (row + 1) * 4);
+            return indexOf(start, end, pattern);
+        };
+    }
+
+    private boolean indexOf(int start, int end, byte[] pattern) {
+        int last = end - pattern.length;
+        for (int i = start; i <= last; i++) {
+            int j = 0;
+            while (j < pattern.length && buffer.get(i + j) == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    int age(int row) {
+        return buffer.getInt(ages + row * 4);
+    }
+
+    @Override
+    int height(int row) {
+        return buffer.getInt(heights + row * 4);
+    }
+
+    @Override
+    double weight(int row) {
+        return buffer.getDouble(weights + row * 8);
+    }
+
+    @Override
+    double coordinate(int index) {
+        return buffer.getDouble(coordinates + index * 8);
+    }
+
+    @Override
+    int flags(int row) {
+        return buffer.get(flags + row);
+    }
+
+    @Override
+    String decode(int column, int row) {
+        int code = buffer.getInt(codes + (column * size + row) * 4);
+        return code == StringDictionary.NULL_CODE ? null : dictionary[code];
+    }
+
+    @Override
+    String text(int index) {
+        long word = buffer.getLong(textNulls + (index >>> 6) * 8);
+        if ((word & (1L << (index & 63))) != 0) {
+            return null;
+        }
+        int start = buffer.getInt(textOffsets + index * 4);
+        int end = buffer.getInt(textOffsets + (index + 1) * 4);
+        return readString(textData + start, end - start);
+    }
+
+    private String readString(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,184 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.metrics.UserMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Shares one memory-mapped snapshot between the JVMs of a host. The writer encodes each new
+ * snapshot into {@code users-<version>.snap} and then atomically replaces the {@code CURRENT}
+ * pointer file; readers map the file named by {@code CURRENT} read-only and serve from it
+ * in place, switching when the version changes. A reader stops serving the shared snapshot once
+ * its version, the time it was fetched, is older than the maximum age, so a writer that stopped
+ * publishing cannot leave readers on stale data.
+ */
+@Slf4j
+@Component
+public class SharedSnapshotFile {
+
+    static final String POINTER_FILE = "CURRENT";
+    private static final String PREFIX = "users-";
+    private static final String SUFFIX = ".snap";
+    private static final int RETAINED_VERSIONS = 2;
+
+    private final SharedSnapshotMode mode;
+    private final Path directory;
+    private final long checkIntervalNanos;
+    private final long maxAgeMillis;
+
+    private volatile UserSnapshot current;
+    private volatile long lastCheckNanos;
+    private volatile long expiredVersion;
+
+    public SharedSnapshotFile(@Value("${users.shared-snapshot.mode:none}") SharedSnapshotMode mode,
+            @Value("${users.shared-snapshot.directory:${java.io.tmpdir}/pagination-snapshot}") Path directory,
+            @Value("${users.shared-snapshot.check-interval:1s}") Duration checkInterval,
+            @Value("${users.shared-snapshot.max-age:30m}") Duration maxAge, UserMetrics userMetrics) {
+        this.mode = mode;
+        this.directory = directory;
+        this.checkIntervalNanos = checkInterval.toNanos();
+        this.maxAgeMillis = maxAge.toMillis();
+        if (isReader()) {
+            userMetrics.registerSharedSnapshotAge(this::ageMillis);
+        }
+    }
+
+    public boolean isWriter() {
+        return mode == SharedSnapshotMode.WRITER;
+    }
+
+    public boolean isReader() {
+        return mode == SharedSnapshotMode.READER;
+    }
+
+    /**
+     * Writes the snapshot to its version file, publishes it and returns the same snapshot mapped from that file.
+     */
+    public synchronized UserSnapshot publish(UserSnapshot snapshot) {
+        long version = snapshot.version();
+        UserSnapshot published = current;
+        if (published != null && published.version() == version) {
+            return published;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path temp = directory.resolve(PREFIX + version + SUFFIX + ".tmp");
+            int length = snapshot.store().encodedLength();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                snapshot.store().encodeTo(buffer);
+                buffer.force();
+            }
+            Files.move(temp, fileFor(version), StandardCopyOption.ATOMIC_MOVE);
+
+            Path pointer = directory.resolve(POINTER_FILE + ".tmp");
+            Files.writeString(pointer, Long.toString(version), StandardCharsets.US_ASCII);
+            Files.move(pointer, directory.resolve(POINTER_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            current = map(version);
+            log.info("Published shared users snapshot version {} ({} bytes) to {}", version, length, directory);
+            deleteOldVersions(version);
+            return current;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to publish shared users snapshot", e);
+        }
+    }
+
+    /**
+     * Returns the most recently published snapshot, or {@code null} if none is available or it is
+     * older than the maximum age. The pointer file is checked at most once per check interval.
+     */
+    public UserSnapshot current() {
+        long now = System.nanoTime();
+        UserSnapshot snapshot = current;
+        if (snapshot == null || now - lastCheckNanos >= checkIntervalNanos) {
+            lastCheckNanos = now;
+            snapshot = refresh(snapshot);
+        }
+        if (snapshot != null && System.currentTimeMillis() - snapshot.version() > maxAgeMillis) {
+            if (expiredVersion != snapshot.version()) {
+                expiredVersion = snapshot.version();
+                log.warn("Shared users snapshot version {} is older than {} ms, loading for this process instead",
+                        snapshot.version(), maxAgeMillis);
+            }
+            return null;
+        }
+        return snapshot;
+    }
+
+    public long currentVersion() {
+        UserSnapshot snapshot = current;
+        return snapshot == null ? 0 : snapshot.version();
+    }
+
+    /**
+     * Milliseconds since the mapped snapshot was fetched, or {@code -1} if none is mapped.
+     */
+    public long ageMillis() {
+        UserSnapshot snapshot = current;
+        return snapshot == null ? -1 : System.currentTimeMillis() - snapshot.version();
+    }
+
+    private synchronized UserSnapshot refresh(UserSnapshot snapshot) {
+        try {
+            long version = Long.parseLong(Files.readString(directory.resolve(POINTER_FILE),
+                    StandardCharsets.US_ASCII).trim());
+            if (snapshot != null && snapshot.version() == version) {
+                return snapshot;
+            }
+            current = map(version);
+            log.info("Switched to shared users snapshot version {}", version);
+            return current;
+        } catch (NoSuchFileException e) {
+            log.debug("Shared users snapshot not available yet: {}", e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read shared users snapshot from {}: {}", directory, e.getMessage());
+        }
+        return snapshot;
+    }
+
+    private UserSnapshot map(long version) throws IOException {
+        try (FileChannel channel = FileChannel.open(fileFor(version), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new UserSnapshot(version, OffHeapUserStore.wrap(buffer));
+        }
+    }
+
+    private void deleteOldVersions(long keep) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .filter(version -> version < keep)
+                    .sorted((a, b) -> Long.compare(b, a))
+                    .skip(RETAINED_VERSIONS - 1)
+                    .forEach(version -> {
+                        try {
+                            Files.deleteIfExists(fileFor(version));
+                        } catch (IOException e) {
+                            log.warn("Failed to delete shared users snapshot version {}: {}", version, e.getMessage());
+                        }
+                    });
+        }
+    }
+
+    private Path fileFor(long version) {
+        return directory.resolve(PREFIX + version + SUFFIX);
+    }
+}
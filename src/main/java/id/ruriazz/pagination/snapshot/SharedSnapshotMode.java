@@ -0,0 +1,7 @@
+package id.ruriazz.pagination.snapshot;
+
+public enum SharedSnapshotMode {
+    NONE,
+    WRITER,
+    READER
+}
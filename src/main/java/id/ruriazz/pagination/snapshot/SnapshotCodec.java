@@ -0,0 +1,50 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip transfer format of a snapshot: the {@link OffHeapUserStore} layout, compressed.
+ */
+public final class SnapshotCodec {
+
+    private SnapshotCodec() {
+    }
+
+    public static byte[] compress(UserStore store) {
+        ByteBuffer encoded = ByteBuffer.allocate(store.encodedLength());
+        store.encodeTo(encoded);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.capacity() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(encoded.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses and validates a snapshot; off-heap stores are copied into a direct buffer.
+     *
+     * @throws IllegalArgumentException if the data is not a valid compressed snapshot
+     */
+    public static OffHeapUserStore decompress(byte[] data, UserStoreType storeType) {
+        byte[] encoded;
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            encoded = gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid compressed users snapshot", e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        if (storeType == UserStoreType.OFF_HEAP) {
+            buffer = ByteBuffer.allocateDirect(encoded.length).put(0, encoded);
+        }
+        return OffHeapUserStore.wrap(buffer);
+    }
+}
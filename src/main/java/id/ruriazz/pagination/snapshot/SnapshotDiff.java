@@ -0,0 +1,149 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Users inserted, updated and removed between two snapshots, matched by id and compared by
+ * {@link UserStore#contentHash(int) content hash}. Rows of inserted and updated users refer to
+ * the next snapshot; the previous rows of updated and removed users refer to the previous one.
+ * The returned arrays are shared and must not be modified.
+ */
+public final class SnapshotDiff {
+
+    private final long[] insertedIds;
+    private final int[] insertedRows;
+    private final long[] updatedIds;
+    private final int[] updatedRows;
+    private final int[] updatedPreviousRows;
+    private final long[] removedIds;
+    private final int[] removedPreviousRows;
+    private final boolean rowsMoved;
+
+    private SnapshotDiff(long[] insertedIds, int[] insertedRows, long[] updatedIds, int[] updatedRows,
+            int[] updatedPreviousRows, long[] removedIds, int[] removedPreviousRows, boolean rowsMoved) {
+        this.insertedIds = insertedIds;
+        this.insertedRows = insertedRows;
+        this.updatedIds = updatedIds;
+        this.updatedRows = updatedRows;
+        this.updatedPreviousRows = updatedPreviousRows;
+        this.removedIds = removedIds;
+        this.removedPreviousRows = removedPreviousRows;
+        this.rowsMoved = rowsMoved;
+    }
+
+    public static SnapshotDiff between(UserStore previous, UserStore next) {
+        LongIntMap previousRows = LongIntMap.rowsById(previous);
+        BitSet matched = new BitSet(previous.size());
+        RowList inserted = new RowList();
+        RowList updated = new RowList();
+        boolean rowsMoved = false;
+
+        for (int row = 0; row < next.size(); row++) {
+            long id = next.getId(row);
+            int previousRow = previousRows.get(id);
+            if (previousRow < 0 || matched.get(previousRow)) {
+                inserted.add(id, row, -1);
+                continue;
+            }
+            matched.set(previousRow);
+            rowsMoved |= previousRow != row;
+            if (previous.contentHash(previousRow) != next.contentHash(row)) {
+                updated.add(id, row, previousRow);
+            }
+        }
+
+        RowList removed = new RowList();
+        for (int row = matched.nextClearBit(0); row < previous.size(); row = matched.nextClearBit(row + 1)) {
+            removed.add(previous.getId(row), -1, row);
+        }
+        return new SnapshotDiff(inserted.ids(), inserted.rows(), updated.ids(), updated.rows(),
+                updated.previousRows(), removed.ids(), removed.previousRows(), rowsMoved);
+    }
+
+    /**
+     * Diff of a first snapshot, in which every user is inserted.
+     */
+    public static SnapshotDiff initial(UserStore store) {
+        RowList inserted = new RowList();
+        for (int row = 0; row < store.size(); row++) {
+            inserted.add(store.getId(row), row, -1);
+        }
+        return new SnapshotDiff(inserted.ids(), inserted.rows(), new long[0], new int[0], new int[0],
+                new long[0], new int[0], false);
+    }
+
+    public long[] insertedIds() {
+        return insertedIds;
+    }
+
+    public int[] insertedRows() {
+        return insertedRows;
+    }
+
+    public long[] updatedIds() {
+        return updatedIds;
+    }
+
+    public int[] updatedRows() {
+        return updatedRows;
+    }
+
+    public int[] updatedPreviousRows() {
+        return updatedPreviousRows;
+    }
+
+    public long[] removedIds() {
+        return removedIds;
+    }
+
+    public int[] removedPreviousRows() {
+        return removedPreviousRows;
+    }
+
+    public int size() {
+        return insertedIds.length + updatedIds.length + removedIds.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Whether a user kept in the next snapshot sits at a different row than before. Row-keyed
+     * indexes are only valid for the next snapshot if the diff is empty and no row moved.
+     */
+    public boolean rowsMoved() {
+        return rowsMoved;
+    }
+
+    private static final class RowList {
+        private long[] ids = new long[8];
+        private int[] rows = new int[8];
+        private int[] previousRows = new int[8];
+        private int size;
+
+        void add(long id, int row, int previousRow) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+                previousRows = Arrays.copyOf(previousRows, size * 2);
+            }
+            ids[size] = id;
+            rows[size] = row;
+            previousRows[size++] = previousRow;
+        }
+
+        long[] ids() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        int[] rows() {
+            return Arrays.copyOf(rows, size);
+        }
+
+        int[] previousRows() {
+            return Arrays.copyOf(previousRows, size);
+        }
+    }
+}
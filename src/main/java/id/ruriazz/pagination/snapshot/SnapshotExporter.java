@@ -0,0 +1,32 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.dto.SnapshotPayload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Serves the snapshot of this node to its peers. The compressed form is built once per version.
+ */
+@Component
+@RequiredArgsConstructor
+public class SnapshotExporter {
+
+    private final UserSnapshotProvider userSnapshotProvider;
+
+    private volatile SnapshotPayload exported;
+
+    public Optional<SnapshotPayload> export(long minVersion) {
+        UserSnapshot snapshot = userSnapshotProvider.latestSnapshot();
+        if (snapshot == null || snapshot.version() < minVersion) {
+            return Optional.empty();
+        }
+        SnapshotPayload payload = exported;
+        if (payload == null || payload.getVersion() != snapshot.version()) {
+            payload = new SnapshotPayload(snapshot.version(), SnapshotCodec.compress(snapshot.store()));
+            exported = payload;
+        }
+        return Optional.of(payload);
+    }
+}
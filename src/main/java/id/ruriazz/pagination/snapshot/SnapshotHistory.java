@@ -0,0 +1,70 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Immutable list of the most recently served snapshots, newest first. Replaced as a whole on
+ * every new version, so readers never need a lock.
+ */
+final class SnapshotHistory {
+
+    static final SnapshotHistory EMPTY = new SnapshotHistory(new UserSnapshot[0]);
+
+    private final UserSnapshot[] snapshots;
+
+    private SnapshotHistory(UserSnapshot[] snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    UserSnapshot current() {
+        return snapshots.length == 0 ? null : snapshots[0];
+    }
+
+    UserSnapshot find(long version) {
+        for (UserSnapshot snapshot : snapshots) {
+            if (snapshot.version() == version) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    SnapshotHistory push(UserSnapshot snapshot, int limit) {
+        UserSnapshot[] next = new UserSnapshot[Math.min(snapshots.length + 1, limit)];
+        next[0] = snapshot;
+        System.arraycopy(snapshots, 0, next, 1, next.length - 1);
+        return new SnapshotHistory(next);
+    }
+
+    /**
+     * Estimated bytes retained by the history beyond the current store, which the users cache
+     * already weighs: the derived indexes of every version and the stores of the older ones.
+     * Stores and indexes shared between versions are counted once.
+     */
+    long retainedBytes() {
+        if (snapshots.length == 0) {
+            return 0;
+        }
+        Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        counted.add(snapshots[0].store());
+        long bytes = 0;
+        for (UserSnapshot snapshot : snapshots) {
+            if (counted.add(snapshot.store())) {
+                bytes += snapshot.store().encodedLength();
+            }
+            for (DerivedIndex index : snapshot.indexes().asMap().values()) {
+                if (counted.add(index)) {
+                    bytes += index.bytes();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    long[] versions() {
+        return Arrays.stream(snapshots).mapToLong(UserSnapshot::version).toArray();
+    }
+}
@@ -0,0 +1,56 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interned table of repetitive string values shared by every dictionary-coded column
+ * of a snapshot. Code {@value #NULL_CODE} stands for {@code null}.
+ */
+public final class StringDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final String[] values;
+
+    private StringDictionary(String[] values) {
+        this.values = values;
+    }
+
+    public String get(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    String[] values() {
+        return values;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        public int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        public StringDictionary build() {
+            return new StringDictionary(values.toArray(String[]::new));
+        }
+    }
+}
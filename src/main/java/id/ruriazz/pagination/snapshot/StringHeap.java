@@ -0,0 +1,78 @@
+package id.ruriazz.pagination.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Packs mostly unique strings into a single UTF-8 byte array. Values are decoded into
+ * {@code String} instances only when they are read.
+ */
+public final class StringHeap {
+
+    private final byte[] bytes;
+    private final int[] offsets;
+    private final BitSet nulls;
+
+    private StringHeap(byte[] bytes, int[] offsets, BitSet nulls) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.nulls = nulls;
+    }
+
+    public String get(int index) {
+        if (nulls.get(index)) {
+            return null;
+        }
+        return new String(bytes, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    public int byteSize() {
+        return bytes.length;
+    }
+
+    boolean isNull(int index) {
+        return nulls.get(index);
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    public static final class Builder {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final BitSet nulls = new BitSet();
+        private int[] offsets;
+        private int count;
+
+        public Builder(int expectedValues) {
+            this.offsets = new int[expectedValues + 1];
+        }
+
+        public void add(String value) {
+            if (count + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            if (value == null) {
+                nulls.set(count);
+            } else {
+                bytes.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+            offsets[++count] = bytes.size();
+        }
+
+        public StringHeap build() {
+            return new StringHeap(bytes.toByteArray(), Arrays.copyOf(offsets, count + 1), nulls);
+        }
+    }
+}
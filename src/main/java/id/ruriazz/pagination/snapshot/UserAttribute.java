@@ -0,0 +1,38 @@
+package id.ruriazz.pagination.snapshot;
+
+/**
+ * Low-cardinality user attributes stored as dictionary codes, with the name used in query parameters.
+ */
+public enum UserAttribute {
+    BLOOD_GROUP("bloodGroup", ColumnarUserStore.BLOOD_GROUP),
+    EYE_COLOR("eyeColor", ColumnarUserStore.EYE_COLOR),
+    HAIR_COLOR("hairColor", ColumnarUserStore.HAIR_COLOR),
+    HAIR_TYPE("hairType", ColumnarUserStore.HAIR_TYPE),
+    CITY("city", ColumnarUserStore.CITY),
+    STATE("state", ColumnarUserStore.STATE),
+    STATE_CODE("stateCode", ColumnarUserStore.STATE_CODE),
+    COUNTRY("country", ColumnarUserStore.COUNTRY),
+    DEPARTMENT("department", ColumnarUserStore.DEPARTMENT),
+    COMPANY_NAME("companyName", ColumnarUserStore.COMPANY_NAME),
+    TITLE("title", ColumnarUserStore.TITLE),
+    COMPANY_CITY("companyCity", ColumnarUserStore.COMPANY_CITY),
+    COMPANY_STATE("companyState", ColumnarUserStore.COMPANY_STATE),
+    COMPANY_STATE_CODE("companyStateCode", ColumnarUserStore.COMPANY_STATE_CODE),
+    COMPANY_COUNTRY("companyCountry", ColumnarUserStore.COMPANY_COUNTRY);
+
+    private final String parameter;
+    private final int column;
+
+    UserAttribute(String parameter, int column) {
+        this.parameter = parameter;
+        this.column = column;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    int column() {
+        return column;
+    }
+}
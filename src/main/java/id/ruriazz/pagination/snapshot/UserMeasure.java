@@ -0,0 +1,20 @@
+package id.ruriazz.pagination.snapshot;
+
+/**
+ * Numeric user attributes that can be filtered by range.
+ */
+public enum UserMeasure {
+    AGE("age"),
+    HEIGHT("height"),
+    WEIGHT("weight");
+
+    private final String parameter;
+
+    UserMeasure(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+}
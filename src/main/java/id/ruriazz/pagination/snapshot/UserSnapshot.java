@@ -0,0 +1,16 @@
+package id.ruriazz.pagination.snapshot;
+
+/**
+ * A loaded users snapshot. The version is the epoch millisecond at which the data was fetched
+ * from upstream and is kept when the snapshot is replicated to other processes or nodes.
+ */
+public record UserSnapshot(long version, UserStore store, DerivedIndexes indexes) {
+
+    public UserSnapshot(long version, UserStore store) {
+        this(version, store, DerivedIndexes.EMPTY);
+    }
+
+    public UserSnapshot withIndexes(DerivedIndexes indexes) {
+        return new UserSnapshot(version, store, indexes);
+    }
+}
@@ -0,0 +1,166 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.diagnostics.IndexRebuildEvent;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Attaches the derived indexes to each newly served snapshot. Each version is diffed against the
+ * previous one; the indexes are built for it unless no user changed and no row moved, in which case
+ * the previous ones are reused. Every new version is announced with a {@link UsersChangedEvent}
+ * and the last {@code users.snapshot.history-size} versions stay available for consistent reads.
+ * <p>
+ * Requests go through {@link #serve(UserSnapshot)}, which indexes a new version on one background
+ * thread and keeps answering with the previous indexed version until the new one is swapped in.
+ */
+@Slf4j
+@Component
+public class UserSnapshotIndexer implements DisposableBean {
+
+    private final List<DerivedIndexFactory<?>> indexFactories;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserMetrics userMetrics;
+    private final int historySize;
+    private final ExecutorService executor;
+    private final AtomicLong pendingVersion = new AtomicLong();
+
+    private volatile SnapshotHistory history = SnapshotHistory.EMPTY;
+
+    @Autowired
+    public UserSnapshotIndexer(List<DerivedIndexFactory<?>> indexFactories, ApplicationEventPublisher eventPublisher,
+            UserMetrics userMetrics, @Value("${users.snapshot.history-size:3}") int historySize) {
+        this(indexFactories, eventPublisher, userMetrics, historySize,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "users-indexer");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    UserSnapshotIndexer(List<DerivedIndexFactory<?>> indexFactories, ApplicationEventPublisher eventPublisher,
+            UserMetrics userMetrics, int historySize, ExecutorService executor) {
+        if (historySize < 1) {
+            throw new IllegalArgumentException("users.snapshot.history-size must be at least 1");
+        }
+        this.indexFactories = indexFactories;
+        this.eventPublisher = eventPublisher;
+        this.userMetrics = userMetrics;
+        this.historySize = historySize;
+        this.executor = executor;
+        userMetrics.registerSnapshotHistory(() -> history.retainedBytes());
+    }
+
+    /**
+     * Returns the indexed snapshot to answer a request with. A new version is indexed in the
+     * background, once, while the previous indexed version keeps being returned; only the first
+     * snapshot, with nothing to fall back to, is indexed on the calling thread.
+     */
+    public UserSnapshot serve(UserSnapshot snapshot) {
+        UserSnapshot indexed = history.current();
+        if (indexed == null) {
+            return index(snapshot);
+        }
+        long version = snapshot.version();
+        if (indexed.version() == version) {
+            return indexed;
+        }
+        long pending = pendingVersion.get();
+        if (pending != version && pendingVersion.compareAndSet(pending, version)) {
+            try {
+                executor.execute(() -> indexInBackground(snapshot));
+            } catch (RejectedExecutionException e) {
+                pendingVersion.compareAndSet(version, 0);
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Indexes the snapshot on the calling thread, unless it is the current indexed version.
+     */
+    public UserSnapshot index(UserSnapshot snapshot) {
+        UserSnapshot indexed = history.current();
+        if (indexed != null && indexed.version() == snapshot.version()) {
+            return indexed;
+        }
+        return indexNewVersion(snapshot);
+    }
+
+    /**
+     * Returns the indexed snapshot of the given version if it is still retained, otherwise {@code null}.
+     */
+    public UserSnapshot find(long version) {
+        return history.find(version);
+    }
+
+    public long[] retainedVersions() {
+        return history.versions();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void indexInBackground(UserSnapshot snapshot) {
+        try {
+            indexNewVersion(snapshot);
+        } catch (RuntimeException e) {
+            log.warn("Failed to index users snapshot version {}: {}", snapshot.version(), e.getMessage());
+        } finally {
+            pendingVersion.compareAndSet(snapshot.version(), 0);
+        }
+    }
+
+    private synchronized UserSnapshot indexNewVersion(UserSnapshot snapshot) {
+        UserSnapshot previous = history.current();
+        if (previous != null && previous.version() == snapshot.version()) {
+            return previous;
+        }
+
+        SnapshotDiff diff = previous == null ? SnapshotDiff.initial(snapshot.store())
+                : SnapshotDiff.between(previous.store(), snapshot.store());
+        boolean unchanged = previous != null && diff.isEmpty() && !diff.rowsMoved();
+        Map<Class<? extends DerivedIndex>, DerivedIndex> indexes = new HashMap<>();
+        for (DerivedIndexFactory<?> factory : indexFactories) {
+            DerivedIndex index = unchanged ? previous.indexes().get(factory.type()) : build(factory, snapshot.store());
+            if (index != null) {
+                indexes.put(factory.type(), index);
+            }
+        }
+
+        UserSnapshot indexed = snapshot.withIndexes(new DerivedIndexes(indexes));
+        history = history.push(indexed, historySize);
+        userMetrics.recordSnapshotChanges(diff.insertedIds().length, diff.updatedIds().length,
+                diff.removedIds().length);
+        log.info("Serving users snapshot version {}: {} inserted, {} updated, {} removed",
+                snapshot.version(), diff.insertedIds().length, diff.updatedIds().length, diff.removedIds().length);
+        eventPublisher.publishEvent(new UsersChangedEvent(previous == null ? 0 : previous.version(),
+                snapshot.version(), diff));
+        return indexed;
+    }
+
+    private static DerivedIndex build(DerivedIndexFactory<?> factory, UserStore store) {
+        IndexRebuildEvent event = new IndexRebuildEvent();
+        event.begin();
+        DerivedIndex index = factory.build(store);
+        event.index = factory.type().getSimpleName();
+        event.users = store.size();
+        event.entries = index == null ? 0 : index.entries();
+        event.commit();
+        return index;
+    }
+}
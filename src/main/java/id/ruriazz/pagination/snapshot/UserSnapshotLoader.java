@@ -0,0 +1,128 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.client.DummyJsonClient;
+import id.ruriazz.pagination.client.PeerSnapshotClient;
+import id.ruriazz.pagination.diagnostics.SnapshotBuildEvent;
+import id.ruriazz.pagination.dto.DummyJsonResponse;
+import id.ruriazz.pagination.dto.SnapshotPayload;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Loads the users snapshot from a peer node when one serves a recent enough version and from
+ * the upstream API otherwise.
+ */
+@Slf4j
+@Component
+public class UserSnapshotLoader {
+
+    private final DummyJsonClient dummyJsonClient;
+    private final PeerSnapshotClient peerSnapshotClient;
+    private final UserMetrics userMetrics;
+    private final UserStoreType storeType;
+    private final SharedSnapshotFile sharedSnapshotFile;
+    private final Duration peerMaxAge;
+
+    private volatile UserSnapshot latest;
+
+    public UserSnapshotLoader(DummyJsonClient dummyJsonClient, PeerSnapshotClient peerSnapshotClient,
+            UserMetrics userMetrics, @Value("${users.store.type:heap}") UserStoreType storeType,
+            SharedSnapshotFile sharedSnapshotFile, @Value("${users.peers.max-age:5m}") Duration peerMaxAge) {
+        this.dummyJsonClient = dummyJsonClient;
+        this.peerSnapshotClient = peerSnapshotClient;
+        this.userMetrics = userMetrics;
+        this.storeType = storeType;
+        this.sharedSnapshotFile = sharedSnapshotFile;
+        this.peerMaxAge = peerMaxAge;
+    }
+
+    /**
+     * Cached in {@code users}; concurrent callers on a miss wait for the one load in progress
+     * instead of each calling the upstream.
+     */
+    @Cacheable(value = "users", sync = true)
+    public UserSnapshot load() {
+        return serve(loadFromPeers().orElseGet(this::loadFromUpstream));
+    }
+
+    /**
+     * Loads the snapshot from upstream, skipping peers, and replaces the cached one. Requests keep
+     * being served from the cached snapshot until the new one is stored.
+     */
+    @CachePut("users")
+    public UserSnapshot reload() {
+        return serve(loadFromUpstream());
+    }
+
+    private UserSnapshot serve(UserSnapshot snapshot) {
+        if (sharedSnapshotFile.isWriter()) {
+            try {
+                snapshot = sharedSnapshotFile.publish(snapshot);
+            } catch (UncheckedIOException e) {
+                log.warn("Serving users snapshot from this process only: {}", e.getMessage());
+            }
+        }
+        latest = snapshot;
+        userMetrics.recordSnapshotLoaded(snapshot.store().size());
+        return snapshot;
+    }
+
+    /**
+     * Returns the last loaded snapshot without loading, or {@code null} before the first load.
+     */
+    public UserSnapshot latest() {
+        return latest;
+    }
+
+    private Optional<UserSnapshot> loadFromPeers() {
+        if (!peerSnapshotClient.hasPeers()) {
+            return Optional.empty();
+        }
+        long minVersion = System.currentTimeMillis() - peerMaxAge.toMillis();
+        Optional<SnapshotPayload> payload = peerSnapshotClient.fetchSnapshot(minVersion);
+        if (payload.isEmpty()) {
+            return Optional.empty();
+        }
+
+        SnapshotBuildEvent event = new SnapshotBuildEvent();
+        event.begin();
+        try {
+            UserStore store = SnapshotCodec.decompress(payload.get().getData(), storeType);
+            event.source = "peer";
+            event.userCount = store.size();
+            event.commit();
+            log.info("Loaded users snapshot version {} with {} users from peer",
+                    payload.get().getVersion(), store.size());
+            return Optional.of(new UserSnapshot(payload.get().getVersion(), store));
+        } catch (IllegalArgumentException e) {
+            log.warn("Discarding invalid users snapshot from peer: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private UserSnapshot loadFromUpstream() {
+        DummyJsonResponse response = dummyJsonClient.fetchAllUsers();
+        UserSnapshot previous = latest;
+        long version = Math.max(System.currentTimeMillis(), previous == null ? 0 : previous.version() + 1);
+
+        SnapshotBuildEvent event = new SnapshotBuildEvent();
+        event.begin();
+        CompactUserSnapshot snapshot = CompactUserSnapshot.from(response.getUsers());
+        UserStore store = storeType == UserStoreType.OFF_HEAP ? OffHeapUserStore.copyOf(snapshot) : snapshot;
+        event.source = "upstream";
+        event.userCount = store.size();
+        event.commit();
+
+        log.info("Built {} users snapshot version {} with {} users and {} dictionary entries",
+                storeType, version, store.size(), snapshot.getDictionarySize());
+        return new UserSnapshot(version, store);
+    }
+}
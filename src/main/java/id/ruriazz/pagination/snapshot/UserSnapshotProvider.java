@@ -0,0 +1,53 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.exception.SnapshotVersionNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entry point for the current users snapshot. Shared-snapshot readers serve the file published
+ * by the writer process and only load from upstream themselves until one is available. Served
+ * snapshots carry their derived indexes, so a new version is served once it has been indexed.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSnapshotProvider {
+
+    private final UserSnapshotLoader userSnapshotLoader;
+    private final SharedSnapshotFile sharedSnapshotFile;
+    private final UserSnapshotIndexer userSnapshotIndexer;
+
+    public UserSnapshot currentSnapshot() {
+        UserSnapshot shared = sharedSnapshot();
+        return userSnapshotIndexer.serve(shared != null ? shared : userSnapshotLoader.load());
+    }
+
+    /**
+     * Returns the snapshot of the given version, as long as it is the current one or still retained.
+     *
+     * @throws SnapshotVersionNotFoundException if the version is unknown or no longer retained
+     */
+    public UserSnapshot snapshotAt(long version) {
+        UserSnapshot current = currentSnapshot();
+        if (current.version() == version) {
+            return current;
+        }
+        UserSnapshot retained = userSnapshotIndexer.find(version);
+        if (retained == null) {
+            throw new SnapshotVersionNotFoundException(version);
+        }
+        return retained;
+    }
+
+    /**
+     * Returns the snapshot this process is serving without triggering a load, or {@code null}.
+     */
+    public UserSnapshot latestSnapshot() {
+        UserSnapshot shared = sharedSnapshot();
+        return shared != null ? shared : userSnapshotLoader.latest();
+    }
+
+    private UserSnapshot sharedSnapshot() {
+        return sharedSnapshotFile.isReader() ? sharedSnapshotFile.current() : null;
+    }
+}
@@ -0,0 +1,63 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.model.User;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntPredicate;
+
+/**
+ * Read-only, row-addressable view of a users snapshot. Rows keep the upstream order.
+ */
+public interface UserStore {
+
+    int size();
+
+    long getId(int row);
+
+    /**
+     * Returns a predicate over row positions matching users whose lower-cased
+     * "first last" name contains {@code foldedFilter}.
+     */
+    IntPredicate nameContains(String foldedFilter);
+
+    User materialize(int row);
+
+    String firstName(int row);
+
+    String lastName(int row);
+
+    /**
+     * Returns the value of a dictionary-coded attribute without materializing the user.
+     */
+    String attribute(UserAttribute attribute, int row);
+
+    /**
+     * Returns a numeric measure without materializing the user, or {@code NaN} if the user has none.
+     */
+    double measure(UserMeasure measure, int row);
+
+    /**
+     * Latitude of the user's address, or {@code NaN} if it has no coordinates.
+     */
+    double latitude(int row);
+
+    /**
+     * Longitude of the user's address, or {@code NaN} if it has no coordinates.
+     */
+    double longitude(int row);
+
+    /**
+     * 64-bit hash of every field of the user, used to detect changed users between snapshots.
+     */
+    long contentHash(int row);
+
+    /**
+     * Length of this store in the {@link OffHeapUserStore} layout.
+     */
+    int encodedLength();
+
+    /**
+     * Writes this store in the {@link OffHeapUserStore} layout to {@code target}, starting at index zero.
+     */
+    void encodeTo(ByteBuffer target);
+}
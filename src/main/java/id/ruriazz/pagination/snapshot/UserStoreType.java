@@ -0,0 +1,6 @@
+package id.ruriazz.pagination.snapshot;
+
+public enum UserStoreType {
+    HEAP,
+    OFF_HEAP
+}
@@ -0,0 +1,7 @@
+package id.ruriazz.pagination.snapshot;
+
+/**
+ * Published when a new snapshot version is served. {@code previousVersion} is zero for the first one.
+ */
+public record UsersChangedEvent(long previousVersion, long version, SnapshotDiff diff) {
+}
@@ -1,13 +1,45 @@
 package id.ruriazz.pagination;
 
+import id.ruriazz.pagination.metrics.TimedCborHttpMessageConverter;
+import id.ruriazz.pagination.metrics.TimedJacksonHttpMessageConverter;
+import id.ruriazz.pagination.metrics.TimedSmileHttpMessageConverter;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class PaginationApplicationTests {
 
+	@Autowired
+	private HttpMessageConverters messageConverters;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void messageConverters_ShouldPreferJsonOverBinaryFormats() {
+		List<HttpMessageConverter<?>> converters = messageConverters.getConverters();
+		int json = indexOf(converters, TimedJacksonHttpMessageConverter.class);
+		int cbor = indexOf(converters, TimedCborHttpMessageConverter.class);
+		int smile = indexOf(converters, TimedSmileHttpMessageConverter.class);
+
+		assertTrue(json >= 0 && cbor > json && smile > json, converters.toString());
+	}
+
+	private static int indexOf(List<HttpMessageConverter<?>> converters, Class<?> type) {
+		for (int i = 0; i < converters.size(); i++) {
+			if (type.isInstance(converters.get(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 }
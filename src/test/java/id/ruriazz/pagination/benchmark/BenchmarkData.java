@@ -0,0 +1,75 @@
+package id.ruriazz.pagination.benchmark;
+
+import id.ruriazz.pagination.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic users shaped like the DummyJSON payload, with realistic repetition of
+ * the categorical fields and unique strings everywhere else.
+ */
+final class BenchmarkData {
+
+    private static final String[] FIRST_NAMES = {"Emily", "Michael", "Sophia", "James", "Emma", "Olivia",
+            "Alexander", "Ava", "Ethan", "Isabella", "Liam", "Mia", "Noah", "Charlotte", "William", "Amelia"};
+    private static final String[] LAST_NAMES = {"Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas"};
+    private static final String[] BLOOD_GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+    private static final String[] EYE_COLORS = {"Green", "Brown", "Blue", "Gray", "Amber", "Hazel"};
+    private static final String[] HAIR_COLORS = {"Brown", "Black", "Blonde", "Red", "Gray", "White"};
+    private static final String[] HAIR_TYPES = {"Curly", "Straight", "Wavy", "Kinky"};
+    private static final String[] CITIES = {"Phoenix", "Houston", "Washington", "Seattle", "Denver", "Fort Worth",
+            "San Francisco", "Columbus", "Chicago", "Dallas", "San Antonio", "Jacksonville"};
+    private static final String[] STATES = {"Mississippi", "Alabama", "Texas", "Washington", "Colorado", "Ohio",
+            "Wisconsin", "Kansas", "Florida", "Nevada"};
+    private static final String[] DEPARTMENTS = {"Engineering", "Support", "Research and Development",
+            "Human Resources", "Product Management", "Marketing", "Services", "Accounting", "Training", "Legal"};
+    private static final String[] TITLES = {"Sales Manager", "Support Specialist", "Research Analyst",
+            "Accountant", "Web Developer", "Product Manager", "Software Engineer", "Quality Assurance"};
+
+    private BenchmarkData() {
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    static User user(int i) {
+        String firstName = FIRST_NAMES[i % FIRST_NAMES.length];
+        String lastName = LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+        User user = new User();
+        user.setId((long) i + 1);
+        user.setFirstName(new String(firstName));
+        user.setLastName(new String(lastName));
+        user.setAge(18 + i % 60);
+        user.setEmail(firstName.toLowerCase() + "." + lastName.toLowerCase() + i + "@x.dummyjson.com");
+        user.setPhone("+81 965-431-" + (1000 + i % 9000));
+        user.setBirthDate((1950 + i % 60) + "-" + (1 + i % 12) + "-" + (1 + i % 28));
+        user.setImage("https://dummyjson.com/icon/" + firstName.toLowerCase() + i + "/128");
+        user.setBloodGroup(new String(BLOOD_GROUPS[i % BLOOD_GROUPS.length]));
+        user.setHeight(150 + i % 50);
+        user.setWeight(50 + (i % 500) / 10.0);
+        user.setEyeColor(new String(EYE_COLORS[i % EYE_COLORS.length]));
+        user.setHair(new User.Hair(new String(HAIR_COLORS[i % HAIR_COLORS.length]),
+                new String(HAIR_TYPES[i % HAIR_TYPES.length])));
+        user.setAddress(address(i, 0));
+        user.setCompany(new User.Company(new String(DEPARTMENTS[i % DEPARTMENTS.length]),
+                "Company " + (i % 2000), new String(TITLES[i % TITLES.length]), address(i, 7)));
+        return user;
+    }
+
+    private static User.Address address(int i, int salt) {
+        int city = (i + salt) % CITIES.length;
+        String state = STATES[(i + salt) % STATES.length];
+        return new User.Address((i % 9000) + " Main Street", new String(CITIES[city]), new String(state),
+                state.substring(0, 2).toUpperCase(), String.valueOf(10000 + (i * 7 + salt) % 89999),
+                new User.Address.Coordinates(-90 + ((i * 37L + salt) % 18000) / 100.0,
+                        -180 + ((i * 91L + salt) % 36000) / 100.0),
+                "United States");
+    }
+}
@@ -0,0 +1,72 @@
+package id.ruriazz.pagination.benchmark;
+
+import id.ruriazz.pagination.service.ParallelScanner;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Times an unindexed name and attribute scan on the calling thread and on the
+ * {@link ParallelScanner} pool across snapshot sizes, to find where parallel
+ * chunks start to pay off and set {@code users.scan.parallel-threshold}.
+ * Run with {@code mvn test -Pbenchmark -Dtest=ParallelScanBenchmark}.
+ */
+class ParallelScanBenchmark {
+
+    private static final int[] SIZES = {1_000, 5_000, 10_000, 25_000, 50_000, 100_000, 200_000};
+    private static final int RUNS = 41;
+    private static final int PAGE_END = 100;
+
+    @Test
+    void findCrossover() {
+        UserStore largest = CompactUserSnapshot.from(BenchmarkData.users(SIZES[SIZES.length - 1]));
+        ParallelScanner sequential = new ParallelScanner(Integer.MAX_VALUE, 1);
+        ParallelScanner parallel = new ParallelScanner(1, Math.max(2, Runtime.getRuntime().availableProcessors()));
+        IntPredicate name = largest.nameContains("li");
+        IntPredicate predicate = row -> "Engineering".equalsIgnoreCase(largest.attribute(UserAttribute.DEPARTMENT, row))
+                && name.test(row);
+
+        System.out.printf("%n%d threads, median of %d scans, first %d rows kept%n",
+                parallel.parallelism(), RUNS, PAGE_END);
+        System.out.printf("| %8s | %15s | %13s | %8s |%n", "Rows", "Sequential us", "Parallel us", "Speedup");
+        double[] speedups = new double[SIZES.length];
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < SIZES.length; i++) {
+                long sequentialNanos = median(sequential, SIZES[i], predicate);
+                long parallelNanos = median(parallel, SIZES[i], predicate);
+                speedups[i] = (double) sequentialNanos / parallelNanos;
+                if (round == 1) {
+                    System.out.printf("| %8d | %15.1f | %13.1f | %7.2fx |%n", SIZES[i], sequentialNanos / 1e3,
+                            parallelNanos / 1e3, speedups[i]);
+                }
+            }
+        }
+        int crossover = SIZES.length;
+        while (crossover > 0 && speedups[crossover - 1] > 1) {
+            crossover--;
+        }
+        System.out.println(crossover == SIZES.length ? "Parallel scans are not faster at any measured size"
+                : "Parallel scans are faster from " + SIZES[crossover] + " rows on");
+        sequential.destroy();
+        parallel.destroy();
+    }
+
+    private static long median(ParallelScanner scanner, int size, IntPredicate predicate) {
+        long[] nanos = new long[RUNS];
+        long checksum = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            checksum += scanner.scan(size, predicate, PAGE_END).total();
+            nanos[run] = System.nanoTime() - start;
+        }
+        if (checksum < 0) {
+            throw new IllegalStateException("unexpected benchmark state");
+        }
+        Arrays.sort(nanos);
+        return nanos[RUNS / 2];
+    }
+}
@@ -0,0 +1,79 @@
+package id.ruriazz.pagination.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import id.ruriazz.pagination.dto.PaginationResponse;
+import id.ruriazz.pagination.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Encodes and decodes a {@code size=100} page of users as JSON, CBOR and Smile, the formats
+ * {@code /api/users} negotiates through {@code Accept}, and compares the median time and payload
+ * size of each. Run with {@code mvn test -Pbenchmark -Dtest=ResponseFormatBenchmark}.
+ */
+class ResponseFormatBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 2_000;
+    private static final int RUNS = 501;
+    private static final TypeReference<PaginationResponse<User>> PAGE = new TypeReference<>() {
+    };
+
+    @Test
+    void compareFormats() throws IOException {
+        PaginationResponse<User> page = new PaginationResponse<>(1, PAGE_SIZE, 10_000, BenchmarkData.users(PAGE_SIZE));
+        String[] names = {"JSON", "CBOR", "Smile"};
+        ObjectMapper[] mappers = {new ObjectMapper(), new CBORMapper(), new SmileMapper()};
+
+        System.out.printf("%nPage of %d users, median of %d runs after %d warm-up runs%n", PAGE_SIZE, RUNS, WARMUP);
+        System.out.printf("| %-6s | %8s | %9s | %10s | %10s |%n", "Format", "Bytes", "vs JSON", "Encode us", "Decode us");
+        int jsonBytes = mappers[0].writeValueAsBytes(page).length;
+        for (int i = 0; i < mappers.length; i++) {
+            ObjectMapper mapper = mappers[i];
+            byte[] body = mapper.writeValueAsBytes(page);
+            if (!mapper.readValue(body, PAGE).getData().equals(page.getData())) {
+                throw new IllegalStateException(names[i] + " does not round-trip the page");
+            }
+            for (int run = 0; run < WARMUP; run++) {
+                mapper.readValue(mapper.writeValueAsBytes(page), PAGE);
+            }
+            System.out.printf("| %-6s | %8d | %8.0f%% | %10.1f | %10.1f |%n", names[i], body.length,
+                    100.0 * body.length / jsonBytes, medianEncode(mapper, page) / 1e3, medianDecode(mapper, body) / 1e3);
+        }
+    }
+
+    private static long medianEncode(ObjectMapper mapper, PaginationResponse<User> page) throws IOException {
+        long[] nanos = new long[RUNS];
+        long checksum = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            checksum += mapper.writeValueAsBytes(page).length;
+            nanos[run] = System.nanoTime() - start;
+        }
+        return median(nanos, checksum);
+    }
+
+    private static long medianDecode(ObjectMapper mapper, byte[] body) throws IOException {
+        long[] nanos = new long[RUNS];
+        long checksum = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            checksum += mapper.readValue(body, PAGE).getData().size();
+            nanos[run] = System.nanoTime() - start;
+        }
+        return median(nanos, checksum);
+    }
+
+    private static long median(long[] nanos, long checksum) {
+        if (checksum < 0) {
+            throw new IllegalStateException("unexpected benchmark state");
+        }
+        Arrays.sort(nanos);
+        return nanos[RUNS / 2];
+    }
+}
@@ -0,0 +1,220 @@
+package id.ruriazz.pagination.benchmark;
+
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.OffHeapUserStore;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserMeasure;
+import id.ruriazz.pagination.snapshot.UserStore;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Compares GC pauses, allocation and retained heap of the snapshot representations
+ * across repeated refreshes followed by filtered page queries.
+ * Run with {@code mvn test -Pbenchmark -Dtest=UserStoreBenchmark}.
+ */
+class UserStoreBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int REFRESHES = 6;
+    private static final int QUERIES_PER_REFRESH = 200;
+    private static final String[] FILTERS = {"emily", "john", "a j", "liam wil", "zzz"};
+
+    @Test
+    void compareStores() {
+        List<Result> results = new ArrayList<>();
+        for (int round = 0; round < 2; round++) {
+            results.clear();
+            results.add(run("List<User> (on-heap)", ListStore::new));
+            results.add(run("CompactUserSnapshot", CompactUserSnapshot::from));
+            results.add(run("OffHeapUserStore", users -> OffHeapUserStore.copyOf(CompactUserSnapshot.from(users))));
+        }
+
+        System.out.printf("%n%d users, %d refreshes, %d queries per refresh (second round)%n",
+                USERS, REFRESHES, QUERIES_PER_REFRESH);
+        System.out.printf("| %-22s | %10s | %10s | %14s | %14s | %12s |%n",
+                "Store", "GC count", "GC ms", "Alloc MB", "Query alloc MB", "Retained MB");
+        for (Result result : results) {
+            System.out.printf("| %-22s | %10d | %10d | %14.1f | %14.1f | %12.1f |%n", result.name, result.gcCount,
+                    result.gcMillis, result.allocatedBytes / 1e6, result.queryAllocatedBytes / 1e6,
+                    result.retainedBytes / 1e6);
+        }
+    }
+
+    private Result run(String name, Function<List<User>, UserStore> factory) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        collectGarbage();
+        long baseline = usedHeap();
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long queryAllocated = 0;
+
+        UserStore store = null;
+        long checksum = 0;
+        for (int refresh = 0; refresh < REFRESHES; refresh++) {
+            store = factory.apply(BenchmarkData.users(USERS));
+            long queryStart = threads.getCurrentThreadAllocatedBytes();
+            for (int query = 0; query < QUERIES_PER_REFRESH; query++) {
+                checksum += page(store, FILTERS[query % FILTERS.length], query % 5 + 1, 20);
+            }
+            queryAllocated += threads.getCurrentThreadAllocatedBytes() - queryStart;
+        }
+
+        Result result = new Result(name, gcCount() - gcCount, gcMillis() - gcMillis,
+                threads.getCurrentThreadAllocatedBytes() - allocated, queryAllocated, 0);
+        collectGarbage();
+        result.retainedBytes = usedHeap() - baseline;
+        if (store.size() != USERS || checksum < 0) {
+            throw new IllegalStateException("unexpected benchmark state");
+        }
+        return result;
+    }
+
+    private long page(UserStore store, String filter, int page, int size) {
+        IntPredicate matcher = store.nameContains(filter);
+        int[] rows = new int[store.size()];
+        int count = 0;
+        for (int row = 0; row < store.size(); row++) {
+            if (matcher.test(row)) {
+                rows[count++] = row;
+            }
+        }
+        long sum = count;
+        for (int i = (page - 1) * size; i < Math.min(page * size, count); i++) {
+            sum += store.materialize(rows[i]).getId();
+        }
+        return sum;
+    }
+
+    private static void collectGarbage() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static final class Result {
+        private final String name;
+        private final long gcCount;
+        private final long gcMillis;
+        private final long allocatedBytes;
+        private final long queryAllocatedBytes;
+        private long retainedBytes;
+
+        private Result(String name, long gcCount, long gcMillis, long allocatedBytes, long queryAllocatedBytes,
+                long retainedBytes) {
+            this.name = name;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.queryAllocatedBytes = queryAllocatedBytes;
+            this.retainedBytes = retainedBytes;
+        }
+    }
+
+    /**
+     * The pre-snapshot representation: the upstream list kept as-is and filtered on the fly.
+     */
+    private static final class ListStore implements UserStore {
+
+        private final List<User> users;
+
+        private ListStore(List<User> users) {
+            this.users = users;
+        }
+
+        @Override
+        public int size() {
+            return users.size();
+        }
+
+        @Override
+        public long getId(int row) {
+            return users.get(row).getId();
+        }
+
+        @Override
+        public IntPredicate nameContains(String foldedFilter) {
+            return row -> {
+                User user = users.get(row);
+                return (user.getFirstName() + " " + user.getLastName()).toLowerCase(Locale.ROOT)
+                        .contains(foldedFilter);
+            };
+        }
+
+        @Override
+        public User materialize(int row) {
+            return users.get(row);
+        }
+
+        @Override
+        public String firstName(int row) {
+            return users.get(row).getFirstName();
+        }
+
+        @Override
+        public String lastName(int row) {
+            return users.get(row).getLastName();
+        }
+
+        @Override
+        public String attribute(UserAttribute attribute, int row) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public double measure(UserMeasure measure, int row) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public double latitude(int row) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public double longitude(int row) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long contentHash(int row) {
+            return users.get(row).hashCode();
+        }
+
+        @Override
+        public int encodedLength() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void encodeTo(ByteBuffer target) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package id.ruriazz.pagination.client;
 
 import id.ruriazz.pagination.dto.DummyJsonResponse;
+import id.ruriazz.pagination.exception.UpstreamException;
+import id.ruriazz.pagination.metrics.UpstreamOutcome;
+import id.ruriazz.pagination.metrics.UserMetrics;
 import id.ruriazz.pagination.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,9 +30,12 @@ class DummyJsonClientTest {
 
     private DummyJsonClient dummyJsonClient;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
-        dummyJsonClient = new DummyJsonClient("https://dummyjson.com");
+        meterRegistry = new SimpleMeterRegistry();
+        dummyJsonClient = new DummyJsonClient("https://dummyjson.com", new UserMetrics(meterRegistry));
         ReflectionTestUtils.setField(dummyJsonClient, "restTemplate", restTemplate);
     }
 
@@ -57,6 +64,8 @@ class DummyJsonClientTest {
         assertEquals("emily.johnson@example.com", user.getEmail());
 
         verify(restTemplate, times(1)).getForObject("https://dummyjson.com/users?limit=100", DummyJsonResponse.class);
+        assertEquals(1, meterRegistry.get("users.upstream.requests").tag("outcome", "success").counter().count());
+        assertEquals(1, meterRegistry.get("users.pipeline.stage").tag("stage", "fetch").timer().count());
     }
 
     @Test
@@ -72,6 +81,25 @@ class DummyJsonClientTest {
         assertTrue(exception.getMessage().contains("External API is unreachable"));
         assertNotNull(exception.getCause());
         assertTrue(exception.getCause() instanceof ResourceAccessException);
+        assertEquals(1, meterRegistry.get("users.upstream.requests").tag("outcome", "network_error").counter().count());
+    }
+
+    @Test
+    void fetchAllUsers_WithNetworkError_ShouldThrowStacklessUpstreamException() {
+        // Given
+        ResourceAccessException cause = new ResourceAccessException("Connection timeout");
+        when(restTemplate.getForObject("https://dummyjson.com/users?limit=100", DummyJsonResponse.class))
+                .thenThrow(cause);
+
+        // When
+        UpstreamException exception = assertThrows(UpstreamException.class,
+                () -> dummyJsonClient.fetchAllUsers());
+
+        // Then
+        assertEquals(UpstreamOutcome.NETWORK_ERROR, exception.getOutcome());
+        assertTrue(exception.isUnavailable());
+        assertEquals(0, exception.getStackTrace().length);
+        assertSame(cause, exception.getCause());
     }
 
     @Test
@@ -87,6 +115,7 @@ class DummyJsonClientTest {
         assertTrue(exception.getMessage().contains("Failed to fetch data from external API"));
         assertNotNull(exception.getCause());
         assertTrue(exception.getCause() instanceof RestClientException);
+        assertEquals(1, meterRegistry.get("users.upstream.requests").tag("outcome", "http_error").counter().count());
     }
 
     @Test
@@ -100,6 +129,8 @@ class DummyJsonClientTest {
                 () -> dummyJsonClient.fetchAllUsers());
 
         assertEquals("Invalid response from external API", exception.getMessage());
+        assertEquals(UpstreamOutcome.INVALID_RESPONSE, ((UpstreamException) exception).getOutcome());
+        assertFalse(((UpstreamException) exception).isUnavailable());
     }
 
     @Test
@@ -175,7 +206,7 @@ class DummyJsonClientTest {
     @Test
     void constructor_ShouldSetCorrectBaseUrl() {
         // Given & When
-        DummyJsonClient customClient = new DummyJsonClient("https://custom-api.com");
+        DummyJsonClient customClient = new DummyJsonClient("https://custom-api.com", new UserMetrics(meterRegistry));
 
         // Then
         assertNotNull(customClient);
@@ -0,0 +1,105 @@
+package id.ruriazz.pagination.client;
+
+import id.ruriazz.pagination.dto.SnapshotPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PeerSnapshotClientTest {
+
+    private static final String FIRST = "http://localhost:8081/internal/snapshot?minVersion=5";
+    private static final String SECOND = "http://localhost:8082/internal/snapshot?minVersion=5";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private PeerSnapshotClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = new PeerSnapshotClient(List.of("http://localhost:8081/", " http://localhost:8082 "),
+                Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(client, "restTemplate", restTemplate);
+    }
+
+    @Test
+    void hasPeers_WithBlankConfiguration_ShouldReturnFalse() {
+        // Given
+        PeerSnapshotClient unconfigured = new PeerSnapshotClient(List.of(" "), Duration.ofSeconds(1));
+
+        // When & Then
+        assertFalse(unconfigured.hasPeers());
+        assertTrue(unconfigured.fetchSnapshot(0).isEmpty());
+        assertTrue(client.hasPeers());
+    }
+
+    @Test
+    void fetchSnapshot_WithFirstPeerServing_ShouldReturnItsPayload() {
+        // Given
+        byte[] data = {1, 2, 3};
+        when(restTemplate.getForEntity(FIRST, byte[].class)).thenReturn(ok(data, "9"));
+
+        // When
+        Optional<SnapshotPayload> payload = client.fetchSnapshot(5);
+
+        // Then
+        assertTrue(payload.isPresent());
+        assertEquals(9L, payload.get().getVersion());
+        assertArrayEquals(data, payload.get().getData());
+        verify(restTemplate, never()).getForEntity(SECOND, byte[].class);
+    }
+
+    @Test
+    void fetchSnapshot_WhenFirstPeerHasNoSnapshot_ShouldTryNextPeer() {
+        // Given
+        when(restTemplate.getForEntity(FIRST, byte[].class))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+        when(restTemplate.getForEntity(SECOND, byte[].class)).thenReturn(ok(new byte[] {4}, "10"));
+
+        // When
+        Optional<SnapshotPayload> payload = client.fetchSnapshot(5);
+
+        // Then
+        assertEquals(10L, payload.orElseThrow().getVersion());
+    }
+
+    @Test
+    void fetchSnapshot_WhenPeersFailOrReturnIncompleteResponses_ShouldReturnEmpty() {
+        // Given
+        when(restTemplate.getForEntity(FIRST, byte[].class)).thenThrow(new ResourceAccessException("refused"));
+        when(restTemplate.getForEntity(SECOND, byte[].class)).thenReturn(ResponseEntity.ok(new byte[] {4}));
+
+        // When & Then
+        assertTrue(client.fetchSnapshot(5).isEmpty());
+    }
+
+    @Test
+    void fetchSnapshot_WithMalformedVersion_ShouldSkipPeer() {
+        // Given
+        when(restTemplate.getForEntity(FIRST, byte[].class)).thenReturn(ok(new byte[] {4}, "x"));
+        when(restTemplate.getForEntity(SECOND, byte[].class)).thenReturn(ResponseEntity.ok().build());
+
+        // When & Then
+        assertTrue(client.fetchSnapshot(5).isEmpty());
+    }
+
+    private static ResponseEntity<byte[]> ok(byte[] body, String version) {
+        return ResponseEntity.ok().header(SnapshotPayload.VERSION_HEADER, version).body(body);
+    }
+}
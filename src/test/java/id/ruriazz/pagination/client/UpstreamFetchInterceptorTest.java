@@ -0,0 +1,106 @@
+package id.ruriazz.pagination.client;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamFetchInterceptorTest {
+
+    private static final String EVENT_NAME = "id.ruriazz.pagination.UpstreamFetch";
+
+    private final UpstreamFetchInterceptor interceptor = new UpstreamFetchInterceptor();
+    private final MockClientHttpRequest request =
+            new MockClientHttpRequest(HttpMethod.GET, URI.create("https://dummyjson.com/users?limit=100"));
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        recording = new Recording();
+        recording.enable(EVENT_NAME);
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void intercept_ShouldRecordUrlStatusAndBytesRead() throws Exception {
+        // Given
+        byte[] payload = "{\"users\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse(payload, HttpStatus.OK))) {
+            InputStream in = response.getBody();
+            assertSame(in, response.getBody());
+            assertEquals('{', in.read());
+            assertEquals(1, in.skip(1));
+            in.readAllBytes();
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("OK", response.getStatusText());
+            assertNotNull(response.getHeaders());
+        }
+
+        // Then
+        RecordedEvent event = singleEvent();
+        assertEquals("https://dummyjson.com/users?limit=100", event.getString("url"));
+        assertEquals(200, event.getInt("status"));
+        assertEquals(payload.length, event.getLong("bytes"));
+    }
+
+    @Test
+    void intercept_WhenBodyNeverRead_ShouldRecordZeroBytes() throws Exception {
+        // When
+        interceptor.intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.NO_CONTENT)).close();
+
+        // Then
+        RecordedEvent event = singleEvent();
+        assertEquals(204, event.getInt("status"));
+        assertEquals(0, event.getLong("bytes"));
+    }
+
+    @Test
+    void intercept_WhenExecutionFails_ShouldRecordEventAndRethrow() throws Exception {
+        // When & Then
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], (req, body) -> {
+            throw new IOException("connection refused");
+        }));
+
+        assertEquals(0, singleEvent().getInt("status"));
+    }
+
+    private RecordedEvent singleEvent() throws Exception {
+        Path file = Files.createTempFile("upstream-", ".jfr");
+        try {
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals(EVENT_NAME))
+                    .toList();
+            assertEquals(1, events.size());
+            return events.get(0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
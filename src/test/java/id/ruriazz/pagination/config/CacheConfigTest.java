@@ -0,0 +1,105 @@
+package id.ruriazz.pagination.config;
+
+import id.ruriazz.pagination.dto.FacetResponse;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserMetrics userMetrics = new UserMetrics(meterRegistry);
+
+    @Test
+    void cacheManager_ShouldOnlyProvideDeclaredCaches() {
+        // When
+        CacheManager cacheManager = cacheManager(DataSize.ofMegabytes(1), 0.75, 0.25);
+
+        // Then
+        assertNotNull(cacheManager.getCache("users"));
+        assertNotNull(cacheManager.getCache("facets"));
+        assertNull(cacheManager.getCache("pages"));
+        assertEquals(786_432, meterRegistry.get("users.cache.budget").tag("cache", "users").gauge().value());
+        assertEquals(262_144, meterRegistry.get("users.cache.budget").tag("cache", "facets").gauge().value());
+    }
+
+    @Test
+    void cacheManager_ShouldBoundCacheByEstimatedBytes() {
+        // Given
+        CacheManager cacheManager = cacheManager(DataSize.ofKilobytes(8), 0.5, 0.5);
+        Cache facets = cacheManager.getCache("facets");
+        FacetResponse response = new FacetResponse(1L, 10, Map.of("department", Map.of("Engineering", 10L)));
+        int weight = CacheWeights.of(response);
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            facets.put(i, response);
+        }
+        ((com.github.benmanes.caffeine.cache.Cache<?, ?>) facets.getNativeCache()).cleanUp();
+
+        // Then
+        double cached = meterRegistry.get("users.cache.weight").tag("cache", "facets").gauge().value();
+        assertTrue(cached > 0 && cached <= 4_096, "weight " + cached);
+        assertEquals(0, (long) cached % weight);
+    }
+
+    @Test
+    void cacheManager_WithSharesAboveBudget_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> cacheManager(DataSize.ofMegabytes(1), 0.75, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> cacheManager(DataSize.ofMegabytes(1), -0.1, 0.5));
+    }
+
+    @Test
+    void cacheManager_WithSizeBoundInSpec_ShouldThrowException() {
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new CacheConfig()
+                .cacheManager("expireAfterWrite=10m, maximumSize=500", DataSize.ofMegabytes(1), 0.75, 0.25, userMetrics));
+
+        // Then
+        assertEquals("spring.cache.caffeine.spec must not set maximumSize; the caches are bounded by users.cache.budget",
+                exception.getMessage());
+    }
+
+    @Test
+    void cacheManager_WithRecordStatsInSpec_ShouldStillRecordStatistics() {
+        // Given
+        CacheManager cacheManager = new CacheConfig().cacheManager("expireAfterWrite=10m,recordStats",
+                DataSize.ofMegabytes(1), 0.75, 0.25, userMetrics);
+        Cache users = cacheManager.getCache("users");
+
+        // When
+        users.get("missing");
+
+        // Then
+        assertEquals(1, ((com.github.benmanes.caffeine.cache.Cache<?, ?>) users.getNativeCache()).stats().missCount());
+    }
+
+    @Test
+    void weight_OfSnapshot_ShouldFollowStoreSize() {
+        // Given
+        User user = new User();
+        user.setId(1L);
+        user.setFirstName("Emily");
+        user.setLastName("Johnson");
+        UserSnapshot snapshot = new UserSnapshot(1L, CompactUserSnapshot.from(List.of(user)));
+
+        // When & Then
+        assertEquals(CacheWeights.ENTRY_BYTES + snapshot.store().encodedLength(), CacheWeights.of(snapshot));
+        assertEquals(CacheWeights.ENTRY_BYTES, CacheWeights.of("other"));
+    }
+
+    private CacheManager cacheManager(DataSize budget, double usersShare, double facetsShare) {
+        return new CacheConfig().cacheManager("expireAfterWrite=10m", budget, usersShare, facetsShare, userMetrics);
+    }
+}
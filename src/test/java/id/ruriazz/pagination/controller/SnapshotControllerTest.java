@@ -0,0 +1,59 @@
+package id.ruriazz.pagination.controller;
+
+import id.ruriazz.pagination.dto.SnapshotPayload;
+import id.ruriazz.pagination.snapshot.SnapshotExporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotControllerTest {
+
+    @Mock
+    private SnapshotExporter snapshotExporter;
+
+    @InjectMocks
+    private SnapshotController snapshotController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(snapshotController).build();
+    }
+
+    @Test
+    void getSnapshot_WithSnapshot_ShouldReturnCompressedBytesAndVersion() throws Exception {
+        // Given
+        byte[] data = {31, -117, 8};
+        when(snapshotExporter.export(5L)).thenReturn(Optional.of(new SnapshotPayload(7L, data)));
+
+        // When & Then
+        mockMvc.perform(get("/internal/snapshot").param("minVersion", "5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SnapshotPayload.CONTENT_TYPE))
+                .andExpect(header().string(SnapshotPayload.VERSION_HEADER, "7"))
+                .andExpect(content().bytes(data));
+    }
+
+    @Test
+    void getSnapshot_WithoutSnapshot_ShouldReturnNotFound() throws Exception {
+        // Given
+        when(snapshotExporter.export(0L)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/internal/snapshot"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,7 +1,18 @@
 package id.ruriazz.pagination.controller;
 
+import id.ruriazz.pagination.dto.FacetResponse;
 import id.ruriazz.pagination.dto.PaginationResponse;
+import id.ruriazz.pagination.dto.QueryPlan;
+import id.ruriazz.pagination.dto.SuggestResponse;
+import id.ruriazz.pagination.dto.UserFilter;
+import id.ruriazz.pagination.dto.UserSuggestion;
+import id.ruriazz.pagination.exception.CoalescedRequestTimeoutException;
+import id.ruriazz.pagination.exception.InvalidRequestException;
+import id.ruriazz.pagination.exception.SnapshotVersionNotFoundException;
+import id.ruriazz.pagination.exception.UpstreamException;
+import id.ruriazz.pagination.metrics.UpstreamOutcome;
 import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.service.UserChangeFeed;
 import id.ruriazz.pagination.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,11 +23,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -31,6 +47,9 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserChangeFeed userChangeFeed;
+
     @InjectMocks
     private UserController userController;
 
@@ -47,7 +66,7 @@ class UserControllerTest {
     void getUsers_WithDefaultParameters_ShouldReturnDefaultPagination() throws Exception {
         // Given
         PaginationResponse<User> mockResponse = createMockPaginationResponse();
-        when(userService.getUsers(1, 10, null)).thenReturn(mockResponse);
+        when(userService.getUsers(1, 10, null, new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users"))
@@ -63,14 +82,14 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data[1].id", is(2)))
                 .andExpect(jsonPath("$.data[1].firstName", is("Jane")));
 
-        verify(userService, times(1)).getUsers(1, 10, null);
+        verify(userService, times(1)).getUsers(1, 10, null, new UserFilter(), null, false);
     }
 
     @Test
     void getUsers_WithCustomParameters_ShouldReturnCustomPagination() throws Exception {
         // Given
         PaginationResponse<User> mockResponse = createMockPaginationResponse();
-        when(userService.getUsers(2, 5, "John")).thenReturn(mockResponse);
+        when(userService.getUsers(2, 5, "John", new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users")
@@ -84,7 +103,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.totalItems", is(2)))
                 .andExpect(jsonPath("$.data", hasSize(2)));
 
-        verify(userService, times(1)).getUsers(2, 5, "John");
+        verify(userService, times(1)).getUsers(2, 5, "John", new UserFilter(), null, false);
     }
 
     @Test
@@ -98,7 +117,7 @@ class UserControllerTest {
         PaginationResponse<User> mockResponse = new PaginationResponse<>(
                 1, 10, 1, Collections.singletonList(user));
 
-        when(userService.getUsers(1, 10, "Emily")).thenReturn(mockResponse);
+        when(userService.getUsers(1, 10, "Emily", new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users")
@@ -107,35 +126,35 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.totalItems", is(1)))
                 .andExpect(jsonPath("$.data[0].firstName", is("Emily")));
 
-        verify(userService, times(1)).getUsers(1, 10, "Emily");
+        verify(userService, times(1)).getUsers(1, 10, "Emily", new UserFilter(), null, false);
     }
 
     @Test
     void getUsers_WithInvalidPageParameter_ShouldReturnBadRequest() throws Exception {
         // Given
-        when(userService.getUsers(eq(-1), eq(10), isNull()))
-                .thenThrow(new IllegalArgumentException("Page must be greater than 0"));
+        when(userService.getUsers(eq(-1), eq(10), isNull(), any(), isNull(), anyBoolean()))
+                .thenThrow(new InvalidRequestException("Page must be greater than 0"));
 
         // When & Then
         mockMvc.perform(get("/api/users")
                 .param("page", "-1"))
                 .andExpect(status().isBadRequest());
 
-        verify(userService, times(1)).getUsers(-1, 10, null);
+        verify(userService, times(1)).getUsers(-1, 10, null, new UserFilter(), null, false);
     }
 
     @Test
     void getUsers_WithInvalidSizeParameter_ShouldReturnBadRequest() throws Exception {
         // Given
-        when(userService.getUsers(eq(1), eq(0), isNull()))
-                .thenThrow(new IllegalArgumentException("Size must be greater than 0"));
+        when(userService.getUsers(eq(1), eq(0), isNull(), any(), isNull(), anyBoolean()))
+                .thenThrow(new InvalidRequestException("Size must be greater than 0"));
 
         // When & Then
         mockMvc.perform(get("/api/users")
                 .param("size", "0"))
                 .andExpect(status().isBadRequest());
 
-        verify(userService, times(1)).getUsers(1, 0, null);
+        verify(userService, times(1)).getUsers(1, 0, null, new UserFilter(), null, false);
     }
 
     @Test
@@ -145,7 +164,7 @@ class UserControllerTest {
                 .param("page", "abc"))
                 .andExpect(status().isBadRequest());
 
-        verify(userService, never()).getUsers(anyInt(), anyInt(), anyString());
+        verify(userService, never()).getUsers(anyInt(), anyInt(), anyString(), any(), any(), anyBoolean());
     }
 
     @Test
@@ -155,35 +174,35 @@ class UserControllerTest {
                 .param("size", "xyz"))
                 .andExpect(status().isBadRequest());
 
-        verify(userService, never()).getUsers(anyInt(), anyInt(), anyString());
+        verify(userService, never()).getUsers(anyInt(), anyInt(), anyString(), any(), any(), anyBoolean());
     }
 
     @Test
     void getUsers_WithEmptyNameParameter_ShouldPassEmptyString() throws Exception {
         // Given
         PaginationResponse<User> mockResponse = createMockPaginationResponse();
-        when(userService.getUsers(1, 10, "")).thenReturn(mockResponse);
+        when(userService.getUsers(1, 10, "", new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users")
                 .param("name", ""))
                 .andExpect(status().isOk());
 
-        verify(userService, times(1)).getUsers(1, 10, "");
+        verify(userService, times(1)).getUsers(1, 10, "", new UserFilter(), null, false);
     }
 
     @Test
     void getUsers_WithSpacesInNameParameter_ShouldPassSpaces() throws Exception {
         // Given
         PaginationResponse<User> mockResponse = createMockPaginationResponse();
-        when(userService.getUsers(1, 10, "   ")).thenReturn(mockResponse);
+        when(userService.getUsers(1, 10, "   ", new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users")
                 .param("name", "   "))
                 .andExpect(status().isOk());
 
-        verify(userService, times(1)).getUsers(1, 10, "   ");
+        verify(userService, times(1)).getUsers(1, 10, "   ", new UserFilter(), null, false);
     }
 
     @Test
@@ -191,7 +210,7 @@ class UserControllerTest {
         // Given
         PaginationResponse<User> mockResponse = new PaginationResponse<>(
                 100, 10, 50, Collections.emptyList());
-        when(userService.getUsers(100, 10, null)).thenReturn(mockResponse);
+        when(userService.getUsers(100, 10, null, new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users")
@@ -200,62 +219,286 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.page", is(100)))
                 .andExpect(jsonPath("$.data", hasSize(0)));
 
-        verify(userService, times(1)).getUsers(100, 10, null);
+        verify(userService, times(1)).getUsers(100, 10, null, new UserFilter(), null, false);
     }
 
     @Test
     void getUsers_WithMaximumSizeParameter_ShouldWork() throws Exception {
         // Given
         PaginationResponse<User> mockResponse = createMockPaginationResponse();
-        when(userService.getUsers(1, 100, null)).thenReturn(mockResponse);
+        when(userService.getUsers(1, 100, null, new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users")
                 .param("size", "100"))
                 .andExpect(status().isOk());
 
-        verify(userService, times(1)).getUsers(1, 100, null);
+        verify(userService, times(1)).getUsers(1, 100, null, new UserFilter(), null, false);
+    }
+
+    @Test
+    void getUsers_WithUnreachableUpstream_ShouldReturnServiceUnavailable() throws Exception {
+        // Given
+        when(userService.getUsers(eq(1), eq(10), isNull(), any(), isNull(), anyBoolean()))
+                .thenThrow(new UpstreamException(UpstreamOutcome.NETWORK_ERROR, "External API is unreachable", null));
+
+        // When & Then
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("External service unavailable"));
+
+        verify(userService, times(1)).getUsers(1, 10, null, new UserFilter(), null, false);
+    }
+
+    @Test
+    void getUsers_WithInvalidUpstreamResponse_ShouldReturnInternalServerError() throws Exception {
+        // Given
+        when(userService.getUsers(eq(1), eq(10), isNull(), any(), isNull(), anyBoolean()))
+                .thenThrow(new UpstreamException(UpstreamOutcome.INVALID_RESPONSE, "Invalid response from external API",
+                        null));
+
+        // When & Then
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isInternalServerError());
     }
 
     @Test
     void getUsers_WithServiceThrowingRuntimeException_ShouldReturnInternalServerError() throws Exception {
         // Given
-        when(userService.getUsers(eq(1), eq(10), isNull()))
+        when(userService.getUsers(eq(1), eq(10), isNull(), any(), isNull(), anyBoolean()))
                 .thenThrow(new RuntimeException("External API is unreachable"));
 
         // When & Then
         mockMvc.perform(get("/api/users"))
-                .andExpect(status().isServiceUnavailable());
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("Internal server error"));
+    }
+
+    @Test
+    void getUsers_WithInternalIllegalArgumentException_ShouldNotExposeItsMessage() throws Exception {
+        // Given
+        when(userService.getUsers(eq(1), eq(10), isNull(), any(), isNull(), anyBoolean()))
+                .thenThrow(new IllegalArgumentException("Not an off-heap users snapshot"));
 
-        verify(userService, times(1)).getUsers(1, 10, null);
+        // When & Then
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("An unexpected error occurred. Please try again later."));
     }
 
     @Test
     void getUsers_WithComplexNameFilter_ShouldWork() throws Exception {
         // Given
         PaginationResponse<User> mockResponse = createMockPaginationResponse();
-        when(userService.getUsers(1, 10, "John Doe")).thenReturn(mockResponse);
+        when(userService.getUsers(1, 10, "John Doe", new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users")
                 .param("name", "John Doe"))
                 .andExpect(status().isOk());
 
-        verify(userService, times(1)).getUsers(1, 10, "John Doe");
+        verify(userService, times(1)).getUsers(1, 10, "John Doe", new UserFilter(), null, false);
     }
 
     @Test
     void getUsers_WithSpecialCharactersInName_ShouldWork() throws Exception {
         // Given
         PaginationResponse<User> mockResponse = createMockPaginationResponse();
-        when(userService.getUsers(1, 10, "O'Connor")).thenReturn(mockResponse);
+        when(userService.getUsers(1, 10, "O'Connor", new UserFilter(), null, false)).thenReturn(mockResponse);
 
         // When & Then
         mockMvc.perform(get("/api/users")
                 .param("name", "O'Connor"))
                 .andExpect(status().isOk());
 
-        verify(userService, times(1)).getUsers(1, 10, "O'Connor");
+        verify(userService, times(1)).getUsers(1, 10, "O'Connor", new UserFilter(), null, false);
+    }
+
+    @Test
+    void getUsers_WithAsOf_ShouldPassSnapshotVersion() throws Exception {
+        // Given
+        PaginationResponse<User> mockResponse = createMockPaginationResponse();
+        mockResponse.setSnapshotVersion(42L);
+        when(userService.getUsers(2, 10, null, new UserFilter(), 42L, false)).thenReturn(mockResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                .param("page", "2")
+                .param("asOf", "42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshotVersion", is(42)));
+    }
+
+    @Test
+    void getUsers_WithExpiredAsOf_ShouldReturnGone() throws Exception {
+        // Given
+        when(userService.getUsers(1, 10, null, new UserFilter(), 41L, false)).thenThrow(new SnapshotVersionNotFoundException(41L));
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                .param("asOf", "41"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.error", is("Snapshot version unavailable")))
+                .andExpect(jsonPath("$.message", containsString("Snapshot version 41")));
+    }
+
+    @Test
+    void getUsers_WhenIdenticalRequestTimesOut_ShouldReturnServiceUnavailable() throws Exception {
+        // Given
+        when(userService.getUsers(1, 10, null, new UserFilter(), null, false))
+                .thenThrow(new CoalescedRequestTimeoutException(Duration.ofSeconds(5)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error", is("Request timed out")))
+                .andExpect(jsonPath("$.message", containsString("5000 ms")));
+    }
+
+    @Test
+    void getUsers_WithAttributeAndRangeFilters_ShouldBindUserFilter() throws Exception {
+        // Given
+        UserFilter filter = new UserFilter();
+        filter.setCity("Phoenix");
+        filter.setDepartment("Engineering");
+        filter.setMinAge(25);
+        filter.setMaxWeight(80.5);
+        PaginationResponse<User> mockResponse = createMockPaginationResponse();
+        when(userService.getUsers(1, 10, null, filter, null, false)).thenReturn(mockResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                .param("city", "Phoenix")
+                .param("department", "Engineering")
+                .param("minAge", "25")
+                .param("maxWeight", "80.5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)));
+
+        verify(userService, times(1)).getUsers(1, 10, null, filter, null, false);
+    }
+
+    @Test
+    void getUsers_WithGeoAndSearchParameters_ShouldBindUserFilter() throws Exception {
+        // Given
+        UserFilter filter = new UserFilter();
+        filter.setLat(40.7128);
+        filter.setLng(-74.006);
+        filter.setRadiusKm(25.0);
+        filter.setNearest(5);
+        filter.setSearch("jhon");
+        PaginationResponse<User> mockResponse = createMockPaginationResponse();
+        when(userService.getUsers(1, 10, null, filter, null, false)).thenReturn(mockResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                .param("lat", "40.7128")
+                .param("lng", "-74.006")
+                .param("radiusKm", "25")
+                .param("nearest", "5")
+                .param("search", "jhon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)));
+
+        verify(userService, times(1)).getUsers(1, 10, null, filter, null, false);
+    }
+
+    @Test
+    void getUsers_WithExplain_ShouldReturnQueryPlan() throws Exception {
+        // Given
+        UserFilter filter = new UserFilter();
+        filter.setCity("Phoenix");
+        PaginationResponse<User> mockResponse = createMockPaginationResponse();
+        mockResponse.setPlan(new QueryPlan("INDEX_INTERSECTION", "snapshot", 1.5, 2, 2,
+                List.of(new QueryPlan.Step("city = Phoenix", "index", 0.02)),
+                Map.of("FULL_SCAN", 200.0, "INDEX_INTERSECTION", 1.5)));
+        when(userService.getUsers(1, 10, null, filter, null, true)).thenReturn(mockResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                .param("city", "Phoenix")
+                .param("explain", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plan.accessPath", is("INDEX_INTERSECTION")))
+                .andExpect(jsonPath("$.plan.steps[0].method", is("index")))
+                .andExpect(jsonPath("$.plan.alternatives.FULL_SCAN", is(200.0)));
+    }
+
+    @Test
+    void getUsers_WithoutExplain_ShouldOmitQueryPlan() throws Exception {
+        // Given
+        when(userService.getUsers(1, 10, null, new UserFilter(), null, false))
+                .thenReturn(createMockPaginationResponse());
+
+        // When & Then
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plan").doesNotExist());
+    }
+
+    @Test
+    void getFacets_ShouldReturnCountsPerFacet() throws Exception {
+        // Given
+        UserFilter filter = new UserFilter();
+        filter.setCountry("United States");
+        FacetResponse facets = new FacetResponse(42L, 3, Map.of("department", Map.of("HR", 2L, "Sales", 1L)));
+        when(userService.getFacets(List.of("department", "age"), null, filter, null)).thenReturn(facets);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/facets")
+                .param("facet", "department", "age")
+                .param("country", "United States"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshotVersion", is(42)))
+                .andExpect(jsonPath("$.totalItems", is(3)))
+                .andExpect(jsonPath("$.facets.department.HR", is(2)));
+    }
+
+    @Test
+    void getFacets_WithoutFacet_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users/facets"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Required parameter 'facet' is missing")));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void suggest_ShouldReturnSuggestions() throws Exception {
+        // Given
+        when(userService.suggest("jo", 5)).thenReturn(new SuggestResponse(3L,
+                List.of(new UserSuggestion(1L, "John", "Doe"))));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/suggest")
+                .param("prefix", "jo")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshotVersion").value(3))
+                .andExpect(jsonPath("$.suggestions[0].id").value(1))
+                .andExpect(jsonPath("$.suggestions[0].firstName").value("John"));
+    }
+
+    @Test
+    void suggest_WithoutPrefix_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/suggest"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void streamChanges_ShouldOpenEventStreamFromFeed() throws Exception {
+        // Given
+        when(userChangeFeed.subscribe()).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(userChangeFeed).subscribe();
+        verifyNoInteractions(userService);
     }
 
     private PaginationResponse<User> createMockPaginationResponse() {
@@ -0,0 +1,135 @@
+package id.ruriazz.pagination.diagnostics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogFilterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(AccessLogFilter.LOGGER);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void doFilter_WithSuccessfulRequestAndNoSampling_ShouldNotLog() throws Exception {
+        // When
+        runFilter(new AccessLogFilter(0, Duration.ofMinutes(1)), request("/api/users"), (req, res) -> { });
+
+        // Then
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void doFilter_WithSampledRequest_ShouldLogOneStructuredEvent() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/api/users");
+        request.setQueryString("page=2&size=5");
+
+        // When
+        runFilter(new AccessLogFilter(1, Duration.ofMinutes(1)), request, (req, res) -> { });
+
+        // Then
+        assertEquals(1, appender.list.size());
+        Map<String, Object> event = keyValues(appender.list.get(0));
+        assertEquals("GET", event.get("method"));
+        assertEquals("/api/users", event.get("uri"));
+        assertEquals("page=2&size=5", event.get("query"));
+        assertEquals(200, event.get("status"));
+        assertEquals("sampled", event.get("reason"));
+        assertTrue(event.get("durationMs") instanceof Double);
+    }
+
+    @Test
+    void doFilter_WithFailedRequest_ShouldAlwaysLog() throws Exception {
+        // When
+        runFilter(new AccessLogFilter(0, Duration.ofMinutes(1)), request("/api/users"),
+                (req, res) -> ((MockHttpServletResponse) res).setStatus(400));
+
+        // Then
+        Map<String, Object> event = keyValues(appender.list.get(0));
+        assertEquals(400, event.get("status"));
+        assertEquals("error", event.get("reason"));
+        assertFalse(event.containsKey("query"));
+    }
+
+    @Test
+    void doFilter_WithSlowRequest_ShouldAlwaysLog() throws Exception {
+        // When
+        runFilter(new AccessLogFilter(0, Duration.ZERO), request("/api/users"), (req, res) -> { });
+
+        // Then
+        assertEquals("slow", keyValues(appender.list.get(0)).get("reason"));
+    }
+
+    @Test
+    void doFilter_WithException_ShouldLogServerErrorAndRethrow() {
+        // Given
+        AccessLogFilter filter = new AccessLogFilter(0, Duration.ofMinutes(1));
+
+        // When
+        assertThrows(IllegalStateException.class, () -> runFilter(filter, request("/api/users"), (req, res) -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Then
+        Map<String, Object> event = keyValues(appender.list.get(0));
+        assertEquals(500, event.get("status"));
+        assertEquals("error", event.get("reason"));
+    }
+
+    @Test
+    void doFilter_ForActuator_ShouldNotLog() throws Exception {
+        // When
+        runFilter(new AccessLogFilter(1, Duration.ZERO), request("/actuator/health"), (req, res) -> { });
+
+        // Then
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void constructor_WithInvalidSampleRate_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new AccessLogFilter(-0.1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new AccessLogFilter(1.5, Duration.ZERO));
+    }
+
+    private MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    private void runFilter(AccessLogFilter filter, MockHttpServletRequest request, FilterChain chain)
+            throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+
+    private Map<String, Object> keyValues(ILoggingEvent event) {
+        Map<String, Object> keyValues = new LinkedHashMap<>();
+        for (KeyValuePair pair : event.getKeyValuePairs()) {
+            keyValues.put(pair.key, pair.value);
+        }
+        return keyValues;
+    }
+}
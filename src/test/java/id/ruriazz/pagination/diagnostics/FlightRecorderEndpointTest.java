@@ -0,0 +1,139 @@
+package id.ruriazz.pagination.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEndpointTest {
+
+    private FlightRecorderEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new FlightRecorderEndpoint(Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.control("stop", null);
+    }
+
+    @Test
+    void status_WithoutRecording_ShouldReportNone() {
+        assertEquals(Map.of("state", "NONE"), endpoint.status());
+    }
+
+    @Test
+    void start_ShouldStartRecordingWithDefaultSettings() {
+        // When
+        WebEndpointResponse<Map<String, Object>> response = endpoint.control("start", null);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals("RUNNING", response.getBody().get("state"));
+        assertEquals(FlightRecorderEndpoint.RECORDING_NAME, response.getBody().get("name"));
+        assertEquals(Duration.ofMinutes(5), response.getBody().get("maxAge"));
+    }
+
+    @Test
+    void start_WhenAlreadyRunning_ShouldKeepCurrentRecording() {
+        // Given
+        Object startTime = endpoint.control("start", "profile").getBody().get("startTime");
+
+        // When
+        WebEndpointResponse<Map<String, Object>> response = endpoint.control("start", null);
+
+        // Then
+        assertEquals(startTime, response.getBody().get("startTime"));
+    }
+
+    @Test
+    void start_WithUnknownSettings_ShouldReturnBadRequest() {
+        assertEquals(400, endpoint.control("start", "does-not-exist").getStatus());
+        assertEquals("NONE", endpoint.status().get("state"));
+    }
+
+    @Test
+    void stop_ShouldStopRunningRecordingAndAllowRestart() {
+        // Given
+        endpoint.control("start", null);
+
+        // When
+        WebEndpointResponse<Map<String, Object>> stopped = endpoint.control("stop", null);
+        WebEndpointResponse<Map<String, Object>> restarted = endpoint.control("start", null);
+
+        // Then
+        assertEquals("STOPPED", stopped.getBody().get("state"));
+        assertEquals("RUNNING", restarted.getBody().get("state"));
+    }
+
+    @Test
+    void stop_WithoutRecording_ShouldReturnNotFound() {
+        assertEquals(404, endpoint.control("stop", null).getStatus());
+    }
+
+    @Test
+    void control_WithUnknownAction_ShouldReturnNotFound() {
+        assertEquals(404, endpoint.control("pause", null).getStatus());
+    }
+
+    @Test
+    void dump_WithoutRecording_ShouldReturnNotFound() throws Exception {
+        assertEquals(404, endpoint.dump("dump").getStatus());
+    }
+
+    @Test
+    void dump_WithUnknownSelector_ShouldReturnNotFound() throws Exception {
+        endpoint.control("start", null);
+
+        assertEquals(404, endpoint.dump("other").getStatus());
+    }
+
+    @Test
+    void dump_ShouldContainPipelineEvents() throws Exception {
+        // Given
+        endpoint.control("start", null);
+        UsersRequestEvent event = new UsersRequestEvent();
+        event.filter = "john";
+        event.page = 2;
+        event.size = 5;
+        event.resultCount = 7;
+        event.commit();
+
+        // When
+        WebEndpointResponse<Resource> response = endpoint.dump("dump");
+
+        // Then
+        assertEquals(200, response.getStatus());
+        List<RecordedEvent> events = readEvents(response.getBody(), "id.ruriazz.pagination.UsersRequest");
+        assertEquals(1, events.size());
+        assertEquals("john", events.get(0).getString("filter"));
+        assertEquals(2, events.get(0).getInt("page"));
+        assertEquals(7, events.get(0).getLong("resultCount"));
+    }
+
+    static List<RecordedEvent> readEvents(Resource resource, String eventName) throws Exception {
+        Path file = Files.createTempFile("test-", ".jfr");
+        try (InputStream in = resource.getInputStream()) {
+            Files.copy(in, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals(eventName))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
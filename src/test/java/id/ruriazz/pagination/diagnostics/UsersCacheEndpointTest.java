@@ -0,0 +1,245 @@
+package id.ruriazz.pagination.diagnostics;
+
+import id.ruriazz.pagination.config.CacheConfig;
+import id.ruriazz.pagination.dto.FacetResponse;
+import id.ruriazz.pagination.exception.UpstreamException;
+import id.ruriazz.pagination.metrics.UpstreamOutcome;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.SharedSnapshotFile;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshotIndexer;
+import id.ruriazz.pagination.snapshot.UserSnapshotLoader;
+import id.ruriazz.pagination.snapshot.UserSnapshotProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UsersCacheEndpointTest {
+
+    @Mock
+    private UserSnapshotLoader userSnapshotLoader;
+
+    @Mock
+    private UserSnapshotProvider userSnapshotProvider;
+
+    @Mock
+    private UserSnapshotIndexer userSnapshotIndexer;
+
+    @Mock
+    private SharedSnapshotFile sharedSnapshotFile;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private CacheManager cacheManager;
+    private UsersCacheEndpoint endpoint;
+    private UserSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CacheConfig().cacheManager("expireAfterWrite=10m", DataSize.ofMegabytes(1), 0.75, 0.25,
+                new UserMetrics(new SimpleMeterRegistry()));
+        endpoint = new UsersCacheEndpoint(cacheManager, userSnapshotLoader, userSnapshotProvider, userSnapshotIndexer,
+                sharedSnapshotFile, executor);
+        User user = new User();
+        user.setId(1L);
+        user.setFirstName("Emily");
+        user.setLastName("Johnson");
+        snapshot = new UserSnapshot(1_700_000_000_000L, CompactUserSnapshot.from(List.of(user)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void status_ShouldReportSnapshotCachesAndReload() {
+        // Given
+        when(userSnapshotProvider.latestSnapshot()).thenReturn(snapshot);
+        when(userSnapshotIndexer.retainedVersions()).thenReturn(new long[] {1_700_000_000_000L});
+        cacheManager.getCache("users").put("key", snapshot);
+        cacheManager.getCache("users").get("key");
+
+        // When
+        Map<String, Object> status = endpoint.status();
+
+        // Then
+        Map<String, Object> metadata = (Map<String, Object>) status.get("snapshot");
+        assertEquals(1_700_000_000_000L, metadata.get("version"));
+        assertEquals(1, metadata.get("users"));
+        assertEquals(snapshot.store().encodedLength(), metadata.get("bytes"));
+        assertEquals("heap", metadata.get("store"));
+        assertEquals(List.of(1_700_000_000_000L), metadata.get("retainedVersions"));
+
+        Map<String, Object> caches = (Map<String, Object>) status.get("caches");
+        assertEquals(Set.of("users", "facets"), caches.keySet());
+        Map<String, Object> users = (Map<String, Object>) caches.get("users");
+        assertEquals(1L, users.get("entries"));
+        assertEquals(786_432L, users.get("maximumBytes"));
+        assertEquals(Duration.ofMinutes(10), users.get("expireAfterWrite"));
+        assertEquals(1L, users.get("hits"));
+        assertFalse(((Map<String, Object>) caches.get("facets")).containsKey("expireAfterWrite"));
+
+        assertEquals("idle", ((Map<String, Object>) status.get("reload")).get("state"));
+    }
+
+    @Test
+    void status_BeforeFirstLoad_ShouldReportNoSnapshot() {
+        assertEquals(Map.of("state", "NONE"), endpoint.status().get("snapshot"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startReload_ShouldReloadOnBackgroundThreadAndRecordResult() throws Exception {
+        // Given
+        when(userSnapshotLoader.reload()).thenReturn(snapshot);
+        when(userSnapshotIndexer.index(snapshot)).thenReturn(snapshot);
+
+        // When
+        WebEndpointResponse<Map<String, Object>> response = endpoint.startReload();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(202, response.getStatus());
+        Map<String, Object> reload = (Map<String, Object>) endpoint.status().get("reload");
+        assertEquals("idle", reload.get("state"));
+        Map<String, Object> last = (Map<String, Object>) reload.get("last");
+        assertEquals("completed", last.get("state"));
+        assertEquals(1_700_000_000_000L, last.get("version"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startReload_WhenUpstreamFails_ShouldRecordError() throws Exception {
+        // Given
+        when(userSnapshotLoader.reload())
+                .thenThrow(new UpstreamException(UpstreamOutcome.NETWORK_ERROR, "External API is unreachable", null));
+
+        // When
+        endpoint.startReload();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Then
+        Map<String, Object> last = (Map<String, Object>) ((Map<String, Object>) endpoint.status().get("reload"))
+                .get("last");
+        assertEquals("failed", last.get("state"));
+        assertEquals("External API is unreachable", last.get("error"));
+        verify(userSnapshotIndexer, never()).index(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startReload_WhenReloadThrowsError_ShouldStillFinishReload() throws Exception {
+        // Given
+        when(userSnapshotLoader.reload()).thenThrow(new OutOfMemoryError("Java heap space"));
+
+        // When
+        endpoint.startReload();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Then
+        Map<String, Object> reload = (Map<String, Object>) endpoint.status().get("reload");
+        assertEquals("idle", reload.get("state"));
+        assertEquals("failed", ((Map<String, Object>) reload.get("last")).get("state"));
+    }
+
+    @Test
+    void startReload_OnSharedSnapshotReader_ShouldRefuse() {
+        // Given
+        ExecutorService idle = mock(ExecutorService.class);
+        when(sharedSnapshotFile.isReader()).thenReturn(true);
+        endpoint = new UsersCacheEndpoint(cacheManager, userSnapshotLoader, userSnapshotProvider, userSnapshotIndexer,
+                sharedSnapshotFile, idle);
+
+        // When
+        WebEndpointResponse<Map<String, Object>> response = endpoint.startReload();
+
+        // Then
+        assertEquals(409, response.getStatus());
+        assertEquals("refused", response.getBody().get("state"));
+        verifyNoInteractions(idle, userSnapshotLoader);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startReload_WhileRunning_ShouldNotStartAnother() throws Exception {
+        // Given
+        ExecutorService idle = mock(ExecutorService.class);
+        endpoint = new UsersCacheEndpoint(cacheManager, userSnapshotLoader, userSnapshotProvider, userSnapshotIndexer,
+                sharedSnapshotFile, idle);
+
+        // When
+        endpoint.startReload();
+        WebEndpointResponse<Map<String, Object>> second = endpoint.startReload();
+
+        // Then
+        verify(idle, times(1)).execute(any());
+        assertEquals("running", second.getBody().get("state"));
+        assertNotNull(second.getBody().get("startedAt"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void configure_ShouldChangeExpiryAndLimitAtRuntime() {
+        // When
+        WebEndpointResponse<Map<String, Object>> response = endpoint.configure("users", Duration.ofMinutes(2),
+                DataSize.ofKilobytes(512));
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(Duration.ofMinutes(2), response.getBody().get("expireAfterWrite"));
+        assertEquals(524_288L, response.getBody().get("maximumBytes"));
+        assertEquals(524_288L, ((Map<String, Object>) ((Map<String, Object>) endpoint.status().get("caches"))
+                .get("users")).get("maximumBytes"));
+    }
+
+    @Test
+    void configure_WithInvalidRequest_ShouldAnswerClientError() {
+        assertEquals(404, endpoint.configure("pages", null, DataSize.ofKilobytes(1)).getStatus());
+        assertEquals(400, endpoint.configure("users", null, null).getStatus());
+        assertEquals(400, endpoint.configure("facets", Duration.ofMinutes(1), null).getStatus());
+        assertEquals(400, endpoint.configure("users", Duration.ofMinutes(-1), null).getStatus());
+        assertEquals(400, endpoint.configure("users", null, DataSize.ofBytes(-1)).getStatus());
+    }
+
+    @Test
+    void evict_ShouldClearCache() {
+        // Given
+        cacheManager.getCache("facets").put("key", new FacetResponse(1L, 0, Map.of()));
+
+        // When
+        WebEndpointResponse<Void> response = endpoint.evict("facets");
+
+        // Then
+        assertEquals(204, response.getStatus());
+        assertNull(cacheManager.getCache("facets").get("key"));
+        assertEquals(404, endpoint.evict("pages").getStatus());
+    }
+
+    @Test
+    void destroy_ShouldStopReloadThread() {
+        // When
+        endpoint.destroy();
+
+        // Then
+        assertTrue(executor.isShutdown());
+    }
+}
@@ -0,0 +1,43 @@
+package id.ruriazz.pagination.exception;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogThrottleTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final LogThrottle logThrottle = new LogThrottle(Duration.ofNanos(100), now::get);
+
+    @Test
+    void acquire_WithinInterval_ShouldSuppressAndCountRepeats() {
+        // When & Then
+        assertEquals(0, logThrottle.acquire(IllegalArgumentException.class));
+        assertEquals(-1, logThrottle.acquire(IllegalArgumentException.class));
+        now.addAndGet(99);
+        assertEquals(-1, logThrottle.acquire(IllegalArgumentException.class));
+
+        now.addAndGet(1);
+        assertEquals(2, logThrottle.acquire(IllegalArgumentException.class));
+        assertEquals(-1, logThrottle.acquire(IllegalArgumentException.class));
+    }
+
+    @Test
+    void acquire_WithDifferentKeys_ShouldThrottleEachKeySeparately() {
+        // When & Then
+        assertEquals(0, logThrottle.acquire(IllegalArgumentException.class));
+        assertEquals(0, logThrottle.acquire(IllegalStateException.class));
+        assertEquals(-1, logThrottle.acquire(IllegalArgumentException.class));
+        assertEquals(-1, logThrottle.acquire(IllegalStateException.class));
+    }
+
+    @Test
+    void suppressed_ShouldDescribeCountOnlyWhenAny() {
+        // When & Then
+        assertEquals("", LogThrottle.suppressed(0));
+        assertEquals(" (3 similar suppressed)", LogThrottle.suppressed(3));
+    }
+}
@@ -0,0 +1,119 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserMeasure;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterIndexTest {
+
+    @Test
+    void build_ShouldMapEveryValueToItsRowsIgnoringCase() {
+        // Given
+        CompactUserSnapshot store = CompactUserSnapshot.from(List.of(
+                user(10L, "HR", "Phoenix", 30), user(20L, "Sales", "Phoenix", 41), user(30L, "HR", null, null)));
+
+        // When
+        FilterIndex index = FilterIndex.build(store);
+
+        // Then
+        assertArrayEquals(new int[]{0, 2}, index.rows(UserAttribute.DEPARTMENT, "hr").toArray());
+        assertArrayEquals(new int[]{0, 1}, index.rows(UserAttribute.CITY, "PHOENIX").toArray());
+        assertEquals(0, index.rows(UserAttribute.CITY, "Paris").cardinality());
+        assertEquals(3, index.size());
+        assertEquals(Set.of("HR", "Sales"), index.facet(UserAttribute.DEPARTMENT).keySet());
+        assertEquals(List.of("30-35", "40-45"), List.copyOf(index.facet(UserMeasure.AGE).keySet()));
+        assertTrue(index.entries() > 3);
+        assertEquals(FilterIndex.class, FilterIndex.FACTORY.type());
+        assertInstanceOf(FilterIndex.class, FilterIndex.FACTORY.build(store));
+    }
+
+    @Test
+    void range_ShouldMatchScanForEveryBoundCombination() {
+        // Given
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(user(i, i % 2 == 0 ? "HR" : "Sales", "Phoenix", i % 13 == 0 ? null : 18 + i % 50));
+        }
+        CompactUserSnapshot store = CompactUserSnapshot.from(users);
+        FilterIndex index = FilterIndex.build(store);
+        Double[] bounds = {null, 17.0, 20.0, 22.5, 25.0, 44.0, 67.0, 90.0};
+
+        for (Double min : bounds) {
+            for (Double max : bounds) {
+                // When
+                int[] rows = index.range(UserMeasure.AGE, min, max, store).toArray();
+
+                // Then
+                int[] expected = new int[users.size()];
+                int count = 0;
+                for (int row = 0; row < users.size(); row++) {
+                    Integer age = users.get(row).getAge();
+                    if (age != null && (min == null || age >= min) && (max == null || age <= max)) {
+                        expected[count++] = row;
+                    }
+                }
+                assertArrayEquals(Arrays.copyOf(expected, count), rows, min + ".." + max);
+            }
+        }
+    }
+
+    @Test
+    void range_WithCandidates_ShouldMatchIntersectionForSparseAndDenseCandidates() {
+        // Given
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(user(i, i % 50 == 0 ? "Legal" : "Sales", "Phoenix", 18 + i % 50));
+        }
+        CompactUserSnapshot store = CompactUserSnapshot.from(users);
+        FilterIndex index = FilterIndex.build(store);
+        RowBitmap legal = index.rows(UserAttribute.DEPARTMENT, "Legal");
+        RowBitmap sales = index.rows(UserAttribute.DEPARTMENT, "Sales");
+
+        // When
+        RowBitmap sparse = index.range(UserMeasure.AGE, null, 20.0, store, legal);
+        RowBitmap dense = index.range(UserMeasure.AGE, 30.0, 31.0, store, sales);
+
+        // Then
+        assertArrayEquals(legal.and(index.range(UserMeasure.AGE, null, 20.0, store)).toArray(), sparse.toArray());
+        assertEquals(4, sparse.cardinality());
+        assertArrayEquals(new int[]{12, 13, 62, 63, 112, 113, 162, 163}, dense.toArray());
+    }
+
+    @Test
+    void factory_ShouldBuildIndexForEachSnapshot() {
+        // Given
+        CompactUserSnapshot previous = CompactUserSnapshot.from(List.of(user(1L, "HR", "Phoenix", 30),
+                user(2L, "Sales", "Denver", 40)));
+        CompactUserSnapshot next = CompactUserSnapshot.from(List.of(user(2L, "Sales", "Denver", 40)));
+        FilterIndex index = FilterIndex.build(previous);
+
+        // When
+        FilterIndex rebuilt = FilterIndex.FACTORY.build(next);
+
+        // Then
+        assertArrayEquals(new int[]{0}, rebuilt.rows(UserAttribute.DEPARTMENT, "Sales").toArray());
+        assertArrayEquals(new int[]{1}, index.rows(UserAttribute.DEPARTMENT, "Sales").toArray());
+        assertArrayEquals(new int[]{0}, rebuilt.range(UserMeasure.AGE, 35.0, null, next).toArray());
+        assertTrue(index.bytes() > rebuilt.bytes());
+    }
+
+    private static User user(long id, String department, String city, Integer age) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName("First" + id);
+        user.setLastName("Last" + id);
+        user.setAge(age);
+        user.setAddress(new User.Address(null, city, null, null, null, null, "United States"));
+        user.setCompany(new User.Company(department, null, null, null));
+        return user;
+    }
+}
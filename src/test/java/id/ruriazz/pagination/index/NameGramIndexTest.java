@@ -0,0 +1,151 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameGramIndexTest {
+
+    private static final String[] FIRST = {"John", "Joan", "Jon", "Johnny", "Emily", "Emilia", "Liam", "Al", "Aaa"};
+    private static final String[] LAST = {"Doe", "Johnson", "Jonson", "Smith", "Smyth", "van der Berg", "Li", "Ab"};
+
+    @Test
+    void search_ShouldMatchScanWithinEditTolerance() {
+        // Given
+        List<User> users = randomUsers(400);
+        CompactUserSnapshot store = CompactUserSnapshot.from(users);
+        NameGramIndex index = NameGramIndex.build(store);
+
+        for (String query : List.of("jhon", "john", "jon", "jonhson", "smiht", "emilly", "jhon smtih", "li", "al",
+                "aa", "aab", "vna der brg", "xyz", "johnnyy", "  ", "ab ba")) {
+            for (int limit : new int[]{1, 3, 1000}) {
+                // When
+                NameGramIndex.SearchResult result = index.search(query, limit, row -> row % 5 != 0);
+
+                // Then
+                String[] queryWords = query.trim().isEmpty() ? new String[0] : query.trim().split(" +");
+                int[] scores = new int[users.size()];
+                List<Integer> expected = new ArrayList<>();
+                for (int row = 0; row < users.size(); row++) {
+                    scores[row] = score(queryWords, words(users.get(row)));
+                    if (row % 5 != 0 && scores[row] >= 0 && queryWords.length > 0) {
+                        expected.add(row);
+                    }
+                }
+                expected.sort(Comparator.<Integer>comparingInt(row -> scores[row])
+                        .thenComparing((a, b) -> Arrays.compare(words(users.get(a)), words(users.get(b))))
+                        .thenComparing(row -> row));
+                assertEquals(expected.size(), result.matches(), query);
+                assertArrayEquals(expected.stream().limit(limit).mapToInt(Integer::intValue).toArray(),
+                        result.rows(), query + " " + limit);
+            }
+        }
+    }
+
+    @Test
+    void search_ShouldRankExactMatchesBeforeTypos() {
+        // Given
+        List<User> users = List.of(user(1, "Jon", "Smith"), user(2, "John", "Doe"), user(3, "Joan", "Smyth"));
+        NameGramIndex index = NameGramIndex.build(CompactUserSnapshot.from(users));
+
+        // When
+        NameGramIndex.SearchResult john = index.search("john", 10, row -> true);
+        NameGramIndex.SearchResult smith = index.search("jon smith", 10, row -> true);
+
+        // Then
+        assertArrayEquals(new int[]{1, 2, 0}, john.rows());
+        assertArrayEquals(new int[]{0, 2}, smith.rows());
+        assertEquals(2, smith.matches());
+    }
+
+    @Test
+    void maxEdits_ShouldGrowWithQueryLength() {
+        assertEquals(0, NameGramIndex.maxEdits(2));
+        assertEquals(1, NameGramIndex.maxEdits(3));
+        assertEquals(1, NameGramIndex.maxEdits(5));
+        assertEquals(2, NameGramIndex.maxEdits(6));
+    }
+
+    @Test
+    void factory_ShouldBuildIndexForEachSnapshot() {
+        // Given
+        CompactUserSnapshot previous = CompactUserSnapshot.from(List.of(user(1, "John", "Doe")));
+        CompactUserSnapshot next = CompactUserSnapshot.from(List.of(user(2, "Jane", "Doe"), user(1, "John", "Doe")));
+        DerivedIndexFactory<NameGramIndex> factory = NameGramIndex.FACTORY;
+        NameGramIndex index = factory.build(previous);
+
+        // When
+        NameGramIndex rebuilt = factory.build(next);
+
+        // Then
+        assertEquals(NameGramIndex.class, factory.type());
+        assertEquals(9, index.entries());
+        assertArrayEquals(new int[]{1}, rebuilt.search("jonh", 10, row -> true).rows());
+        assertArrayEquals(new int[]{0, 1}, rebuilt.search("doe", 10, row -> true).rows());
+        assertTrue(rebuilt.bytes() > index.bytes());
+    }
+
+    private static int score(String[] queryWords, String[] nameWords) {
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int best = Integer.MAX_VALUE;
+            for (String nameWord : nameWords) {
+                best = Math.min(best, osa(queryWord, nameWord));
+            }
+            if (best > NameGramIndex.maxEdits(queryWord.length())) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int osa(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String[] words(User user) {
+        return NameTrie.fold(user.getFirstName(), user.getLastName()).split(" +");
+    }
+
+    private static List<User> randomUsers(int count) {
+        Random random = new Random(11);
+        return IntStream.range(0, count)
+                .mapToObj(i -> user(i, FIRST[random.nextInt(FIRST.length)], LAST[random.nextInt(LAST.length)]))
+                .toList();
+    }
+
+    private static User user(long id, String firstName, String lastName) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+}
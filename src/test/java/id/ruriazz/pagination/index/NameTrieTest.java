@@ -0,0 +1,110 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameTrieTest {
+
+    private static final String[] FIRST = {"John", "Jane", "Jo", "Emily", "Emma", "Liam", "Zoë", "Ann Marie"};
+    private static final String[] LAST = {"Doe", "Johnson", "Jones", "Smith", "Smithers", "van der Berg", "Li"};
+
+    @Test
+    void lookup_ShouldMatchScanOfNameWordPrefixes() {
+        // Given
+        List<User> users = randomUsers(500);
+        CompactUserSnapshot store = CompactUserSnapshot.from(users);
+        NameTrie trie = NameTrie.build(store);
+
+        for (String prefix : List.of("j", "jo", "john", "john d", "jones", "sm", "smith", "smithers", "van d",
+                "berg", "zo", "zoë", "a", "ann marie j", "x", "johnsonx", "e", "li", "liam li")) {
+            for (int limit : new int[]{1, 5, 20, 50}) {
+                // When
+                int[] rows = trie.lookup(prefix, limit);
+
+                // Then
+                int[] expected = IntStream.range(0, users.size())
+                        .filter(row -> matches(NameTrie.fold(users.get(row).getFirstName(),
+                                users.get(row).getLastName()), prefix))
+                        .boxed()
+                        .sorted(Comparator.<Integer, String>comparing(row -> NameTrie.fold(
+                                users.get(row).getFirstName(), users.get(row).getLastName()))
+                                .thenComparing(row -> row))
+                        .limit(Math.min(limit, NameTrie.MAX_SUGGESTIONS))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                assertArrayEquals(expected, rows, prefix + " " + limit);
+            }
+        }
+    }
+
+    @Test
+    void build_ShouldIndexOneKeyPerNameWord() {
+        // Given
+        List<User> users = List.of(user(1, "Ann Marie", "van der Berg"), user(2, "Jo", null), user(3, null, null));
+
+        // When
+        NameTrie trie = NameTrie.build(CompactUserSnapshot.from(users));
+
+        // Then
+        assertEquals(6, trie.entries());
+        assertArrayEquals(new int[]{0}, trie.lookup("marie van", 10));
+        assertArrayEquals(new int[]{1}, trie.lookup("jo", 10));
+        assertEquals(0, trie.lookup("null", 10).length);
+        assertEquals(0, NameTrie.build(CompactUserSnapshot.from(List.of())).lookup("a", 10).length);
+        assertArrayEquals(new int[]{0, 1}, trie.lookup("", 10));
+    }
+
+    @Test
+    void factory_ShouldBuildIndexForEachSnapshot() {
+        // Given
+        CompactUserSnapshot previous = CompactUserSnapshot.from(List.of(user(1, "John", "Doe")));
+        CompactUserSnapshot next = CompactUserSnapshot.from(List.of(user(2, "Jane", "Doe"), user(1, "John", "Doe")));
+        DerivedIndexFactory<NameTrie> factory = NameTrie.FACTORY;
+        NameTrie trie = factory.build(previous);
+
+        // When
+        NameTrie rebuilt = factory.build(next);
+
+        // Then
+        assertEquals(NameTrie.class, factory.type());
+        assertArrayEquals(new int[]{0, 1}, rebuilt.lookup("doe", 10));
+        assertArrayEquals(new int[]{0}, trie.lookup("doe", 10));
+        assertTrue(rebuilt.bytes() > trie.bytes());
+    }
+
+    private static boolean matches(String name, String prefix) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != ' ' && (i == 0 || name.charAt(i - 1) == ' ') && name.startsWith(prefix, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<User> randomUsers(int count) {
+        Random random = new Random(7);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(user(i, FIRST[random.nextInt(FIRST.length)], LAST[random.nextInt(LAST.length)]));
+        }
+        return users;
+    }
+
+    private static User user(long id, String firstName, String lastName) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+}
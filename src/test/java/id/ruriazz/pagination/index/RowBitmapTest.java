@@ -0,0 +1,108 @@
+package id.ruriazz.pagination.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowBitmapTest {
+
+    @Test
+    void ofSorted_ShouldPickSmallerRepresentation() {
+        // Given
+        int[] rows = new int[100];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i * 3;
+        }
+
+        // When
+        RowBitmap sparse = RowBitmap.ofSorted(10_000, rows, 10);
+        RowBitmap dense = RowBitmap.ofSorted(1_000, rows, 100);
+
+        // Then
+        assertTrue(sparse.isSparse());
+        assertFalse(dense.isSparse());
+        assertEquals(10, sparse.cardinality());
+        assertEquals(100, dense.cardinality());
+        assertArrayEquals(Arrays.copyOf(rows, 100), dense.toArray());
+        assertTrue(dense.contains(297));
+        assertFalse(dense.contains(298));
+        assertFalse(dense.contains(-1));
+        assertFalse(sparse.contains(10_000));
+    }
+
+    @Test
+    void and_ShouldIntersectEveryCombinationOfRepresentations() {
+        // Given
+        int universe = 640;
+        RowBitmap sparseEven = bitmap(universe, 0, 2, 4, 6, 8, 500);
+        RowBitmap sparseLow = bitmap(universe, 1, 2, 3, 4, 5, 6);
+        RowBitmap denseEven = every(universe, 2);
+        RowBitmap denseThird = every(universe, 3);
+
+        // When & Then
+        assertArrayEquals(new int[]{2, 4, 6}, sparseEven.and(sparseLow).toArray());
+        assertArrayEquals(new int[]{2, 4, 6}, sparseLow.and(denseEven).toArray());
+        assertArrayEquals(new int[]{2, 4, 6}, denseEven.and(sparseLow).toArray());
+        assertEquals(3, sparseEven.andCardinality(sparseLow));
+        assertEquals(3, sparseLow.andCardinality(denseEven));
+        assertEquals(3, denseEven.andCardinality(sparseLow));
+        assertEquals(107, denseEven.andCardinality(denseThird));
+        RowBitmap sixth = denseEven.and(denseThird);
+        assertEquals(107, sixth.cardinality());
+        assertTrue(sixth.contains(636));
+        assertFalse(sixth.contains(634));
+    }
+
+    @Test
+    void union_ShouldCombineRowsAndCompactResult() {
+        // Given
+        int universe = 640;
+
+        // When
+        RowBitmap small = RowBitmap.union(universe, List.of(bitmap(universe, 5, 9), bitmap(universe, 1, 9)));
+        RowBitmap large = RowBitmap.union(universe, List.of(every(universe, 2), bitmap(universe, 1)));
+
+        // Then
+        assertArrayEquals(new int[]{1, 5, 9}, small.toArray());
+        assertTrue(small.isSparse());
+        assertEquals(321, large.cardinality());
+        assertTrue(large.contains(1));
+    }
+
+    @Test
+    void filter_ShouldKeepMatchingRows() {
+        // Given
+        RowBitmap dense = every(640, 2);
+
+        // When
+        RowBitmap filtered = dense.filter(row -> row < 10);
+
+        // Then
+        assertArrayEquals(new int[]{0, 2, 4, 6, 8}, filtered.toArray());
+        assertTrue(filtered.isSparse());
+    }
+
+    @Test
+    void and_WithDifferentUniverse_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> RowBitmap.empty(10).and(RowBitmap.empty(20)));
+    }
+
+    private static RowBitmap bitmap(int universe, int... rows) {
+        RowBitmap.Builder builder = new RowBitmap.Builder(universe);
+        for (int row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    private static RowBitmap every(int universe, int step) {
+        RowBitmap.Builder builder = new RowBitmap.Builder(universe);
+        for (int row = 0; row < universe; row += step) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,112 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.UserAttribute;
+import id.ruriazz.pagination.snapshot.UserMeasure;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStatisticsTest {
+
+    private static final List<User> USERS = randomUsers(4_000);
+    private static final CompactUserSnapshot STORE = CompactUserSnapshot.from(USERS);
+    private static final SnapshotStatistics STATISTICS = SnapshotStatistics.build(STORE);
+
+    @Test
+    void build_ShouldCountEveryAttributeValueIgnoringCase() {
+        // Then
+        assertEquals(4_000, STATISTICS.rows());
+        assertEquals(4, STATISTICS.distinctValues(UserAttribute.DEPARTMENT));
+        assertEquals(0.25, STATISTICS.selectivity(UserAttribute.DEPARTMENT, "hr"));
+        assertEquals(0.001, STATISTICS.selectivity(UserAttribute.CITY, "LEGAL CITY"));
+        assertEquals(0, STATISTICS.selectivity(UserAttribute.CITY, "Paris"));
+        assertEquals(0, STATISTICS.selectivity(UserAttribute.TITLE, "Engineer"));
+        assertTrue(STATISTICS.entries() >= 6);
+        assertEquals(SnapshotStatistics.class, SnapshotStatistics.FACTORY.type());
+        assertInstanceOf(SnapshotStatistics.class, SnapshotStatistics.FACTORY.build(STORE));
+    }
+
+    @Test
+    void rangeSelectivity_ShouldEstimateUniformValuesClosely() {
+        // Ages are uniform over 18..67, a tenth of them missing
+        assertEquals(0.9 * 10 / 50, STATISTICS.rangeSelectivity(UserMeasure.AGE, 30.0, 39.0), 0.03);
+        assertEquals(0.9 * 25 / 50, STATISTICS.rangeSelectivity(UserMeasure.AGE, null, 42.0), 0.03);
+        assertEquals(0.9, STATISTICS.rangeSelectivity(UserMeasure.AGE, null, null), 0.01);
+        assertTrue(STATISTICS.rangeSelectivity(UserMeasure.AGE, 30.0, 30.0) > 0);
+        assertEquals(0, STATISTICS.rangeSelectivity(UserMeasure.AGE, 80.0, 90.0));
+        assertEquals(0, STATISTICS.rangeSelectivity(UserMeasure.AGE, 40.0, 30.0));
+        assertEquals(0, STATISTICS.rangeSelectivity(UserMeasure.HEIGHT, 100.0, 200.0));
+    }
+
+    @Test
+    void boxAndRadiusSelectivity_ShouldEstimateLocatedUsers() {
+        // Coordinates are uniform over latitude 0..40 and longitude -100..-60, a fifth of users unlocated
+        assertEquals(0.8 / 4, STATISTICS.boxSelectivity(0, -100, 20, -80), 0.03);
+        assertEquals(0.8, STATISTICS.boxSelectivity(-90, -180, 90, 180), 0.01);
+        assertEquals(0.8, STATISTICS.boxSelectivity(-90, 170, 90, 169), 0.01);
+        assertEquals(0, STATISTICS.boxSelectivity(50, 0, 60, 10));
+        assertEquals(0.8 * Math.PI / 4, STATISTICS.radiusSelectivity(20, -80, 2_200), 0.1);
+        assertEquals(0.8, STATISTICS.radiusSelectivity(85, 0, 20_000), 0.01);
+        assertTrue(STATISTICS.radiusSelectivity(20, 179.9, 500) >= 0);
+    }
+
+    @Test
+    void nameSelectivity_ShouldEstimateFromSample() {
+        // Then
+        assertEquals(0.5, STATISTICS.nameSelectivity("odd"), 0.05);
+        assertEquals(1, STATISTICS.nameSelectivity("first"));
+        assertEquals(0.5 / SnapshotStatistics.NAME_SAMPLE_SIZE, STATISTICS.nameSelectivity("zzz"));
+    }
+
+    @Test
+    void build_WithEmptyStore_ShouldEstimateNothing() {
+        // When
+        SnapshotStatistics empty = SnapshotStatistics.build(CompactUserSnapshot.from(List.of()));
+
+        // Then
+        assertEquals(0, empty.selectivity(UserAttribute.CITY, "Phoenix"));
+        assertEquals(0, empty.rangeSelectivity(UserMeasure.AGE, 1.0, 2.0));
+        assertEquals(0, empty.boxSelectivity(-90, -180, 90, 180));
+        assertEquals(0, empty.nameSelectivity("jo"));
+    }
+
+    @Test
+    void factory_ShouldRecountForEachSnapshot() {
+        // Given
+        CompactUserSnapshot next = CompactUserSnapshot.from(USERS.subList(0, 8));
+
+        // When
+        SnapshotStatistics rebuilt = SnapshotStatistics.FACTORY.build(next);
+
+        // Then
+        assertEquals(8, rebuilt.rows());
+        assertEquals(0.25, rebuilt.selectivity(UserAttribute.DEPARTMENT, "Sales"));
+        assertTrue(STATISTICS.bytes() > rebuilt.bytes());
+    }
+
+    private static List<User> randomUsers(int count) {
+        String[] departments = {"HR", "Sales", "Engineering", "Legal"};
+        Random random = new Random(7);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setFirstName("First" + i);
+            user.setLastName(i % 2 == 0 ? "Even" : "Odd");
+            user.setAge(i % 10 == 0 ? null : 18 + random.nextInt(50));
+            User.Address.Coordinates coordinates = i % 5 == 0 ? null
+                    : new User.Address.Coordinates(random.nextDouble() * 40, random.nextDouble() * 40 - 100);
+            user.setAddress(new User.Address(null, i % 1_000 == 0 ? "Legal City" : "Phoenix", null, null, null,
+                    coordinates, "United States"));
+            user.setCompany(new User.Company(departments[i % 4], null, null, null));
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,143 @@
+package id.ruriazz.pagination.index;
+
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialIndexTest {
+
+    private static final List<User> USERS = randomUsers(2_000);
+    private static final CompactUserSnapshot STORE = CompactUserSnapshot.from(USERS);
+    private static final SpatialIndex INDEX = SpatialIndex.build(STORE);
+
+    @Test
+    void build_ShouldSkipUsersWithoutCoordinates() {
+        // Then
+        assertEquals(USERS.stream().filter(user -> user.getAddress().getCoordinates() != null).count(),
+                INDEX.entries());
+        assertEquals(SpatialIndex.class, SpatialIndex.FACTORY.type());
+        assertInstanceOf(SpatialIndex.class, SpatialIndex.FACTORY.build(STORE));
+    }
+
+    @Test
+    void distanceKm_ShouldMatchKnownDistance() {
+        // New York to London
+        assertEquals(5570, SpatialIndex.distanceKm(40.7128, -74.006, 51.5074, -0.1278), 5);
+        assertEquals(0, SpatialIndex.distanceKm(10, 20, 10, 20));
+    }
+
+    @Test
+    void within_ShouldMatchScanIncludingAntimeridian() {
+        double[][] boxes = {{-10, -20, 30, 40}, {60, 170, 89, -170}, {-90, -180, 90, 180}, {5, 5, 5, 5}};
+        for (double[] box : boxes) {
+            // When
+            int[] rows = INDEX.within(box[0], box[1], box[2], box[3]).toArray();
+
+            // Then
+            int[] expected = scan(row -> {
+                double latitude = STORE.latitude(row);
+                double longitude = STORE.longitude(row);
+                boolean inLongitude = box[1] <= box[3] ? longitude >= box[1] && longitude <= box[3]
+                        : longitude >= box[1] || longitude <= box[3];
+                return latitude >= box[0] && latitude <= box[2] && inLongitude;
+            });
+            assertArrayEquals(expected, rows, Arrays.toString(box));
+        }
+    }
+
+    @Test
+    void withinRadius_ShouldMatchScanNearPolesAndAntimeridian() {
+        double[][] circles = {{0, 0, 1500}, {85, 30, 900}, {-20, 179, 2500}, {10, -179.5, 300}, {0, 0, 25_000}};
+        for (double[] circle : circles) {
+            // When
+            int[] rows = INDEX.withinRadius(circle[0], circle[1], circle[2]).toArray();
+
+            // Then
+            int[] expected = scan(row -> SpatialIndex.distanceKm(circle[0], circle[1], STORE.latitude(row),
+                    STORE.longitude(row)) <= circle[2]);
+            assertArrayEquals(expected, rows, Arrays.toString(circle));
+        }
+    }
+
+    @Test
+    void nearest_ShouldReturnClosestAcceptedRowsInDistanceOrder() {
+        double[][] points = {{0, 0}, {89, 0}, {-45, 179.9}, {35, -100}};
+        for (double[] point : points) {
+            for (int count : new int[]{1, 7, 50}) {
+                // When
+                int[] rows = INDEX.nearest(point[0], point[1], count, row -> row % 3 == 0);
+
+                // Then
+                int[] expected = IntStream.range(0, STORE.size())
+                        .filter(row -> row % 3 == 0 && !Double.isNaN(STORE.latitude(row)))
+                        .boxed()
+                        .sorted(Comparator.<Integer>comparingDouble(row -> SpatialIndex.distanceKm(point[0],
+                                point[1], STORE.latitude(row), STORE.longitude(row))).thenComparing(row -> row))
+                        .limit(count)
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                assertArrayEquals(expected, rows, Arrays.toString(point) + " " + count);
+            }
+        }
+    }
+
+    @Test
+    void nearest_WithFewerAcceptedRows_ShouldReturnAllOfThem() {
+        // When
+        int[] rows = INDEX.nearest(0, 0, 10, row -> row == 4 || row == 8);
+        int[] none = SpatialIndex.build(CompactUserSnapshot.from(List.of())).nearest(0, 0, 3, row -> true);
+
+        // Then
+        assertEquals(2, rows.length);
+        assertEquals(0, none.length);
+    }
+
+    @Test
+    void factory_ShouldBuildIndexForEachSnapshot() {
+        // Given
+        CompactUserSnapshot next = CompactUserSnapshot.from(USERS.subList(1, 3));
+
+        // When
+        SpatialIndex rebuilt = SpatialIndex.FACTORY.build(next);
+
+        // Then
+        assertTrue(rebuilt.entries() <= 2);
+        assertEquals(rebuilt.entries(), rebuilt.within(-90, -180, 90, 180).cardinality());
+        assertTrue(INDEX.bytes() > rebuilt.bytes());
+    }
+
+    private static int[] scan(IntPredicate predicate) {
+        return IntStream.range(0, STORE.size())
+                .filter(row -> !Double.isNaN(STORE.latitude(row)) && predicate.test(row))
+                .toArray();
+    }
+
+    private static List<User> randomUsers(int count) {
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            User.Address.Coordinates coordinates = i % 17 == 0 ? null : new User.Address.Coordinates(
+                    Math.toDegrees(Math.asin(2 * random.nextDouble() - 1)), random.nextDouble() * 360 - 180);
+            if (i % 100 == 1) {
+                coordinates = new User.Address.Coordinates(5.0, 5.0);
+            }
+            user.setAddress(new User.Address(null, "City", null, null, null, coordinates, "Country"));
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -1,15 +1,24 @@
 package id.ruriazz.pagination.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -105,6 +114,43 @@ class PaginationIntegrationTest {
         assertTrue(response.getBody().contains("Invalid parameter type"));
     }
 
+    @Test
+    void testGetUsers_WithCborAccept_ShouldReturnCbor() throws Exception {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+
+        // When
+        ResponseEntity<byte[]> response = restTemplate.exchange(
+                "http://localhost:" + port + "/api/users?size=5", HttpMethod.GET, new HttpEntity<>(headers),
+                byte[].class);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_CBOR, response.getHeaders().getContentType());
+        JsonNode body = new CBORMapper().readTree(response.getBody());
+        assertEquals(5, body.get("size").asInt());
+        assertEquals(5, body.get("data").size());
+    }
+
+    @Test
+    void testGetUsers_WithSmileAccept_ShouldReturnSmile() throws Exception {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("application/x-jackson-smile")));
+
+        // When
+        ResponseEntity<byte[]> response = restTemplate.exchange(
+                "http://localhost:" + port + "/api/users?size=5", HttpMethod.GET, new HttpEntity<>(headers),
+                byte[].class);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-jackson-smile", response.getHeaders().getContentType().toString());
+        JsonNode body = new SmileMapper().readTree(response.getBody());
+        assertEquals(5, body.get("data").size());
+    }
+
     @Test
     void testApplicationContext_ShouldLoadSuccessfully() {
         assertTrue(port > 0);
@@ -0,0 +1,53 @@
+package id.ruriazz.pagination.metrics;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    @Test
+    void doFilter_WhenDisabledAndNotRequested_ShouldNotBindTimings() throws Exception {
+        assertNull(runFilter(new ServerTimingFilter(false), request("/api/users", null)));
+    }
+
+    @Test
+    void doFilter_WhenEnabledByProperty_ShouldBindTimingsForRequest() throws Exception {
+        assertNotNull(runFilter(new ServerTimingFilter(true), request("/api/users", null)));
+        assertNull(ServerTimings.current());
+    }
+
+    @Test
+    void doFilter_WhenRequestedByHeader_ShouldBindTimings() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(false);
+
+        assertNotNull(runFilter(filter, request("/api/users", "true")));
+        assertNotNull(runFilter(filter, request("/api/users", "1")));
+        assertNull(runFilter(filter, request("/api/users", "no")));
+    }
+
+    @Test
+    void doFilter_ForOtherPaths_ShouldNotBindTimings() throws Exception {
+        assertNull(runFilter(new ServerTimingFilter(true), request("/actuator/health", "true")));
+    }
+
+    private MockHttpServletRequest request(String uri, String header) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (header != null) {
+            request.addHeader(ServerTimingFilter.REQUEST_HEADER, header);
+        }
+        return request;
+    }
+
+    private ServerTimings runFilter(ServerTimingFilter filter, MockHttpServletRequest request) throws Exception {
+        AtomicReference<ServerTimings> seen = new AtomicReference<>();
+        FilterChain chain = (req, res) -> seen.set(ServerTimings.current());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return seen.get();
+    }
+}
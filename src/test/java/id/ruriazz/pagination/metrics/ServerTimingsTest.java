@@ -0,0 +1,97 @@
+package id.ruriazz.pagination.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerTimings.unbind();
+    }
+
+    @Test
+    void current_WithoutBinding_ShouldReturnNull() {
+        assertNull(ServerTimings.current());
+    }
+
+    @Test
+    void bind_ShouldExposeTimingsUntilUnbound() {
+        // When
+        ServerTimings timings = ServerTimings.bind();
+
+        // Then
+        assertSame(timings, ServerTimings.current());
+        ServerTimings.unbind();
+        assertNull(ServerTimings.current());
+    }
+
+    @Test
+    void add_ShouldAccumulateNanosPerStage() {
+        // Given
+        ServerTimings timings = new ServerTimings(System.nanoTime());
+
+        // When
+        timings.add(PipelineStage.FILTER, 1_000);
+        timings.add(PipelineStage.FILTER, 2_000);
+
+        // Then
+        assertEquals(3_000, timings.getNanos(PipelineStage.FILTER));
+        assertEquals(0, timings.getNanos(PipelineStage.FETCH));
+    }
+
+    @Test
+    void toHeaderValue_ShouldListRecordedStagesInPipelineOrderWithTotal() {
+        // Given
+        ServerTimings timings = new ServerTimings(System.nanoTime());
+        timings.add(PipelineStage.PAGINATE, 5_000);
+        timings.add(PipelineStage.CACHE, TimeUnit.MILLISECONDS.toNanos(12) + 345_000);
+        timings.add(PipelineStage.FILTER, 1_050_000);
+
+        // When
+        String header = timings.toHeaderValue();
+
+        // Then
+        assertTrue(header.startsWith("cache;dur=12.345, filter;dur=1.050, paginate;dur=0.005, total;dur="),
+                header);
+        assertFalse(header.contains("fetch"));
+    }
+
+    @Test
+    void toTrailerValue_ShouldReportSerializeStageWithTotal() {
+        // Given
+        ServerTimings timings = new ServerTimings(System.nanoTime());
+        timings.add(PipelineStage.FILTER, 1_000_000);
+        timings.add(PipelineStage.SERIALIZE, 210_000);
+
+        // When
+        String trailer = timings.toTrailerValue();
+
+        // Then
+        assertTrue(trailer.startsWith("serialize;dur=0.210, total;dur="), trailer);
+        assertFalse(trailer.contains("filter"));
+    }
+
+    @Test
+    void toHeaderValue_WithoutStages_ShouldReportTotalOnly() {
+        assertTrue(new ServerTimings(System.nanoTime()).toHeaderValue().matches("total;dur=\\d+\\.\\d{3}"));
+    }
+
+    @Test
+    void userMetricsRecord_WhenBound_ShouldAddToCurrentTimings() {
+        // Given
+        UserMetrics userMetrics = new UserMetrics(new SimpleMeterRegistry());
+        ServerTimings timings = ServerTimings.bind();
+
+        // When
+        userMetrics.record(PipelineStage.FETCH, 42);
+
+        // Then
+        assertEquals(42, timings.getNanos(PipelineStage.FETCH));
+    }
+}
@@ -0,0 +1,102 @@
+package id.ruriazz.pagination.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import id.ruriazz.pagination.dto.PaginationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedBinaryHttpMessageConverterTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserMetrics userMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userMetrics = new UserMetrics(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ServerTimings.unbind();
+    }
+
+    @Test
+    void write_WithCbor_ShouldEncodeResponseAndRecordSerializeStage() throws Exception {
+        // Given
+        CBORMapper mapper = new CBORMapper();
+        TimedCborHttpMessageConverter converter = new TimedCborHttpMessageConverter(mapper, userMetrics);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        // When
+        converter.write(new PaginationResponse<>(1, 10, 2, List.of("a", "b")), null, outputMessage);
+
+        // Then
+        JsonNode body = mapper.readTree(outputMessage.getBodyAsBytes());
+        assertEquals(2, body.get("totalItems").asInt());
+        assertEquals("b", body.get("data").get(1).asText());
+        assertEquals(MediaType.APPLICATION_CBOR, outputMessage.getHeaders().getContentType());
+        assertEquals(1, meterRegistry.get("users.pipeline.stage").tag("stage", "serialize").timer().count());
+    }
+
+    @Test
+    void write_WithCborAndOtherPayload_ShouldNotRecordSerializeStage() throws Exception {
+        // Given
+        CBORMapper mapper = new CBORMapper();
+        TimedCborHttpMessageConverter converter = new TimedCborHttpMessageConverter(mapper, userMetrics);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        // When
+        converter.write(Map.of("status", "UP"), null, outputMessage);
+
+        // Then
+        assertEquals("UP", mapper.readTree(outputMessage.getBodyAsBytes()).get("status").asText());
+        assertEquals(0, meterRegistry.get("users.pipeline.stage").tag("stage", "serialize").timer().count());
+    }
+
+    @Test
+    void write_WithSmileAndServerTimingsBound_ShouldEncodeResponseAndAddHeader() throws Exception {
+        // Given
+        SmileMapper mapper = new SmileMapper();
+        TimedSmileHttpMessageConverter converter = new TimedSmileHttpMessageConverter(mapper, userMetrics);
+        ServerTimings.bind();
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        // When
+        converter.write(new PaginationResponse<>(1, 10, 1, List.of("a")), null, outputMessage);
+
+        // Then
+        assertEquals("a", mapper.readTree(outputMessage.getBodyAsBytes()).get("data").get(0).asText());
+        assertEquals(SMILE, outputMessage.getHeaders().getContentType());
+        String header = outputMessage.getHeaders().getFirst(ServerTimings.HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("total;dur="), header);
+        assertEquals(1, meterRegistry.get("users.pipeline.stage").tag("stage", "serialize").timer().count());
+    }
+
+    @Test
+    void canWrite_ShouldOnlyMatchOwnMediaType() {
+        // Given
+        TimedCborHttpMessageConverter cbor = new TimedCborHttpMessageConverter(new CBORMapper(), userMetrics);
+        TimedSmileHttpMessageConverter smile = new TimedSmileHttpMessageConverter(new SmileMapper(), userMetrics);
+
+        // When & Then
+        assertTrue(cbor.canWrite(PaginationResponse.class, MediaType.APPLICATION_CBOR));
+        assertFalse(cbor.canWrite(PaginationResponse.class, MediaType.APPLICATION_JSON));
+        assertTrue(smile.canWrite(PaginationResponse.class, SMILE));
+        assertFalse(smile.canWrite(PaginationResponse.class, MediaType.APPLICATION_CBOR));
+    }
+}
@@ -0,0 +1,121 @@
+package id.ruriazz.pagination.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ruriazz.pagination.dto.PaginationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedJacksonHttpMessageConverterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TimedJacksonHttpMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        converter = new TimedJacksonHttpMessageConverter(new ObjectMapper(), new UserMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ServerTimings.unbind();
+    }
+
+    @Test
+    void write_WithPaginationResponse_ShouldRecordSerializeStage() throws Exception {
+        // Given
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        PaginationResponse<String> response = new PaginationResponse<>(1, 10, 2, List.of("a", "b"));
+
+        // When
+        converter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+
+        // Then
+        assertTrue(outputMessage.getBodyAsString().contains("\"totalItems\":2"));
+        assertEquals(1, meterRegistry.get("users.pipeline.stage").tag("stage", "serialize").timer().count());
+    }
+
+    @Test
+    void write_WithOtherPayload_ShouldNotRecordSerializeStage() throws Exception {
+        // Given
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        // When
+        converter.write(Map.of("status", "UP"), MediaType.APPLICATION_JSON, outputMessage);
+
+        // Then
+        assertEquals("{\"status\":\"UP\"}", outputMessage.getBodyAsString());
+        assertEquals(0, meterRegistry.get("users.pipeline.stage").tag("stage", "serialize").timer().count());
+    }
+
+    @Test
+    void write_WithServerTimingsBound_ShouldAddHeaderWithStagesBeforeSerialization() throws Exception {
+        // Given
+        ServerTimings.bind().add(PipelineStage.FILTER, 2_000);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        PaginationResponse<String> response = new PaginationResponse<>(1, 10, 1, List.of("a"));
+
+        // When
+        converter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+
+        // Then
+        String header = outputMessage.getHeaders().getFirst(ServerTimings.HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("filter;dur=0.002, total;dur="), header);
+        assertFalse(outputMessage.getHeaders().containsKey(HttpHeaders.TRAILER));
+        assertTrue(outputMessage.getBodyAsString().contains("\"data\":[\"a\"]"));
+    }
+
+    @Test
+    void write_ToServletResponse_ShouldReportSerializeStageInTrailer() throws Exception {
+        // Given
+        ServerTimings.bind();
+        AtomicReference<Supplier<Map<String, String>>> trailer = new AtomicReference<>();
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        HttpServletResponseWrapper wrapper = new HttpServletResponseWrapper(servletResponse) {
+            @Override
+            public void setTrailerFields(Supplier<Map<String, String>> supplier) {
+                trailer.set(supplier);
+            }
+        };
+        ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(wrapper);
+
+        // When
+        converter.write(new PaginationResponse<>(1, 10, 1, List.of("a")), MediaType.APPLICATION_JSON, outputMessage);
+        outputMessage.flush();
+
+        // Then
+        assertEquals(ServerTimings.HEADER, servletResponse.getHeader(HttpHeaders.TRAILER));
+        assertTrue(servletResponse.getContentAsString().contains("\"data\":[\"a\"]"));
+        String value = trailer.get().get().get(ServerTimings.HEADER);
+        assertTrue(value.startsWith("serialize;dur="), value);
+        assertTrue(value.contains(", total;dur="), value);
+    }
+
+    @Test
+    void write_WithoutServerTimingsBound_ShouldNotAddHeader() throws Exception {
+        // Given
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        // When
+        converter.write(new PaginationResponse<>(1, 10, 0, List.of()), MediaType.APPLICATION_JSON, outputMessage);
+
+        // Then
+        assertFalse(outputMessage.getHeaders().containsKey(ServerTimings.HEADER));
+    }
+}
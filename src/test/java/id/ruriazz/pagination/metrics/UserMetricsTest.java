@@ -0,0 +1,131 @@
+package id.ruriazz.pagination.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserMetrics userMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userMetrics = new UserMetrics(meterRegistry);
+    }
+
+    @Test
+    void constructor_ShouldRegisterTimerForEveryStage() {
+        for (PipelineStage stage : PipelineStage.values()) {
+            assertNotNull(meterRegistry.find("users.pipeline.stage").tag("stage", stage.getTag()).timer());
+        }
+    }
+
+    @Test
+    void time_ShouldRecordDurationAndReturnResult() {
+        // When
+        String result = userMetrics.time(PipelineStage.FILTER, () -> "done");
+
+        // Then
+        assertEquals("done", result);
+        assertEquals(1, meterRegistry.get("users.pipeline.stage").tag("stage", "filter").timer().count());
+    }
+
+    @Test
+    void time_WithFailingAction_ShouldStillRecordDuration() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> userMetrics.time(PipelineStage.CACHE, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, meterRegistry.get("users.pipeline.stage").tag("stage", "cache").timer().count());
+    }
+
+    @Test
+    void record_ShouldAddNanosToStageTimer() {
+        // When
+        userMetrics.record(PipelineStage.SERIALIZE, TimeUnit.MILLISECONDS.toNanos(5));
+
+        // Then
+        assertEquals(5.0, meterRegistry.get("users.pipeline.stage").tag("stage", "serialize").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    void withoutRecording_ShouldSkipStagesAndCoalescingOutcomesOnThisThreadOnly() {
+        // When
+        String result = userMetrics.withoutRecording(() -> {
+            userMetrics.time(PipelineStage.FILTER, () -> "inner");
+            userMetrics.recordCoalescing(CoalescingOutcome.COMPUTED);
+            return userMetrics.isRecording() ? "recording" : "suppressed";
+        });
+        userMetrics.recordCoalescing(CoalescingOutcome.COMPUTED);
+
+        // Then
+        assertEquals("suppressed", result);
+        assertTrue(userMetrics.isRecording());
+        assertEquals(0, meterRegistry.get("users.pipeline.stage").tag("stage", "filter").timer().count());
+        assertEquals(1, meterRegistry.get("users.requests.coalesced").tag("outcome", "computed").counter().count());
+    }
+
+    @Test
+    void recordUpstream_ShouldIncrementOutcomeCounter() {
+        // When
+        userMetrics.recordUpstream(UpstreamOutcome.INVALID_RESPONSE);
+        userMetrics.recordUpstream(UpstreamOutcome.INVALID_RESPONSE);
+
+        // Then
+        assertEquals(2, meterRegistry.get("users.upstream.requests").tag("outcome", "invalid_response")
+                .counter().count());
+        assertEquals(0, meterRegistry.get("users.upstream.requests").tag("outcome", "success")
+                .counter().count());
+    }
+
+    @Test
+    void snapshotGauges_BeforeAnyLoad_ShouldReportEmptySnapshot() {
+        assertEquals(0, meterRegistry.get("users.snapshot.size").gauge().value());
+        assertTrue(Double.isNaN(meterRegistry.get("users.snapshot.age").timeGauge().value()));
+    }
+
+    @Test
+    void recordSnapshotLoaded_ShouldUpdateSizeAndAge() {
+        // When
+        userMetrics.recordSnapshotLoaded(30);
+
+        // Then
+        assertEquals(30, meterRegistry.get("users.snapshot.size").gauge().value());
+        double age = meterRegistry.get("users.snapshot.age").timeGauge().value(TimeUnit.MILLISECONDS);
+        assertTrue(age >= 0 && age < 60_000);
+    }
+
+    @Test
+    void recordSnapshotChanges_ShouldIncrementCountersByType() {
+        // When
+        userMetrics.recordSnapshotChanges(3, 2, 1);
+        userMetrics.recordSnapshotChanges(1, 0, 0);
+
+        // Then
+        assertEquals(4, meterRegistry.get("users.snapshot.changes").tag("type", "inserted").counter().count());
+        assertEquals(2, meterRegistry.get("users.snapshot.changes").tag("type", "updated").counter().count());
+        assertEquals(1, meterRegistry.get("users.snapshot.changes").tag("type", "removed").counter().count());
+    }
+
+    @Test
+    void registerCache_ShouldReportWeightAndBudget() {
+        // Given
+        AtomicLong weight = new AtomicLong(1_000);
+
+        // When
+        userMetrics.registerCache("facets", () -> 4_096, weight::get);
+        weight.set(2_000);
+
+        // Then
+        assertEquals(2_000, meterRegistry.get("users.cache.weight").tag("cache", "facets").gauge().value());
+        assertEquals(4_096, meterRegistry.get("users.cache.budget").tag("cache", "facets").gauge().value());
+    }
+}
@@ -0,0 +1,63 @@
+package id.ruriazz.pagination.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelScannerTest {
+
+    @Test
+    void scan_ShouldMatchSequentialScanAcrossChunkBoundaries() {
+        // Given
+        ParallelScanner parallel = new ParallelScanner(1, 4);
+        ParallelScanner sequential = new ParallelScanner(Integer.MAX_VALUE, 4);
+        IntPredicate predicate = row -> row % 7 == 3 || row == ParallelScanner.CHUNK_ROWS;
+        int chunk = ParallelScanner.CHUNK_ROWS;
+        int[] sizes = {0, 1, chunk, chunk + 1, 5 * chunk + 17};
+        int[] limits = {0, 1, 10, 3_000, Integer.MAX_VALUE};
+
+        for (int size : sizes) {
+            int[] expected = IntStream.range(0, size).filter(predicate).toArray();
+            for (int limit : limits) {
+                // When
+                ParallelScanner.Scan fromPool = parallel.scan(size, predicate, limit);
+                ParallelScanner.Scan inline = sequential.scan(size, predicate, limit);
+
+                // Then
+                int[] first = Arrays.copyOf(expected, Math.min(expected.length, limit));
+                assertArrayEquals(first, fromPool.rows(), size + " " + limit);
+                assertArrayEquals(first, inline.rows(), size + " " + limit);
+                assertEquals(expected.length, fromPool.total());
+                assertEquals(expected.length, inline.total());
+            }
+        }
+        parallel.destroy();
+    }
+
+    @Test
+    void scan_BelowThreshold_ShouldStayOnCallingThread() {
+        // Given
+        ParallelScanner scanner = new ParallelScanner(100, 4);
+        Thread caller = Thread.currentThread();
+
+        // When
+        ParallelScanner.Scan small = scanner.scan(99, row -> Thread.currentThread() == caller, 5);
+        ParallelScanner.Scan large = scanner.scan(100_000, row -> Thread.currentThread() == caller, 5);
+
+        // Then
+        assertEquals(99, small.total());
+        assertEquals(0, large.total());
+        assertEquals(4, scanner.parallelism());
+        assertTrue(new ParallelScanner(1, 0).parallelism() >= 1);
+    }
+
+    @Test
+    void constructor_WithInvalidSettings_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelScanner(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelScanner(1, -1));
+    }
+}
@@ -0,0 +1,306 @@
+package id.ruriazz.pagination.service;
+
+import id.ruriazz.pagination.dto.QueryPlan;
+import id.ruriazz.pagination.dto.UserFilter;
+import id.ruriazz.pagination.index.FilterIndex;
+import id.ruriazz.pagination.index.SnapshotStatistics;
+import id.ruriazz.pagination.index.SpatialIndex;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.DerivedIndexFactory;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshotIndexer;
+import id.ruriazz.pagination.snapshot.UserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class QueryPlannerTest {
+
+    private static final List<User> USERS = randomUsers(4_000);
+    private static final UserSnapshot INDEXED = indexed(FilterIndex.FACTORY, SpatialIndex.FACTORY,
+            SnapshotStatistics.FACTORY);
+    private static final UserSnapshot STATISTICS_ONLY = indexed(SnapshotStatistics.FACTORY);
+    private static final UserSnapshot PLAIN = new UserSnapshot(1L, CompactUserSnapshot.from(USERS));
+    private static final ParallelScanner SCANNER = new ParallelScanner(1_000, 4);
+
+    @Test
+    void plan_WithRareCityAndBroadRange_ShouldReadCityBitmapAndVerifyRange() {
+        // Given
+        UserFilter filter = filter(f -> {
+            f.setCity("Legal City");
+            f.setMinAge(20);
+        });
+
+        // When
+        QueryPlanner.Plan plan = QueryPlanner.plan(INDEXED, null, filter);
+
+        // Then
+        assertEquals(QueryPlanner.AccessPath.INDEX_INTERSECTION, plan.path());
+        assertEquals(List.of("city = Legal City"), descriptions(plan.indexed()));
+        assertEquals(List.of("age in [20.0, ]"), descriptions(plan.verified()));
+        assertTrue(plan.cost() < plan.alternatives().get(QueryPlanner.AccessPath.FULL_SCAN));
+        assertEquals(7, plan.estimatedRows(), 2);
+    }
+
+    @Test
+    void plan_WithSelectiveCriteria_ShouldIntersectSeveralBitmaps() {
+        // Given
+        UserFilter filter = filter(f -> {
+            f.setDepartment("HR");
+            f.setCountry("Canada");
+            f.setMinLat(0.0);
+            f.setMaxLat(10.0);
+            f.setMinLng(-100.0);
+            f.setMaxLng(-90.0);
+        });
+
+        // When
+        QueryPlanner.Plan plan = QueryPlanner.plan(INDEXED, null, filter);
+
+        // Then
+        assertEquals(QueryPlanner.AccessPath.INDEX_INTERSECTION, plan.path());
+        assertTrue(plan.indexed().size() >= 2);
+        assertEquals(plan.alternatives().get(QueryPlanner.AccessPath.INDEX_INTERSECTION), plan.cost());
+    }
+
+    @Test
+    void plan_WithoutIndexes_ShouldScanCheckingCheapestRejectionFirst() {
+        // Given
+        UserFilter filter = filter(f -> {
+            f.setMinAge(20);
+            f.setCity("Legal City");
+        });
+
+        // When
+        QueryPlanner.Plan plan = QueryPlanner.plan(STATISTICS_ONLY, "odd", filter);
+
+        // Then
+        assertEquals(QueryPlanner.AccessPath.FULL_SCAN, plan.path());
+        assertEquals("city = Legal City", plan.verified().get(0).description());
+        assertEquals(3, plan.verified().size());
+        assertEquals(List.of(QueryPlanner.AccessPath.FULL_SCAN), List.copyOf(plan.alternatives().keySet()));
+    }
+
+    @Test
+    void plan_WithoutCriteria_ShouldReadAllRows() {
+        // When
+        QueryPlanner.Plan plan = QueryPlanner.plan(INDEXED, "  ", new UserFilter());
+
+        // Then
+        assertEquals(QueryPlanner.AccessPath.ALL_ROWS, plan.path());
+        assertEquals(4_000, plan.estimatedRows());
+    }
+
+    @Test
+    void plan_WithNearest_ShouldWalkForBroadCriteriaAndFilterFirstForRareOnes() {
+        // Given
+        UserFilter broad = filter(f -> {
+            f.setLat(20.0);
+            f.setLng(-80.0);
+            f.setNearest(5);
+            f.setDepartment("HR");
+        });
+        UserFilter rare = filter(f -> {
+            f.setLat(20.0);
+            f.setLng(-80.0);
+            f.setNearest(5);
+            f.setCity("Legal City");
+        });
+
+        // When
+        QueryPlanner.Plan walk = QueryPlanner.plan(INDEXED, null, broad);
+        QueryPlanner.Plan filterFirst = QueryPlanner.plan(INDEXED, null, rare);
+        QueryPlanner.Plan nearestOnly = QueryPlanner.plan(PLAIN, null, filter(f -> {
+            f.setLat(20.0);
+            f.setLng(-80.0);
+            f.setNearest(5);
+        }));
+
+        // Then
+        assertEquals(QueryPlanner.AccessPath.NEAREST_WALK, walk.path());
+        assertEquals(QueryPlanner.AccessPath.INDEX_INTERSECTION, filterFirst.path());
+        assertTrue(filterFirst.cost() < filterFirst.alternatives().get(QueryPlanner.AccessPath.NEAREST_WALK));
+        assertEquals(QueryPlanner.AccessPath.NEAREST_WALK, nearestOnly.path());
+    }
+
+    @Test
+    void plan_WithNearestOnLargeSnapshot_ShouldNotOverflowVisitedRows() {
+        // Given
+        UserStore store = mock(UserStore.class);
+        when(store.size()).thenReturn(3_000_000);
+        UserFilter filter = filter(f -> {
+            f.setLat(20.0);
+            f.setLng(-80.0);
+            f.setNearest(1_000);
+        });
+
+        // When
+        QueryPlanner.Plan plan = QueryPlanner.plan(new UserSnapshot(1L, store), null, filter);
+
+        // Then
+        assertEquals(QueryPlanner.AccessPath.NEAREST_WALK, plan.path());
+        assertEquals(1_000 * QueryPlanner.WALK_ROW_COST, plan.cost(), 1e-9);
+    }
+
+    @Test
+    void select_ShouldReturnSameRowsWhicheverPathIsChosen() {
+        List<Consumer<UserFilter>> filters = List.of(
+                f -> f.setCity("Legal City"),
+                f -> {
+                    f.setDepartment("hr");
+                    f.setMinAge(30);
+                    f.setMaxAge(40);
+                },
+                f -> {
+                    f.setMinLat(5.0);
+                    f.setMaxLat(25.0);
+                    f.setMinLng(-95.0);
+                    f.setMaxLng(-70.0);
+                    f.setMaxWeight(70.0);
+                },
+                f -> {
+                    f.setLat(20.0);
+                    f.setLng(-80.0);
+                    f.setRadiusKm(800.0);
+                    f.setCountry("Canada");
+                },
+                f -> {
+                    f.setLat(20.0);
+                    f.setLng(-80.0);
+                    f.setNearest(25);
+                    f.setDepartment("Sales");
+                },
+                f -> {
+                    f.setLat(20.0);
+                    f.setLng(-80.0);
+                    f.setNearest(3);
+                    f.setCity("Legal City");
+                },
+                f -> {
+                    f.setSearch("odf");
+                    f.setDepartment("Legal");
+                });
+        for (String name : new String[]{null, "odd"}) {
+            for (Consumer<UserFilter> customizer : filters) {
+                UserFilter filter = filter(customizer);
+
+                // When
+                QueryPlanner.Selection indexed = QueryPlanner.select(INDEXED, name, filter, 50, SCANNER);
+                QueryPlanner.Selection scanned = QueryPlanner.select(STATISTICS_ONLY, name, filter, 50, SCANNER);
+                QueryPlanner.Selection plain = QueryPlanner.select(PLAIN, name, filter, 50, SCANNER);
+
+                // Then
+                String message = name + " " + filter;
+                assertArrayEquals(first(plain.rows(), 50), first(indexed.rows(), 50), message);
+                assertArrayEquals(first(plain.rows(), 50), first(scanned.rows(), 50), message);
+                assertEquals(plain.total(), scanned.total(), message);
+                assertEquals(plain.total(), indexed.total(), message);
+                assertTrue(indexed.total() > 0, message);
+            }
+        }
+    }
+
+    @Test
+    void select_ShouldMatchUsersSatisfyingEveryCriterion() {
+        // Given
+        UserFilter filter = filter(f -> {
+            f.setDepartment("HR");
+            f.setMinAge(30);
+            f.setMaxLat(20.0);
+            f.setMinLat(-90.0);
+            f.setMinLng(-180.0);
+            f.setMaxLng(180.0);
+        });
+
+        // When
+        QueryPlanner.Selection selection = QueryPlanner.select(INDEXED, "ODD ", filter, Integer.MAX_VALUE, SCANNER);
+
+        // Then
+        Predicate<User> expected = user -> "HR".equals(user.getCompany().getDepartment())
+                && user.getAge() != null && user.getAge() >= 30
+                && user.getAddress().getCoordinates() != null && user.getAddress().getCoordinates().getLat() <= 20
+                && user.getLastName().equals("Odd");
+        assertArrayEquals(IntStream.range(0, USERS.size()).filter(row -> expected.test(USERS.get(row))).toArray(),
+                selection.rows());
+    }
+
+    @Test
+    void explain_ShouldDescribeStepsAndAlternatives() {
+        // Given
+        UserFilter filter = filter(f -> {
+            f.setCity("Legal City");
+            f.setMinAge(20);
+        });
+        QueryPlanner.Selection selection = QueryPlanner.select(INDEXED, null, filter, 10, SCANNER);
+
+        // When
+        QueryPlan plan = QueryPlanner.explain(selection, filter);
+
+        // Then
+        assertEquals("INDEX_INTERSECTION", plan.getAccessPath());
+        assertEquals("snapshot", plan.getOrder());
+        assertEquals(selection.total(), plan.getActualRows());
+        assertEquals(List.of("index", "verify"), plan.getSteps().stream().map(QueryPlan.Step::getMethod).toList());
+        assertEquals(0.002, plan.getSteps().get(0).getSelectivity());
+        assertEquals(List.of("FULL_SCAN", "INDEX_INTERSECTION"), List.copyOf(plan.getAlternatives().keySet()));
+        assertEquals("nearest", QueryPlanner.explain(QueryPlanner.select(PLAIN, null, filter(f -> {
+            f.setLat(0.0);
+            f.setLng(0.0);
+            f.setNearest(1);
+        }), 1, SCANNER), filter(f -> f.setNearest(1))).getOrder());
+        assertEquals("search", QueryPlanner.explain(selection, filter(f -> f.setSearch("jo"))).getOrder());
+    }
+
+    private static int[] first(int[] rows, int count) {
+        return Arrays.copyOf(rows, Math.min(rows.length, count));
+    }
+
+    private static List<String> descriptions(List<QueryPlanner.Criterion> criteria) {
+        return criteria.stream().map(QueryPlanner.Criterion::description).toList();
+    }
+
+    private static UserFilter filter(Consumer<UserFilter> customizer) {
+        UserFilter filter = new UserFilter();
+        customizer.accept(filter);
+        return filter;
+    }
+
+    private static UserSnapshot indexed(DerivedIndexFactory<?>... factories) {
+        UserSnapshotIndexer indexer = new UserSnapshotIndexer(List.of(factories), event -> { },
+                new UserMetrics(new SimpleMeterRegistry()), 1);
+        return indexer.index(new UserSnapshot(1L, CompactUserSnapshot.from(USERS)));
+    }
+
+    private static List<User> randomUsers(int count) {
+        String[] departments = {"HR", "Sales", "Engineering", "Legal"};
+        Random random = new Random(11);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setFirstName("First" + i);
+            user.setLastName(i % 2 == 0 ? "Even" : "Odd");
+            user.setAge(i % 10 == 0 ? null : 18 + random.nextInt(50));
+            user.setWeight(50 + random.nextDouble() * 50);
+            User.Address.Coordinates coordinates = i % 5 == 0 ? null
+                    : new User.Address.Coordinates(random.nextDouble() * 40, random.nextDouble() * 40 - 100);
+            user.setAddress(new User.Address(null, i % 1_000 < 2 ? "Legal City" : "Phoenix", null, null, null,
+                    coordinates, i % 20 == 1 ? "Canada" : "United States"));
+            user.setCompany(new User.Company(departments[random.nextInt(4)], null, null, null));
+            users.add(user);
+        }
+        return users;
+    }
+}
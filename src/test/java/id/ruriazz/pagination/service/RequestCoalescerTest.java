@@ -0,0 +1,167 @@
+package id.ruriazz.pagination.service;
+
+import id.ruriazz.pagination.exception.CoalescedRequestTimeoutException;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(new UserMetrics(meterRegistry),
+            Duration.ofSeconds(5));
+
+    @Test
+    void execute_WithConcurrentIdenticalKeys_ShouldComputeOnceAndShareResult() throws Exception {
+        // Given
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> computation = () -> {
+            computations.incrementAndGet();
+            await(release);
+            return "page";
+        };
+        ConcurrentLinkedQueue<Object> results = new ConcurrentLinkedQueue<>();
+        Thread leader = start(() -> results.add(coalescer.execute("key", computation)));
+        awaitState(leader, Thread.State.WAITING, Thread.State.TIMED_WAITING);
+
+        // When
+        List<Thread> waiters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            waiters.add(start(() -> results.add(coalescer.execute("key", computation))));
+        }
+        for (Thread waiter : waiters) {
+            awaitState(waiter, Thread.State.TIMED_WAITING);
+        }
+        release.countDown();
+        leader.join(5_000);
+        for (Thread waiter : waiters) {
+            waiter.join(5_000);
+        }
+
+        // Then
+        assertEquals(1, computations.get());
+        assertEquals(List.of("page", "page", "page", "page", "page"), List.copyOf(results));
+        assertEquals(1, count("computed"));
+        assertEquals(4, count("shared"));
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void execute_AfterCompletion_ShouldComputeAgain() {
+        // When
+        String first = coalescer.execute("key", () -> "first");
+        String second = coalescer.execute("key", () -> "second");
+        String other = coalescer.execute("other", () -> "other");
+
+        // Then
+        assertEquals("first", first);
+        assertEquals("second", second);
+        assertEquals("other", other);
+        assertEquals(3, count("computed"));
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void execute_WhenComputationFails_ShouldShareFailureAndForgetKey() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Runnable call = () -> {
+            try {
+                coalescer.execute("key", () -> {
+                    await(release);
+                    throw new IllegalStateException("boom");
+                });
+            } catch (IllegalStateException e) {
+                failures.add(e);
+            }
+        };
+        Thread leader = start(call);
+        awaitState(leader, Thread.State.WAITING, Thread.State.TIMED_WAITING);
+        Thread waiter = start(call);
+        awaitState(waiter, Thread.State.TIMED_WAITING);
+
+        // When
+        release.countDown();
+        leader.join(5_000);
+        waiter.join(5_000);
+
+        // Then
+        assertEquals(2, failures.size());
+        assertTrue(failures.stream().allMatch(failure -> "boom".equals(failure.getMessage())));
+        assertEquals(0, coalescer.inFlight());
+        assertThrows(AssertionError.class, () -> coalescer.execute("key", () -> {
+            throw new AssertionError("error");
+        }));
+    }
+
+    @Test
+    void execute_WhenWaiterTimesOut_ShouldThrowAndLeaveComputationRunning() throws Exception {
+        // Given
+        RequestCoalescer impatient = new RequestCoalescer(new UserMetrics(meterRegistry), Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Thread leader = start(() -> impatient.execute("key", () -> {
+            await(release);
+            return "late";
+        }));
+        awaitState(leader, Thread.State.WAITING, Thread.State.TIMED_WAITING);
+
+        // When
+        CoalescedRequestTimeoutException exception = assertThrows(CoalescedRequestTimeoutException.class,
+                () -> impatient.execute("key", () -> "never"));
+
+        // Then
+        assertTrue(exception.getMessage().contains("50 ms"));
+        assertEquals(1, count("timed_out"));
+        assertEquals(1, impatient.inFlight());
+        release.countDown();
+        leader.join(5_000);
+        assertEquals(0, impatient.inFlight());
+    }
+
+    @Test
+    void constructor_WithNonPositiveTimeout_ShouldThrowException() {
+        UserMetrics userMetrics = new UserMetrics(new SimpleMeterRegistry());
+        assertThrows(IllegalArgumentException.class, () -> new RequestCoalescer(userMetrics, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RequestCoalescer(userMetrics, Duration.ofSeconds(-1)));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("users.requests.coalesced").tag("outcome", outcome).counter().count();
+    }
+
+    private static Thread start(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitState(Thread thread, Thread.State... states) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!List.of(states).contains(thread.getState())) {
+            assertTrue(System.nanoTime() < deadline, "thread did not block");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
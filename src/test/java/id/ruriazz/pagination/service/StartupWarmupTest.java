@@ -0,0 +1,205 @@
+package id.ruriazz.pagination.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ruriazz.pagination.metrics.TimedJacksonHttpMessageConverter;
+import id.ruriazz.pagination.dto.PaginationResponse;
+import id.ruriazz.pagination.dto.UserFilter;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshotProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.converter.StringHttpMessageConverter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class StartupWarmupTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserMetrics userMetrics = new UserMetrics(meterRegistry);
+    private HttpMessageConverters converters;
+    private UserSnapshotProvider userSnapshotProvider;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userSnapshotProvider = mock(UserSnapshotProvider.class);
+        userService = mock(UserService.class);
+        converters = new HttpMessageConverters(false,
+                List.of(new TimedJacksonHttpMessageConverter(new ObjectMapper(), userMetrics)));
+    }
+
+    @Test
+    void health_BeforeWarmup_ShouldBeOutOfService() {
+        // When
+        StartupWarmup warmup = warmup(true, Duration.ofMinutes(1));
+
+        // Then
+        assertEquals(Status.OUT_OF_SERVICE, warmup.health().getStatus());
+        assertTrue(Double.isNaN(warmupSeconds()));
+    }
+
+    @Test
+    void run_WithLoadedSnapshot_ShouldRunEveryQueryKindAndReportUp() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(new UserSnapshot(7, CompactUserSnapshot.from(users())));
+        when(userService.getUsers(anyInt(), anyInt(), any())).thenReturn(new PaginationResponse<>(1, 10, 0, List.of()));
+        StartupWarmup warmup = warmup(true, Duration.ofMinutes(1));
+
+        // When
+        warmup.run();
+
+        // Then
+        assertEquals(Status.UP, warmup.health().getStatus());
+        assertEquals("completed", warmup.health().getDetails().get("state"));
+        assertEquals(7L, warmup.health().getDetails().get("snapshotVersion"));
+        assertEquals(30L, warmup.health().getDetails().get("queries"));
+        verify(userService, times(3)).getUsers(1, 10, null);
+        verify(userService, times(3)).getUsers(1, 10, "Jo");
+        verify(userService, times(3)).suggest("Jo", 10);
+        verify(userService, times(3)).getUsers(eq(1), eq(10), isNull(), any(UserFilter.class), isNull(), eq(true));
+        verify(userService, times(3)).getFacets(eq(List.of("department", "age")), isNull(), any(), isNull());
+        verify(userService, times(12)).getUsers(eq(1), eq(10), any(), any(UserFilter.class), isNull());
+        assertTrue(warmupSeconds() >= 0);
+        assertEquals(0, meterRegistry.get("users.pipeline.stage").tag("stage", "serialize").timer().count());
+        assertTrue(userMetrics.isRecording());
+    }
+
+    @Test
+    void run_WithoutJsonConverter_ShouldStillReportUp() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(new UserSnapshot(7, CompactUserSnapshot.from(users())));
+        when(userService.getUsers(anyInt(), anyInt(), any())).thenReturn(new PaginationResponse<>(1, 10, 0, List.of()));
+        converters = new HttpMessageConverters(false, List.of(new StringHttpMessageConverter()));
+        StartupWarmup warmup = warmup(true, Duration.ofMinutes(1));
+
+        // When
+        warmup.run();
+
+        // Then
+        assertEquals("completed", warmup.health().getDetails().get("state"));
+        verify(userService).getUsers(1, 10, null);
+    }
+
+    @Test
+    void run_WhenLoadFailsOnce_ShouldRetry() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot())
+                .thenThrow(new RuntimeException("External API is unreachable"))
+                .thenReturn(new UserSnapshot(7, CompactUserSnapshot.from(List.of())));
+        StartupWarmup warmup = warmup(true, Duration.ofMinutes(1));
+
+        // When
+        warmup.run();
+
+        // Then
+        verify(userSnapshotProvider, times(2)).currentSnapshot();
+        assertEquals("completed", warmup.health().getDetails().get("state"));
+        assertEquals(6L, warmup.health().getDetails().get("queries"));
+    }
+
+    @Test
+    void run_WhenSnapshotCannotBeLoadedInTime_ShouldSkipAndReportUp() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenThrow(new RuntimeException("External API is unreachable"));
+        StartupWarmup warmup = warmup(true, Duration.ZERO);
+
+        // When
+        warmup.run();
+
+        // Then
+        assertEquals(Status.UP, warmup.health().getStatus());
+        assertEquals("skipped", warmup.health().getDetails().get("state"));
+        assertEquals("External API is unreachable", warmup.health().getDetails().get("error"));
+        verifyNoInteractions(userService);
+        assertTrue(warmupSeconds() >= 0);
+    }
+
+    @Test
+    void run_WhenQueryFails_ShouldStillReportUp() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(new UserSnapshot(7, CompactUserSnapshot.from(users())));
+        when(userService.getUsers(anyInt(), anyInt(), any(), any(), any(), anyBoolean()))
+                .thenThrow(new IllegalArgumentException("Invalid filter"));
+        StartupWarmup warmup = warmup(true, Duration.ofMinutes(1));
+
+        // When
+        warmup.run();
+
+        // Then
+        assertEquals(Status.UP, warmup.health().getStatus());
+    }
+
+    @Test
+    void start_WhenEnabled_ShouldWarmUpInBackground() throws Exception {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(new UserSnapshot(7, CompactUserSnapshot.from(List.of())));
+        StartupWarmup warmup = warmup(true, Duration.ofMinutes(1));
+
+        // When
+        warmup.start();
+
+        // Then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (warmup.health().getStatus() != Status.UP && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("completed", warmup.health().getDetails().get("state"));
+    }
+
+    @Test
+    void start_WhenDisabled_ShouldReportUpWithoutWarmingUp() {
+        // Given
+        StartupWarmup warmup = warmup(false, Duration.ofMinutes(1));
+
+        // When
+        warmup.start();
+
+        // Then
+        assertEquals(Status.UP, warmup.health().getStatus());
+        assertEquals("disabled", warmup.health().getDetails().get("state"));
+        verifyNoInteractions(userSnapshotProvider, userService);
+    }
+
+    @Test
+    void constructor_WithInvalidSettings_ShouldReject() {
+        assertThrows(IllegalArgumentException.class, () -> new StartupWarmup(userSnapshotProvider, userService,
+                converters, userMetrics, true, -1, Duration.ofMinutes(1), Duration.ofMillis(1)));
+        assertThrows(IllegalArgumentException.class, () -> new StartupWarmup(userSnapshotProvider, userService,
+                converters, userMetrics, true, 1, Duration.ofMinutes(1), Duration.ZERO));
+    }
+
+    private StartupWarmup warmup(boolean enabled, Duration timeout) {
+        return new StartupWarmup(userSnapshotProvider, userService, converters, userMetrics, enabled, 3, timeout,
+                Duration.ofMillis(1));
+    }
+
+    private double warmupSeconds() {
+        return meterRegistry.get("users.warmup.duration").timeGauge().value(TimeUnit.SECONDS);
+    }
+
+    private static List<User> users() {
+        User user = new User();
+        user.setId(1L);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setAddress(new User.Address(null, "Phoenix", null, null, null,
+                new User.Address.Coordinates(33.4, -112.0), "United States"));
+        user.setCompany(new User.Company("Engineering", null, null, null));
+        return List.of(user);
+    }
+}
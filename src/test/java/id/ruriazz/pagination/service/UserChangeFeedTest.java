@@ -0,0 +1,272 @@
+package id.ruriazz.pagination.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ruriazz.pagination.controller.UserController;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.SnapshotDiff;
+import id.ruriazz.pagination.snapshot.UserSnapshotProvider;
+import id.ruriazz.pagination.snapshot.UserStore;
+import id.ruriazz.pagination.snapshot.UsersChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class UserChangeFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserSnapshotProvider userSnapshotProvider;
+    private UserChangeFeed feed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userSnapshotProvider = mock(UserSnapshotProvider.class);
+        feed = new UserChangeFeed(userSnapshotProvider, new ObjectMapper(), new UserMetrics(meterRegistry),
+                Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofMillis(200), 2, 2);
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(mock(UserService.class), feed)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.destroy();
+    }
+
+    @Test
+    void onUsersChanged_WithSubscribers_ShouldPushChangedIdsToEach() throws Exception {
+        // Given
+        MockHttpServletResponse first = subscribe();
+        MockHttpServletResponse second = subscribe();
+        UserStore previous = store(1, 2, 3);
+        UserStore next = store(2, 4);
+        SnapshotDiff diff = SnapshotDiff.between(previous, next);
+
+        // When
+        feed.onUsersChanged(new UsersChangedEvent(100, 200, diff));
+
+        // Then
+        String expected = "id:200\nevent:users-changed\n"
+                + "data:{\"previousVersion\":100,\"version\":200,\"added\":[4],\"updated\":[],\"removed\":[1,3]}\n\n";
+        assertEquals(expected, awaitContent(first, expected));
+        assertEquals(expected, awaitContent(second, expected));
+        assertEquals("text/event-stream", first.getContentType());
+        assertEquals(2, feed.subscribers());
+        assertEquals(2, meterRegistry.get("users.changes.subscribers").gauge().value());
+    }
+
+    @Test
+    void onUsersChanged_WithoutSubscribers_ShouldDoNothing() {
+        // When
+        feed.onUsersChanged(new UsersChangedEvent(0, 1, SnapshotDiff.initial(store(1))));
+
+        // Then
+        assertEquals(0, feed.subscribers());
+    }
+
+    @Test
+    void check_WithSubscribers_ShouldReadCurrentSnapshotAndSendKeepAlive() throws Exception {
+        // Given
+        MockHttpServletResponse response = subscribe();
+
+        // When
+        feed.check();
+
+        // Then
+        verify(userSnapshotProvider).currentSnapshot();
+        assertEquals(":keep-alive\n\n", awaitContent(response, ":keep-alive\n\n"));
+    }
+
+    @Test
+    void check_WhenSnapshotCannotBeLoaded_ShouldStillSendKeepAlive() throws Exception {
+        // Given
+        MockHttpServletResponse response = subscribe();
+        when(userSnapshotProvider.currentSnapshot()).thenThrow(new RuntimeException("External API is unreachable"));
+
+        // When
+        feed.check();
+
+        // Then
+        assertEquals(":keep-alive\n\n", awaitContent(response, ":keep-alive\n\n"));
+        assertEquals(1, feed.subscribers());
+    }
+
+    @Test
+    void check_WithoutSubscribers_ShouldNotReadSnapshot() {
+        // When
+        feed.check();
+
+        // Then
+        verifyNoInteractions(userSnapshotProvider);
+    }
+
+    @Test
+    void check_WhenSubscriberCompleted_ShouldDropIt() throws Exception {
+        // Given
+        feed.subscribe().complete();
+
+        // When
+        feed.check();
+
+        // Then
+        awaitSubscribers(0);
+        assertEquals(0, feed.subscribers());
+        assertEquals(0, meterRegistry.get("users.changes.subscribers").gauge().value());
+    }
+
+    @Test
+    void onUsersChanged_WithBlockedSubscriber_ShouldKeepServingOthersAndDropIt() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter blocked = new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Broken pipe");
+            }
+        };
+        feed.subscribe(blocked);
+        MockHttpServletResponse fast = subscribe();
+
+        // When
+        for (int version = 1; version <= 4; version++) {
+            feed.onUsersChanged(new UsersChangedEvent(version - 1, version, SnapshotDiff.initial(store(version))));
+            awaitContent(fast, "\"version\":" + version + ",");
+        }
+
+        // Then
+        String content = fast.getContentAsString();
+        assertEquals(4, content.split("event:users-changed").length - 1, content);
+        awaitSubscribers(1);
+        assertEquals(1, feed.subscribers());
+        release.countDown();
+    }
+
+    @Test
+    void onUsersChanged_WithMoreStalledSubscribersThanSenders_ShouldStillReachHealthyOne() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            feed.subscribe(new SseEmitter() {
+                @Override
+                public void send(Set<DataWithMediaType> items) {
+                    // A socket write that does not react to interrupts
+                    boolean released = false;
+                    while (!released) {
+                        try {
+                            released = release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            // keep blocking
+                        }
+                    }
+                }
+            });
+        }
+        MockHttpServletResponse healthy = subscribe();
+
+        // When
+        feed.onUsersChanged(new UsersChangedEvent(0, 1, SnapshotDiff.initial(store(1))));
+
+        // Then
+        try {
+            assertTrue(awaitContent(healthy, "\"version\":1,").contains("\"version\":1,"));
+            awaitSubscribers(1);
+            assertEquals(1, feed.subscribers());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void constructor_WithoutSendersOrPendingLimit_ShouldReject() {
+        UserMetrics userMetrics = new UserMetrics(meterRegistry);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertThrows(IllegalArgumentException.class, () -> new UserChangeFeed(userSnapshotProvider, objectMapper,
+                userMetrics, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new UserChangeFeed(userSnapshotProvider, objectMapper,
+                userMetrics, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1), 1, 0));
+    }
+
+    @Test
+    void destroy_ShouldCompleteAndForgetSubscribers() throws Exception {
+        // Given
+        subscribe();
+
+        // When
+        feed.destroy();
+
+        // Then
+        assertEquals(0, feed.subscribers());
+    }
+
+    @Test
+    void constructor_WithNonPositiveDurations_ShouldReject() {
+        UserMetrics userMetrics = new UserMetrics(meterRegistry);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertThrows(IllegalArgumentException.class, () -> new UserChangeFeed(userSnapshotProvider, objectMapper,
+                userMetrics, Duration.ZERO, Duration.ofSeconds(1), Duration.ofSeconds(1), 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new UserChangeFeed(userSnapshotProvider, objectMapper,
+                userMetrics, Duration.ofSeconds(1), Duration.ofSeconds(-1), Duration.ofSeconds(1), 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new UserChangeFeed(userSnapshotProvider, objectMapper,
+                userMetrics, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ZERO, 1, 1));
+    }
+
+    private MockHttpServletResponse subscribe() throws Exception {
+        return mockMvc.perform(get("/api/users/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!response.getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return response.getContentAsString();
+    }
+
+    private void awaitSubscribers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (feed.subscribers() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static UserStore store(long... ids) {
+        List<User> users = new ArrayList<>();
+        for (long id : ids) {
+            User user = new User();
+            user.setId(id);
+            user.setFirstName("User" + id);
+            user.setLastName("Test");
+            users.add(user);
+        }
+        return CompactUserSnapshot.from(users);
+    }
+}
@@ -1,18 +1,39 @@
 package id.ruriazz.pagination.service;
 
-import id.ruriazz.pagination.client.DummyJsonClient;
-import id.ruriazz.pagination.dto.DummyJsonResponse;
+import id.ruriazz.pagination.dto.FacetResponse;
 import id.ruriazz.pagination.dto.PaginationResponse;
+import id.ruriazz.pagination.dto.QueryPlan;
+import id.ruriazz.pagination.dto.SuggestResponse;
+import id.ruriazz.pagination.dto.UserFilter;
+import id.ruriazz.pagination.dto.UserSuggestion;
+import id.ruriazz.pagination.exception.InvalidRequestException;
+import id.ruriazz.pagination.index.FilterIndex;
+import id.ruriazz.pagination.index.NameGramIndex;
+import id.ruriazz.pagination.index.NameTrie;
+import id.ruriazz.pagination.index.SpatialIndex;
+import id.ruriazz.pagination.metrics.UserMetrics;
 import id.ruriazz.pagination.model.User;
+import id.ruriazz.pagination.snapshot.CompactUserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshot;
+import id.ruriazz.pagination.snapshot.UserSnapshotIndexer;
+import id.ruriazz.pagination.snapshot.UserSnapshotProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,13 +42,27 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
 
     @Mock
-    private DummyJsonClient dummyJsonClient;
+    private UserSnapshotProvider userSnapshotProvider;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UserMetrics userMetrics = new UserMetrics(meterRegistry);
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(UserService.FACET_CACHE);
+
+    @Spy
+    private ParallelScanner parallelScanner = new ParallelScanner(2, 2);
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer(userMetrics, Duration.ofSeconds(5));
 
     @InjectMocks
     private UserService userService;
 
     private List<User> mockUsers;
-    private DummyJsonResponse mockResponse;
+    private UserSnapshot mockSnapshot;
 
     @BeforeEach
     void setUp() {
@@ -68,17 +103,13 @@ class UserServiceTest {
 
         mockUsers = Arrays.asList(user1, user2, user3, user4, user5);
 
-        mockResponse = new DummyJsonResponse();
-        mockResponse.setUsers(mockUsers);
-        mockResponse.setTotal(5);
-        mockResponse.setSkip(0);
-        mockResponse.setLimit(5);
+        mockSnapshot = new UserSnapshot(1L, CompactUserSnapshot.from(mockUsers));
     }
 
     @Test
     void getUsers_WithDefaultParameters_ShouldReturnFirstPage() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result = userService.getUsers(1, 10, null);
@@ -90,13 +121,13 @@ class UserServiceTest {
         assertEquals(5, result.getTotalItems());
         assertEquals(1, result.getTotalPages());
         assertEquals(5, result.getData().size());
-        verify(dummyJsonClient, times(1)).fetchAllUsers();
+        verify(userSnapshotProvider, times(1)).currentSnapshot();
     }
 
     @Test
     void getUsers_WithCustomPageSize_ShouldReturnCorrectPagination() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result = userService.getUsers(1, 2, null);
@@ -115,7 +146,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithSecondPage_ShouldReturnCorrectUsers() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result = userService.getUsers(2, 2, null);
@@ -134,7 +165,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithPageBeyondRange_ShouldReturnEmptyData() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result = userService.getUsers(10, 2, null);
@@ -151,7 +182,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithNameFilter_ShouldReturnFilteredUsers() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result = userService.getUsers(1, 10, "John");
@@ -170,7 +201,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithCaseInsensitiveNameFilter_ShouldReturnFilteredUsers() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result = userService.getUsers(1, 10, "emily");
@@ -184,7 +215,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithEmptyNameFilter_ShouldReturnAllUsers() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result1 = userService.getUsers(1, 10, "");
@@ -198,23 +229,33 @@ class UserServiceTest {
     @Test
     void getUsers_WithInvalidPage_ShouldThrowException() {
         // When & Then
-        IllegalArgumentException exception1 = assertThrows(IllegalArgumentException.class,
+        InvalidRequestException exception1 = assertThrows(InvalidRequestException.class,
                 () -> userService.getUsers(0, 10, null));
         assertEquals("Page must be greater than 0", exception1.getMessage());
 
-        IllegalArgumentException exception2 = assertThrows(IllegalArgumentException.class,
+        InvalidRequestException exception2 = assertThrows(InvalidRequestException.class,
                 () -> userService.getUsers(-1, 10, null));
         assertEquals("Page must be greater than 0", exception2.getMessage());
     }
 
+    @Test
+    void getUsers_WithInvalidPage_ShouldThrowStacklessInvalidRequestException() {
+        // When
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> userService.getUsers(0, 10, null));
+
+        // Then
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
     @Test
     void getUsers_WithInvalidSize_ShouldThrowException() {
         // When & Then
-        IllegalArgumentException exception1 = assertThrows(IllegalArgumentException.class,
+        InvalidRequestException exception1 = assertThrows(InvalidRequestException.class,
                 () -> userService.getUsers(1, 0, null));
         assertEquals("Size must be greater than 0", exception1.getMessage());
 
-        IllegalArgumentException exception2 = assertThrows(IllegalArgumentException.class,
+        InvalidRequestException exception2 = assertThrows(InvalidRequestException.class,
                 () -> userService.getUsers(1, -1, null));
         assertEquals("Size must be greater than 0", exception2.getMessage());
     }
@@ -222,7 +263,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithSizeExceedsLimit_ShouldThrowException() {
         // When & Then
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
                 () -> userService.getUsers(1, 101, null));
         assertEquals("Size cannot exceed 100", exception.getMessage());
     }
@@ -230,7 +271,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithExactSizeLimit_ShouldWork() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result = userService.getUsers(1, 100, null);
@@ -244,7 +285,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithPartialLastPage_ShouldReturnRemainingUsers() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When
         PaginationResponse<User> result = userService.getUsers(3, 2, null);
@@ -262,7 +303,7 @@ class UserServiceTest {
     @Test
     void getUsers_WithFilterAndPagination_ShouldWork() {
         // Given
-        when(dummyJsonClient.fetchAllUsers()).thenReturn(mockResponse);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
 
         // When - Filter for names containing "a" and paginate
         PaginationResponse<User> result = userService.getUsers(1, 2, "a");
@@ -275,4 +316,527 @@ class UserServiceTest {
         assertEquals(2, result.getTotalPages());
         assertEquals(2, result.getData().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUsers_ShouldRecordPipelineStageTimings() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+
+        // When
+        userService.getUsers(1, 2, "a");
+
+        // Then
+        for (String stage : List.of("cache", "filter", "paginate")) {
+            assertEquals(1, meterRegistry.get("users.pipeline.stage").tag("stage", stage).timer().count());
+        }
+        assertEquals(0, meterRegistry.get("users.pipeline.stage").tag("stage", "fetch").timer().count());
+    }
+
+    @Test
+    void getUsers_ShouldMaterializeReturnedUsersFromSnapshot() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+
+        // When
+        PaginationResponse<User> result = userService.getUsers(1, 10, "john");
+
+        // Then
+        assertEquals(mockUsers.get(0), result.getData().get(0));
+        assertEquals(mockUsers.get(2), result.getData().get(1));
+    }
+
+    @Test
+    void getUsers_ShouldReportSnapshotVersion() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+
+        // When
+        PaginationResponse<User> result = userService.getUsers(1, 10, null);
+
+        // Then
+        assertEquals(1L, result.getSnapshotVersion());
+    }
+
+    @Test
+    void getUsers_WithAsOf_ShouldReadPinnedSnapshot() {
+        // Given
+        UserSnapshot pinned = new UserSnapshot(7L, CompactUserSnapshot.from(mockUsers.subList(0, 2)));
+        when(userSnapshotProvider.snapshotAt(7L)).thenReturn(pinned);
+
+        // When
+        PaginationResponse<User> result = userService.getUsers(1, 10, null, 7L);
+
+        // Then
+        assertEquals(7L, result.getSnapshotVersion());
+        assertEquals(2, result.getTotalItems());
+        verify(userSnapshotProvider, never()).currentSnapshot();
+    }
+
+    @Test
+    void getUsers_WithAttributeAndRangeFilters_ShouldUseFilterIndex() {
+        // Given
+        UserSnapshot indexed = withDepartments();
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(indexed);
+        UserFilter filter = new UserFilter();
+        filter.setDepartment("hr");
+        filter.setMinAge(29);
+
+        // When
+        PaginationResponse<User> result = userService.getUsers(1, 10, null, filter, null);
+
+        // Then
+        assertNotNull(indexed.indexes().get(FilterIndex.class));
+        assertEquals(1, result.getTotalItems());
+        assertEquals("John", result.getData().get(0).getFirstName());
+    }
+
+    @Test
+    void getUsers_WithEquivalentQueries_ShouldCoalesceOnSameKey() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+        ArgumentCaptor<Object> keys = ArgumentCaptor.forClass(Object.class);
+
+        // When
+        PaginationResponse<User> first = userService.getUsers(1, 10, "John");
+        PaginationResponse<User> second = userService.getUsers(1, 10, "  jOHN ");
+        userService.getUsers(1, 10, "   ");
+        userService.getUsers(1, 10, null);
+        userService.getUsers(2, 10, "John");
+
+        // Then
+        verify(requestCoalescer, times(5)).execute(keys.capture(), any());
+        List<Object> captured = keys.getAllValues();
+        assertEquals(captured.get(0), captured.get(1));
+        assertEquals(captured.get(2), captured.get(3));
+        assertNotEquals(captured.get(0), captured.get(4));
+        assertEquals(first.getData(), second.getData());
+    }
+
+    @Test
+    void getUsers_WithAttributeFiltersDifferingInCase_ShouldCoalesceOnSameKey() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+        ArgumentCaptor<Object> keys = ArgumentCaptor.forClass(Object.class);
+        UserFilter upper = new UserFilter();
+        upper.setCity("Tokyo");
+        upper.setSearch("John");
+        UserFilter lower = new UserFilter();
+        lower.setCity(" tokyo ");
+        lower.setSearch("john");
+
+        // When
+        userService.getUsers(1, 10, null, upper, null);
+        userService.getUsers(1, 10, null, lower, null);
+
+        // Then
+        verify(requestCoalescer, times(2)).execute(keys.capture(), any());
+        assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertEquals("Tokyo", upper.getCity());
+    }
+
+    @Test
+    void getUsers_WithExplain_ShouldDescribeQueryPlan() {
+        // Given
+        UserSnapshot indexed = withDepartments();
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(indexed);
+        UserFilter filter = new UserFilter();
+        filter.setDepartment("hr");
+        filter.setMinAge(29);
+
+        // When
+        PaginationResponse<User> explained = userService.getUsers(1, 10, null, filter, null, true);
+        PaginationResponse<User> plain = userService.getUsers(1, 10, null, filter, null);
+
+        // Then
+        QueryPlan plan = explained.getPlan();
+        assertEquals("INDEX_INTERSECTION", plan.getAccessPath());
+        assertEquals("snapshot", plan.getOrder());
+        assertEquals(1, plan.getActualRows());
+        assertEquals(List.of("department = hr", "age in [29.0, ]"),
+                plan.getSteps().stream().map(QueryPlan.Step::getCriterion).toList());
+        assertEquals(plain.getData(), explained.getData());
+        assertNull(plain.getPlan());
+    }
+
+    @Test
+    void getUsers_WithFiltersAndName_ShouldMatchScanWithoutIndex() {
+        // Given
+        UserSnapshot indexed = withDepartments();
+        UserSnapshot plain = new UserSnapshot(indexed.version(), indexed.store());
+        UserFilter filter = new UserFilter();
+        filter.setMinAge(28);
+        filter.setMaxAge(32);
+        filter.setMaxWeight(80.0);
+
+        // When
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(indexed);
+        PaginationResponse<User> fromIndex = userService.getUsers(1, 10, "john", filter, null);
+        PaginationResponse<User> ranged = userService.getUsers(1, 10, null, filter, null);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(plain);
+        PaginationResponse<User> fromScan = userService.getUsers(1, 10, "john", filter, null);
+        PaginationResponse<User> rangedScan = userService.getUsers(1, 10, null, filter, null);
+
+        // Then
+        assertEquals(List.of(mockUsers.get(0)), fromIndex.getData());
+        assertEquals(fromIndex.getData(), fromScan.getData());
+        assertEquals(List.of(mockUsers.get(0), mockUsers.get(4)), ranged.getData());
+        assertEquals(ranged.getData(), rangedScan.getData());
+    }
+
+    @Test
+    void getUsers_WithUnknownAttributeValue_ShouldReturnNoUsers() {
+        // Given
+        UserSnapshot indexed = withDepartments();
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(indexed);
+        UserFilter filter = new UserFilter();
+        filter.setDepartment("Legal");
+        filter.setCity("Phoenix");
+
+        // When
+        PaginationResponse<User> result = userService.getUsers(1, 10, null, filter, null);
+
+        // Then
+        assertEquals(0, result.getTotalItems());
+        assertTrue(result.getData().isEmpty());
+    }
+
+    @Test
+    void getUsers_WithInvertedRange_ShouldThrowException() {
+        // Given
+        UserFilter filter = new UserFilter();
+        filter.setMinHeight(190);
+        filter.setMaxHeight(150);
+
+        // When & Then
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> userService.getUsers(1, 10, null, filter, null));
+        assertEquals("minHeight cannot exceed maxHeight", exception.getMessage());
+        verifyNoInteractions(userSnapshotProvider);
+    }
+
+    @Test
+    void getFacets_ShouldCountMatchingUsersPerValueAndBucket() {
+        // Given
+        UserSnapshot indexed = withDepartments();
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(indexed);
+        UserFilter filter = new UserFilter();
+        filter.setMinAge(28);
+
+        // When
+        FacetResponse result = userService.getFacets(List.of("department", "age"), null, filter, null);
+
+        // Then
+        assertEquals(2L, result.getSnapshotVersion());
+        assertEquals(4, result.getTotalItems());
+        assertEquals(List.of("HR", "Sales"), List.copyOf(result.getFacets().get("department").keySet()));
+        assertEquals(Map.of("HR", 2L, "Sales", 1L), result.getFacets().get("department"));
+        assertEquals(List.of("25-30", "30-35", "35-40"), List.copyOf(result.getFacets().get("age").keySet()));
+        assertEquals(Map.of("25-30", 1L, "30-35", 2L, "35-40", 1L), result.getFacets().get("age"));
+    }
+
+    @Test
+    void getFacets_ShouldCacheCountsPerSnapshotVersionAndQuery() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+
+        // When
+        FacetResponse first = userService.getFacets(List.of("age"), "john", new UserFilter(), null);
+        FacetResponse second = userService.getFacets(List.of("age"), "john", new UserFilter(), null);
+        FacetResponse all = userService.getFacets(List.of("age", "bloodGroup"), null, new UserFilter(), null);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(Map.of("25-30", 1L, "30-35", 1L), first.getFacets().get("age"));
+        assertEquals(5, all.getTotalItems());
+        assertTrue(all.getFacets().get("bloodGroup").isEmpty());
+        assertEquals(2, meterRegistry.get("users.pipeline.stage").tag("stage", "aggregate").timer().count());
+    }
+
+    @Test
+    void getFacets_WithoutRecording_ShouldBypassCache() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+
+        // When
+        FacetResponse first = userMetrics.withoutRecording(
+                () -> userService.getFacets(List.of("age"), null, new UserFilter(), null));
+        FacetResponse second = userService.getFacets(List.of("age"), null, new UserFilter(), null);
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals(first.getFacets(), second.getFacets());
+        assertEquals(1, meterRegistry.get("users.pipeline.stage").tag("stage", "aggregate").timer().count());
+    }
+
+    @Test
+    void getFacets_WithEquivalentNameAndLaterModifiedFilter_ShouldKeyOnNormalizedCopy() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+        UserFilter filter = new UserFilter();
+        filter.setMinAge(30);
+        FacetResponse first = userService.getFacets(List.of("age"), " John ", filter, null);
+        filter.setMinAge(20);
+
+        // When
+        UserFilter sameFilter = new UserFilter();
+        sameFilter.setMinAge(30);
+        FacetResponse equivalent = userService.getFacets(List.of("age"), "john", sameFilter, null);
+        FacetResponse modified = userService.getFacets(List.of("age"), "john", filter, null);
+
+        // Then
+        assertSame(first, equivalent);
+        assertNotSame(first, modified);
+        assertEquals(Map.of("30-35", 1L), first.getFacets().get("age"));
+        assertEquals(Map.of("25-30", 1L, "30-35", 1L), modified.getFacets().get("age"));
+    }
+
+    @Test
+    void getFacets_WithUnknownOrMissingFacet_ShouldThrowException() {
+        InvalidRequestException unknown = assertThrows(InvalidRequestException.class,
+                () -> userService.getFacets(List.of("gender"), null, new UserFilter(), null));
+        assertTrue(unknown.getMessage().startsWith("Unknown facet 'gender'"));
+        assertThrows(InvalidRequestException.class,
+                () -> userService.getFacets(List.of(), null, new UserFilter(), null));
+        verifyNoInteractions(userSnapshotProvider);
+    }
+
+    @Test
+    void getUsers_WithBoundingBoxOrRadius_ShouldCombineWithNameFilter() {
+        // Given
+        UserSnapshot indexed = withCoordinates();
+        UserSnapshot plain = new UserSnapshot(indexed.version(), indexed.store());
+        UserFilter box = new UserFilter();
+        box.setMinLat(30.0);
+        box.setMaxLat(45.0);
+        box.setMinLng(-125.0);
+        box.setMaxLng(-70.0);
+        UserFilter radius = new UserFilter();
+        radius.setLat(40.7128);
+        radius.setLng(-74.006);
+        radius.setRadiusKm(50.0);
+
+        // When
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(indexed);
+        PaginationResponse<User> inBox = userService.getUsers(1, 10, null, box, null);
+        PaginationResponse<User> namedInBox = userService.getUsers(1, 10, "j", box, null);
+        PaginationResponse<User> inRadius = userService.getUsers(1, 10, null, radius, null);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(plain);
+        PaginationResponse<User> inRadiusScan = userService.getUsers(1, 10, null, radius, null);
+
+        // Then
+        assertNotNull(indexed.indexes().get(SpatialIndex.class));
+        assertEquals(List.of(mockUsers.get(0), mockUsers.get(1), mockUsers.get(3)), inBox.getData());
+        assertEquals(List.of(mockUsers.get(0), mockUsers.get(1)), namedInBox.getData());
+        assertEquals(List.of(mockUsers.get(0), mockUsers.get(1)), inRadius.getData());
+        assertEquals(inRadius.getData(), inRadiusScan.getData());
+    }
+
+    @Test
+    void getUsers_WithNearest_ShouldOrderByDistanceAndPaginate() {
+        // Given
+        UserSnapshot located = withCoordinates();
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(located);
+        UserFilter filter = new UserFilter();
+        filter.setLat(51.0);
+        filter.setLng(0.0);
+        filter.setNearest(3);
+
+        // When
+        PaginationResponse<User> first = userService.getUsers(1, 2, null, filter, null);
+        PaginationResponse<User> second = userService.getUsers(2, 2, null, filter, null);
+        PaginationResponse<User> named = userService.getUsers(1, 10, "john", filter, null);
+
+        // Then
+        assertEquals(3, first.getTotalItems());
+        assertEquals(List.of(mockUsers.get(2), mockUsers.get(1)), first.getData());
+        assertEquals(List.of(mockUsers.get(0)), second.getData());
+        assertEquals(List.of(mockUsers.get(2), mockUsers.get(0)), named.getData());
+    }
+
+    @Test
+    void getFacets_WithNearest_ShouldCountOnlyNearestUsers() {
+        // Given
+        UserSnapshot located = withCoordinates();
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(located);
+        UserFilter filter = new UserFilter();
+        filter.setLat(34.0);
+        filter.setLng(-118.0);
+        filter.setNearest(3);
+
+        // When
+        FacetResponse result = userService.getFacets(List.of("age"), null, filter, null);
+
+        // Then
+        assertEquals(3, result.getTotalItems());
+        assertEquals(Map.of("25-30", 1L, "30-35", 1L, "35-40", 1L), result.getFacets().get("age"));
+    }
+
+    @Test
+    void getUsers_WithInvalidGeoFilter_ShouldThrowException() {
+        Map<String, UserFilter> filters = Map.of(
+                "minLat, maxLat, minLng and maxLng must be given together", geoFilter(f -> f.setMinLat(1.0)),
+                "maxLat must be between -90 and 90", geoFilter(f -> {
+                    f.setMinLat(0.0);
+                    f.setMaxLat(91.0);
+                    f.setMinLng(0.0);
+                    f.setMaxLng(1.0);
+                }),
+                "minLat cannot exceed maxLat", geoFilter(f -> {
+                    f.setMinLat(10.0);
+                    f.setMaxLat(0.0);
+                    f.setMinLng(0.0);
+                    f.setMaxLng(1.0);
+                }),
+                "lat and lng are required with radiusKm or nearest", geoFilter(f -> f.setNearest(3)),
+                "radiusKm or nearest is required with lat and lng", geoFilter(f -> {
+                    f.setLat(1.0);
+                    f.setLng(2.0);
+                }),
+                "lng must be between -180 and 180", geoFilter(f -> {
+                    f.setLat(1.0);
+                    f.setLng(181.0);
+                    f.setRadiusKm(5.0);
+                }),
+                "radiusKm must be greater than 0", geoFilter(f -> {
+                    f.setLat(1.0);
+                    f.setLng(2.0);
+                    f.setRadiusKm(0.0);
+                }),
+                "nearest must be between 1 and 1000", geoFilter(f -> {
+                    f.setLat(1.0);
+                    f.setLng(2.0);
+                    f.setNearest(1001);
+                }));
+
+        filters.forEach((message, filter) -> {
+            InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                    () -> userService.getUsers(1, 10, null, filter, null));
+            assertEquals(message, exception.getMessage());
+        });
+        verifyNoInteractions(userSnapshotProvider);
+    }
+
+    @Test
+    void getUsers_WithSearch_ShouldRankTypoTolerantMatchesAndCountAll() {
+        // Given
+        mockUsers.get(3).setFirstName("Jon");
+        mockUsers.get(4).setFirstName("Joan");
+        UserSnapshot indexed = new UserSnapshotIndexer(List.of(NameGramIndex.FACTORY), event -> { },
+                userMetrics, 1).index(new UserSnapshot(4L, CompactUserSnapshot.from(mockUsers)));
+        UserSnapshot plain = new UserSnapshot(indexed.version(), indexed.store());
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(indexed);
+        UserFilter filter = new UserFilter();
+        filter.setSearch("JOHN");
+
+        // When
+        PaginationResponse<User> first = userService.getUsers(1, 2, null, filter, null);
+        PaginationResponse<User> second = userService.getUsers(2, 2, null, filter, null);
+        PaginationResponse<User> named = userService.getUsers(1, 10, "d", filter, null);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(plain);
+        PaginationResponse<User> scanned = userService.getUsers(1, 10, null, filter, null);
+
+        // Then
+        assertEquals(3, first.getTotalItems());
+        assertEquals(2, first.getTotalPages());
+        assertEquals(List.of("John", "Joan"), first.getData().stream().map(User::getFirstName).toList());
+        assertEquals(List.of("Jon"), second.getData().stream().map(User::getFirstName).toList());
+        assertEquals(List.of("John", "Joan"), named.getData().stream().map(User::getFirstName).toList());
+        assertEquals(List.of("John", "Joan", "Jon"), scanned.getData().stream().map(User::getFirstName).toList());
+    }
+
+    @Test
+    void getFacets_WithSearch_ShouldCountEveryMatch() {
+        // Given
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(mockSnapshot);
+        UserFilter filter = new UserFilter();
+        filter.setSearch("jhon");
+
+        // When
+        FacetResponse result = userService.getFacets(List.of("age"), null, filter, null);
+
+        // Then
+        assertEquals(1, result.getTotalItems());
+        assertEquals(Map.of("30-35", 1L), result.getFacets().get("age"));
+    }
+
+    @Test
+    void getUsers_WithInvalidSearch_ShouldThrowException() {
+        Map<String, UserFilter> filters = Map.of(
+                "search must not be blank", geoFilter(f -> f.setSearch(" ")),
+                "search cannot exceed 100 characters", geoFilter(f -> f.setSearch("a".repeat(101))),
+                "search cannot be combined with nearest", geoFilter(f -> {
+                    f.setSearch("john");
+                    f.setLat(1.0);
+                    f.setLng(2.0);
+                    f.setNearest(3);
+                }));
+
+        filters.forEach((message, filter) -> assertEquals(message, assertThrows(InvalidRequestException.class,
+                () -> userService.getUsers(1, 10, null, filter, null)).getMessage()));
+        verifyNoInteractions(userSnapshotProvider);
+    }
+
+    @Test
+    void suggest_ShouldReturnNamesStartingWithPrefixInNameOrder() {
+        // Given
+        UserSnapshot indexed = new UserSnapshotIndexer(List.of(NameTrie.FACTORY), event -> { }, userMetrics, 1)
+                .index(mockSnapshot);
+        UserSnapshot plain = mockSnapshot;
+
+        // When
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(indexed);
+        SuggestResponse result = userService.suggest("  Jo", 10);
+        SuggestResponse limited = userService.suggest("s", 1);
+        when(userSnapshotProvider.currentSnapshot()).thenReturn(plain);
+        SuggestResponse scanned = userService.suggest("jo", 10);
+
+        // Then
+        assertEquals(1L, result.getSnapshotVersion());
+        assertEquals(List.of(new UserSuggestion(3L, "Emily", "Johnson"), new UserSuggestion(1L, "John", "Doe")),
+                result.getSuggestions());
+        assertEquals(List.of(new UserSuggestion(2L, "Jane", "Smith")), limited.getSuggestions());
+        assertEquals(result.getSuggestions(), scanned.getSuggestions());
+    }
+
+    @Test
+    void suggest_WithMissingPrefixOrInvalidLimit_ShouldThrowException() {
+        assertEquals("Prefix is required",
+                assertThrows(InvalidRequestException.class, () -> userService.suggest(" ", 10)).getMessage());
+        assertEquals("Limit must be between 1 and 20",
+                assertThrows(InvalidRequestException.class, () -> userService.suggest("jo", 21)).getMessage());
+        assertThrows(InvalidRequestException.class, () -> userService.suggest(null, 0));
+        verifyNoInteractions(userSnapshotProvider);
+    }
+
+    private UserSnapshot withDepartments() {
+        String[] departments = {"HR", "Sales", "HR", "Sales", null};
+        double[] weights = {70.5, 60.0, 90.0, 85.0, 65.0};
+        for (int i = 0; i < mockUsers.size(); i++) {
+            User user = mockUsers.get(i);
+            user.setWeight(weights[i]);
+            if (departments[i] != null) {
+                user.setCompany(new User.Company(departments[i], "Acme", null, null));
+            }
+        }
+        UserSnapshotIndexer indexer = new UserSnapshotIndexer(List.of(FilterIndex.FACTORY), event -> { },
+                userMetrics, 1);
+        return indexer.index(new UserSnapshot(2L, CompactUserSnapshot.from(mockUsers)));
+    }
+
+    private UserSnapshot withCoordinates() {
+        double[][] coordinates = {{40.7128, -74.006}, {40.73, -73.99}, {51.5074, -0.1278}, {34.0522, -118.2437}};
+        for (int i = 0; i < coordinates.length; i++) {
+            mockUsers.get(i).setAddress(new User.Address(null, null, null, null, null,
+                    new User.Address.Coordinates(coordinates[i][0], coordinates[i][1]), null));
+        }
+        UserSnapshotIndexer indexer = new UserSnapshotIndexer(List.of(SpatialIndex.FACTORY), event -> { },
+                userMetrics, 1);
+        return indexer.index(new UserSnapshot(3L, CompactUserSnapshot.from(mockUsers)));
+    }
+
+    private static UserFilter geoFilter(Consumer<UserFilter> customizer) {
+        UserFilter filter = new UserFilter();
+        customizer.accept(filter);
+        return filter;
+    }
+}
@@ -0,0 +1,126 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactUserSnapshotTest {
+
+    @Test
+    void materialize_WithFullyPopulatedUser_ShouldRoundTrip() {
+        // Given
+        User user = fullUser(1L, "Emily", "Johnson", "Engineering");
+
+        // When
+        CompactUserSnapshot snapshot = CompactUserSnapshot.from(List.of(user));
+
+        // Then
+        assertEquals(1, snapshot.size());
+        assertEquals(1L, snapshot.getId(0));
+        assertEquals(user, snapshot.materialize(0));
+    }
+
+    @Test
+    void materialize_WithMissingFields_ShouldPreserveNulls() {
+        // Given
+        User sparse = new User();
+        sparse.setFirstName("Jane");
+
+        User companyWithoutAddress = new User();
+        companyWithoutAddress.setId(2L);
+        companyWithoutAddress.setCompany(new User.Company("Sales", "Acme", "Manager", null));
+        companyWithoutAddress.setAddress(new User.Address("1 Street", "Paris", null, null, "75000", null, "France"));
+        companyWithoutAddress.setHair(new User.Hair(null, "Wavy"));
+
+        User partialCoordinates = fullUser(3L, "Max", "Payne", "Support");
+        partialCoordinates.getAddress().setCoordinates(new User.Address.Coordinates(1.5, null));
+        partialCoordinates.getCompany().getAddress().setCoordinates(null);
+
+        // When
+        CompactUserSnapshot snapshot = CompactUserSnapshot.from(List.of(sparse, companyWithoutAddress,
+                partialCoordinates));
+
+        // Then
+        assertEquals(sparse, snapshot.materialize(0));
+        assertEquals(CompactUserSnapshot.LONG_NULL, snapshot.getId(0));
+        assertEquals(companyWithoutAddress, snapshot.materialize(1));
+        assertEquals(partialCoordinates, snapshot.materialize(2));
+    }
+
+    @Test
+    void from_ShouldDeduplicateRepetitiveValuesIntoDictionary() {
+        // Given
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(fullUser((long) i, "First" + i, "Last" + i, i % 2 == 0 ? "Engineering" : "Sales"));
+        }
+
+        // When
+        CompactUserSnapshot snapshot = CompactUserSnapshot.from(users);
+
+        // Then
+        assertTrue(snapshot.getDictionarySize() < 20, "dictionary size " + snapshot.getDictionarySize());
+        assertEquals(users.get(57), snapshot.materialize(57));
+    }
+
+    @Test
+    void materialize_ShouldReturnIndependentInstances() {
+        // Given
+        CompactUserSnapshot snapshot = CompactUserSnapshot.from(List.of(fullUser(1L, "Emily", "Johnson", "HR")));
+
+        // When
+        User first = snapshot.materialize(0);
+        first.setFirstName("Changed");
+
+        // Then
+        assertEquals("Emily", snapshot.materialize(0).getFirstName());
+    }
+
+    @Test
+    void nameContains_ShouldMatchFoldedFullName() {
+        // Given
+        CompactUserSnapshot snapshot = CompactUserSnapshot.from(List.of(fullUser(1L, "Emily", "JOHNSON", "HR"),
+                fullUser(2L, "John", "Doe", "HR")));
+
+        // When
+        IntPredicate matcher = snapshot.nameContains("ly joh");
+
+        // Then
+        assertTrue(matcher.test(0));
+        assertFalse(matcher.test(1));
+        assertTrue(snapshot.nameContains("john").test(1));
+    }
+
+    @Test
+    void from_WithEmptyList_ShouldBuildEmptySnapshot() {
+        assertEquals(0, CompactUserSnapshot.from(List.of()).size());
+    }
+
+    static User fullUser(Long id, String firstName, String lastName, String department) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setAge(29);
+        user.setEmail(firstName.toLowerCase() + "@x.dummyjson.com");
+        user.setPhone("+81 965-431-3024");
+        user.setBirthDate("1996-5-30");
+        user.setImage("https://dummyjson.com/icon/" + firstName + "/128");
+        user.setBloodGroup("O-");
+        user.setHeight(193);
+        user.setWeight(63.16);
+        user.setEyeColor("Green");
+        user.setHair(new User.Hair("Brown", "Curly"));
+        user.setAddress(new User.Address("626 Main Street", "Phoenix", "Mississippi", "MS", "29112",
+                new User.Address.Coordinates(-77.16213, -92.084824), "United States"));
+        user.setCompany(new User.Company(department, "Dooley, Kozey and Cronin", "Sales Manager",
+                new User.Address("263 Tenth Street", "San Francisco", "Wisconsin", "WI", "37657",
+                        new User.Address.Coordinates(71.814525, -161.150263), "United States")));
+        return user;
+    }
+}
@@ -0,0 +1,123 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapUserStoreTest {
+
+    @Test
+    void copyOf_ShouldMaterializeSameUsersAsCompactSnapshot() {
+        // Given
+        List<User> users = sampleUsers(150);
+        CompactUserSnapshot compact = CompactUserSnapshot.from(users);
+
+        // When
+        OffHeapUserStore store = OffHeapUserStore.copyOf(compact);
+
+        // Then
+        assertEquals(users.size(), store.size());
+        for (int row = 0; row < users.size(); row++) {
+            assertEquals(users.get(row), store.materialize(row), "row " + row);
+            assertEquals(compact.getId(row), store.getId(row));
+            assertEquals(compact.contentHash(row), store.contentHash(row));
+            assertEquals(users.get(row).getFirstName(), store.firstName(row));
+            assertEquals(users.get(row).getLastName(), store.lastName(row));
+            for (UserAttribute attribute : UserAttribute.values()) {
+                assertEquals(compact.attribute(attribute, row), store.attribute(attribute, row));
+            }
+            for (UserMeasure measure : UserMeasure.values()) {
+                assertEquals(compact.measure(measure, row), store.measure(measure, row));
+            }
+            assertEquals(compact.latitude(row), store.latitude(row));
+            assertEquals(compact.longitude(row), store.longitude(row));
+        }
+    }
+
+    @Test
+    void nameContains_ShouldMatchLikeCompactSnapshot() {
+        // Given
+        List<User> users = sampleUsers(150);
+        CompactUserSnapshot compact = CompactUserSnapshot.from(users);
+        OffHeapUserStore store = OffHeapUserStore.copyOf(compact);
+
+        for (String filter : List.of("first1", "last14", "zoë", "t9 l", "nobody", "first149 last149")) {
+            IntPredicate expected = compact.nameContains(filter);
+            IntPredicate actual = store.nameContains(filter);
+            for (int row = 0; row < users.size(); row++) {
+                assertEquals(expected.test(row), actual.test(row), filter + " row " + row);
+            }
+        }
+    }
+
+    @Test
+    void wrap_WithEncodedBuffer_ShouldReadSnapshot() {
+        // Given
+        CompactUserSnapshot compact = CompactUserSnapshot.from(sampleUsers(3));
+        ByteBuffer heapBuffer = ByteBuffer.allocate(OffHeapUserStore.encodedLength(compact));
+        OffHeapUserStore.encode(compact, heapBuffer);
+
+        // When
+        OffHeapUserStore store = OffHeapUserStore.wrap(heapBuffer);
+
+        // Then
+        assertEquals(compact.materialize(2), store.materialize(2));
+        assertEquals(heapBuffer.capacity(), store.byteSize());
+        ByteBuffer encoded = store.encoded();
+        assertTrue(encoded.isReadOnly());
+        assertEquals(store.byteSize(), encoded.remaining());
+    }
+
+    @Test
+    void wrap_WithInvalidBuffers_ShouldThrow() {
+        CompactUserSnapshot compact = CompactUserSnapshot.from(sampleUsers(3));
+        ByteBuffer valid = ByteBuffer.allocate(OffHeapUserStore.encodedLength(compact));
+        OffHeapUserStore.encode(compact, valid);
+
+        assertThrows(IllegalArgumentException.class, () -> OffHeapUserStore.wrap(ByteBuffer.allocate(16)));
+        assertThrows(IllegalArgumentException.class,
+                () -> OffHeapUserStore.wrap(ByteBuffer.allocate(OffHeapUserStore.HEADER_BYTES)));
+
+        ByteBuffer wrongFormat = ByteBuffer.allocate(valid.capacity()).put(valid.duplicate().clear());
+        wrongFormat.putInt(4, OffHeapUserStore.FORMAT_VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> OffHeapUserStore.wrap(wrongFormat));
+
+        ByteBuffer truncated = ByteBuffer.allocate(valid.capacity() - 8).put(valid.duplicate().clear().limit(valid.capacity() - 8));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapUserStore.wrap(truncated));
+    }
+
+    @Test
+    void copyOf_WithEmptySnapshot_ShouldBuildEmptyStore() {
+        OffHeapUserStore store = OffHeapUserStore.copyOf(CompactUserSnapshot.from(List.of()));
+
+        assertEquals(0, store.size());
+        assertTrue(store.byteSize() < 2 * OffHeapUserStore.HEADER_BYTES);
+    }
+
+    static List<User> sampleUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = CompactUserSnapshotTest.fullUser((long) i, "First" + i, "Last" + i,
+                    i % 3 == 0 ? "Engineering" : "Sales");
+            if (i % 7 == 0) {
+                user.setFirstName("Zoë");
+                user.setEmail(null);
+                user.setAge(null);
+                user.setWeight(null);
+                user.setHair(null);
+            }
+            if (i % 11 == 0) {
+                user.setCompany(null);
+                user.getAddress().setCoordinates(null);
+            }
+            users.add(user);
+        }
+        return users;
+    }
+}
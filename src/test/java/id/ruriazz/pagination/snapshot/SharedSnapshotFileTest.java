@@ -0,0 +1,171 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.metrics.UserMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedSnapshotFileTest {
+
+    private static final long NOW = System.currentTimeMillis();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void publish_ShouldWriteVersionFileAndPointer() throws Exception {
+        // Given
+        SharedSnapshotFile writer = file(SharedSnapshotMode.WRITER, Duration.ZERO);
+        CompactUserSnapshot snapshot = CompactUserSnapshot.from(OffHeapUserStoreTest.sampleUsers(5));
+
+        // When
+        UserStore store = writer.publish(new UserSnapshot(7L, snapshot)).store();
+
+        // Then
+        assertTrue(writer.isWriter());
+        assertFalse(writer.isReader());
+        assertEquals(5, store.size());
+        assertEquals(snapshot.materialize(3), store.materialize(3));
+        String pointer = Files.readString(directory.resolve(SharedSnapshotFile.POINTER_FILE));
+        assertEquals("7", pointer);
+        assertEquals(7L, writer.currentVersion());
+        assertTrue(Files.exists(directory.resolve("users-7.snap")));
+    }
+
+    @Test
+    void current_AsReader_ShouldMapPublishedSnapshotAndFollowNewVersions() {
+        // Given
+        SharedSnapshotFile writer = file(SharedSnapshotMode.WRITER, Duration.ZERO);
+        SharedSnapshotFile reader = file(SharedSnapshotMode.READER, Duration.ZERO);
+        writer.publish(snapshot(NOW + 2, 2));
+
+        // When
+        UserStore first = reader.current().store();
+        UserStore same = reader.current().store();
+        writer.publish(snapshot(NOW + 3, 3));
+        UserStore second = reader.current().store();
+
+        // Then
+        assertTrue(reader.isReader());
+        assertEquals(2, first.size());
+        assertSame(first, same);
+        assertEquals(3, second.size());
+        assertEquals(writer.currentVersion(), reader.currentVersion());
+    }
+
+    @Test
+    void current_WithinCheckInterval_ShouldKeepMappedVersion() {
+        // Given
+        SharedSnapshotFile writer = file(SharedSnapshotMode.WRITER, Duration.ZERO);
+        SharedSnapshotFile reader = file(SharedSnapshotMode.READER, Duration.ofHours(1));
+        writer.publish(snapshot(NOW + 2, 2));
+        UserStore first = reader.current().store();
+
+        // When
+        writer.publish(snapshot(NOW + 3, 3));
+        UserStore next = reader.current().store();
+
+        // Then
+        assertSame(first, next);
+    }
+
+    @Test
+    void current_WithSnapshotOlderThanMaxAge_ShouldReturnNullAndReportAge() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SharedSnapshotFile writer = file(SharedSnapshotMode.WRITER, Duration.ZERO);
+        SharedSnapshotFile reader = new SharedSnapshotFile(SharedSnapshotMode.READER, directory, Duration.ZERO,
+                Duration.ofMinutes(30), new UserMetrics(meterRegistry));
+        writer.publish(snapshot(NOW - Duration.ofHours(1).toMillis(), 2));
+
+        // When
+        UserSnapshot snapshot = reader.current();
+
+        // Then
+        assertNull(snapshot);
+        assertTrue(reader.ageMillis() >= Duration.ofHours(1).toMillis());
+        double age = meterRegistry.get("users.shared-snapshot.age").timeGauge().value(TimeUnit.MILLISECONDS);
+        assertTrue(age >= Duration.ofHours(1).toMillis(), String.valueOf(age));
+    }
+
+    @Test
+    void current_BeforeFirstPublish_ShouldReturnNull() {
+        // Given
+        SharedSnapshotFile reader = file(SharedSnapshotMode.READER, Duration.ZERO);
+
+        // When & Then
+        assertNull(reader.current());
+        assertEquals(0, reader.currentVersion());
+        assertEquals(-1, reader.ageMillis());
+    }
+
+    @Test
+    void current_WithUnreadablePointer_ShouldKeepPreviousSnapshot() throws Exception {
+        // Given
+        SharedSnapshotFile writer = file(SharedSnapshotMode.WRITER, Duration.ZERO);
+        SharedSnapshotFile reader = file(SharedSnapshotMode.READER, Duration.ZERO);
+        writer.publish(snapshot(NOW + 2, 2));
+        UserStore first = reader.current().store();
+
+        // When
+        Files.writeString(directory.resolve(SharedSnapshotFile.POINTER_FILE), "42");
+        UserStore missingVersion = reader.current().store();
+        Files.writeString(directory.resolve(SharedSnapshotFile.POINTER_FILE), "garbage");
+        UserStore malformed = reader.current().store();
+
+        // Then
+        assertSame(first, missingVersion);
+        assertSame(first, malformed);
+    }
+
+    @Test
+    void publish_ShouldRetainOnlyRecentVersions() throws Exception {
+        // Given
+        SharedSnapshotFile writer = file(SharedSnapshotMode.WRITER, Duration.ZERO);
+        Files.writeString(directory.resolve("unrelated.txt"), "keep");
+
+        // When
+        for (int i = 1; i <= 4; i++) {
+            writer.publish(snapshot(i, i));
+        }
+
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = files.map(path -> path.getFileName().toString()).sorted().toList();
+            assertEquals(4, names.size());
+            assertTrue(names.contains("unrelated.txt"));
+            assertTrue(names.contains("users-" + writer.currentVersion() + ".snap"));
+        }
+    }
+
+    @Test
+    void publish_WithCurrentVersion_ShouldKeepMappedSnapshot() {
+        // Given
+        SharedSnapshotFile writer = file(SharedSnapshotMode.WRITER, Duration.ZERO);
+        UserSnapshot first = writer.publish(snapshot(5, 2));
+
+        // When
+        UserSnapshot again = writer.publish(new UserSnapshot(5, first.store()));
+
+        // Then
+        assertSame(first, again);
+    }
+
+    private SharedSnapshotFile file(SharedSnapshotMode mode, Duration checkInterval) {
+        return new SharedSnapshotFile(mode, directory, checkInterval, Duration.ofMinutes(30),
+                new UserMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static UserSnapshot snapshot(long version, int users) {
+        return new UserSnapshot(version, CompactUserSnapshot.from(OffHeapUserStoreTest.sampleUsers(users)));
+    }
+}
@@ -0,0 +1,57 @@
+package id.ruriazz.pagination.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCodecTest {
+
+    @Test
+    void compress_ShouldRoundTripCompactSnapshot() {
+        // Given
+        CompactUserSnapshot snapshot = CompactUserSnapshot.from(OffHeapUserStoreTest.sampleUsers(50));
+
+        // When
+        byte[] compressed = SnapshotCodec.compress(snapshot);
+        OffHeapUserStore heap = SnapshotCodec.decompress(compressed, UserStoreType.HEAP);
+        OffHeapUserStore direct = SnapshotCodec.decompress(compressed, UserStoreType.OFF_HEAP);
+
+        // Then
+        assertTrue(compressed.length < snapshot.encodedLength());
+        assertFalse(heap.encoded().isDirect());
+        assertTrue(direct.encoded().isDirect());
+        for (int row = 0; row < snapshot.size(); row++) {
+            assertEquals(snapshot.materialize(row), heap.materialize(row));
+            assertEquals(snapshot.materialize(row), direct.materialize(row));
+        }
+    }
+
+    @Test
+    void compress_ShouldRoundTripOffHeapStore() {
+        // Given
+        OffHeapUserStore store = OffHeapUserStore.copyOf(
+                CompactUserSnapshot.from(OffHeapUserStoreTest.sampleUsers(3)));
+
+        // When
+        OffHeapUserStore copy = SnapshotCodec.decompress(SnapshotCodec.compress(store), UserStoreType.HEAP);
+
+        // Then
+        assertEquals(store.byteSize(), copy.byteSize());
+        assertEquals(store.materialize(2), copy.materialize(2));
+    }
+
+    @Test
+    void decompress_WithInvalidData_ShouldThrowIllegalArgumentException() {
+        // Given
+        byte[] notGzip = {1, 2, 3};
+        byte[] notSnapshot = SnapshotCodec.compress(CompactUserSnapshot.from(List.of()));
+        notSnapshot[notSnapshot.length / 2] ^= 0x7f;
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decompress(notGzip, UserStoreType.HEAP));
+        assertThrows(IllegalArgumentException.class,
+                () -> SnapshotCodec.decompress(notSnapshot, UserStoreType.HEAP));
+    }
+}
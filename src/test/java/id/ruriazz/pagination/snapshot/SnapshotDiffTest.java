@@ -0,0 +1,100 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotDiffTest {
+
+    @Test
+    void between_ShouldClassifyInsertedUpdatedAndRemovedUsers() {
+        // Given
+        List<User> before = OffHeapUserStoreTest.sampleUsers(5);
+        List<User> after = new ArrayList<>(OffHeapUserStoreTest.sampleUsers(5));
+        after.remove(1);
+        after.get(2).setAge(99);
+        after.add(0, CompactUserSnapshotTest.fullUser(10L, "New", "User", "HR"));
+        CompactUserSnapshot previous = CompactUserSnapshot.from(before);
+        CompactUserSnapshot next = CompactUserSnapshot.from(after);
+
+        // When
+        SnapshotDiff diff = SnapshotDiff.between(previous, next);
+
+        // Then
+        assertArrayEquals(new long[] {10L}, diff.insertedIds());
+        assertArrayEquals(new int[] {0}, diff.insertedRows());
+        assertArrayEquals(new long[] {3L}, diff.updatedIds());
+        assertArrayEquals(new int[] {3}, diff.updatedRows());
+        assertArrayEquals(new int[] {3}, diff.updatedPreviousRows());
+        assertArrayEquals(new long[] {1L}, diff.removedIds());
+        assertArrayEquals(new int[] {1}, diff.removedPreviousRows());
+        assertEquals(3, diff.size());
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    void between_WithSameContent_ShouldBeEmpty() {
+        // Given
+        CompactUserSnapshot previous = CompactUserSnapshot.from(OffHeapUserStoreTest.sampleUsers(300));
+        OffHeapUserStore next = OffHeapUserStore.copyOf(
+                CompactUserSnapshot.from(OffHeapUserStoreTest.sampleUsers(300)));
+
+        // When
+        SnapshotDiff diff = SnapshotDiff.between(previous, next);
+
+        // Then
+        assertTrue(diff.isEmpty());
+        assertFalse(diff.rowsMoved());
+    }
+
+    @Test
+    void between_WithReorderedUsers_ShouldBeEmptyButReportMovedRows() {
+        // Given
+        User first = CompactUserSnapshotTest.fullUser(1L, "Emily", "Johnson", "HR");
+        User second = CompactUserSnapshotTest.fullUser(2L, "Michael", "Williams", "Sales");
+        CompactUserSnapshot previous = CompactUserSnapshot.from(List.of(first, second));
+        CompactUserSnapshot next = CompactUserSnapshot.from(List.of(second, first));
+
+        // When
+        SnapshotDiff diff = SnapshotDiff.between(previous, next);
+
+        // Then
+        assertTrue(diff.isEmpty());
+        assertTrue(diff.rowsMoved());
+        assertFalse(SnapshotDiff.initial(next).rowsMoved());
+    }
+
+    @Test
+    void between_WithDuplicateIds_ShouldTreatExtraRowsAsInserted() {
+        // Given
+        User user = CompactUserSnapshotTest.fullUser(1L, "Emily", "Johnson", "HR");
+        CompactUserSnapshot previous = CompactUserSnapshot.from(List.of(user));
+        CompactUserSnapshot next = CompactUserSnapshot.from(List.of(user, user));
+
+        // When
+        SnapshotDiff diff = SnapshotDiff.between(previous, next);
+
+        // Then
+        assertEquals(1, diff.insertedIds().length);
+        assertEquals(0, diff.updatedIds().length);
+        assertEquals(0, diff.removedIds().length);
+    }
+
+    @Test
+    void initial_ShouldInsertEveryUser() {
+        // Given
+        CompactUserSnapshot store = CompactUserSnapshot.from(OffHeapUserStoreTest.sampleUsers(20));
+
+        // When
+        SnapshotDiff diff = SnapshotDiff.initial(store);
+
+        // Then
+        assertEquals(20, diff.insertedIds().length);
+        assertEquals(19, diff.insertedRows()[19]);
+        assertEquals(20, diff.size());
+    }
+}
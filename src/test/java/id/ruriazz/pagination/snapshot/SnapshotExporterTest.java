@@ -0,0 +1,76 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.dto.SnapshotPayload;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotExporterTest {
+
+    @Mock
+    private UserSnapshotProvider userSnapshotProvider;
+
+    @InjectMocks
+    private SnapshotExporter exporter;
+
+    private final UserSnapshot snapshot = new UserSnapshot(10L,
+            CompactUserSnapshot.from(OffHeapUserStoreTest.sampleUsers(4)));
+
+    @Test
+    void export_WithCurrentSnapshot_ShouldCompressOncePerVersion() {
+        // Given
+        when(userSnapshotProvider.latestSnapshot()).thenReturn(snapshot);
+
+        // When
+        Optional<SnapshotPayload> first = exporter.export(0);
+        Optional<SnapshotPayload> second = exporter.export(10);
+
+        // Then
+        assertTrue(first.isPresent());
+        assertEquals(10L, first.get().getVersion());
+        assertSame(first.get(), second.get());
+        assertEquals(snapshot.store().materialize(3),
+                SnapshotCodec.decompress(first.get().getData(), UserStoreType.HEAP).materialize(3));
+    }
+
+    @Test
+    void export_WithNewVersion_ShouldCompressAgain() {
+        // Given
+        UserSnapshot next = new UserSnapshot(11L, snapshot.store());
+        when(userSnapshotProvider.latestSnapshot()).thenReturn(snapshot, next);
+
+        // When
+        SnapshotPayload first = exporter.export(0).orElseThrow();
+        SnapshotPayload second = exporter.export(0).orElseThrow();
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals(11L, second.getVersion());
+    }
+
+    @Test
+    void export_WithoutSnapshot_ShouldReturnEmpty() {
+        // Given
+        when(userSnapshotProvider.latestSnapshot()).thenReturn(null);
+
+        // When & Then
+        assertTrue(exporter.export(0).isEmpty());
+    }
+
+    @Test
+    void export_WithOlderSnapshot_ShouldReturnEmpty() {
+        // Given
+        when(userSnapshotProvider.latestSnapshot()).thenReturn(snapshot);
+
+        // When & Then
+        assertTrue(exporter.export(11).isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package id.ruriazz.pagination.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringHeapTest {
+
+    @Test
+    void build_ShouldKeepValuesNullsAndEmptyStringsApart() {
+        // Given
+        StringHeap.Builder builder = new StringHeap.Builder(1);
+        builder.add("plain");
+        builder.add(null);
+        builder.add("");
+        builder.add("Zoë Åström");
+
+        // When
+        StringHeap heap = builder.build();
+
+        // Then
+        assertEquals(4, heap.size());
+        assertEquals("plain", heap.get(0));
+        assertNull(heap.get(1));
+        assertEquals("", heap.get(2));
+        assertEquals("Zoë Åström", heap.get(3));
+        assertEquals(5 + 13, heap.byteSize());
+    }
+
+    @Test
+    void dictionary_ShouldAssignStableCodesAndNullCode() {
+        // Given
+        StringDictionary.Builder builder = new StringDictionary.Builder();
+
+        // When
+        int first = builder.encode("Engineering");
+        int second = builder.encode("Sales");
+        int repeated = builder.encode("Engineering");
+        int none = builder.encode(null);
+        StringDictionary dictionary = builder.build();
+
+        // Then
+        assertEquals(first, repeated);
+        assertNotEquals(first, second);
+        assertEquals(StringDictionary.NULL_CODE, none);
+        assertEquals(2, dictionary.size());
+        assertEquals("Sales", dictionary.get(second));
+        assertNull(dictionary.get(none));
+    }
+}
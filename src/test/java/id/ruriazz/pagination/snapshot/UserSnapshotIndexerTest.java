@@ -0,0 +1,271 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.metrics.UserMetrics;
+import id.ruriazz.pagination.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotIndexerTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private ExecutorService executor;
+
+    private final AtomicInteger builds = new AtomicInteger();
+    private int maxBuilds = Integer.MAX_VALUE;
+    private UserSnapshotIndexer indexer;
+
+    @BeforeEach
+    void setUp() {
+        DerivedIndexFactory<CountingIndex> counting = DerivedIndexFactory.of(CountingIndex.class, store -> {
+            if (builds.incrementAndGet() > maxBuilds) {
+                throw new IllegalStateException("Index build failed");
+            }
+            return new CountingIndex(store.size());
+        });
+        DerivedIndexFactory<UnavailableIndex> unavailable = DerivedIndexFactory.of(UnavailableIndex.class,
+                store -> null);
+        indexer = new UserSnapshotIndexer(List.of(counting, unavailable), eventPublisher,
+                new UserMetrics(meterRegistry), 2, executor);
+    }
+
+    @Test
+    void index_FirstSnapshot_ShouldBuildIndexesAndPublishFullInsert() {
+        // Given
+        UserSnapshot snapshot = snapshot(1L, OffHeapUserStoreTest.sampleUsers(4));
+
+        // When
+        UserSnapshot indexed = indexer.index(snapshot);
+
+        // Then
+        assertSame(snapshot.store(), indexed.store());
+        assertEquals(4, indexed.indexes().get(CountingIndex.class).entries());
+        assertNull(indexed.indexes().get(UnavailableIndex.class));
+        assertEquals(1, builds.get());
+        UsersChangedEvent event = publishedEvent();
+        assertEquals(0L, event.previousVersion());
+        assertEquals(1L, event.version());
+        assertEquals(4, event.diff().insertedIds().length);
+        assertEquals(4, meterRegistry.get("users.snapshot.changes").tag("type", "inserted").counter().count());
+    }
+
+    @Test
+    void index_SameVersion_ShouldReturnIndexedSnapshotWithoutWork() {
+        // Given
+        UserSnapshot snapshot = snapshot(1L, OffHeapUserStoreTest.sampleUsers(4));
+        UserSnapshot first = indexer.index(snapshot);
+
+        // When
+        UserSnapshot second = indexer.index(new UserSnapshot(1L, snapshot.store()));
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void index_NewVersionWithChanges_ShouldRebuildIndexesAndPublishDiff() {
+        // Given
+        List<User> users = new ArrayList<>(OffHeapUserStoreTest.sampleUsers(4));
+        indexer.index(snapshot(1L, users));
+        users.remove(0);
+        users.get(0).setAge(77);
+
+        // When
+        UserSnapshot indexed = indexer.index(snapshot(2L, users));
+
+        // Then
+        assertEquals(2, builds.get());
+        assertEquals(3, indexed.indexes().get(CountingIndex.class).entries());
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        UsersChangedEvent event = (UsersChangedEvent) events.getAllValues().get(1);
+        assertEquals(1L, event.previousVersion());
+        assertArrayEquals(new long[] {1L}, event.diff().updatedIds());
+        assertArrayEquals(new long[] {0L}, event.diff().removedIds());
+        assertEquals(1, meterRegistry.get("users.snapshot.changes").tag("type", "removed").counter().count());
+    }
+
+    @Test
+    void index_NewVersionWithoutChanges_ShouldKeepIndexInstances() {
+        // Given
+        UserSnapshot first = indexer.index(snapshot(1L, OffHeapUserStoreTest.sampleUsers(3)));
+
+        // When
+        UserSnapshot second = indexer.index(snapshot(2L, OffHeapUserStoreTest.sampleUsers(3)));
+
+        // Then
+        assertSame(first.indexes().get(CountingIndex.class), second.indexes().get(CountingIndex.class));
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void serve_FirstSnapshot_ShouldIndexOnCallingThread() {
+        // Given
+        UserSnapshot snapshot = snapshot(1L, OffHeapUserStoreTest.sampleUsers(2));
+
+        // When
+        UserSnapshot served = indexer.serve(snapshot);
+
+        // Then
+        assertEquals(1L, served.version());
+        assertEquals(2, served.indexes().get(CountingIndex.class).entries());
+        verifyNoInteractions(executor);
+    }
+
+    @Test
+    void serve_NewVersion_ShouldKeepServingPreviousUntilIndexedInBackground() {
+        // Given
+        UserSnapshot first = indexer.serve(snapshot(1L, OffHeapUserStoreTest.sampleUsers(2)));
+        UserSnapshot next = snapshot(2L, OffHeapUserStoreTest.sampleUsers(3));
+
+        // When
+        UserSnapshot whileIndexing = indexer.serve(next);
+        UserSnapshot again = indexer.serve(next);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(task.capture());
+        task.getValue().run();
+        UserSnapshot afterIndexing = indexer.serve(next);
+
+        // Then
+        assertSame(first, whileIndexing);
+        assertSame(first, again);
+        assertEquals(2L, afterIndexing.version());
+        assertEquals(3, afterIndexing.indexes().get(CountingIndex.class).entries());
+        assertArrayEquals(new long[] {2L, 1L}, indexer.retainedVersions());
+    }
+
+    @Test
+    void serve_WhenBackgroundIndexingFails_ShouldScheduleAgainOnNextRequest() {
+        // Given
+        indexer.serve(snapshot(1L, OffHeapUserStoreTest.sampleUsers(2)));
+        maxBuilds = 1;
+        UserSnapshot next = snapshot(2L, OffHeapUserStoreTest.sampleUsers(3));
+        indexer.serve(next);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(task.capture());
+
+        // When
+        task.getValue().run();
+        indexer.serve(next);
+
+        // Then
+        assertArrayEquals(new long[] {1L}, indexer.retainedVersions());
+        verify(executor, times(2)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void serve_WhenExecutorRejects_ShouldKeepServingPrevious() {
+        // Given
+        UserSnapshot first = indexer.serve(snapshot(1L, OffHeapUserStoreTest.sampleUsers(2)));
+        doThrow(new RejectedExecutionException()).when(executor).execute(any(Runnable.class));
+        UserSnapshot next = snapshot(2L, OffHeapUserStoreTest.sampleUsers(3));
+
+        // When
+        UserSnapshot served = indexer.serve(next);
+        indexer.serve(next);
+
+        // Then
+        assertSame(first, served);
+        verify(executor, times(2)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void destroy_ShouldStopIndexingThread() {
+        // When
+        indexer.destroy();
+
+        // Then
+        verify(executor).shutdownNow();
+    }
+
+    @Test
+    void find_ShouldReturnRetainedVersionsOnly() {
+        // Given
+        indexer.index(snapshot(1L, OffHeapUserStoreTest.sampleUsers(1)));
+        UserSnapshot second = indexer.index(snapshot(2L, OffHeapUserStoreTest.sampleUsers(2)));
+        UserSnapshot third = indexer.index(snapshot(3L, OffHeapUserStoreTest.sampleUsers(3)));
+
+        // When & Then
+        assertNull(indexer.find(1L));
+        assertSame(second, indexer.find(2L));
+        assertSame(third, indexer.find(3L));
+        assertArrayEquals(new long[] {3L, 2L}, indexer.retainedVersions());
+        assertEquals(2, second.indexes().get(CountingIndex.class).entries());
+    }
+
+    @Test
+    void constructor_WithoutHistory_ShouldThrow() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new UserSnapshotIndexer(List.of(), eventPublisher,
+                new UserMetrics(meterRegistry), 0));
+        assertNull(new UserSnapshotIndexer(List.of(), eventPublisher, new UserMetrics(meterRegistry), 1).find(1L));
+    }
+
+    @Test
+    void historyWeight_ShouldCountIndexesAndOlderStoresOnce() {
+        // Given
+        UserSnapshot first = snapshot(1L, OffHeapUserStoreTest.sampleUsers(4));
+        UserSnapshot second = snapshot(2L, OffHeapUserStoreTest.sampleUsers(4));
+        UserSnapshot third = snapshot(3L, OffHeapUserStoreTest.sampleUsers(5));
+        indexer.index(first);
+        double initial = meterRegistry.get("users.snapshot.history.weight").gauge().value();
+
+        // When
+        indexer.index(second);
+        double unchanged = meterRegistry.get("users.snapshot.history.weight").gauge().value();
+        indexer.index(third);
+        double changed = meterRegistry.get("users.snapshot.history.weight").gauge().value();
+
+        // Then
+        assertEquals(4_000, initial);
+        assertEquals(4_000 + first.store().encodedLength(), unchanged);
+        assertEquals(5_000 + 4_000 + second.store().encodedLength(), changed);
+    }
+
+    private UsersChangedEvent publishedEvent() {
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        return (UsersChangedEvent) event.getValue();
+    }
+
+    private static UserSnapshot snapshot(long version, List<User> users) {
+        return new UserSnapshot(version, CompactUserSnapshot.from(users));
+    }
+
+    private record CountingIndex(int users) implements DerivedIndex {
+        @Override
+        public int entries() {
+            return users;
+        }
+
+        @Override
+        public long bytes() {
+            return 1_000L * users;
+        }
+    }
+
+    private interface UnavailableIndex extends DerivedIndex {
+    }
+}
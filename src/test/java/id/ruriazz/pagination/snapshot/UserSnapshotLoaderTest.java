@@ -0,0 +1,211 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.client.DummyJsonClient;
+import id.ruriazz.pagination.client.PeerSnapshotClient;
+import id.ruriazz.pagination.dto.DummyJsonResponse;
+import id.ruriazz.pagination.dto.SnapshotPayload;
+import id.ruriazz.pagination.metrics.UserMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotLoaderTest {
+
+    @Mock
+    private DummyJsonClient dummyJsonClient;
+
+    @Mock
+    private PeerSnapshotClient peerSnapshotClient;
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserSnapshotLoader loader;
+    private DummyJsonResponse response;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loader = loader(UserStoreType.HEAP, SharedSnapshotMode.NONE, directory);
+        response = new DummyJsonResponse(List.of(
+                CompactUserSnapshotTest.fullUser(1L, "Emily", "Johnson", "HR"),
+                CompactUserSnapshotTest.fullUser(2L, "John", "Doe", "HR")), 2, 0, 2);
+    }
+
+    @Test
+    void load_ShouldBuildCompactSnapshotFromUpstream() {
+        // Given
+        when(dummyJsonClient.fetchAllUsers()).thenReturn(response);
+
+        // When
+        long before = System.currentTimeMillis();
+        UserSnapshot snapshot = loader.load();
+
+        // Then
+        assertInstanceOf(CompactUserSnapshot.class, snapshot.store());
+        assertTrue(snapshot.version() >= before);
+        assertEquals(2, snapshot.store().size());
+        assertEquals(response.getUsers().get(1), snapshot.store().materialize(1));
+        assertEquals(2, meterRegistry.get("users.snapshot.size").gauge().value());
+        assertSame(snapshot, loader.latest());
+        verify(dummyJsonClient, times(1)).fetchAllUsers();
+    }
+
+    @Test
+    void load_Twice_ShouldIncreaseVersion() {
+        // Given
+        when(dummyJsonClient.fetchAllUsers()).thenReturn(response);
+
+        // When
+        UserSnapshot first = loader.load();
+        UserSnapshot second = loader.load();
+
+        // Then
+        assertTrue(second.version() > first.version());
+    }
+
+    @Test
+    void load_WithOffHeapStoreType_ShouldBuildOffHeapStore() {
+        // Given
+        loader = loader(UserStoreType.OFF_HEAP, SharedSnapshotMode.NONE, directory);
+        when(dummyJsonClient.fetchAllUsers()).thenReturn(response);
+
+        // When
+        UserSnapshot snapshot = loader.load();
+
+        // Then
+        assertInstanceOf(OffHeapUserStore.class, snapshot.store());
+        assertEquals(response.getUsers().get(0), snapshot.store().materialize(0));
+    }
+
+    @Test
+    void load_WhenUpstreamFails_ShouldPropagate() {
+        // Given
+        when(dummyJsonClient.fetchAllUsers()).thenThrow(new RuntimeException("External API is unreachable"));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> loader.load());
+        assertEquals(0, meterRegistry.get("users.snapshot.size").gauge().value());
+        assertNull(loader.latest());
+    }
+
+    @Test
+    void load_WithPeerSnapshot_ShouldUsePeerVersionAndSkipUpstream() {
+        // Given
+        CompactUserSnapshot peerStore = CompactUserSnapshot.from(response.getUsers());
+        when(peerSnapshotClient.hasPeers()).thenReturn(true);
+        when(peerSnapshotClient.fetchSnapshot(anyLong()))
+                .thenReturn(Optional.of(new SnapshotPayload(42L, SnapshotCodec.compress(peerStore))));
+
+        // When
+        long before = System.currentTimeMillis();
+        UserSnapshot snapshot = loader.load();
+
+        // Then
+        assertEquals(42L, snapshot.version());
+        assertEquals(response.getUsers().get(1), snapshot.store().materialize(1));
+        verify(peerSnapshotClient).fetchSnapshot(longThat(min -> min >= before - 300_000L
+                && min <= System.currentTimeMillis() - 300_000L));
+        verifyNoInteractions(dummyJsonClient);
+    }
+
+    @Test
+    void reload_ShouldSkipPeersAndLoadFromUpstream() {
+        // Given
+        when(dummyJsonClient.fetchAllUsers()).thenReturn(response);
+
+        // When
+        UserSnapshot snapshot = loader.reload();
+
+        // Then
+        assertEquals(2, snapshot.store().size());
+        assertSame(snapshot, loader.latest());
+        verifyNoInteractions(peerSnapshotClient);
+    }
+
+    @Test
+    void load_WithoutPeerSnapshot_ShouldFallBackToUpstream() {
+        // Given
+        when(peerSnapshotClient.hasPeers()).thenReturn(true);
+        when(peerSnapshotClient.fetchSnapshot(anyLong())).thenReturn(Optional.empty());
+        when(dummyJsonClient.fetchAllUsers()).thenReturn(response);
+
+        // When
+        UserSnapshot snapshot = loader.load();
+
+        // Then
+        assertEquals(2, snapshot.store().size());
+        verify(dummyJsonClient).fetchAllUsers();
+    }
+
+    @Test
+    void load_WithInvalidPeerSnapshot_ShouldFallBackToUpstream() {
+        // Given
+        when(peerSnapshotClient.hasPeers()).thenReturn(true);
+        when(peerSnapshotClient.fetchSnapshot(anyLong()))
+                .thenReturn(Optional.of(new SnapshotPayload(42L, new byte[] {1, 2, 3})));
+        when(dummyJsonClient.fetchAllUsers()).thenReturn(response);
+
+        // When
+        UserSnapshot snapshot = loader.load();
+
+        // Then
+        assertNotEquals(42L, snapshot.version());
+        verify(dummyJsonClient).fetchAllUsers();
+    }
+
+    @Test
+    void load_AsSharedSnapshotWriter_ShouldPublishAndServeMappedFile() throws Exception {
+        // Given
+        loader = loader(UserStoreType.HEAP, SharedSnapshotMode.WRITER, directory);
+        when(dummyJsonClient.fetchAllUsers()).thenReturn(response);
+
+        // When
+        UserSnapshot snapshot = loader.load();
+
+        // Then
+        assertInstanceOf(OffHeapUserStore.class, snapshot.store());
+        assertEquals(response.getUsers().get(0), snapshot.store().materialize(0));
+        assertEquals(Long.toString(snapshot.version()),
+                Files.readString(directory.resolve(SharedSnapshotFile.POINTER_FILE)));
+    }
+
+    @Test
+    void load_WhenSharedSnapshotCannotBePublished_ShouldServeLocalStore() throws Exception {
+        // Given
+        Path notADirectory = Files.createFile(directory.resolve("blocked"));
+        loader = loader(UserStoreType.HEAP, SharedSnapshotMode.WRITER, notADirectory);
+        when(dummyJsonClient.fetchAllUsers()).thenReturn(response);
+
+        // When
+        UserSnapshot snapshot = loader.load();
+
+        // Then
+        assertInstanceOf(CompactUserSnapshot.class, snapshot.store());
+        assertEquals(2, snapshot.store().size());
+    }
+
+    private UserSnapshotLoader loader(UserStoreType storeType, SharedSnapshotMode mode, Path sharedDirectory) {
+        UserMetrics userMetrics = new UserMetrics(meterRegistry);
+        SharedSnapshotFile sharedSnapshotFile = new SharedSnapshotFile(mode, sharedDirectory, Duration.ZERO,
+                Duration.ofMinutes(30), userMetrics);
+        return new UserSnapshotLoader(dummyJsonClient, peerSnapshotClient, userMetrics, storeType,
+                sharedSnapshotFile, Duration.ofMinutes(5));
+    }
+}
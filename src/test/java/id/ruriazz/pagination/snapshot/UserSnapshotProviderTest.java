@@ -0,0 +1,149 @@
+package id.ruriazz.pagination.snapshot;
+
+import id.ruriazz.pagination.exception.SnapshotVersionNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotProviderTest {
+
+    @Mock
+    private UserSnapshotLoader userSnapshotLoader;
+
+    @Mock
+    private SharedSnapshotFile sharedSnapshotFile;
+
+    @Mock
+    private UserSnapshotIndexer userSnapshotIndexer;
+
+    @InjectMocks
+    private UserSnapshotProvider provider;
+
+    private final UserSnapshot loaded = new UserSnapshot(1L, CompactUserSnapshot.from(List.of()));
+    private final UserSnapshot shared = new UserSnapshot(2L, CompactUserSnapshot.from(List.of()));
+
+    @Test
+    void currentSnapshot_WithoutSharedReader_ShouldUseLoader() {
+        // Given
+        when(sharedSnapshotFile.isReader()).thenReturn(false);
+        when(userSnapshotLoader.load()).thenReturn(loaded);
+        when(userSnapshotIndexer.serve(loaded)).thenReturn(loaded);
+
+        // When
+        UserSnapshot snapshot = provider.currentSnapshot();
+
+        // Then
+        assertSame(loaded, snapshot);
+        verify(sharedSnapshotFile, never()).current();
+    }
+
+    @Test
+    void currentSnapshot_AsSharedReader_ShouldServeSharedFile() {
+        // Given
+        when(sharedSnapshotFile.isReader()).thenReturn(true);
+        when(sharedSnapshotFile.current()).thenReturn(shared);
+        when(userSnapshotIndexer.serve(shared)).thenReturn(shared);
+
+        // When
+        UserSnapshot snapshot = provider.currentSnapshot();
+
+        // Then
+        assertSame(shared, snapshot);
+        verifyNoInteractions(userSnapshotLoader);
+    }
+
+    @Test
+    void currentSnapshot_AsSharedReaderBeforeFirstPublish_ShouldFallBackToLoader() {
+        // Given
+        when(sharedSnapshotFile.isReader()).thenReturn(true);
+        when(sharedSnapshotFile.current()).thenReturn(null);
+        when(userSnapshotLoader.load()).thenReturn(loaded);
+        when(userSnapshotIndexer.serve(loaded)).thenReturn(loaded);
+
+        // When
+        UserSnapshot snapshot = provider.currentSnapshot();
+
+        // Then
+        assertSame(loaded, snapshot);
+    }
+
+    @Test
+    void latestSnapshot_WithoutSharedReader_ShouldNotLoad() {
+        // Given
+        when(sharedSnapshotFile.isReader()).thenReturn(false);
+        when(userSnapshotLoader.latest()).thenReturn(loaded);
+
+        // When
+        UserSnapshot snapshot = provider.latestSnapshot();
+
+        // Then
+        assertSame(loaded, snapshot);
+        verify(userSnapshotLoader, never()).load();
+    }
+
+    @Test
+    void latestSnapshot_AsSharedReader_ShouldPreferSharedFile() {
+        // Given
+        when(sharedSnapshotFile.isReader()).thenReturn(true);
+        when(sharedSnapshotFile.current()).thenReturn(shared);
+
+        // When
+        UserSnapshot snapshot = provider.latestSnapshot();
+
+        // Then
+        assertSame(shared, snapshot);
+        verifyNoInteractions(userSnapshotLoader);
+    }
+
+    @Test
+    void snapshotAt_WithCurrentVersion_ShouldReturnCurrentSnapshot() {
+        // Given
+        when(sharedSnapshotFile.isReader()).thenReturn(false);
+        when(userSnapshotLoader.load()).thenReturn(loaded);
+        when(userSnapshotIndexer.serve(loaded)).thenReturn(loaded);
+
+        // When
+        UserSnapshot snapshot = provider.snapshotAt(1L);
+
+        // Then
+        assertSame(loaded, snapshot);
+        verify(userSnapshotIndexer, never()).find(anyLong());
+    }
+
+    @Test
+    void snapshotAt_WithRetainedVersion_ShouldReturnIt() {
+        // Given
+        when(sharedSnapshotFile.isReader()).thenReturn(false);
+        when(userSnapshotLoader.load()).thenReturn(shared);
+        when(userSnapshotIndexer.serve(shared)).thenReturn(shared);
+        when(userSnapshotIndexer.find(1L)).thenReturn(loaded);
+
+        // When
+        UserSnapshot snapshot = provider.snapshotAt(1L);
+
+        // Then
+        assertSame(loaded, snapshot);
+    }
+
+    @Test
+    void snapshotAt_WithUnknownVersion_ShouldThrow() {
+        // Given
+        when(sharedSnapshotFile.isReader()).thenReturn(false);
+        when(userSnapshotLoader.load()).thenReturn(loaded);
+        when(userSnapshotIndexer.serve(loaded)).thenReturn(loaded);
+
+        // When & Then
+        SnapshotVersionNotFoundException exception = assertThrows(SnapshotVersionNotFoundException.class,
+                () -> provider.snapshotAt(99L));
+        assertEquals("Snapshot version 99 is no longer available", exception.getMessage());
+    }
+}